@@ -217,7 +217,7 @@ public class TextClassifier extends BaseWrapper<TextClassifier.ModelParameters,
         
         Dataset testDataset = new Dataset(knowledgeBase.getDbConf());
         
-        testDataset.add(new Record(new AssociativeArray(textExtractor.extract(StringCleaner.clear(text))), null));
+        testDataset.add(new Record(new AssociativeArray(textExtractor.extractFeatures(StringCleaner.clear(text))), null));
         
         predict(testDataset);
         
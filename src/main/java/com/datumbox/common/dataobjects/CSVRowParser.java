@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.dataobjects;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts the rows of a CSV file to Records. The positions and the DataTypes
+ * of the columns are resolved once from the header of the file, so the cells
+ * of every row are accessed by index instead of by name. The objects are 
+ * immutable and they can be shared by many parsing threads.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+final class CSVRowParser {
+    
+    private final String[] xColumns;
+    
+    private final int[] xIndexes;
+    
+    private final TypeInference.DataType[] xDataTypes;
+    
+    private final int yIndex;
+    
+    private final TypeInference.DataType yDataType;
+    
+    /**
+     * Package-private constructor which resolves the columns of the provided
+     * DataTypes in the header of the file.
+     * 
+     * @param headerMap
+     * @param yVariable
+     * @param headerDataTypes 
+     */
+    CSVRowParser(Map<String, Integer> headerMap, String yVariable, Map<String, TypeInference.DataType> headerDataTypes) {
+        List<String> columns = new ArrayList<>(headerDataTypes.size());
+        int y = -1;
+        for (String column : headerDataTypes.keySet()) {
+            if (yVariable != null && yVariable.equals(column)) {
+                y = indexOf(headerMap, column);
+            }
+            else {
+                columns.add(column);
+            }
+        }
+        
+        xColumns = columns.toArray(new String[columns.size()]);
+        xIndexes = new int[xColumns.length];
+        xDataTypes = new TypeInference.DataType[xColumns.length];
+        for (int i = 0; i < xColumns.length; ++i) {
+            xIndexes[i] = indexOf(headerMap, xColumns[i]);
+            xDataTypes[i] = headerDataTypes.get(xColumns[i]);
+        }
+        yIndex = y;
+        yDataType = (y >= 0) ? headerDataTypes.get(yVariable) : null;
+    }
+    
+    /**
+     * Converts a row of the CSV file to a Record. It returns null if the row
+     * does not match the header.
+     * 
+     * @param row
+     * @return 
+     */
+    Record parse(CSVRecord row) {
+        if (!row.isConsistent()) {
+            LoggerFactory.getLogger(CSVRowParser.class).warn("WARNING: Skipping row {} because its size does not match the header size.", row.getRecordNumber());
+            return null;
+        }
+        
+        AssociativeArray xData = new AssociativeArray(new LinkedHashMap<Object, Object>(xColumns.length*4/3+1));
+        for (int i = 0; i < xColumns.length; ++i) {
+            xData.put(xColumns[i], TypeInference.DataType.parse(row.get(xIndexes[i]), xDataTypes[i])); //parse the string value according to the DataType
+        }
+        Object y = (yIndex >= 0) ? TypeInference.DataType.parse(row.get(yIndex), yDataType) : null;
+        
+        return Record.wrap(xData, y, null, null);
+    }
+    
+    private static int indexOf(Map<String, Integer> headerMap, String column) {
+        Integer index = headerMap.get(column);
+        if (index == null) {
+            throw new IllegalArgumentException(String.format("Mapping for %s not found, expected one of %s", column, headerMap.keySet()));
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,613 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.dataobjects;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The ColumnarRecordMap stores the Records of a Dataset by column instead of by
+ * row. The numerical columns are kept in double arrays, the boolean columns in
+ * bitsets and the categorical and ordinal columns as int codes of a dictionary,
+ * while the null and the missing values are marked in bitmaps. The Records are 
+ * rebuilt from the columns every time they are requested, so they are views of
+ * the stored values and modifying them does not change the Dataset. The ids of
+ * the Records must be assigned sequentially, as the Dataset does.
+ * 
+ * It is suitable for dense data where most of the Records have the same 
+ * columns; sparse data, such as the keywords of text documents, should be 
+ * stored by row.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+final class ColumnarRecordMap extends AbstractMap<Integer, Record> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * The base class of the columns. It keeps the bitmaps of the null and the 
+     * missing values, while the subclasses store the rest of the values.
+     */
+    private static abstract class Column implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        /* The rows which have a null value */
+        private final BitSet nulls = new BitSet();
+        
+        /* The rows which do not contain the column */
+        private final BitSet missing = new BitSet();
+        
+        /**
+         * Checks if the non-null value can be stored in the column.
+         * 
+         * @param value
+         * @return 
+         */
+        protected abstract boolean accepts(Object value);
+        
+        /**
+         * Stores a non-null value which is accepted by the column.
+         * 
+         * @param row
+         * @param value 
+         */
+        protected abstract void setValue(int row, Object value);
+        
+        /**
+         * Returns the non-null value of the row.
+         * 
+         * @param row
+         * @return 
+         */
+        protected abstract Object getValue(int row);
+        
+        /**
+         * Returns the non-null value of the row as double.
+         * 
+         * @param row
+         * @return 
+         */
+        protected double getDoubleValue(int row) {
+            return TypeInference.toDouble(getValue(row));
+        }
+        
+        private boolean contains(int row) {
+            return !missing.get(row);
+        }
+        
+        private boolean hasValue(int row) {
+            return !(missing.get(row) || nulls.get(row));
+        }
+        
+        private Object get(int row) {
+            return hasValue(row)?getValue(row):null;
+        }
+        
+        private double getDouble(int row) {
+            return hasValue(row)?getDoubleValue(row):Double.NaN;
+        }
+        
+        private void set(int row, Object value) {
+            missing.clear(row);
+            if(value==null) {
+                nulls.set(row);
+            }
+            else {
+                nulls.clear(row);
+                setValue(row, value);
+            }
+        }
+        
+        private void setMissing(int row) {
+            missing.set(row);
+            nulls.clear(row);
+        }
+    }
+    
+    /**
+     * Column which has not received any non-null value yet.
+     */
+    private static final class NullColumn extends Column {
+        private static final long serialVersionUID = 1L;
+        
+        @Override
+        protected boolean accepts(Object value) {
+            return false;
+        }
+        
+        @Override
+        protected void setValue(int row, Object value) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        protected Object getValue(int row) {
+            throw new UnsupportedOperationException();
+        }
+    }
+    
+    /**
+     * Column of numbers of the same class, stored as doubles.
+     */
+    private static final class NumericColumn extends Column {
+        private static final long serialVersionUID = 1L;
+        
+        private static final long MAX_EXACT_LONG = 1L<<53;
+        
+        private final Class<?> numberClass;
+        
+        private double[] values = new double[0];
+        
+        private NumericColumn(Class<?> numberClass) {
+            this.numberClass = numberClass;
+        }
+        
+        private static boolean supports(Object value) {
+            Class<?> klass = value.getClass();
+            return klass==Double.class || klass==Integer.class || klass==Float.class || 
+                   klass==Byte.class || (klass==Long.class && Math.abs((Long)value)<=MAX_EXACT_LONG);
+        }
+        
+        @Override
+        protected boolean accepts(Object value) {
+            return value.getClass()==numberClass && supports(value);
+        }
+        
+        @Override
+        protected void setValue(int row, Object value) {
+            if(row>=values.length) {
+                values = Arrays.copyOf(values, newCapacity(values.length, row));
+            }
+            values[row] = ((Number)value).doubleValue();
+        }
+        
+        @Override
+        protected Object getValue(int row) {
+            double v = values[row];
+            if(numberClass==Double.class) {
+                return v;
+            }
+            else if(numberClass==Integer.class) {
+                return (int)v;
+            }
+            else if(numberClass==Long.class) {
+                return (long)v;
+            }
+            else if(numberClass==Float.class) {
+                return (float)v;
+            }
+            else {
+                return (byte)v;
+            }
+        }
+        
+        @Override
+        protected double getDoubleValue(int row) {
+            return values[row];
+        }
+    }
+    
+    /**
+     * Column of booleans, stored in a bitset.
+     */
+    private static final class BooleanColumn extends Column {
+        private static final long serialVersionUID = 1L;
+        
+        private final BitSet values = new BitSet();
+        
+        @Override
+        protected boolean accepts(Object value) {
+            return value instanceof Boolean;
+        }
+        
+        @Override
+        protected void setValue(int row, Object value) {
+            values.set(row, (Boolean)value);
+        }
+        
+        @Override
+        protected Object getValue(int row) {
+            return values.get(row);
+        }
+        
+        @Override
+        protected double getDoubleValue(int row) {
+            return values.get(row)?1.0:0.0;
+        }
+    }
+    
+    /**
+     * Column of categorical or ordinal values, stored as the int codes of a 
+     * dictionary.
+     */
+    private static final class DictionaryColumn extends Column {
+        private static final long serialVersionUID = 1L;
+        
+        private final Map<Object, Integer> codes = new HashMap<>();
+        
+        private final List<Object> dictionary = new ArrayList<>();
+        
+        private int[] values = new int[0];
+        
+        @Override
+        protected boolean accepts(Object value) {
+            return true;
+        }
+        
+        @Override
+        protected void setValue(int row, Object value) {
+            Integer code = codes.get(value);
+            if(code==null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                codes.put(value, code);
+            }
+            if(row>=values.length) {
+                values = Arrays.copyOf(values, newCapacity(values.length, row));
+            }
+            values[row] = code;
+        }
+        
+        @Override
+        protected Object getValue(int row) {
+            return dictionary.get(values[row]);
+        }
+    }
+    
+    /**
+     * Column of arbitrary objects. It is used when the values of a column have
+     * mixed types.
+     */
+    private static final class ObjectColumn extends Column {
+        private static final long serialVersionUID = 1L;
+        
+        private final List<Object> values = new ArrayList<>();
+        
+        @Override
+        protected boolean accepts(Object value) {
+            return true;
+        }
+        
+        @Override
+        protected void setValue(int row, Object value) {
+            while(values.size()<=row) {
+                values.add(null);
+            }
+            values.set(row, value);
+        }
+        
+        @Override
+        protected Object getValue(int row) {
+            return values.get(row);
+        }
+    }
+    
+    private final Map<Object, Column> columns = new LinkedHashMap<>();
+    
+    private Column y = new NullColumn();
+    
+    private Column yPredicted = new NullColumn();
+    
+    private final List<AssociativeArray> yPredictedProbabilities = new ArrayList<>();
+    
+    private int size = 0;
+    
+    /**
+     * Package-private constructor used by the Dataset.
+     */
+    ColumnarRecordMap() {
+    
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return toRow(key)>=0;
+    }
+    
+    /**
+     * Rebuilds the Record of the provided id from the columns.
+     * 
+     * @param key
+     * @return 
+     */
+    @Override
+    public synchronized Record get(Object key) {
+        int row = toRow(key);
+        if(row<0) {
+            return null;
+        }
+        
+        AssociativeArray x = new AssociativeArray();
+        for(Map.Entry<Object, Column> entry : columns.entrySet()) {
+            Column column = entry.getValue();
+            if(column.contains(row)) {
+                x.put(entry.getKey(), column.get(row));
+            }
+        }
+        
+        AssociativeArray probabilities = (row<yPredictedProbabilities.size())?yPredictedProbabilities.get(row):null;
+        return Record.wrap(x, y.get(row), yPredicted.get(row), probabilities); //the probabilities are replaced and never modified by put()
+    }
+    
+    /**
+     * Stores the Record in the columns. The id must either belong to an 
+     * existing Record or be equal to the number of Records.
+     * 
+     * @param key
+     * @param r
+     * @return 
+     */
+    @Override
+    public synchronized Record put(Integer key, Record r) {
+        int row = key;
+        if(row<0 || row>size) {
+            throw new IndexOutOfBoundsException("The ids of the Records must be sequential.");
+        }
+        Record previous = (row<size)?get(key):null;
+        
+        AssociativeArray x = r.getX();
+        for(Map.Entry<Object, Object> entry : x.entrySet()) {
+            Object name = entry.getKey();
+            Column column = columns.get(name);
+            if(column==null) {
+                column = new NullColumn();
+                column.missing.set(0, size); //the previous Records do not contain the new column
+            }
+            columns.put(name, store(column, row, entry.getValue()));
+        }
+        for(Map.Entry<Object, Column> entry : columns.entrySet()) {
+            if(!x.containsKey(entry.getKey())) {
+                entry.getValue().setMissing(row);
+            }
+        }
+        
+        y = store(y, row, r.getY());
+        yPredicted = store(yPredicted, row, r.getYPredicted());
+        
+        AssociativeArray probabilities = r.getYPredictedProbabilities();
+        if(probabilities!=null) {
+            while(yPredictedProbabilities.size()<=row) {
+                yPredictedProbabilities.add(null);
+            }
+            yPredictedProbabilities.set(row, probabilities.copy());
+        }
+        else if(row<yPredictedProbabilities.size()) {
+            yPredictedProbabilities.set(row, null);
+        }
+        
+        if(row==size) {
+            ++size;
+        }
+        return previous;
+    }
+    
+    /**
+     * The Records can not be removed individually.
+     * 
+     * @param key
+     * @return 
+     */
+    @Override
+    public Record remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clear() {
+        columns.clear();
+        y = new NullColumn();
+        yPredicted = new NullColumn();
+        yPredictedProbabilities.clear();
+        size = 0;
+    }
+    
+    /**
+     * Returns a view of the ids and the Records, which are rebuilt while 
+     * iterating.
+     * 
+     * @return 
+     */
+    @Override
+    public Set<Map.Entry<Integer, Record>> entrySet() {
+        return new AbstractSet<Map.Entry<Integer, Record>>() {
+            @Override
+            public int size() {
+                return ColumnarRecordMap.this.size();
+            }
+            
+            @Override
+            public Iterator<Map.Entry<Integer, Record>> iterator() {
+                return new Iterator<Map.Entry<Integer, Record>>() {
+                    private int row = 0;
+                    
+                    @Override
+                    public boolean hasNext() {
+                        return row<ColumnarRecordMap.this.size();
+                    }
+                    
+                    @Override
+                    public Map.Entry<Integer, Record> next() {
+                        if(!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Integer id = row++;
+                        return new AbstractMap.SimpleImmutableEntry<>(id, get(id));
+                    }
+                    
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+    
+    /**
+     * Returns the values of an X column; the missing values are returned as
+     * nulls.
+     * 
+     * @param name
+     * @return 
+     */
+    synchronized List<Object> getXValues(Object name) {
+        return getValues(columns.get(name));
+    }
+    
+    /**
+     * Returns the values of the response variable.
+     * 
+     * @return 
+     */
+    synchronized List<Object> getYValues() {
+        return getValues(y);
+    }
+    
+    /**
+     * Returns the values of an X column as doubles; the null and missing values
+     * are returned as NaN.
+     * 
+     * @param name
+     * @return 
+     */
+    synchronized double[] getXDoubleValues(Object name) {
+        return getDoubleValues(columns.get(name));
+    }
+    
+    /**
+     * Returns the values of the response variable as doubles; the null values
+     * are returned as NaN.
+     * 
+     * @return 
+     */
+    synchronized double[] getYDoubleValues() {
+        return getDoubleValues(y);
+    }
+    
+    /**
+     * Removes the provided columns from all the Records.
+     * 
+     * @param names 
+     */
+    synchronized void removeColumns(Collection<Object> names) {
+        columns.keySet().removeAll(names);
+    }
+    
+    private int toRow(Object key) {
+        if(key instanceof Integer) {
+            int row = (Integer)key;
+            if(row>=0 && row<size) {
+                return row;
+            }
+        }
+        return -1;
+    }
+    
+    private Column store(Column column, int row, Object value) {
+        if(value!=null && !column.accepts(value)) {
+            column = convert(column, value);
+        }
+        column.set(row, value);
+        return column;
+    }
+    
+    private Column convert(Column column, Object value) {
+        boolean hasValues = false;
+        for(int row=0;row<size;++row) {
+            if(column.hasValue(row)) {
+                hasValues = true;
+                break;
+            }
+        }
+        
+        //a column keeps its type until it receives a value of a different type
+        Column newColumn;
+        if(hasValues) {
+            newColumn = new ObjectColumn();
+        }
+        else if(value instanceof Boolean) {
+            newColumn = new BooleanColumn();
+        }
+        else if(TypeInference.getDataType(value)==TypeInference.DataType.NUMERICAL && NumericColumn.supports(value)) {
+            newColumn = new NumericColumn(value.getClass());
+        }
+        else if(TypeInference.getDataType(value)==TypeInference.DataType.NUMERICAL) {
+            newColumn = new ObjectColumn();
+        }
+        else {
+            newColumn = new DictionaryColumn();
+        }
+        
+        for(int row=0;row<size;++row) {
+            if(column.contains(row)) {
+                newColumn.set(row, column.get(row));
+            }
+            else {
+                newColumn.setMissing(row);
+            }
+        }
+        return newColumn;
+    }
+    
+    private List<Object> getValues(Column column) {
+        List<Object> values = new ArrayList<>(size);
+        for(int row=0;row<size;++row) {
+            values.add((column!=null)?column.get(row):null);
+        }
+        return values;
+    }
+    
+    private double[] getDoubleValues(Column column) {
+        if(column instanceof NumericColumn && column.nulls.isEmpty() && column.missing.isEmpty()) {
+            return Arrays.copyOf(((NumericColumn)column).values, size);
+        }
+        
+        double[] values = new double[size];
+        for(int row=0;row<size;++row) {
+            values[row] = (column!=null)?column.getDouble(row):Double.NaN;
+        }
+        return values;
+    }
+    
+    private static int newCapacity(int capacity, int row) {
+        return Math.max(Math.max(row+1, 16), capacity+(capacity>>1));
+    }
+}
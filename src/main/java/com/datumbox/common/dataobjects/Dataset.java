@@ -17,6 +17,7 @@ package com.datumbox.common.dataobjects;
 
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import com.datumbox.common.utilities.ReadAheadIterator;
 import com.datumbox.framework.utilities.text.cleaners.StringCleaner;
 import com.datumbox.framework.utilities.text.extractors.TextExtractor;
 import java.io.BufferedReader;
@@ -27,12 +28,23 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.Serializable;
 import java.net.URI;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
@@ -59,6 +71,16 @@ public final class Dataset implements Serializable, Iterable<Integer> {
      */
     public static final String constantColumnName = "~CONSTANT";
     
+    /**
+     * The number of Records which are read together by the read-ahead scans.
+     */
+    private static final int READ_AHEAD_BATCH_SIZE = 1024;
+    
+    /**
+     * The number of batches which are read ahead by the scans.
+     */
+    private static final int READ_AHEAD_BATCHES = 4;
+    
     /**
      * The Builder is a utility class which can help you build Dataset from
      * Text files and CSV files.
@@ -84,6 +106,25 @@ public final class Dataset implements Serializable, Iterable<Integer> {
          * @return 
          */
         public static Dataset parseTextFiles(Map<Object, URI> textFilesMap, TextExtractor textExtractor, DatabaseConfiguration dbConf) {
+            return parseTextFiles(textFilesMap, textExtractor, dbConf, false);
+        }
+        
+        /**
+         * 根据给定的一系列文本文件构造一个数据集，可选择稀疏记录<br>
+         * It builds a Dataset object from a provided list of text files, as the
+         * parseTextFiles() method above. If sparse is true, the keywords of 
+         * every document are stored in a SparseVector which uses the 
+         * FeatureIndex of the Dataset; in that case the TextExtractor must 
+         * return Double scores, as the NgramsExtractor does, otherwise an 
+         * IllegalArgumentException is thrown.
+         * 
+         * @param textFilesMap
+         * @param textExtractor
+         * @param dbConf
+         * @param sparse
+         * @return 
+         */
+        public static Dataset parseTextFiles(Map<Object, URI> textFilesMap, TextExtractor textExtractor, DatabaseConfiguration dbConf, boolean sparse) {
             Dataset dataset = new Dataset(dbConf);
             Logger logger = LoggerFactory.getLogger(Dataset.Builder.class);
             
@@ -95,7 +136,13 @@ public final class Dataset implements Serializable, Iterable<Integer> {
                 
                 try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(new File(datasetURI)), "UTF8"))) {
                     for (String line; (line = br.readLine()) != null;) {
-                        dataset.add(new Record(new AssociativeArray(textExtractor.extract(StringCleaner.clear(line))), theClass));
+                        AssociativeArray xData = new AssociativeArray(textExtractor.extractFeatures(StringCleaner.clear(line)));
+                        if(sparse) {
+                            dataset.add(new Record(new SparseVector(xData, dataset.getFeatureIndex()), theClass));
+                        }
+                        else {
+                            dataset.add(Record.wrap(xData, theClass, null, null));
+                        }
                     }
                 } 
                 catch (IOException ex) {
@@ -129,6 +176,56 @@ public final class Dataset implements Serializable, Iterable<Integer> {
          */
         public static Dataset parseCSVFile(Reader reader, String yVariable, Map<String, TypeInference.DataType> headerDataTypes, 
                                            char delimiter, char quote, String recordSeparator, DatabaseConfiguration dbConf) {
+            return parseCSVFile(reader, yVariable, headerDataTypes, delimiter, quote, recordSeparator, dbConf, false);
+        }
+        
+        /**
+         * 从CSV文件构造数据集，可选择列式存储<br>
+         * It builds a Dataset object from a CSV file, as the parseCSVFile() method
+         * above. If columnar is true, the Records are stored by column in 
+         * primitive arrays (see Dataset(DatabaseConfiguration, boolean)).
+         * 
+         * @param reader
+         * @param yVariable
+         * @param headerDataTypes
+         * @param delimiter
+         * @param quote
+         * @param recordSeparator
+         * @param dbConf
+         * @param columnar
+         * @return 
+         */
+        public static Dataset parseCSVFile(Reader reader, String yVariable, Map<String, TypeInference.DataType> headerDataTypes, 
+                                           char delimiter, char quote, String recordSeparator, DatabaseConfiguration dbConf, boolean columnar) {
+            return parseCSVFile(reader, yVariable, headerDataTypes, delimiter, quote, recordSeparator, dbConf, columnar, 1);
+        }
+        
+        /**
+         * 多线程从CSV文件构造数据集<br>
+         * It builds a Dataset object from a CSV file, as the parseCSVFile() method
+         * above, by using the provided number of threads. The calling thread 
+         * reads the rows of the file and splits them in chunks which are 
+         * converted to Records by a pool of parsing threads. The parsed chunks
+         * are added in the Dataset in batches and in the order of the file, so
+         * the result is the same as the one of the single threaded parsing.
+         * 
+         * @param reader
+         * @param yVariable
+         * @param headerDataTypes
+         * @param delimiter
+         * @param quote
+         * @param recordSeparator
+         * @param dbConf
+         * @param columnar
+         * @param threads
+         * @return 
+         */
+        public static Dataset parseCSVFile(Reader reader, String yVariable, Map<String, TypeInference.DataType> headerDataTypes, 
+                                           char delimiter, char quote, String recordSeparator, DatabaseConfiguration dbConf, boolean columnar, int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("The number of threads must be positive.");
+            }
+            
             Logger logger = LoggerFactory.getLogger(Dataset.Builder.class);
             
             logger.info("Parsing CSV file");
@@ -140,7 +237,7 @@ public final class Dataset implements Serializable, Iterable<Integer> {
             TypeInference.DataType yDataType = headerDataTypes.get(yVariable);
             Map<String, TypeInference.DataType> xDataTypes = new HashMap<>(headerDataTypes); //copy header types
             xDataTypes.remove(yVariable); //remove the response variable from xDataTypes
-            Dataset dataset = new Dataset(dbConf, yDataType, xDataTypes); //use the private constructor to pass DataTypes directly and avoid updating them on the fly
+            Dataset dataset = new Dataset(dbConf, columnar, yDataType, xDataTypes); //use the private constructor to pass DataTypes directly and avoid updating them on the fly
             
             
             CSVFormat format = CSVFormat
@@ -151,28 +248,17 @@ public final class Dataset implements Serializable, Iterable<Integer> {
                                 .withRecordSeparator(recordSeparator);
             
             try (final CSVParser parser = new CSVParser(reader, format)) {                    
-                for (CSVRecord row : parser) {
-                    
-                    if (!row.isConsistent()) {
-                        logger.warn("WARNING: Skipping row {} because its size does not match the header size.", row.getRecordNumber());
-                        continue;
-                    }
-                    
-                    Object y = null;
-                    AssociativeArray xData = new AssociativeArray();
-                    for (Map.Entry<String, TypeInference.DataType> entry : headerDataTypes.entrySet()) {
-                        String column = entry.getKey();
-                        TypeInference.DataType dataType = entry.getValue();
-                        
-                        Object value = TypeInference.DataType.parse(row.get(column), dataType); //parse the string value according to the DataType
-                        if (yVariable != null && yVariable.equals(column)) {
-                            y = value;
-                        } 
-                        else {
-                            xData.put(column, value);
+                CSVRowParser rowParser = new CSVRowParser(parser.getHeaderMap(), yVariable, headerDataTypes);
+                if (threads == 1) {
+                    for (CSVRecord row : parser) {
+                        Record r = rowParser.parse(row);
+                        if (r != null) {
+                            dataset._add(r); //use the internal _add() to avoid the update of the Metas. The Metas are already set in the construction of the Dataset.
                         }
                     }
-                    dataset._add(new Record(xData, y)); //use the internal _add() to avoid the update of the Metas. The Metas are already set in the construction of the Dataset.
+                }
+                else {
+                    parseCSVRows(parser, rowParser, dataset, threads);
                 }
             } 
             catch (IOException ex) {
@@ -181,6 +267,140 @@ public final class Dataset implements Serializable, Iterable<Integer> {
             }
             return dataset;
         }
+        
+        /**
+         * Parses the rows of the CSV file in chunks by using a pool of threads 
+         * and adds the Records in the Dataset in the order of the file. The 
+         * number of pending chunks is bounded, so the reading of the file waits
+         * for the parsing threads.
+         * 
+         * @param parser
+         * @param rowParser
+         * @param dataset
+         * @param threads 
+         */
+        private static void parseCSVRows(CSVParser parser, final CSVRowParser rowParser, Dataset dataset, int threads) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Dataset-CSVParser");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            try {
+                Deque<Future<List<Record>>> pending = new ArrayDeque<>();
+                List<CSVRecord> chunk = new ArrayList<>(READ_AHEAD_BATCH_SIZE);
+                Iterator<CSVRecord> rows = parser.iterator();
+                while (rows.hasNext()) {
+                    chunk.add(rows.next());
+                    if (chunk.size() == READ_AHEAD_BATCH_SIZE || !rows.hasNext()) {
+                        final List<CSVRecord> chunkRows = chunk;
+                        pending.add(executor.submit(new Callable<List<Record>>() {
+                            @Override
+                            public List<Record> call() {
+                                List<Record> records = new ArrayList<>(chunkRows.size());
+                                for (CSVRecord row : chunkRows) {
+                                    Record r = rowParser.parse(row);
+                                    if (r != null) {
+                                        records.add(r);
+                                    }
+                                }
+                                return records;
+                            }
+                        }));
+                        chunk = new ArrayList<>(READ_AHEAD_BATCH_SIZE);
+                        
+                        if (pending.size() >= 2*threads) {
+                            dataset._addAll(pending.poll().get());
+                        }
+                    }
+                }
+                while (!pending.isEmpty()) {
+                    dataset._addAll(pending.poll().get());
+                }
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                dataset.erase();
+                throw new RuntimeException(ex);
+            }
+            catch (ExecutionException ex) {
+                dataset.erase();
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException)ex.getCause();
+                }
+                throw new RuntimeException(ex.getCause());
+            }
+            finally {
+                executor.shutdownNow();
+            }
+        }
+        
+        /**
+         * 从CSV文件构造流式数据集<br>
+         * It builds a streaming Dataset from a CSV file, which takes the same
+         * arguments as the parseCSVFile() method. The file must be encoded in
+         * UTF-8. The Records are not stored; the file is parsed again in chunks
+         * every time the Dataset is scanned, so that the memory used does not 
+         * depend on its size. The streaming Datasets can not be extended and 
+         * they should be scanned in the order of their ids, so they are 
+         * suitable for the models which only read their training data. The 
+         * Records can be replaced (for example by predict() and validate()), 
+         * in which case the replacements are stored in a BigMap. The number 
+         * of Records is counted the first time it is requested, unless a 
+         * previous pass has counted them.
+         * 
+         * @param csvFile
+         * @param yVariable
+         * @param headerDataTypes
+         * @param delimiter
+         * @param quote
+         * @param recordSeparator
+         * @param dbConf
+         * @return 
+         */
+        public static Dataset streamCSVFile(URI csvFile, String yVariable, Map<String, TypeInference.DataType> headerDataTypes, 
+                                            char delimiter, char quote, String recordSeparator, DatabaseConfiguration dbConf) {
+            Logger logger = LoggerFactory.getLogger(Dataset.Builder.class);
+            
+            if (!headerDataTypes.containsKey(yVariable)) {
+                logger.warn("WARNING: The file is missing the response variable column {}.", yVariable);
+            }
+            
+            Dataset dataset = new Dataset(dbConf, new StreamingRecordMap.CSVSource(csvFile, yVariable, headerDataTypes, delimiter, quote, recordSeparator));
+            dataset.yDataType = headerDataTypes.get(yVariable);
+            for (Map.Entry<String, TypeInference.DataType> entry : headerDataTypes.entrySet()) {
+                if (!entry.getKey().equals(yVariable)) {
+                    dataset.xDataTypes.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return dataset;
+        }
+        
+        /**
+         * 从文本文件构造流式数据集<br>
+         * It builds a streaming Dataset from a provided list of text files, as
+         * the parseTextFiles() method. The files must be encoded in UTF-8 and
+         * they are read once by this method to estimate the Meta data. The 
+         * Records are not stored; the files are parsed again in chunks every 
+         * time the Dataset is scanned (see streamCSVFile()).
+         * 
+         * @param textFilesMap
+         * @param textExtractorClass
+         * @param textExtractorParameters
+         * @param dbConf
+         * @return 
+         */
+        public static Dataset streamTextFiles(Map<Object, URI> textFilesMap, Class<? extends TextExtractor> textExtractorClass, TextExtractor.Parameters textExtractorParameters, DatabaseConfiguration dbConf) {
+            Dataset dataset = new Dataset(dbConf, new StreamingRecordMap.TextSource(textFilesMap, textExtractorClass, textExtractorParameters));
+            
+            LoggerFactory.getLogger(Dataset.Builder.class).info("Scanning the text files");
+            for (Map.Entry<Integer, Record> e : dataset.entries()) {
+                dataset.updateMeta(e.getValue());
+            }
+            return dataset;
+        }
 
     }    
     
@@ -190,6 +410,8 @@ public final class Dataset implements Serializable, Iterable<Integer> {
     /* Stores columnName=> DataType */
     private Map<Object, TypeInference.DataType> xDataTypes;
     
+    private FeatureIndex featureIndex;
+    
     private String dbName;
     private transient DatabaseConnector dbc;
     private transient DatabaseConfiguration dbConf;
@@ -200,13 +422,49 @@ public final class Dataset implements Serializable, Iterable<Integer> {
      * @param dbConf 
      */
     public Dataset(DatabaseConfiguration dbConf) {
+        this(dbConf, false);
+    }
+    
+    /**
+     * 可选择列式存储的构造函数<br>
+     * Public constructor which selects the storage of the Records. If columnar
+     * is false, the Records are stored by row in a BigMap of the storage engine.
+     * If it is true, they are stored by column on the heap: the numerical 
+     * columns in double arrays, the boolean columns in bitsets and the 
+     * categorical and ordinal columns as dictionary codes. The columnar storage 
+     * needs a fraction of the memory for dense data and speeds up the column 
+     * scans, while the returned Records are rebuilt from the columns on every
+     * access.
+     * 
+     * @param dbConf
+     * @param columnar 
+     */
+    public Dataset(DatabaseConfiguration dbConf, boolean columnar) {
         //we dont need to have a unique name, because it is not used by the connector on the current implementations
         //dbName = "dts_"+new BigInteger(130, RandomGenerator.getThreadLocalRandom()).toString(32);
         dbName = "dts";
         
         this.dbConf = dbConf;
         dbc = this.dbConf.getConnector(dbName);
-        recordList = dbc.getBigMap("tmp_recordList", true);
+        recordList = columnar?new ColumnarRecordMap():dbc.<Integer, Record>getBigMap("tmp_recordList", true);
+        
+        yDataType = null;
+        xDataTypes = dbc.getBigMap("tmp_xColumnTypes", true);
+    }
+    
+    /**
+     * Private constructor used by the Builder inner static class to build the
+     * streaming Datasets.
+     * 
+     * @param dbConf
+     * @param source 
+     */
+    private Dataset(DatabaseConfiguration dbConf, StreamingRecordMap.Source source) {
+        dbName = "dts";
+        
+        this.dbConf = dbConf;
+        dbc = this.dbConf.getConnector(dbName);
+        recordList = new StreamingRecordMap(source, READ_AHEAD_BATCH_SIZE, dbc.<Integer, Record>getBigMap("tmp_replacedRecords", true));
         
         yDataType = null;
         xDataTypes = dbc.getBigMap("tmp_xColumnTypes", true);
@@ -216,11 +474,12 @@ public final class Dataset implements Serializable, Iterable<Integer> {
      * Private constructor used by the Builder inner static class.
      * 
      * @param dbConf
+     * @param columnar
      * @param yDataType
      * @param xDataTypes 
      */
-    private Dataset(DatabaseConfiguration dbConf, TypeInference.DataType yDataType, Map<String, TypeInference.DataType> xDataTypes) {
-        this(dbConf);
+    private Dataset(DatabaseConfiguration dbConf, boolean columnar, TypeInference.DataType yDataType, Map<String, TypeInference.DataType> xDataTypes) {
+        this(dbConf, columnar);
         this.yDataType = yDataType;
         this.xDataTypes.putAll(xDataTypes);
     }
@@ -243,6 +502,42 @@ public final class Dataset implements Serializable, Iterable<Integer> {
         return Collections.unmodifiableMap(xDataTypes);
     }
     
+    /**
+     * 获取特征字典<br>
+     * Returns the FeatureIndex of the Dataset, which should be used to build 
+     * the SparseVectors of its Records. The subsets and the copies of the 
+     * Dataset share the same FeatureIndex.
+     * 
+     * @return 
+     */
+    public FeatureIndex getFeatureIndex() {
+        if(featureIndex==null) {
+            featureIndex = new FeatureIndex();
+        }
+        return featureIndex;
+    }
+    
+    /**
+     * Checks if the Records are stored by column.
+     * 
+     * @return 
+     */
+    public boolean isColumnar() {
+        return recordList instanceof ColumnarRecordMap;
+    }
+    
+    /**
+     * 检查是否为流式数据集<br>
+     * Checks if the Records are read from the underlying files every time they
+     * are scanned (see Builder.streamCSVFile()). The streaming Datasets can
+     * not be extended.
+     * 
+     * @return 
+     */
+    public boolean isStreaming() {
+        return recordList instanceof StreamingRecordMap;
+    }
+    
     /**
      * Returns the total number of columns on the internalDataset.
      * 
@@ -278,6 +573,10 @@ public final class Dataset implements Serializable, Iterable<Integer> {
      * @return 
      */
     public FlatDataList extractXColumnValues(Object column) {
+        if(isColumnar()) {
+            return new FlatDataList(((ColumnarRecordMap)recordList).getXValues(column));
+        }
+        
         FlatDataList flatDataList = new FlatDataList();
         
         for(Integer rId : this) {
@@ -295,6 +594,10 @@ public final class Dataset implements Serializable, Iterable<Integer> {
      * @return 
      */
     public FlatDataList extractYValues() {
+        if(isColumnar()) {
+            return new FlatDataList(((ColumnarRecordMap)recordList).getYValues());
+        }
+        
         FlatDataList flatDataList = new FlatDataList();
         
         for(Integer rId : this) {
@@ -305,6 +608,47 @@ public final class Dataset implements Serializable, Iterable<Integer> {
         return flatDataList;
     }
     
+    /**
+     * 提取某一列的数值<br>
+     * It extracts the values of a particular column from all records as doubles.
+     * The missing and null values are returned as NaN. On columnar Datasets the
+     * values are copied directly from the column.
+     * 
+     * @param column
+     * @return 
+     */
+    public double[] extractXColumnDoubleValues(Object column) {
+        if(isColumnar()) {
+            return ((ColumnarRecordMap)recordList).getXDoubleValues(column);
+        }
+        
+        double[] values = new double[recordList.size()];
+        for(Integer rId : this) {
+            Double value = TypeInference.toDouble(recordList.get(rId).getX().get(column));
+            values[rId] = (value!=null)?value:Double.NaN;
+        }
+        return values;
+    }
+    
+    /**
+     * It extracts the values of the response variable from all observations as
+     * doubles. The null values are returned as NaN.
+     * 
+     * @return 
+     */
+    public double[] extractYDoubleValues() {
+        if(isColumnar()) {
+            return ((ColumnarRecordMap)recordList).getYDoubleValues();
+        }
+        
+        double[] values = new double[recordList.size()];
+        for(Integer rId : this) {
+            Double value = TypeInference.toDouble(recordList.get(rId).getY());
+            values[rId] = (value!=null)?value:Double.NaN;
+        }
+        return values;
+    }
+    
     /**
      * It extracts the values of a particular column and groups them by the 
      * Response variable Y. This method is usually used when we 
@@ -317,6 +661,19 @@ public final class Dataset implements Serializable, Iterable<Integer> {
     public TransposeDataList extractXColumnValuesByY(Object column) {
         TransposeDataList transposeDataList = new TransposeDataList();
         
+        if(isColumnar()) {
+            List<Object> xValues = ((ColumnarRecordMap)recordList).getXValues(column);
+            List<Object> yValues = ((ColumnarRecordMap)recordList).getYValues();
+            for(int i=0;i<xValues.size();++i) {
+                Object y = yValues.get(i);
+                if(!transposeDataList.containsKey(y)) {
+                    transposeDataList.put(y, new FlatDataList(new ArrayList<>()) );
+                }
+                transposeDataList.get(y).add(xValues.get(i));
+            }
+            return transposeDataList;
+        }
+        
         for(Integer rId : this) {
             Record r = recordList.get(rId);   
             if(!transposeDataList.containsKey(r.getY())) {
@@ -339,7 +696,8 @@ public final class Dataset implements Serializable, Iterable<Integer> {
      * @return 
      */
     public Dataset generateNewSubset(FlatDataList idsCollection) {
-        Dataset d = new Dataset(dbConf);
+        Dataset d = new Dataset(dbConf, isColumnar());
+        d.featureIndex = featureIndex;
         
         for(Object id : idsCollection) {
             d.add(recordList.get((Integer)id)); 
@@ -353,7 +711,8 @@ public final class Dataset implements Serializable, Iterable<Integer> {
      * @return 
      */
     public Dataset copy() {
-        Dataset d = new Dataset(dbConf);
+        Dataset d = new Dataset(dbConf, isColumnar());
+        d.featureIndex = featureIndex;
         
         for(Integer rId : this) {
             d.add(recordList.get(rId)); 
@@ -386,6 +745,11 @@ public final class Dataset implements Serializable, Iterable<Integer> {
         
         //remove all the columns from the Meta data
         xDataTypes.keySet().removeAll(columnSet);
+        
+        if(isColumnar()) {
+            ((ColumnarRecordMap)recordList).removeColumns(columnSet);
+            return;
+        }
 
         for(Integer rId : this) {
             Record r = recordList.get(rId);
@@ -460,6 +824,20 @@ public final class Dataset implements Serializable, Iterable<Integer> {
         return newId;
     }
     
+    /**
+     * Adds a batch of records in the dataset without updating the Meta.
+     * 
+     * @param records 
+     */
+    private void _addAll(List<Record> records) {
+        int newId = recordList.size();
+        Map<Integer, Record> batch = new LinkedHashMap<>(records.size()*4/3+1); //keep the ids sequential for the columnar storage
+        for(Record r : records) {
+            batch.put(newId++, r);
+        }
+        recordList.putAll(batch);
+    }
+    
     /**
      * Sets the record of a particular id in the dataset. The record must already
      * exists within the dataset or an IndexOutOfBoundsException is thrown.
@@ -504,7 +882,17 @@ public final class Dataset implements Serializable, Iterable<Integer> {
      */
     public void erase() {
         dbc.dropBigMap("tmp_xColumnTypes", xDataTypes);
-        dbc.dropBigMap("tmp_recordList", recordList);
+        if(isColumnar()) {
+            recordList.clear();
+        }
+        else if(isStreaming()) {
+            StreamingRecordMap streamingRecordMap = (StreamingRecordMap)recordList;
+            streamingRecordMap.close();
+            dbc.dropBigMap("tmp_replacedRecords", streamingRecordMap.getReplacedRecords());
+        }
+        else {
+            dbc.dropBigMap("tmp_recordList", recordList);
+        }
         dbc.dropDatabase();
         dbc.close();
         
@@ -514,6 +902,47 @@ public final class Dataset implements Serializable, Iterable<Integer> {
         recordList = null;
     }
     
+    /**
+     * 顺序扫描所有记录<br>
+     * Returns a read-only view of the Records and their ids which scans the
+     * storage sequentially, in the order in which the BigMap stores them, 
+     * instead of looking up every id separately. The order is not the order of
+     * the ids on every storage. It should be preferred over the iterator of ids
+     * when all the Records are processed and none of them is replaced, because
+     * the disk-backed storages read them sequentially and if the BigMaps of the
+     * storage are concurrent, the next batches of Records are read ahead on a
+     * background thread. The Dataset must not be modified during the scan; the
+     * loops which replace the Records should iterate by id instead. On the 
+     * streaming Datasets the iterators are Closeable: the loops which stop 
+     * early should close them, otherwise their files remain open until the 
+     * iterators are garbage collected or the Dataset is erased.
+     * 
+     * @return 
+     */
+    public Iterable<Map.Entry<Integer, Record>> entries() {
+        if(isStreaming()) {
+            //the streaming Datasets read their files sequentially; the iterators are returned unwrapped to remain Closeable
+            return new Iterable<Map.Entry<Integer, Record>>() {
+                @Override
+                public Iterator<Map.Entry<Integer, Record>> iterator() {
+                    return recordList.entrySet().iterator();
+                }
+            };
+        }
+        
+        final Map<Integer, Record> records = Collections.unmodifiableMap(recordList);
+        return new Iterable<Map.Entry<Integer, Record>>() {
+            @Override
+            public Iterator<Map.Entry<Integer, Record>> iterator() {
+                Iterator<Map.Entry<Integer, Record>> it = records.entrySet().iterator();
+                if(dbConf.isConcurrent() && records.size()>READ_AHEAD_BATCH_SIZE) {
+                    it = new ReadAheadIterator<>(it, READ_AHEAD_BATCH_SIZE, READ_AHEAD_BATCHES);
+                }
+                return it;
+            }
+        };
+    }
+    
     /**
      * Implementing read-only iterator on the Record IDs to use it in loops.
      * 
@@ -525,6 +954,31 @@ public final class Dataset implements Serializable, Iterable<Integer> {
         //that the Dataset builds the Ids and instead we loop through them using
         //a counter. If the construction of the Dataset changes, this optimization
         //should be removed.
+        if(isStreaming()) {
+            //the Records of the streaming Datasets are not counted in advance; the ids are checked as the files are read
+            return new Iterator<Integer>() {
+                private Integer counter = 0;
+                
+                @Override
+                public boolean hasNext() {
+                    return recordList.containsKey(counter);
+                }
+                
+                @Override
+                public Integer next() {
+                    if(!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return counter++;
+                }
+                
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+        
         return new Iterator<Integer>() {
             //private Iterator<Integer> it = recordList.keySet().iterator();
             private Integer counter = 0;
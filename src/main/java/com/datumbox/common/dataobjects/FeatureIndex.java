@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.dataobjects;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The FeatureIndex is the dictionary of the features of a Dataset. It assigns
+ * a sequential int id to every feature name, so that the SparseVectors can 
+ * store the ids of the features instead of their names. The ids are never 
+ * removed or reassigned.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public final class FeatureIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private final Map<Object, Integer> ids = new HashMap<>();
+    
+    /* The names of the features by id; it is republished after every addition */
+    private volatile Object[] features = new Object[16];
+    
+    private int size = 0;
+    
+    /**
+     * Returns the id of the feature; if the feature is not in the index, a new
+     * id is assigned to it.
+     * 
+     * @param feature
+     * @return 
+     */
+    public synchronized int add(Object feature) {
+        Integer id = ids.get(feature);
+        if(id==null) {
+            id = size;
+            Object[] array = features;
+            if(id>=array.length) {
+                array = Arrays.copyOf(array, array.length*2);
+            }
+            array[id] = feature;
+            ids.put(feature, id);
+            ++size;
+            features = array;
+        }
+        return id;
+    }
+    
+    /**
+     * Returns the id of the feature or -1 if the feature is not in the index.
+     * 
+     * @param feature
+     * @return 
+     */
+    public synchronized int getId(Object feature) {
+        Integer id = ids.get(feature);
+        return (id!=null)?id:-1;
+    }
+    
+    /**
+     * Returns the name of the feature with the provided id.
+     * 
+     * @param id
+     * @return 
+     */
+    public Object getFeature(int id) {
+        return features[id];
+    }
+    
+    /**
+     * Returns the number of features in the index.
+     * 
+     * @return 
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+}
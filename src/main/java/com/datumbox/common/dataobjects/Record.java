@@ -17,6 +17,8 @@ package com.datumbox.common.dataobjects;
 
 import java.io.Serializable;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -39,9 +41,108 @@ import java.util.Objects;
  */
 public final class Record implements Serializable {
     
-    /* The X vector of the Record */
+    /**
+     * 特征游标<br>
+     * The FeatureCursor iterates through the x of Records without copying or
+     * wrapping it and gives primitive access to the numeric values. A single
+     * cursor can be reused for many Records by calling reset(). It is not 
+     * thread-safe.
+     */
+    public static final class FeatureCursor {
+        
+        private Record record;
+        
+        private int position;
+        
+        private Iterator<Map.Entry<Object, Object>> iterator;
+        
+        private Map.Entry<Object, Object> entry;
+        
+        /**
+         * 将游标指向记录的第一个特征之前<br>
+         * Points the cursor before the first feature of the provided Record.
+         * 
+         * @param r
+         * @return 
+         */
+        public FeatureCursor reset(Record r) {
+            record = r;
+            position = -1;
+            iterator = (r.sparseX==null)?r.x.internalData.entrySet().iterator():null;
+            entry = null;
+            return this;
+        }
+        
+        /**
+         * 移动到下一个特征<br>
+         * Moves the cursor to the next feature and returns false if there are
+         * no more features.
+         * 
+         * @return 
+         */
+        public boolean next() {
+            if(iterator==null) {
+                return ++position<record.sparseX.size();
+            }
+            else if(iterator.hasNext()) {
+                entry = iterator.next();
+                return true;
+            }
+            entry = null;
+            return false;
+        }
+        
+        /**
+         * 获取当前特征<br>
+         * Returns the current feature.
+         * 
+         * @return 
+         */
+        public Object getFeature() {
+            if(iterator==null) {
+                return record.sparseX.getFeature(position);
+            }
+            return entry.getKey();
+        }
+        
+        /**
+         * 获取当前特征的值<br>
+         * Returns the value of the current feature.
+         * 
+         * @return 
+         */
+        public Object getValue() {
+            if(iterator==null) {
+                return record.sparseX.getValue(position);
+            }
+            return entry.getValue();
+        }
+        
+        /**
+         * 获取当前特征的数值<br>
+         * Returns the value of the current feature as double. The booleans are
+         * converted to 1.0/0.0 and the null values to NaN.
+         * 
+         * @return 
+         */
+        public double getDouble() {
+            if(iterator==null) {
+                return record.sparseX.getValue(position);
+            }
+            Object value = entry.getValue();
+            if(value==null) {
+                return Double.NaN;
+            }
+            return TypeInference.toDouble(value);
+        }
+    }
+    
+    /* The X vector of the Record; it is null when the Record is sparse */
     private final AssociativeArray x;
     
+    /* The sparse X vector of the Record; it is null when the Record is not sparse */
+    private final SparseVector sparseX;
+    
     /* The Y response variable of the Record */
     private final Object y;
     
@@ -75,7 +176,15 @@ public final class Record implements Serializable {
      * @param yPredictedProbabilities 
      */
     public Record(AssociativeArray x, Object y, Object yPredicted, AssociativeArray yPredictedProbabilities) {
-        this.x = x.copy();
+        if(x.internalData instanceof SparseVector.MapView) {
+            //the x of a sparse Record is reused without copying, since the vector is immutable
+            this.x = null;
+            this.sparseX = ((SparseVector.MapView)x.internalData).getVector();
+        }
+        else {
+            this.x = x.copy();
+            this.sparseX = null;
+        }
         this.y = y;
         this.yPredicted = yPredicted;
         if (yPredictedProbabilities != null) {
@@ -86,19 +195,138 @@ public final class Record implements Serializable {
         }
     }
     
+    /**
+     * Constructor of a sparse Record which takes as arguments the sparse x and
+     * the y data. It is equal to the dense Record of the array from which the
+     * SparseVector was built.
+     * 
+     * @param x
+     * @param y 
+     */
+    public Record(SparseVector x, Object y) {
+        this(x, y, null, null);
+    }
+    
+    /**
+     * Constructor of a sparse Record which takes as arguments the sparse x, y,
+     * predicted y and predicted probaibilites.
+     * 
+     * @param x
+     * @param y
+     * @param yPredicted
+     * @param yPredictedProbabilities 
+     */
+    public Record(SparseVector x, Object y, Object yPredicted, AssociativeArray yPredictedProbabilities) {
+        this(new AssociativeArray(x.asMap()), y, yPredicted, yPredictedProbabilities);
+    }
+    
+    /**
+     * Private constructor which stores the provided objects without copying 
+     * them.
+     * 
+     * @param x
+     * @param sparseX
+     * @param y
+     * @param yPredicted
+     * @param yPredictedProbabilities 
+     */
+    private Record(AssociativeArray x, SparseVector sparseX, Object y, Object yPredicted, AssociativeArray yPredictedProbabilities) {
+        this.x = x;
+        this.sparseX = sparseX;
+        this.y = y;
+        this.yPredicted = yPredicted;
+        this.yPredictedProbabilities = yPredictedProbabilities;
+    }
+    
+    /**
+     * 不复制数据构造记录<br>
+     * Builds a Record which takes ownership of the provided x and predicted 
+     * probabilities instead of copying them. It is intended for the internal 
+     * code of the framework which creates these objects only for the Record;
+     * the caller must not modify them afterwards. To replace the predictions
+     * of an existing Record use withPrediction() instead.
+     * 
+     * @param x
+     * @param y
+     * @param yPredicted
+     * @param yPredictedProbabilities
+     * @return 
+     */
+    public static Record wrap(AssociativeArray x, Object y, Object yPredicted, AssociativeArray yPredictedProbabilities) {
+        if(x.internalData instanceof SparseVector.MapView) {
+            return new Record(null, ((SparseVector.MapView)x.internalData).getVector(), y, yPredicted, yPredictedProbabilities);
+        }
+        return new Record(x, null, y, yPredicted, yPredictedProbabilities);
+    }
+    
+    /**
+     * 替换预测结果<br>
+     * Returns a copy of the Record with the provided predicted y. The x and the
+     * predicted probabilities are shared with this Record without copying them.
+     * 
+     * @param yPredicted
+     * @return 
+     */
+    public Record withPrediction(Object yPredicted) {
+        return new Record(x, sparseX, y, yPredicted, yPredictedProbabilities);
+    }
+    
+    /**
+     * 替换预测结果和概率<br>
+     * Returns a copy of the Record with the provided predicted y and 
+     * probabilities. The x is shared with this Record without copying it and
+     * the Record takes ownership of the probabilities; the caller must not 
+     * modify them afterwards.
+     * 
+     * @param yPredicted
+     * @param yPredictedProbabilities
+     * @return 
+     */
+    public Record withPrediction(Object yPredicted, AssociativeArray yPredictedProbabilities) {
+        return new Record(x, sparseX, y, yPredicted, yPredictedProbabilities);
+    }
+    
     /**
      * It returns an AssociativeArray with all the xData of the Record. The 
      * data are stored in an unmodifiable map to ensure they can't be changed.
+     * For sparse Records the map is a view of the SparseVector.
      * 
      * @return 
      */
     public AssociativeArray getX() {
-        if(x == null) {
-            return null;
+        if(sparseX != null) {
+            return new AssociativeArray(sparseX.asMap());
         }
         return new AssociativeArray(Collections.unmodifiableMap(x.internalData));
     }
     
+    /**
+     * 获取稀疏特征向量<br>
+     * It returns the SparseVector of a sparse Record or null if the Record is
+     * not sparse. It allows iterating through the values of x without hashing
+     * or boxing.
+     * 
+     * @return 
+     */
+    public SparseVector getSparseX() {
+        return sparseX;
+    }
+    
+    /**
+     * 获取一个特征的值<br>
+     * It returns the value of a feature of x or null if it does not exist,
+     * without wrapping x.
+     * 
+     * @param feature
+     * @return 
+     */
+    public Object getXValue(Object feature) {
+        if(sparseX != null) {
+            return sparseX.get(feature);
+        }
+        return x.internalData.get(feature);
+    }
+    
     /**
      * It returns the real response variable of the Record. If unknown it will have
      * a null value.
@@ -142,7 +370,7 @@ public final class Record implements Serializable {
     @Override
     public int hashCode() {
         int hash = 7;
-        hash = 23 * hash + Objects.hashCode(this.x);
+        hash = 23 * hash + Objects.hashCode(this.getX());
         hash = 23 * hash + Objects.hashCode(this.y);
         return hash;
     }
@@ -168,7 +396,7 @@ public final class Record implements Serializable {
         if (!Objects.equals(this.y, other.y)) {
             return false;
         }
-        else if (!Objects.equals(this.x, other.x)) {
+        else if (!Objects.equals(this.getX(), other.getX())) {
             return false;
         }
         return true;
@@ -0,0 +1,261 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.dataobjects;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The SparseVector stores the values of a vector of numerical features. It keeps the ids of the features, as assigned by a FeatureIndex, 
+ * in a sorted int array and their values in a double array, so the values can
+ * be iterated without hashing or boxing. It is immutable and it is used by the
+ * sparse Records.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public final class SparseVector implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Read-only map view of the vector which is returned by the sparse Records.
+     * It is serialized as a LinkedHashMap.
+     */
+    final class MapView extends AbstractMap<Object, Object> implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * Returns the vector of the view.
+         * 
+         * @return 
+         */
+        SparseVector getVector() {
+            return SparseVector.this;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return ids.length;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key)>=0;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object get(Object key) {
+            int position = indexOf(key);
+            return (position>=0)?values[position]:null;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Set<Map.Entry<Object, Object>> entrySet() {
+            return new AbstractSet<Map.Entry<Object, Object>>() {
+                @Override
+                public int size() {
+                    return ids.length;
+                }
+                
+                @Override
+                public Iterator<Map.Entry<Object, Object>> iterator() {
+                    return new Iterator<Map.Entry<Object, Object>>() {
+                        private int position = 0;
+                        
+                        @Override
+                        public boolean hasNext() {
+                            return position<ids.length;
+                        }
+                        
+                        @Override
+                        public Map.Entry<Object, Object> next() {
+                            if(!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<Object, Object> entry = new AbstractMap.SimpleImmutableEntry<Object, Object>(getFeature(position), values[position]);
+                            ++position;
+                            return entry;
+                        }
+                        
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+            };
+        }
+        
+        private Object writeReplace() {
+            return new LinkedHashMap<>(this);
+        }
+    }
+    
+    private final FeatureIndex featureIndex;
+    
+    private final int[] ids;
+    
+    private final double[] values;
+    
+    /**
+     * Public constructor which stores the values of the provided array. The 
+     * missing features are added in the FeatureIndex. The values must be 
+     * non-null Doubles, so that the sparse Records are equal to the dense 
+     * Records of the same array.
+     * 
+     * @param x
+     * @param featureIndex 
+     */
+    public SparseVector(AssociativeArray x, FeatureIndex featureIndex) {
+        for(Object value : x.values()) {
+            if(!(value instanceof Double)) {
+                throw new IllegalArgumentException("Only non-null Double values can be stored in a SparseVector.");
+            }
+        }
+        this.featureIndex = featureIndex;
+        
+        //the ids are packed with their positions in longs and sorted without boxing
+        long[] pairs = new long[x.size()];
+        double[] unsorted = new double[pairs.length];
+        int n = 0;
+        for(Map.Entry<Object, Object> entry : x.entrySet()) {
+            unsorted[n] = (Double)entry.getValue();
+            pairs[n] = ((long)featureIndex.add(entry.getKey()) << 32) | n;
+            ++n;
+        }
+        Arrays.sort(pairs, 0, n);
+        
+        ids = new int[n];
+        values = new double[n];
+        for(int i=0;i<n;++i) {
+            ids[i] = (int)(pairs[i] >>> 32);
+            values[i] = unsorted[(int)pairs[i]];
+        }
+    }
+    
+    /**
+     * Returns the FeatureIndex which maps the ids of the vector to features.
+     * 
+     * @return 
+     */
+    public FeatureIndex getFeatureIndex() {
+        return featureIndex;
+    }
+    
+    /**
+     * Returns the number of stored values.
+     * 
+     * @return 
+     */
+    public int size() {
+        return ids.length;
+    }
+    
+    /**
+     * Returns the feature id which is stored in the provided position. The ids
+     * are sorted in ascending order.
+     * 
+     * @param position
+     * @return 
+     */
+    public int getId(int position) {
+        return ids[position];
+    }
+    
+    /**
+     * Returns the feature which is stored in the provided position.
+     * 
+     * @param position
+     * @return 
+     */
+    public Object getFeature(int position) {
+        return featureIndex.getFeature(ids[position]);
+    }
+    
+    /**
+     * Returns the value which is stored in the provided position.
+     * 
+     * @param position
+     * @return 
+     */
+    public double getValue(int position) {
+        return values[position];
+    }
+    
+    /**
+     * Returns the value of a feature or null if the vector does not contain it.
+     * 
+     * @param feature
+     * @return 
+     */
+    public Double get(Object feature) {
+        int position = indexOf(feature);
+        return (position>=0)?values[position]:null;
+    }
+    
+    /**
+     * Estimates the dot product with a dense vector whose elements are indexed
+     * by the feature ids. The ids which are out of the bounds of the dense 
+     * vector are ignored.
+     * 
+     * @param weights
+     * @return 
+     */
+    public double dot(double[] weights) {
+        double sum = 0.0;
+        for(int i=0;i<ids.length;++i) {
+            int id = ids[i];
+            if(id>=weights.length) {
+                break; //the ids are sorted
+            }
+            sum += weights[id]*values[i];
+        }
+        return sum;
+    }
+    
+    /**
+     * Returns a read-only map view of the vector.
+     * 
+     * @return 
+     */
+    Map<Object, Object> asMap() {
+        return new MapView();
+    }
+    
+    private int indexOf(Object feature) {
+        int id = featureIndex.getId(feature);
+        return (id>=0)?Arrays.binarySearch(ids, id):-1;
+    }
+
+}
@@ -0,0 +1,641 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.dataobjects;
+
+import com.datumbox.framework.utilities.text.cleaners.StringCleaner;
+import com.datumbox.framework.utilities.text.extractors.TextExtractor;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * The StreamingRecordMap is a map of Records which are not stored anywhere;
+ * instead they are parsed from the underlying files every time they are 
+ * scanned. The files are read in chunks, so only one chunk of Records is
+ * kept in memory at any time. The Records are served efficiently when they are
+ * scanned or requested in the order of their ids, while requesting a previous
+ * id starts reading the files from the beginning. The existing Records can be
+ * replaced (for example with their predictions); only the replacements are 
+ * stored, in a map of the storage engine.
+ * 
+ * It allows training the models which only scan the training data (for
+ * example the Naive Bayes, the TFIDF or the NLMS) on files which do not fit
+ * in the storage.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+final class StreamingRecordMap extends AbstractMap<Integer, Record> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Reads sequentially the Records of a Source.
+     */
+    static abstract class RecordReader implements Closeable {
+        
+        /**
+         * Returns the next Record or null if there are no more Records.
+         * 
+         * @return 
+         * @throws IOException 
+         */
+        abstract Record read() throws IOException;
+    
+    }
+    
+    /**
+     * The Source of the Records, which can be read many times.
+     */
+    static abstract class Source implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * Opens a new RecordReader which starts from the first Record.
+         * 
+         * @return 
+         * @throws IOException 
+         */
+        abstract RecordReader open() throws IOException;
+    
+    }
+    
+    /**
+     * The Source of the Records of a CSV file.
+     */
+    static final class CSVSource extends Source {
+        private static final long serialVersionUID = 1L;
+        
+        private final URI csvFile;
+        private final String yVariable;
+        private final Map<String, TypeInference.DataType> headerDataTypes;
+        private final char delimiter;
+        private final char quote;
+        private final String recordSeparator;
+        
+        /**
+         * Constructor of the CSVSource.
+         * 
+         * @param csvFile
+         * @param yVariable
+         * @param headerDataTypes
+         * @param delimiter
+         * @param quote
+         * @param recordSeparator 
+         */
+        CSVSource(URI csvFile, String yVariable, Map<String, TypeInference.DataType> headerDataTypes, char delimiter, char quote, String recordSeparator) {
+            this.csvFile = csvFile;
+            this.yVariable = yVariable;
+            this.headerDataTypes = new HashMap<>(headerDataTypes);
+            this.delimiter = delimiter;
+            this.quote = quote;
+            this.recordSeparator = recordSeparator;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        RecordReader open() throws IOException {
+            CSVFormat format = CSVFormat
+                                .RFC4180
+                                .withHeader()
+                                .withDelimiter(delimiter)
+                                .withQuote(quote)
+                                .withRecordSeparator(recordSeparator);
+            
+            final CSVParser parser = new CSVParser(new BufferedReader(new InputStreamReader(new FileInputStream(new File(csvFile)), "UTF8")), format);
+            final CSVRowParser rowParser;
+            try {
+                rowParser = new CSVRowParser(parser.getHeaderMap(), yVariable, headerDataTypes);
+            }
+            catch(RuntimeException ex) {
+                parser.close();
+                throw ex;
+            }
+            final Iterator<CSVRecord> rows = parser.iterator();
+            return new RecordReader() {
+                @Override
+                Record read() throws IOException {
+                    while(rows.hasNext()) {
+                        Record r = rowParser.parse(rows.next());
+                        if(r!=null) {
+                            return r;
+                        }
+                    }
+                    return null;
+                }
+                
+                @Override
+                public void close() throws IOException {
+                    parser.close();
+                }
+            };
+        }
+    }
+    
+    /**
+     * The Source of the Records of a list of text files. Every line is a 
+     * document and the name of the file's class is its response variable.
+     */
+    static final class TextSource extends Source {
+        private static final long serialVersionUID = 1L;
+        
+        private final Map<Object, URI> textFilesMap;
+        private final Class<? extends TextExtractor> textExtractorClass;
+        private final TextExtractor.Parameters textExtractorParameters;
+        
+        /**
+         * Constructor of the TextSource.
+         * 
+         * @param textFilesMap
+         * @param textExtractorClass
+         * @param textExtractorParameters 
+         */
+        TextSource(Map<Object, URI> textFilesMap, Class<? extends TextExtractor> textExtractorClass, TextExtractor.Parameters textExtractorParameters) {
+            this.textFilesMap = new LinkedHashMap<>(textFilesMap);
+            this.textExtractorClass = textExtractorClass;
+            this.textExtractorParameters = textExtractorParameters;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        RecordReader open() throws IOException {
+            final TextExtractor textExtractor = TextExtractor.newInstance(textExtractorClass, textExtractorParameters);
+            final Iterator<Map.Entry<Object, URI>> files = textFilesMap.entrySet().iterator();
+            return new RecordReader() {
+                private Object theClass;
+                private BufferedReader br;
+                
+                @Override
+                Record read() throws IOException {
+                    while(true) {
+                        if(br==null) {
+                            if(!files.hasNext()) {
+                                return null;
+                            }
+                            Map.Entry<Object, URI> entry = files.next();
+                            theClass = entry.getKey();
+                            br = new BufferedReader(new InputStreamReader(new FileInputStream(new File(entry.getValue())), "UTF8"));
+                        }
+                        
+                        String line = br.readLine();
+                        if(line!=null) {
+                            return Record.wrap(new AssociativeArray(textExtractor.extractFeatures(StringCleaner.clear(line))), theClass, null, null);
+                        }
+                        close();
+                    }
+                }
+                
+                @Override
+                public void close() throws IOException {
+                    if(br!=null) {
+                        br.close();
+                        br = null;
+                    }
+                }
+            };
+        }
+    }
+    
+    private final Source source;
+    
+    private final int chunkSize;
+    
+    /* The Records which replaced the ones of the files, by id */
+    private final Map<Integer, Record> replacedRecords;
+    
+    /* It is true once a Record has been replaced; it avoids probing the replacedRecords on every read */
+    private volatile boolean replaced = false;
+    
+    /* The number of Records; it is negative until the files are scanned */
+    private int size = -1;
+    
+    /* The reader of the lookups by id; it is null when the files are exhausted */
+    private transient RecordReader reader;
+    
+    /* The chunk of Records which serves the lookups by id */
+    private transient List<Record> chunk;
+    
+    /* The id of the first Record of the chunk */
+    private transient int chunkStart;
+    
+    /* The readers of the scans which are not finished, by the weak references of their iterators */
+    private transient Map<Reference<ScanIterator>, RecordReader> openScans;
+    
+    /* The references of the iterators which were garbage collected before they were finished */
+    private transient ReferenceQueue<ScanIterator> abandonedScans;
+    
+    /**
+     * Constructor of the StreamingRecordMap.
+     * 
+     * @param source
+     * @param chunkSize 
+     * @param replacedRecords 
+     */
+    StreamingRecordMap(Source source, int chunkSize, Map<Integer, Record> replacedRecords) {
+        this.source = source;
+        this.chunkSize = chunkSize;
+        this.replacedRecords = replacedRecords;
+    }
+    
+    /**
+     * Returns the number of Records. If it is not known, the files are scanned
+     * to count them.
+     * 
+     * @return 
+     */
+    @Override
+    public int size() {
+        int n = knownSize();
+        if(n>=0) {
+            return n;
+        }
+        
+        //the counting pass does not hold the lock of the lookups
+        n = 0;
+        Iterator<Map.Entry<Integer, Record>> it = entrySet().iterator();
+        while(it.hasNext()) {
+            it.next();
+            ++n;
+        }
+        return n;
+    }
+    
+    /**
+     * Returns the number of Records if a previous pass over the files has 
+     * counted them, or -1 otherwise. It never reads the files.
+     * 
+     * @return 
+     */
+    synchronized int knownSize() {
+        return size;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return !containsKey(0);
+    }
+    
+    /**
+     * Checks if the id exists. If the number of Records is not known, the 
+     * files are read up to the requested id instead of being counted.
+     * 
+     * @param key
+     * @return 
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        if(!(key instanceof Integer)) {
+            return false;
+        }
+        int id = (Integer)key;
+        int n = knownSize();
+        if(n>=0) {
+            return id>=0 && id<n;
+        }
+        return get(id)!=null;
+    }
+    
+    /**
+     * Returns the Record of the provided id. The files are read forward from
+     * the current chunk, so the ids should be requested in ascending order.
+     * 
+     * @param key
+     * @return 
+     */
+    @Override
+    public synchronized Record get(Object key) {
+        if(!(key instanceof Integer)) {
+            return null;
+        }
+        int id = (Integer)key;
+        if(id<0) {
+            return null;
+        }
+        
+        if(replaced) {
+            Record r = replacedRecords.get(id);
+            if(r!=null) {
+                return r;
+            }
+        }
+        
+        try {
+            if(chunk==null || id<chunkStart) {
+                //start reading the files from the beginning
+                closeLookups();
+                reader = source.open();
+                chunk = new ArrayList<>(chunkSize);
+                chunkStart = 0;
+                readChunk();
+            }
+            
+            while(id>=chunkStart+chunk.size()) {
+                if(reader==null) {
+                    return null; //the files are exhausted
+                }
+                chunkStart += chunk.size();
+                chunk.clear();
+                readChunk();
+            }
+        }
+        catch(IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        
+        return chunk.get(id-chunkStart);
+    }
+    
+    /**
+     * Replaces the Record of an existing id. The files are not modified; the
+     * Record is stored in the replacedRecords map and it is returned instead 
+     * of the parsed one. New ids can not be added.
+     * 
+     * @param key
+     * @param value
+     * @return 
+     */
+    @Override
+    public Record put(Integer key, Record value) {
+        if(!containsKey(key)) {
+            throw new UnsupportedOperationException("The streaming Datasets can not be extended.");
+        }
+        Record previous = get(key);
+        replacedRecords.put(key, value);
+        replaced = true;
+        return previous;
+    }
+    
+    /**
+     * Returns a set which reads the files every time it is iterated. Its 
+     * iterators are Closeable (see ScanIterator).
+     * 
+     * @return 
+     */
+    @Override
+    public Set<Map.Entry<Integer, Record>> entrySet() {
+        return new AbstractSet<Map.Entry<Integer, Record>>() {
+            @Override
+            public int size() {
+                return StreamingRecordMap.this.size();
+            }
+            
+            @Override
+            public Iterator<Map.Entry<Integer, Record>> iterator() {
+                return new ScanIterator();
+            }
+        };
+    }
+    
+    /**
+     * The iterator of a pass over the files. It closes its files when it is
+     * exhausted or when reading fails. The loops which stop early should
+     * close it; otherwise its files are closed when the iterator is garbage
+     * collected and a new pass starts, or when the map is closed.
+     */
+    private final class ScanIterator implements Iterator<Map.Entry<Integer, Record>>, Closeable {
+        private final List<Record> buffer = new ArrayList<>(chunkSize);
+        private final Reference<ScanIterator> reference;
+        private final RecordReader in;
+        private int position = 0;
+        private int nextId = 0;
+        private boolean exhausted = false;
+        
+        /**
+         * Opens the files and registers them in the openScans.
+         */
+        ScanIterator() {
+            synchronized(StreamingRecordMap.this) {
+                closeAbandonedScans();
+                try {
+                    in = source.open();
+                }
+                catch(IOException ex) {
+                    throw new RuntimeException(ex);
+                }
+                reference = new WeakReference<>(this, abandonedScans);
+                openScans.put(reference, in);
+            }
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            if(position<buffer.size()) {
+                return true;
+            }
+            else if(exhausted) {
+                return false;
+            }
+            
+            buffer.clear();
+            position = 0;
+            try {
+                exhausted = fill(in, buffer, chunkSize);
+            }
+            catch(IOException ex) {
+                close();
+                throw new RuntimeException(ex);
+            }
+            catch(RuntimeException ex) {
+                close();
+                throw ex;
+            }
+            if(exhausted) {
+                closeScan(reference); //the last chunk remains in the buffer
+                setSize(nextId+buffer.size());
+            }
+            return position<buffer.size();
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Map.Entry<Integer, Record> next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Integer rId = nextId++;
+            Record r = buffer.get(position++);
+            if(replaced) {
+                Record replacement = replacedRecords.get(rId);
+                if(replacement!=null) {
+                    r = replacement;
+                }
+            }
+            return new AbstractMap.SimpleImmutableEntry<>(rId, r);
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+        
+        /**
+         * Closes the files of the pass. It can be called many times.
+         */
+        @Override
+        public void close() {
+            buffer.clear();
+            position = 0;
+            exhausted = true;
+            closeScan(reference);
+        }
+    }
+    
+    /**
+     * Closes the files which are opened by the lookups by id and by the scans
+     * which are not finished.
+     */
+    synchronized void close() {
+        closeLookups();
+        if(openScans!=null) {
+            List<RecordReader> readers = new ArrayList<>(openScans.values());
+            openScans.clear();
+            closeReaders(readers);
+        }
+    }
+    
+    /**
+     * Returns the map which stores the replaced Records.
+     * 
+     * @return 
+     */
+    Map<Integer, Record> getReplacedRecords() {
+        return replacedRecords;
+    }
+    
+    private synchronized void closeLookups() {
+        if(reader!=null) {
+            try {
+                reader.close();
+            }
+            catch(IOException ex) {
+                throw new RuntimeException(ex);
+            }
+            reader = null;
+        }
+        chunk = null;
+    }
+    
+    private synchronized void closeScan(Reference<ScanIterator> reference) {
+        if(openScans!=null) {
+            RecordReader in = openScans.remove(reference);
+            if(in!=null) {
+                closeReaders(Collections.singletonList(in));
+            }
+        }
+    }
+    
+    private synchronized void closeAbandonedScans() {
+        if(openScans==null) {
+            //the transient fields are initialized lazily, because the map may have been deserialized
+            openScans = new HashMap<>();
+            abandonedScans = new ReferenceQueue<>();
+        }
+        
+        List<RecordReader> readers = new ArrayList<>();
+        Reference<? extends ScanIterator> reference;
+        while((reference = abandonedScans.poll())!=null) {
+            RecordReader in = openScans.remove(reference);
+            if(in!=null) {
+                readers.add(in);
+            }
+        }
+        closeReaders(readers);
+    }
+    
+    private static void closeReaders(List<RecordReader> readers) {
+        IOException exception = null;
+        for(RecordReader in : readers) {
+            try {
+                in.close();
+            }
+            catch(IOException ex) {
+                exception = ex;
+            }
+        }
+        if(exception!=null) {
+            throw new RuntimeException(exception);
+        }
+    }
+    
+    private synchronized void setSize(int size) {
+        this.size = size;
+    }
+    
+    private void readChunk() throws IOException {
+        if(fill(reader, chunk, chunkSize)) {
+            reader.close();
+            reader = null;
+            size = chunkStart+chunk.size();
+        }
+    }
+    
+    /**
+     * Reads up to chunkSize Records in the buffer and returns true if the
+     * reader is exhausted.
+     * 
+     * @param in
+     * @param buffer
+     * @param chunkSize
+     * @return 
+     * @throws IOException 
+     */
+    private static boolean fill(RecordReader in, List<Record> buffer, int chunkSize) throws IOException {
+        while(buffer.size()<chunkSize) {
+            Record r = in.read();
+            if(r==null) {
+                return true;
+            }
+            buffer.add(r);
+        }
+        return false;
+    }
+
+}
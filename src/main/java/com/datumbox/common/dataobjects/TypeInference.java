@@ -65,24 +65,22 @@ public class TypeInference {
             }
 
             if(dataType == DataType.BOOLEAN) {
-                switch (s.toLowerCase()) {
-                    case "1":
-                    case "true":
-                    case "yes":
-                        return Boolean.TRUE;
-                    case "0":
-                    case "false":
-                    case "no":
-                        return Boolean.FALSE;
-                    default:
-                        return null;
+                //compare without lowercasing to avoid creating a new String
+                if("1".equals(s) || "true".equalsIgnoreCase(s) || "yes".equalsIgnoreCase(s)) {
+                    return Boolean.TRUE;
+                }
+                else if("0".equals(s) || "false".equalsIgnoreCase(s) || "no".equalsIgnoreCase(s)) {
+                    return Boolean.FALSE;
+                }
+                else {
+                    return null;
                 }
             }
             else if (dataType == DataType.ORDINAL) {
                 return Short.valueOf(s);
             }
             else if (dataType == DataType.NUMERICAL) {
-                return Double.valueOf(s);
+                return parseDouble(s);
             }
             else if (dataType == DataType.CATEGORICAL) {
                 return s;
@@ -93,6 +91,69 @@ public class TypeInference {
             }
         }
 
+        /**
+         * The powers of ten which are exactly representable as doubles.
+         */
+        private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        };
+        
+        /**
+         * Parses a double without creating intermediate objects. The plain 
+         * decimals with up to 15 significant digits are computed with a single
+         * division of two exactly representable doubles, which gives the same
+         * correctly rounded value as Double.parseDouble(). All the other 
+         * formats (exponents, NaN, spaces etc) are delegated to it.
+         * 
+         * @param s
+         * @return 
+         */
+        private static double parseDouble(String s) {
+            int n = s.length();
+            int i = 0;
+            boolean negative = false;
+            char c = s.charAt(0);
+            if(c=='-' || c=='+') {
+                negative = (c=='-');
+                ++i;
+            }
+            
+            long mantissa = 0L;
+            int significantDigits = 0;
+            int decimals = 0;
+            boolean hasDigits = false;
+            boolean hasPoint = false;
+            for(;i<n;++i) {
+                c = s.charAt(i);
+                if(c>='0' && c<='9') {
+                    if(significantDigits>0 || c!='0') {
+                        ++significantDigits;
+                    }
+                    mantissa = mantissa*10L + (c-'0');
+                    hasDigits = true;
+                    if(hasPoint) {
+                        ++decimals;
+                    }
+                }
+                else if(c=='.' && !hasPoint) {
+                    hasPoint = true;
+                }
+                else {
+                    return Double.parseDouble(s);
+                }
+                
+                if(significantDigits>15 || decimals>=POWERS_OF_TEN.length) {
+                    return Double.parseDouble(s);
+                }
+            }
+            if(!hasDigits) {
+                return Double.parseDouble(s);
+            }
+            
+            double value = (decimals==0)?(double)mantissa:mantissa/POWERS_OF_TEN[decimals];
+            return negative?-value:value;
+        }
         
         private final Class klass;
         
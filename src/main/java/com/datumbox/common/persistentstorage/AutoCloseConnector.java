@@ -20,9 +20,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Any class that inherits from the abstract AutoCloseConnector class can be used
- * in a try-with-resources statement block. Moreover this class setups a shutdown
- * hook which ensures that the Connector will automatically call close() before the
- * JVM is terminated.
+ * in a try-with-resources statement block. Moreover this class registers the
+ * Connector in the ConnectorRegistry which ensures that the Connector will 
+ * automatically call close() before the JVM is terminated.
  * 
  * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
  */
@@ -30,23 +30,14 @@ public abstract class AutoCloseConnector implements DatabaseConnector, AutoClose
     
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
     
-    private Thread hook;
+    private ScratchMapArena scratchMaps;
     
     /**
-     * Protected Constructor which is responsible for adding the Shutdown hook.
+     * Protected Constructor which is responsible for registering the Connector
+     * in the shared shutdown hook.
      */
     protected AutoCloseConnector() {
-        hook = new Thread(new Runnable() {
-            @Override
-            public void run() {
-                AutoCloseConnector.this.hook = null;
-                if(AutoCloseConnector.this.isClosed()) {
-                    return;
-                }
-                AutoCloseConnector.this.close();
-            }
-        });
-        Runtime.getRuntime().addShutdownHook(hook);
+        ConnectorRegistry.register(this);
     }
     
     /**
@@ -61,16 +52,35 @@ public abstract class AutoCloseConnector implements DatabaseConnector, AutoClose
     }
     
     /**
-     * Marks the connector as closed.
+     * 获取可重用的临时Map集合<br>
+     * Returns the scratch-map arena of the connector.
+     * 
+     * @return 
+     */
+    @Override
+    public synchronized ScratchMapArena getScratchMaps() {
+        ensureNotClosed();
+        if(scratchMaps==null) {
+            scratchMaps = new ScratchMapArena(this);
+        }
+        return scratchMaps;
+    }
+    
+    /**
+     * Drops the scratch maps and marks the connector as closed.
      */
     @Override
     public void close() {
-        if(isClosed() == false && hook != null) {
-            //remove hook to save memory
-            Runtime.getRuntime().removeShutdownHook(hook);
-            hook = null;
+        synchronized(this) {
+            if(scratchMaps!=null && isClosed()==false) {
+                //the scratch maps are dropped while the storage is still open
+                scratchMaps.close();
+            }
+            scratchMaps = null;
+        }
+        if(isClosed.getAndSet(true) == false) {
+            ConnectorRegistry.unregister(this);
         }
-        isClosed.set(true);
     }
     
     /**
@@ -15,9 +15,11 @@
  */
 package com.datumbox.common.persistentstorage;
 
+import com.datumbox.common.persistentstorage.hybrid.HybridConfiguration;
 import com.datumbox.common.persistentstorage.inmemory.InMemoryConfiguration;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
 import com.datumbox.common.persistentstorage.mapdb.MapDBConfiguration;
+import com.datumbox.common.persistentstorage.mmap.MMapConfiguration;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
@@ -40,7 +42,21 @@ public enum ConfigurationFactory {
     /**
      * MapDB is an alternative storage engine, which should be used when the data don't fit in memory.
      */
-    MAPDB(MapDBConfiguration.class);
+    MAPDB(MapDBConfiguration.class),
+    
+    /**
+     * MMap is an off-heap storage engine which keeps the data in memory-mapped
+     * files. It should be used when the models are large and the GC pauses 
+     * of the InMemory engine become a problem.
+     */
+    MMAP(MMapConfiguration.class),
+    
+    /**
+     * Hybrid is a storage engine which keeps the data in memory and spills the
+     * largest BigMaps to disk when the heap budget is exceeded. It should be 
+     * used when it is not known in advance whether the data fit the memory.
+     */
+    HYBRID(HybridConfiguration.class);
     
     private final Class<? extends DatabaseConfiguration> klass;
     
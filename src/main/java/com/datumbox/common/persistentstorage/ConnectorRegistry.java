@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The ConnectorRegistry keeps track of the live connectors and of any other 
+ * resources which must be closed before the JVM is terminated. A single 
+ * shutdown hook is registered for all of them and the resources are referenced
+ * weakly, so the registry never keeps alive objects which are no longer used.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public final class ConnectorRegistry {
+    
+    private static final Set<AutoCloseable> LIVE_RESOURCES = Collections.newSetFromMap(new WeakHashMap<AutoCloseable, Boolean>());
+    
+    private static boolean hookRegistered = false;
+    
+    private static final Logger logger = LoggerFactory.getLogger(ConnectorRegistry.class);
+    
+    private ConnectorRegistry() {
+    }
+    
+    /**
+     * Registers a resource which will be closed when the JVM is terminated, 
+     * unless it is unregistered or garbage collected earlier.
+     * 
+     * @param resource 
+     */
+    public static synchronized void register(AutoCloseable resource) {
+        if(hookRegistered==false) {
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    closeAll();
+                }
+            }, "ConnectorRegistry-shutdown"));
+            hookRegistered = true;
+        }
+        LIVE_RESOURCES.add(resource);
+    }
+    
+    /**
+     * Removes a resource from the registry. It is called when the resource is
+     * closed.
+     * 
+     * @param resource 
+     */
+    public static synchronized void unregister(AutoCloseable resource) {
+        LIVE_RESOURCES.remove(resource);
+    }
+    
+    /**
+     * Checks whether the resource is registered.
+     * 
+     * @param resource
+     * @return 
+     */
+    public static synchronized boolean isRegistered(AutoCloseable resource) {
+        return LIVE_RESOURCES.contains(resource);
+    }
+    
+    /**
+     * Returns the number of the registered resources which are still alive.
+     * 
+     * @return 
+     */
+    public static synchronized int size() {
+        return LIVE_RESOURCES.size();
+    }
+    
+    /**
+     * Closes all the registered resources.
+     */
+    private static void closeAll() {
+        List<AutoCloseable> resources;
+        synchronized(ConnectorRegistry.class) {
+            resources = new ArrayList<>(LIVE_RESOURCES);
+            LIVE_RESOURCES.clear();
+        }
+        for(AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            }
+            catch(Exception ex) {
+                logger.warn("Failed to close resource during shutdown.", ex);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage;
+
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The ScratchMapArena keeps a set of temporary Big Maps which are reused by the
+ * iterative algorithms. Instead of creating and dropping a temporary collection
+ * on every iteration, the algorithms request the scratch map by name once and 
+ * then clear it, copy the current parameters in it or swap it with another 
+ * scratch map. All the scratch maps are dropped when the arena is closed, which
+ * happens automatically when the connector is closed.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class ScratchMapArena implements AutoCloseable {
+    
+    private static final String PREFIX = "tmp_scratch";
+    
+    /**
+     * The scratch map and the name under which it is stored in the connector.
+     * The storage name does not change when the map is swapped.
+     */
+    private static class Slot {
+        private final String storageName;
+        private final Map<?, ?> map;
+        
+        private Slot(String storageName, Map<?, ?> map) {
+            this.storageName = storageName;
+            this.map = map;
+        }
+    }
+    
+    private final DatabaseConnector dbc;
+    
+    private final Map<String, Slot> slots = new HashMap<>();
+    
+    private int nextId = 0;
+    
+    private boolean closed = false;
+    
+    /**
+     * Non-public constructor used by the connectors to initialize their arena.
+     * 
+     * @param dbc 
+     */
+    protected ScratchMapArena(DatabaseConnector dbc) {
+        this.dbc = dbc;
+    }
+    
+    /**
+     * Returns the scratch map with the provided name. The map is created on 
+     * the first request and the same map is returned until it is released or 
+     * the arena is closed; its contents are not modified by this method.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @return 
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <K,V> Map<K,V> getMap(String name) {
+        Slot slot = slots.get(name);
+        if(slot==null) {
+            String storageName = nextStorageName(name);
+            slot = new Slot(storageName, dbc.<K,V>getBigMap(storageName, true));
+            slots.put(name, slot);
+        }
+        return (Map<K,V>)slot.map;
+    }
+    
+    /**
+     * Returns the scratch map with Object keys and double values which has the
+     * provided name. The map is created on the first request and the same map
+     * is returned until it is released or the arena is closed.
+     * 
+     * @param <K>
+     * @param name
+     * @return 
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <K> Object2DoubleMap<K> getObject2DoubleMap(String name) {
+        Slot slot = slots.get(name);
+        if(slot==null) {
+            String storageName = nextStorageName(name);
+            slot = new Slot(storageName, dbc.<K>getObject2DoubleBigMap(storageName, true));
+            slots.put(name, slot);
+        }
+        else if(!(slot.map instanceof Object2DoubleMap)) {
+            throw new IllegalArgumentException("The scratch map "+name+" is not an Object2DoubleMap.");
+        }
+        return (Object2DoubleMap<K>)slot.map;
+    }
+    
+    /**
+     * Removes all the entries of a scratch map without dropping it.
+     * 
+     * @param name 
+     */
+    public synchronized void clear(String name) {
+        getSlot(name).map.clear();
+    }
+    
+    /**
+     * Replaces the contents of a scratch map with the entries of the source map.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @param source 
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <K,V> void copyFrom(String name, Map<? extends K, ? extends V> source) {
+        Map<K,V> map = (Map<K,V>)getSlot(name).map;
+        if(map==source) {
+            return;
+        }
+        map.clear();
+        map.putAll(source);
+    }
+    
+    /**
+     * Swaps the two scratch maps, so that each name refers to the map which was
+     * previously returned for the other one. It can be used for double-buffering
+     * without copying the entries.
+     * 
+     * @param name1
+     * @param name2 
+     */
+    public synchronized void swap(String name1, String name2) {
+        Slot slot1 = getSlot(name1);
+        Slot slot2 = getSlot(name2);
+        slots.put(name1, slot2);
+        slots.put(name2, slot1);
+    }
+    
+    /**
+     * Drops the scratch map with the provided name. It should be called when 
+     * the map is no longer needed and the connector will remain open.
+     * 
+     * @param name 
+     */
+    public synchronized void release(String name) {
+        Slot slot = slots.remove(name);
+        if(slot!=null && !closed) {
+            dbc.dropBigMap(slot.storageName, slot.map);
+        }
+    }
+    
+    /**
+     * Checks if the arena is closed.
+     * 
+     * @return 
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+    
+    /**
+     * Drops all the scratch maps of the arena.
+     */
+    @Override
+    public synchronized void close() {
+        if(closed) {
+            return;
+        }
+        for(String name : new ArrayList<>(slots.keySet())) {
+            release(name);
+        }
+        closed = true;
+    }
+    
+    private Slot getSlot(String name) {
+        Slot slot = slots.get(name);
+        if(slot==null) {
+            throw new IllegalArgumentException("The scratch map "+name+" does not exist.");
+        }
+        return slot;
+    }
+    
+    private String nextStorageName(String name) {
+        if(closed) {
+            throw new RuntimeException("The scratch map arena is already closed");
+        }
+        return PREFIX + (nextId++) + "_" + name;
+    }
+
+}
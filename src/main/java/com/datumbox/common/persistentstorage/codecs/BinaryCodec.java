@@ -0,0 +1,458 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.codecs;
+
+import com.datumbox.common.dataobjects.AssociativeArray;
+import com.datumbox.common.dataobjects.Record;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec with a compact binary format for the data structures which dominate the
+ * size of the models: hash maps, lists, tuple keys (Arrays.asList), Records and
+ * AssociativeArrays. These objects are written without reflection and class 
+ * descriptors; their primitive values are stored with variable length encoding
+ * and every String is stored once per stream in a dictionary and afterwards it
+ * is referenced by its id. The rest of the object graph falls back to Java 
+ * serialization. 
+ * 
+ * The version of the format is written in the header of every stream and it 
+ * is checked during decoding.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class BinaryCodec implements Codec {
+    
+    /**
+     * The version of the binary format.
+     */
+    public static final short VERSION = 1;
+    
+    //types of the inline values
+    private static final byte T_NULL = 0;
+    private static final byte T_TRUE = 1;
+    private static final byte T_FALSE = 2;
+    private static final byte T_INT = 3;
+    private static final byte T_LONG = 4;
+    private static final byte T_DOUBLE = 5;
+    private static final byte T_STRING = 6;
+    private static final byte T_STRING_REF = 7;
+    private static final byte T_TUPLE = 8;
+    private static final byte T_ASSOCIATIVE_ARRAY = 9;
+    private static final byte T_RECORD = 10;
+    private static final byte T_OBJECT = 11;
+    
+    //types of the objects which are replaced by CompactObject
+    private static final byte C_HASHMAP = 0;
+    private static final byte C_LINKEDHASHMAP = 1;
+    private static final byte C_ARRAYLIST = 2;
+    private static final byte C_TUPLE = 3;
+    private static final byte C_ASSOCIATIVE_ARRAY = 4;
+    private static final byte C_RECORD = 5;
+    
+    private static final Class<?> TUPLE_CLASS = Arrays.asList().getClass();
+    
+    /**
+     * The maximum length of the Strings which are stored in the dictionary.
+     */
+    private static final int MAX_DICTIONARY_STRING_LENGTH = 16*1024;
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectOutputStream newObjectOutputStream(OutputStream out, ObjectReplacer replacer) throws IOException {
+        return new BinaryObjectOutputStream(out, replacer);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectInputStream newObjectInputStream(InputStream in, ObjectReplacer resolver) throws IOException {
+        return new BinaryObjectInputStream(in, resolver);
+    }
+    
+    private static byte compactType(Object obj) {
+        Class<?> klass = obj.getClass();
+        if(klass==HashMap.class) {
+            return C_HASHMAP;
+        }
+        else if(klass==LinkedHashMap.class) {
+            return C_LINKEDHASHMAP;
+        }
+        else if(klass==ArrayList.class) {
+            return C_ARRAYLIST;
+        }
+        else if(klass==TUPLE_CLASS) {
+            return C_TUPLE;
+        }
+        else if(klass==AssociativeArray.class) {
+            return C_ASSOCIATIVE_ARRAY;
+        }
+        else if(klass==Record.class) {
+            return C_RECORD;
+        }
+        return -1;
+    }
+    
+    private static class BinaryObjectOutputStream extends ObjectOutputStream {
+        private final ObjectReplacer replacer;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        
+        private BinaryObjectOutputStream(OutputStream out, ObjectReplacer replacer) throws IOException {
+            super(out);
+            this.replacer = replacer;
+            enableReplaceObject(true);
+        }
+        
+        @Override
+        protected void writeStreamHeader() throws IOException {
+            super.writeStreamHeader();
+            writeShort(VERSION);
+        }
+        
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if(replacer!=null) {
+                Object replacement = replacer.replace(obj);
+                if(replacement!=obj) {
+                    return replacement;
+                }
+            }
+            if(obj!=null && compactType(obj)>=0) {
+                return new CompactObject(obj);
+            }
+            return obj;
+        }
+        
+        private void writeVarInt(int v) throws IOException {
+            while((v & ~0x7F)!=0) {
+                writeByte((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            writeByte(v);
+        }
+        
+        private void writeVarLong(long v) throws IOException {
+            while((v & ~0x7FL)!=0L) {
+                writeByte((int)((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            writeByte((int)v);
+        }
+        
+        private void writeValue(Object v) throws IOException {
+            if(v==null) {
+                writeByte(T_NULL);
+            }
+            else if(v instanceof Boolean) {
+                writeByte((Boolean)v?T_TRUE:T_FALSE);
+            }
+            else if(v.getClass()==Integer.class) {
+                int i = (Integer)v;
+                writeByte(T_INT);
+                writeVarInt((i << 1) ^ (i >> 31)); //zigzag
+            }
+            else if(v.getClass()==Long.class) {
+                long l = (Long)v;
+                writeByte(T_LONG);
+                writeVarLong((l << 1) ^ (l >> 63)); //zigzag
+            }
+            else if(v.getClass()==Double.class) {
+                writeByte(T_DOUBLE);
+                writeDouble((Double)v);
+            }
+            else if(v.getClass()==String.class && ((String)v).length()<=MAX_DICTIONARY_STRING_LENGTH) {
+                String s = (String)v;
+                Integer id = dictionary.get(s);
+                if(id==null) {
+                    dictionary.put(s, dictionary.size());
+                    writeByte(T_STRING);
+                    writeUTF(s);
+                }
+                else {
+                    writeByte(T_STRING_REF);
+                    writeVarInt(id);
+                }
+            }
+            else if(v.getClass()==TUPLE_CLASS) {
+                writeByte(T_TUPLE);
+                writeList((List<?>)v);
+            }
+            else if(v.getClass()==AssociativeArray.class) {
+                writeByte(T_ASSOCIATIVE_ARRAY);
+                writeMap(((AssociativeArray)v).entrySet().size(), ((AssociativeArray)v).entrySet());
+            }
+            else if(v.getClass()==Record.class) {
+                writeByte(T_RECORD);
+                writeRecord((Record)v);
+            }
+            else {
+                //the rest of the objects are written by the stream to maintain their identity
+                writeByte(T_OBJECT);
+                writeObject(v);
+            }
+        }
+        
+        private void writeList(List<?> list) throws IOException {
+            writeVarInt(list.size());
+            for(Object v : list) {
+                writeValue(v);
+            }
+        }
+        
+        private void writeMap(int size, Iterable<? extends Map.Entry<?, ?>> entries) throws IOException {
+            writeVarInt(size);
+            for(Map.Entry<?, ?> entry : entries) {
+                writeValue(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        }
+        
+        private void writeRecord(Record r) throws IOException {
+            AssociativeArray x = r.getX();
+            writeMap(x.size(), x.entrySet());
+            writeValue(r.getY());
+            writeValue(r.getYPredicted());
+            writeValue(r.getYPredictedProbabilities());
+        }
+        
+        private void writeCompact(Object obj) throws IOException {
+            byte type = compactType(obj);
+            writeByte(type);
+            switch(type) {
+                case C_HASHMAP:
+                case C_LINKEDHASHMAP:
+                    writeMap(((Map<?, ?>)obj).size(), ((Map<?, ?>)obj).entrySet());
+                    break;
+                case C_ARRAYLIST:
+                case C_TUPLE:
+                    writeList((List<?>)obj);
+                    break;
+                case C_ASSOCIATIVE_ARRAY:
+                    AssociativeArray array = (AssociativeArray)obj;
+                    writeMap(array.size(), array.entrySet());
+                    break;
+                case C_RECORD:
+                    writeRecord((Record)obj);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported type " + type + ".");
+            }
+        }
+    }
+    
+    private static class BinaryObjectInputStream extends ObjectInputStream {
+        private final ObjectReplacer resolver;
+        private final List<String> dictionary = new ArrayList<>();
+        private short version;
+        
+        private BinaryObjectInputStream(InputStream in, ObjectReplacer resolver) throws IOException {
+            super(in);
+            this.resolver = resolver;
+            if(resolver!=null) {
+                enableResolveObject(true);
+            }
+        }
+        
+        @Override
+        protected void readStreamHeader() throws IOException {
+            super.readStreamHeader();
+            version = readShort();
+            if(version<1 || version>VERSION) {
+                throw new StreamCorruptedException("Unsupported version of binary format " + version + ".");
+            }
+        }
+        
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            return resolver.replace(obj);
+        }
+        
+        private int readVarInt() throws IOException {
+            int v = 0;
+            for(int shift=0;shift<32;shift+=7) {
+                int b = readUnsignedByte();
+                v |= (b & 0x7F) << shift;
+                if((b & 0x80)==0) {
+                    return v;
+                }
+            }
+            throw new StreamCorruptedException("Malformed variable length int.");
+        }
+        
+        private long readVarLong() throws IOException {
+            long v = 0L;
+            for(int shift=0;shift<64;shift+=7) {
+                int b = readUnsignedByte();
+                v |= (long)(b & 0x7F) << shift;
+                if((b & 0x80)==0) {
+                    return v;
+                }
+            }
+            throw new StreamCorruptedException("Malformed variable length long.");
+        }
+        
+        private Object readValue() throws IOException, ClassNotFoundException {
+            byte type = readByte();
+            switch(type) {
+                case T_NULL:
+                    return null;
+                case T_TRUE:
+                    return Boolean.TRUE;
+                case T_FALSE:
+                    return Boolean.FALSE;
+                case T_INT:
+                    int i = readVarInt();
+                    return (i >>> 1) ^ -(i & 1);
+                case T_LONG:
+                    long l = readVarLong();
+                    return (l >>> 1) ^ -(l & 1L);
+                case T_DOUBLE:
+                    return readDouble();
+                case T_STRING:
+                    String s = readUTF();
+                    dictionary.add(s);
+                    return s;
+                case T_STRING_REF:
+                    return dictionary.get(readVarInt());
+                case T_TUPLE:
+                    return Arrays.asList(readArray());
+                case T_ASSOCIATIVE_ARRAY:
+                    return readAssociativeArray();
+                case T_RECORD:
+                    return readRecord();
+                case T_OBJECT:
+                    return readObject();
+                default:
+                    throw new StreamCorruptedException("Unknown value type " + type + ".");
+            }
+        }
+        
+        private Object[] readArray() throws IOException, ClassNotFoundException {
+            Object[] array = new Object[readVarInt()];
+            for(int i=0;i<array.length;++i) {
+                array[i] = readValue();
+            }
+            return array;
+        }
+        
+        private <M extends Map<Object, Object>> M readMap(M map) throws IOException, ClassNotFoundException {
+            int n = readVarInt();
+            for(int i=0;i<n;++i) {
+                Object key = readValue();
+                map.put(key, readValue());
+            }
+            return map;
+        }
+        
+        private AssociativeArray readAssociativeArray() throws IOException, ClassNotFoundException {
+            return new AssociativeArray(readMap(new LinkedHashMap<>()));
+        }
+        
+        private Record readRecord() throws IOException, ClassNotFoundException {
+            AssociativeArray x = readAssociativeArray();
+            Object y = readValue();
+            Object yPredicted = readValue();
+            AssociativeArray yPredictedProbabilities = (AssociativeArray)readValue();
+            return Record.wrap(x, y, yPredicted, yPredictedProbabilities); //the deserialized objects are not shared
+        }
+        
+        private Object readCompact() throws IOException, ClassNotFoundException {
+            byte type = readByte();
+            switch(type) {
+                case C_HASHMAP:
+                    return readMap(new HashMap<>());
+                case C_LINKEDHASHMAP:
+                    return readMap(new LinkedHashMap<>());
+                case C_ARRAYLIST:
+                    return new ArrayList<>(Arrays.asList(readArray()));
+                case C_TUPLE:
+                    return Arrays.asList(readArray());
+                case C_ASSOCIATIVE_ARRAY:
+                    return readAssociativeArray();
+                case C_RECORD:
+                    return readRecord();
+                default:
+                    throw new StreamCorruptedException("Unknown compact type " + type + ".");
+            }
+        }
+    }
+    
+    /**
+     * Placeholder which writes the supported data structures in the compact
+     * format of the codec. It is used only internally by the codec streams and
+     * it is public because the Java serialization requires it for Externalizable
+     * classes.
+     */
+    public static final class CompactObject implements Externalizable {
+        private static final long serialVersionUID = 1L;
+        
+        private Object obj;
+        
+        /**
+         * Public no-argument constructor required by Externalizable.
+         */
+        public CompactObject() {
+        }
+        
+        private CompactObject(Object obj) {
+            this.obj = obj;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            if(!(out instanceof BinaryObjectOutputStream)) {
+                throw new IOException("CompactObject can only be written by the BinaryCodec.");
+            }
+            ((BinaryObjectOutputStream)out).writeCompact(obj);
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+            if(!(in instanceof BinaryObjectInputStream)) {
+                throw new IOException("CompactObject can only be read by the BinaryCodec.");
+            }
+            obj = ((BinaryObjectInputStream)in).readCompact();
+        }
+        
+        private Object readResolve() throws ObjectStreamException {
+            return obj;
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.codecs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Codecs define the binary format in which the DatabaseConnectors persist the
+ * objects. Every Codec should have a public no-argument constructor, because
+ * its class name is stored together with the encoded data and it is used to 
+ * select the Codec during decoding.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public interface Codec {
+    
+    /**
+     * Returns a new stream which encodes objects to the provided output.
+     * 
+     * @param out
+     * @param replacer Optional hook applied on every object before encoding; can be null.
+     * @return 
+     * @throws IOException 
+     */
+    public ObjectOutputStream newObjectOutputStream(OutputStream out, ObjectReplacer replacer) throws IOException;
+    
+    /**
+     * Returns a new stream which decodes objects from the provided input.
+     * 
+     * @param in
+     * @param resolver Optional hook applied on every decoded object; can be null.
+     * @return 
+     * @throws IOException 
+     */
+    public ObjectInputStream newObjectInputStream(InputStream in, ObjectReplacer resolver) throws IOException;
+
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.codecs;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Utility methods which instantiate Codecs and encode objects to self-describing
+ * byte arrays.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class Codecs {
+    
+    /**
+     * Initializes a Codec by using its class name.
+     * 
+     * @param className
+     * @return 
+     */
+    public static Codec newInstance(String className) {
+        try {
+            return Class.forName(className).asSubclass(Codec.class).getConstructor().newInstance();
+        } 
+        catch (ClassNotFoundException | InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException | NoSuchMethodException | SecurityException | ClassCastException ex) {
+            throw new IllegalArgumentException("Invalid codec " + className + ".", ex);
+        }
+    }
+    
+    /**
+     * Encodes the object to a byte array. The class name of the Codec is stored
+     * at the beginning of the array.
+     * 
+     * @param codec
+     * @param obj
+     * @param replacer
+     * @return 
+     */
+    public static byte[] encode(Codec codec, Object obj, ObjectReplacer replacer) {
+        try(ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            new DataOutputStream(bos).writeUTF(codec.getClass().getName());
+            try(ObjectOutputStream oos = codec.newObjectOutputStream(bos, replacer)) {
+                oos.writeObject(obj);
+            }
+            return bos.toByteArray();
+        } 
+        catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+    
+    /**
+     * Decodes a byte array which was generated by the encode() method.
+     * 
+     * @param arr
+     * @param resolver
+     * @return 
+     */
+    public static Object decode(byte[] arr, ObjectReplacer resolver) {
+        try(ByteArrayInputStream bis = new ByteArrayInputStream(arr)) {
+            Codec codec = newInstance(new DataInputStream(bis).readUTF());
+            try(ObjectInputStream ois = codec.newObjectInputStream(bis, resolver)) {
+                return ois.readObject();
+            }
+        } 
+        catch (IOException | ClassNotFoundException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.codecs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Codec which uses the default Java serialization.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class JavaSerializationCodec implements Codec {
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectOutputStream newObjectOutputStream(OutputStream out, ObjectReplacer replacer) throws IOException {
+        if(replacer==null) {
+            return new ObjectOutputStream(out);
+        }
+        return new ObjectOutputStream(out) {
+            {
+                enableReplaceObject(true);
+            }
+            
+            @Override
+            protected Object replaceObject(Object obj) throws IOException {
+                return replacer.replace(obj);
+            }
+        };
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectInputStream newObjectInputStream(InputStream in, ObjectReplacer resolver) throws IOException {
+        if(resolver==null) {
+            return new ObjectInputStream(in);
+        }
+        return new ObjectInputStream(in) {
+            {
+                enableResolveObject(true);
+            }
+            
+            @Override
+            protected Object resolveObject(Object obj) throws IOException {
+                return resolver.replace(obj);
+            }
+        };
+    }
+
+}
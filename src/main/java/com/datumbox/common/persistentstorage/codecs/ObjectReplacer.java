@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.codecs;
+
+import java.io.IOException;
+
+/**
+ * Hook which replaces objects while they are encoded or decoded by a Codec. It
+ * is used by the DatabaseConnectors to store parts of the object graph 
+ * separately, for example BigMaps which are referenced by name.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public interface ObjectReplacer {
+    
+    /**
+     * Returns the object which should be written/read in place of the provided
+     * one or the same object if no replacement is necessary.
+     * 
+     * @param obj
+     * @return 
+     * @throws IOException 
+     */
+    public Object replace(Object obj) throws IOException;
+
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import com.datumbox.common.persistentstorage.interfaces.Int2IntMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Adapter which exposes a generic Map as Int2IntMap. The primitive methods
+ * box the arguments and forward them to the wrapped map; it is used by the 
+ * DatabaseConnectors which can't store primitives natively.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class BoxedInt2IntMap extends ForwardingMap<Integer, Integer> implements Int2IntMap {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Public constructor which receives the wrapped map.
+     * 
+     * @param delegate 
+     */
+    public BoxedInt2IntMap(Map<Integer, Integer> delegate) {
+        super(delegate);
+    }
+    
+    /**
+     * Adds the increment to the value of the key and returns the previous value.
+     * The operation is atomic when the wrapped map is a ConcurrentMap.
+     * 
+     * @param key
+     * @param increment
+     * @return 
+     */
+    @Override
+    public int addTo(int key, int increment) {
+        Map<Integer, Integer> delegate = getDelegate();
+        if(delegate instanceof ConcurrentMap) {
+            return ConcurrentCounters.addTo((ConcurrentMap<Integer, Integer>)delegate, key, increment);
+        }
+        return Int2IntMap.super.addTo(key, increment);
+    }
+
+}
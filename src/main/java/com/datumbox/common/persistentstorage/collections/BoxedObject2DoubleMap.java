@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Adapter which exposes a generic Map as Object2DoubleMap. The primitive methods
+ * box the arguments and forward them to the wrapped map; it is used by the 
+ * DatabaseConnectors which can't store primitives natively.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ * @param <K>
+ */
+public class BoxedObject2DoubleMap<K> extends ForwardingMap<K, Double> implements Object2DoubleMap<K> {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Public constructor which receives the wrapped map.
+     * 
+     * @param delegate 
+     */
+    public BoxedObject2DoubleMap(Map<K, Double> delegate) {
+        super(delegate);
+    }
+    
+    /**
+     * Adds the increment to the value of the key and returns the previous value.
+     * The operation is atomic when the wrapped map is a ConcurrentMap.
+     * 
+     * @param key
+     * @param increment
+     * @return 
+     */
+    @Override
+    public double addTo(K key, double increment) {
+        Map<K, Double> delegate = getDelegate();
+        if(delegate instanceof ConcurrentMap) {
+            return ConcurrentCounters.addTo((ConcurrentMap<K, Double>)delegate, key, increment);
+        }
+        return Object2DoubleMap.super.addTo(key, increment);
+    }
+    
+    /**
+     * Adds the increment to the value of the key only if the key exists. The
+     * operation is atomic when the wrapped map is a ConcurrentMap.
+     * 
+     * @param key
+     * @param increment
+     * @return 
+     */
+    @Override
+    public boolean addToIfPresent(K key, double increment) {
+        Map<K, Double> delegate = getDelegate();
+        if(delegate instanceof ConcurrentMap) {
+            return ConcurrentCounters.addToIfPresent((ConcurrentMap<K, Double>)delegate, key, increment);
+        }
+        return Object2DoubleMap.super.addToIfPresent(key, increment);
+    }
+
+}
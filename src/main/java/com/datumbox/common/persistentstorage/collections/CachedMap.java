@@ -0,0 +1,453 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-through LRU cache which is placed in front of a BigMap. It keeps up to
+ * maxSize deserialized values (and the keys which are missing from the BigMap),
+ * so the popular keys are not read and deserialized from the storage on every
+ * access. All the writes go directly to the BigMap and update or invalidate the
+ * cached values, including the writes through the keySet(), values() and 
+ * entrySet() views. The values returned by the cache are shared, so the callers
+ * must put() any value they modify, exactly as with the persistent BigMaps.
+ * 
+ * The size of the cache is the base size multiplied by the weight of the map,
+ * which allows allocating larger caches to the heavily used maps. The cache
+ * keeps counters of the hits, the misses and the evictions.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ * @param <K>
+ * @param <V>
+ */
+public class CachedMap<K, V> extends ForwardingMap<K, V> {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Placeholder of the keys which don't exist in the BigMap.
+     */
+    private static final Object MISSING = new Object();
+    
+    private final int baseSize;
+    
+    private double weight;
+    
+    private transient int maxSize;
+    
+    private transient LinkedHashMap<Object, Object> cache;
+    
+    /**
+     * Incremented on every write; the values read from the BigMap are cached 
+     * only if no write took place in the meantime.
+     */
+    private transient long modCount;
+    
+    private transient long hits;
+    
+    private transient long misses;
+    
+    private transient long evictions;
+    
+    /**
+     * Public constructor which receives the wrapped BigMap, the base size of the
+     * cache and the weight of the map.
+     * 
+     * @param delegate
+     * @param baseSize
+     * @param weight 
+     */
+    public CachedMap(Map<K, V> delegate, int baseSize, double weight) {
+        super(delegate);
+        if(baseSize<0 || weight<0.0) {
+            throw new IllegalArgumentException("The size and the weight of the cache can't be negative.");
+        }
+        this.baseSize = baseSize;
+        this.weight = weight;
+        initCache();
+    }
+    
+    /**
+     * Getter for the weight of the map.
+     * 
+     * @return 
+     */
+    public double getWeight() {
+        return weight;
+    }
+    
+    /**
+     * Setter for the weight of the map. The maximum size of the cache becomes
+     * the base size multiplied by the weight; the cache is emptied.
+     * 
+     * @param weight 
+     */
+    public synchronized void setWeight(double weight) {
+        if(weight<0.0) {
+            throw new IllegalArgumentException("The weight of the cache can't be negative.");
+        }
+        this.weight = weight;
+        initCache();
+    }
+    
+    /**
+     * Returns the maximum number of cached keys.
+     * 
+     * @return 
+     */
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+    
+    /**
+     * Returns the number of lookups which were served by the cache.
+     * 
+     * @return 
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    /**
+     * Returns the number of lookups which were served by the BigMap.
+     * 
+     * @return 
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    /**
+     * Returns the number of keys which were removed from the cache to make room
+     * for new ones.
+     * 
+     * @return 
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    /**
+     * Returns the ratio of the lookups which were served by the cache.
+     * 
+     * @return 
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return (total>0)?hits/(double)total:0.0;
+    }
+    
+    /**
+     * Resets the counters of the cache.
+     */
+    public synchronized void resetStatistics() {
+        hits = 0L;
+        misses = 0L;
+        evictions = 0L;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return lookup(key)!=MISSING;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Object value = lookup(key);
+        return (value!=MISSING)?(V)value:null;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V put(K key, V value) {
+        V previous = getDelegate().put(key, value);
+        synchronized(this) {
+            ++modCount;
+            if(cache.containsKey(key)) {
+                cache.put(key, value);
+            }
+        }
+        return previous;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V remove(Object key) {
+        V previous = getDelegate().remove(key);
+        invalidate(key);
+        return previous;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        getDelegate().putAll(m);
+        synchronized(this) {
+            ++modCount;
+            for(Object key : m.keySet()) {
+                cache.remove(key);
+            }
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        getDelegate().clear();
+        synchronized(this) {
+            ++modCount;
+            cache.clear();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                final Iterator<Map.Entry<K, V>> it = new EntryIterator();
+                return new Iterator<K>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+                    
+                    @Override
+                    public K next() {
+                        return it.next().getKey();
+                    }
+                    
+                    @Override
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return CachedMap.this.size();
+            }
+            
+            @Override
+            public boolean contains(Object o) {
+                return CachedMap.this.containsKey(o);
+            }
+            
+            @Override
+            public boolean remove(Object o) {
+                boolean removed = getDelegate().keySet().remove(o);
+                invalidate(o);
+                return removed;
+            }
+            
+            @Override
+            public void clear() {
+                CachedMap.this.clear();
+            }
+        };
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                final Iterator<Map.Entry<K, V>> it = new EntryIterator();
+                return new Iterator<V>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+                    
+                    @Override
+                    public V next() {
+                        return it.next().getValue();
+                    }
+                    
+                    @Override
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return CachedMap.this.size();
+            }
+            
+            @Override
+            public void clear() {
+                CachedMap.this.clear();
+            }
+        };
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+            
+            @Override
+            public int size() {
+                return CachedMap.this.size();
+            }
+            
+            @Override
+            public boolean contains(Object o) {
+                return getDelegate().entrySet().contains(o);
+            }
+            
+            @Override
+            public boolean remove(Object o) {
+                boolean removed = getDelegate().entrySet().remove(o);
+                if(removed) {
+                    invalidate(((Map.Entry<?, ?>)o).getKey());
+                }
+                return removed;
+            }
+            
+            @Override
+            public void clear() {
+                CachedMap.this.clear();
+            }
+        };
+    }
+    
+    private Object lookup(Object key) {
+        long expectedModCount;
+        synchronized(this) {
+            if(cache.containsKey(key)) {
+                ++hits;
+                return cache.get(key); //moves the key to the end of the LRU list
+            }
+            ++misses;
+            expectedModCount = modCount;
+        }
+        
+        V value = getDelegate().get(key);
+        Object cachedValue = (value!=null || getDelegate().containsKey(key))?value:MISSING;
+        synchronized(this) {
+            if(modCount==expectedModCount && maxSize>0) {
+                cache.put(key, cachedValue);
+            }
+        }
+        return cachedValue;
+    }
+    
+    private synchronized void invalidate(Object key) {
+        ++modCount;
+        cache.remove(key);
+    }
+    
+    private void initCache() {
+        maxSize = (int)Math.min(Math.round(baseSize*weight), Integer.MAX_VALUE);
+        cache = new LinkedHashMap<Object, Object>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                if(size()>maxSize) {
+                    ++evictions;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initCache();
+    }
+    
+    /**
+     * Iterator of the entries of the BigMap which keeps the cache consistent 
+     * with the modifications made through the iterator.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        
+        private final Iterator<Map.Entry<K, V>> it = getDelegate().entrySet().iterator();
+        
+        private Map.Entry<K, V> current;
+        
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+        
+        @Override
+        public Map.Entry<K, V> next() {
+            current = it.next();
+            final Map.Entry<K, V> entry = current;
+            return new AbstractMap.SimpleEntry<K, V>(entry) {
+                private static final long serialVersionUID = 1L;
+                
+                @Override
+                public V setValue(V value) {
+                    super.setValue(value);
+                    V previous = entry.setValue(value);
+                    invalidate(entry.getKey());
+                    return previous;
+                }
+            };
+        }
+        
+        @Override
+        public void remove() {
+            it.remove();
+            invalidate(current.getKey());
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Atomic counter operations on top of ConcurrentMaps. They are used by the
+ * Boxed maps when they wrap the concurrent BigMaps of the DatabaseConnectors, 
+ * so that multiple threads can increment the same key without losing updates.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+class ConcurrentCounters {
+    
+    private ConcurrentCounters() {
+    }
+    
+    /**
+     * Atomically adds the increment to the double value of the key and returns
+     * the previous value. Missing keys are treated as 0.0.
+     * 
+     * @param <K>
+     * @param map
+     * @param key
+     * @param increment
+     * @return 
+     */
+    static <K> double addTo(ConcurrentMap<K, Double> map, K key, double increment) {
+        while(true) {
+            Double previousValue = map.get(key);
+            if(previousValue==null) {
+                if(map.putIfAbsent(key, increment)==null) {
+                    return 0.0;
+                }
+            }
+            else if(map.replace(key, previousValue, previousValue+increment)) {
+                return previousValue;
+            }
+        }
+    }
+    
+    /**
+     * Atomically adds the increment to the double value of the key only if the
+     * key exists. It returns whether the value was updated.
+     * 
+     * @param <K>
+     * @param map
+     * @param key
+     * @param increment
+     * @return 
+     */
+    static <K> boolean addToIfPresent(ConcurrentMap<K, Double> map, K key, double increment) {
+        while(true) {
+            Double previousValue = map.get(key);
+            if(previousValue==null) {
+                return false;
+            }
+            else if(map.replace(key, previousValue, previousValue+increment)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Atomically adds the increment to the int value of the key and returns
+     * the previous value. Missing keys are treated as 0.
+     * 
+     * @param <K>
+     * @param map
+     * @param key
+     * @param increment
+     * @return 
+     */
+    static <K> int addTo(ConcurrentMap<K, Integer> map, K key, int increment) {
+        while(true) {
+            Integer previousValue = map.get(key);
+            if(previousValue==null) {
+                if(map.putIfAbsent(key, increment)==null) {
+                    return 0;
+                }
+            }
+            else if(map.replace(key, previousValue, previousValue+increment)) {
+                return previousValue;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map which forwards all the calls to a delegate map. It is the base class of
+ * the wrappers which add functionality on top of the BigMaps returned by the 
+ * DatabaseConnectors.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ * @param <K>
+ * @param <V>
+ */
+public abstract class ForwardingMap<K, V> implements Map<K, V>, Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private final Map<K, V> delegate;
+    
+    /**
+     * Protected constructor which receives the delegate map.
+     * 
+     * @param delegate 
+     */
+    protected ForwardingMap(Map<K, V> delegate) {
+        if(delegate==null) {
+            throw new IllegalArgumentException("The delegate map can't be null.");
+        }
+        this.delegate = delegate;
+    }
+    
+    /**
+     * Returns the map on which the calls are forwarded.
+     * 
+     * @return 
+     */
+    public Map<K, V> getDelegate() {
+        return delegate;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return delegate.containsKey(key);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        return delegate.containsValue(value);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        return delegate.get(key);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V put(K key, V value) {
+        return delegate.put(key, value);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V remove(Object key) {
+        return delegate.remove(key);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        delegate.putAll(m);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<K> keySet() {
+        return delegate.keySet();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<V> values() {
+        return delegate.values();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return delegate.entrySet();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o==this || delegate.equals(o);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+}
@@ -0,0 +1,397 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Open addressing hash map with Object keys and primitive double values. The 
+ * keys and the values are stored in parallel arrays and the collisions are 
+ * resolved with linear probing, so no Entry object and no Double is allocated
+ * when the primitive methods are used. The removed slots are marked as deleted
+ * and they are reclaimed when the table is rehashed. The map does not permit
+ * null keys.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ * @param <K>
+ */
+public class Object2DoubleOpenHashMap<K> extends AbstractMap<K, Double> implements Object2DoubleMap<K>, Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private transient Object[] keys;
+    private transient double[] values;
+    private transient byte[] states;
+    
+    private transient int size;
+    private transient int occupied;
+    private transient int maxOccupied;
+    
+    private transient Set<Map.Entry<K, Double>> entrySet;
+    
+    /**
+     * Default constructor.
+     */
+    public Object2DoubleOpenHashMap() {
+        this(OpenHashing.DEFAULT_EXPECTED_SIZE);
+    }
+    
+    /**
+     * Constructor which allocates enough space for the expected number of keys.
+     * 
+     * @param expectedSize 
+     */
+    public Object2DoubleOpenHashMap(int expectedSize) {
+        allocate(OpenHashing.capacityFor(expectedSize));
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key)>=0;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if(!(value instanceof Double)) {
+            return false;
+        }
+        double v = (Double)value;
+        for(int i=0;i<states.length;++i) {
+            if(states[i]==OpenHashing.FULL && Double.compare(values[i], v)==0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Double get(Object key) {
+        int i = indexOf(key);
+        return (i>=0)?values[i]:null;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDouble(Object key) {
+        int i = indexOf(key);
+        return (i>=0)?values[i]:0.0;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDouble(Object key, double defaultValue) {
+        int i = indexOf(key);
+        return (i>=0)?values[i]:defaultValue;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Double put(K key, Double value) {
+        if(value==null) {
+            throw new IllegalArgumentException("Null values are not supported.");
+        }
+        int i = insert(key);
+        if(i<0) {
+            values[-i-1] = value;
+            return null;
+        }
+        double previousValue = values[i];
+        values[i] = value;
+        return previousValue;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double putDouble(K key, double value) {
+        int i = insert(key);
+        if(i<0) {
+            values[-i-1] = value;
+            return 0.0;
+        }
+        double previousValue = values[i];
+        values[i] = value;
+        return previousValue;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double addTo(K key, double increment) {
+        int i = insert(key);
+        if(i<0) {
+            values[-i-1] = increment;
+            return 0.0;
+        }
+        double previousValue = values[i];
+        values[i] += increment;
+        return previousValue;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean addToIfPresent(K key, double increment) {
+        int i = indexOf(key);
+        if(i<0) {
+            return false;
+        }
+        values[i] += increment;
+        return true;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Double remove(Object key) {
+        int i = indexOf(key);
+        if(i<0) {
+            return null;
+        }
+        double previousValue = values[i];
+        removeAt(i);
+        return previousValue;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(states, OpenHashing.FREE);
+        size = 0;
+        occupied = 0;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<K, Double>> entrySet() {
+        if(entrySet==null) {
+            entrySet = new AbstractSet<Map.Entry<K, Double>>() {
+                @Override
+                public Iterator<Map.Entry<K, Double>> iterator() {
+                    return new EntryIterator();
+                }
+                
+                @Override
+                public int size() {
+                    return size;
+                }
+                
+                @Override
+                public void clear() {
+                    Object2DoubleOpenHashMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+    
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new double[capacity];
+        states = new byte[capacity];
+        maxOccupied = OpenHashing.maxOccupied(capacity);
+    }
+    
+    private int indexOf(Object key) {
+        if(key==null) {
+            return -1;
+        }
+        int mask = states.length-1;
+        int i = OpenHashing.mix(key.hashCode()) & mask;
+        while(states[i]!=OpenHashing.FREE) {
+            if(states[i]==OpenHashing.FULL && key.equals(keys[i])) {
+                return i;
+            }
+            i = (i+1) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * Returns the slot of an existing key or -(slot+1) if the key was added.
+     */
+    private int insert(K key) {
+        if(key==null) {
+            throw new IllegalArgumentException("Null keys are not supported.");
+        }
+        int mask = states.length-1;
+        int i = OpenHashing.mix(key.hashCode()) & mask;
+        int firstRemoved = -1;
+        while(states[i]!=OpenHashing.FREE) {
+            if(states[i]==OpenHashing.FULL) {
+                if(key.equals(keys[i])) {
+                    return i;
+                }
+            }
+            else if(firstRemoved<0) {
+                firstRemoved = i;
+            }
+            i = (i+1) & mask;
+        }
+        
+        if(firstRemoved>=0) {
+            i = firstRemoved;
+        }
+        else if(occupied+1>maxOccupied) {
+            rehash();
+            return insert(key);
+        }
+        else {
+            ++occupied;
+        }
+        keys[i] = key;
+        states[i] = OpenHashing.FULL;
+        ++size;
+        return -i-1;
+    }
+    
+    private void removeAt(int i) {
+        keys[i] = null;
+        states[i] = OpenHashing.REMOVED;
+        --size;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void rehash() {
+        Object[] oldKeys = keys;
+        double[] oldValues = values;
+        byte[] oldStates = states;
+        
+        allocate(OpenHashing.capacityFor(size+1));
+        size = 0;
+        occupied = 0;
+        for(int i=0;i<oldStates.length;++i) {
+            if(oldStates[i]==OpenHashing.FULL) {
+                values[-insert((K)oldKeys[i])-1] = oldValues[i];
+            }
+        }
+    }
+    
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for(int i=0;i<states.length;++i) {
+            if(states[i]==OpenHashing.FULL) {
+                out.writeObject(keys[i]);
+                out.writeDouble(values[i]);
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int n = in.readInt();
+        allocate(OpenHashing.capacityFor(n));
+        for(int i=0;i<n;++i) {
+            K key = (K)in.readObject();
+            putDouble(key, in.readDouble());
+        }
+    }
+    
+    private class EntryIterator implements Iterator<Map.Entry<K, Double>> {
+        private int next = -1;
+        private int last = -1;
+        
+        private EntryIterator() {
+            advance();
+        }
+        
+        private void advance() {
+            do {
+                ++next;
+            } 
+            while(next<states.length && states[next]!=OpenHashing.FULL);
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return next<states.length;
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, Double> next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            final int slot = last;
+            return new AbstractMap.SimpleEntry<K, Double>((K)keys[slot], values[slot]) {
+                private static final long serialVersionUID = 1L;
+                
+                @Override
+                public Double setValue(Double value) {
+                    values[slot] = value;
+                    return super.setValue(value);
+                }
+            };
+        }
+        
+        @Override
+        public void remove() {
+            if(last<0 || states[last]!=OpenHashing.FULL) {
+                throw new IllegalStateException();
+            }
+            removeAt(last);
+            last = -1;
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+/**
+ * Constants and helper methods shared by the open addressing hash maps.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+class OpenHashing {
+    
+    static final byte FREE = 0;
+    static final byte FULL = 1;
+    static final byte REMOVED = 2;
+    
+    static final int DEFAULT_EXPECTED_SIZE = 12;
+    
+    private static final float LOAD_FACTOR = 0.75f;
+    
+    private static final int MAX_CAPACITY = 1 << 30;
+    
+    private OpenHashing() {
+    }
+    
+    /**
+     * Returns the power of 2 capacity which can hold the expected number of 
+     * keys without exceeding the load factor.
+     * 
+     * @param expectedSize
+     * @return 
+     */
+    static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while(capacity<MAX_CAPACITY && capacity*LOAD_FACTOR<=expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+    
+    /**
+     * Returns the maximum number of used slots (full or removed) before the 
+     * table is rehashed. At least one slot always stays free so that the probing
+     * terminates.
+     * 
+     * @param capacity
+     * @return 
+     */
+    static int maxOccupied(int capacity) {
+        return Math.min((int)(capacity*LOAD_FACTOR), capacity-1);
+    }
+    
+    /**
+     * Spreads the bits of the hash code to avoid clustering of sequential keys.
+     * 
+     * @param h
+     * @return 
+     */
+    static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -0,0 +1,456 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Map which is hash-partitioned by key across several partition maps. It is 
+ * used to shard a BigMap across multiple storage files, so that the accesses
+ * on different partitions are served by different stores and do not contend
+ * on the same locks. The partition of a key is computed from a hash which is
+ * stable across JVMs, so the persisted partitions can be reopened.
+ * 
+ * The atomic operations of ConcurrentMap are forwarded to the partition of
+ * the key and they are atomic only if the partitions are ConcurrentMaps. For
+ * this reason only the ConcurrentPartitionedMap, which is returned by the
+ * newInstance() method when all the partitions are ConcurrentMaps, implements
+ * the ConcurrentMap interface.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ * @param <K>
+ * @param <V>
+ */
+public class PartitionedMap<K, V> extends AbstractMap<K, V> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * PartitionedMap whose partitions are all ConcurrentMaps, so its atomic
+     * operations are atomic too.
+     * 
+     * @param <K>
+     * @param <V> 
+     */
+    public static class ConcurrentPartitionedMap<K, V> extends PartitionedMap<K, V> implements ConcurrentMap<K, V> {
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * Public constructor which receives the concurrent partition maps.
+         * 
+         * @param partitions 
+         */
+        public ConcurrentPartitionedMap(List<? extends ConcurrentMap<K, V>> partitions) {
+            super(partitions);
+        }
+    }
+    
+    /**
+     * The maximum number of entries which are buffered per partition by 
+     * putAll().
+     */
+    private static final int PUT_ALL_BUFFER_SIZE = 1024;
+    
+    private final List<Map<K, V>> partitions;
+    
+    /**
+     * Returns a ConcurrentPartitionedMap if all the partitions are
+     * ConcurrentMaps and a plain PartitionedMap otherwise. The partitions must
+     * always be provided in the same order.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param partitions
+     * @return 
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PartitionedMap<K, V> newInstance(List<? extends Map<K, V>> partitions) {
+        for(Map<K, V> p : partitions) {
+            if(!(p instanceof ConcurrentMap)) {
+                return new PartitionedMap<>(partitions);
+            }
+        }
+        return new ConcurrentPartitionedMap<>((List<? extends ConcurrentMap<K, V>>)partitions);
+    }
+    
+    /**
+     * Public constructor which receives the partition maps. The partitions 
+     * must always be provided in the same order.
+     * 
+     * @param partitions 
+     */
+    public PartitionedMap(List<? extends Map<K, V>> partitions) {
+        if(partitions.isEmpty()) {
+            throw new IllegalArgumentException("At least one partition is required.");
+        }
+        this.partitions = new ArrayList<>(partitions);
+    }
+    
+    /**
+     * Returns the partition in which the key is stored. The hash of Enums is 
+     * computed from their names and the hash of Lists from their elements, so
+     * that the result does not depend on the identity hash codes of the JVM.
+     * 
+     * @param key
+     * @param partitions
+     * @return 
+     */
+    public static int partitionOf(Object key, int partitions) {
+        if(partitions==1) {
+            return 0;
+        }
+        int h = stableHash(key)*0x9E3779B9;
+        return Math.floorMod(h ^ (h>>>16), partitions);
+    }
+    
+    private static int stableHash(Object key) {
+        if(key==null) {
+            return 0;
+        }
+        else if(key instanceof Enum) {
+            return ((Enum<?>)key).name().hashCode();
+        }
+        else if(key instanceof List) {
+            int h = 1;
+            for(Object e : (List<?>)key) {
+                h = 31*h + stableHash(e);
+            }
+            return h;
+        }
+        return key.hashCode();
+    }
+    
+    /**
+     * Returns the partition maps.
+     * 
+     * @return 
+     */
+    public List<Map<K, V>> getPartitions() {
+        return Collections.unmodifiableList(partitions);
+    }
+    
+    private Map<K, V> partition(Object key) {
+        return partitions.get(partitionOf(key, partitions.size()));
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        long size = 0L;
+        for(Map<K, V> p : partitions) {
+            size += p.size();
+        }
+        return (int)Math.min(size, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        for(Map<K, V> p : partitions) {
+            if(!p.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return partition(key).containsKey(key);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        for(Map<K, V> p : partitions) {
+            if(p.containsValue(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        return partition(key).get(key);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V put(K key, V value) {
+        return partition(key).put(key, value);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V remove(Object key) {
+        return partition(key).remove(key);
+    }
+    
+    /**
+     * Groups the entries by partition in small buffers and copies every full
+     * buffer with a single putAll() call, so the bulk operations of the 
+     * partitions are preserved without copying the whole input on the heap.
+     * 
+     * @param m 
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        int n = partitions.size();
+        List<Map<K, V>> buffers = new ArrayList<>(Collections.<Map<K, V>>nCopies(n, null));
+        for(Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            int i = partitionOf(entry.getKey(), n);
+            Map<K, V> buffer = buffers.get(i);
+            if(buffer==null) {
+                buffer = new HashMap<>();
+                buffers.set(i, buffer);
+            }
+            buffer.put(entry.getKey(), entry.getValue());
+            if(buffer.size()>=PUT_ALL_BUFFER_SIZE) {
+                partitions.get(i).putAll(buffer);
+                buffer.clear();
+            }
+        }
+        for(int i=0;i<n;++i) {
+            Map<K, V> buffer = buffers.get(i);
+            if(buffer!=null && !buffer.isEmpty()) {
+                partitions.get(i).putAll(buffer);
+            }
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        for(Map<K, V> p : partitions) {
+            p.clear();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return partition(key).putIfAbsent(key, value);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean remove(Object key, Object value) {
+        return partition(key).remove(key, value);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        return partition(key).replace(key, oldValue, newValue);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V replace(K key, V value) {
+        return partition(key).replace(key, value);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                final Iterator<Map.Entry<K, V>> it = new EntryIterator();
+                return new Iterator<K>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+                    
+                    @Override
+                    public K next() {
+                        return it.next().getKey();
+                    }
+                    
+                    @Override
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return PartitionedMap.this.size();
+            }
+            
+            @Override
+            public boolean contains(Object o) {
+                return PartitionedMap.this.containsKey(o);
+            }
+            
+            @Override
+            public void clear() {
+                PartitionedMap.this.clear();
+            }
+        };
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                final Iterator<Map.Entry<K, V>> it = new EntryIterator();
+                return new Iterator<V>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+                    
+                    @Override
+                    public V next() {
+                        return it.next().getValue();
+                    }
+                    
+                    @Override
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return PartitionedMap.this.size();
+            }
+            
+            @Override
+            public boolean contains(Object o) {
+                return PartitionedMap.this.containsValue(o);
+            }
+            
+            @Override
+            public void clear() {
+                PartitionedMap.this.clear();
+            }
+        };
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+            
+            @Override
+            public int size() {
+                return PartitionedMap.this.size();
+            }
+            
+            @Override
+            public void clear() {
+                PartitionedMap.this.clear();
+            }
+        };
+    }
+    
+    /**
+     * Iterator which visits the entries of the partitions one after the other.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        
+        private int nextPartition = 0;
+        
+        private Iterator<Map.Entry<K, V>> it = Collections.emptyIterator();
+        
+        private Iterator<Map.Entry<K, V>> lastIt = null;
+        
+        @Override
+        public boolean hasNext() {
+            while(!it.hasNext()) {
+                if(nextPartition>=partitions.size()) {
+                    return false;
+                }
+                it = partitions.get(nextPartition++).entrySet().iterator();
+            }
+            return true;
+        }
+        
+        @Override
+        public Map.Entry<K, V> next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastIt = it;
+            return it.next();
+        }
+        
+        @Override
+        public void remove() {
+            if(lastIt==null) {
+                throw new IllegalStateException();
+            }
+            lastIt.remove();
+            lastIt = null;
+        }
+    }
+}
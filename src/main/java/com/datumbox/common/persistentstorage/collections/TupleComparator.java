@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+
+/**
+ * Comparator of the keys of the ordered BigMaps. The tuple keys (Lists) are 
+ * compared element by element, so all the tuples which share the same prefix
+ * are stored next to each other and can be retrieved with a range scan. The 
+ * elements of the tuples are compared by their natural order when they are of
+ * the same class, the numbers of different classes by their values and the rest
+ * of the objects by the names of their classes.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public final class TupleComparator implements Comparator<Object>, Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * The single instance of the comparator.
+     */
+    public static final TupleComparator INSTANCE = new TupleComparator();
+    
+    /**
+     * Placeholder which is greater than any other element. It is used only as
+     * the upper bound of the range scans and it is never stored.
+     */
+    private static final Object MAX = new Object();
+    
+    private TupleComparator() {
+    }
+    
+    /**
+     * Returns a view of the portion of the ordered map whose tuple keys start
+     * with the provided elements. 
+     * 
+     * @param <K>
+     * @param <V>
+     * @param map
+     * @param prefix
+     * @return 
+     */
+    @SuppressWarnings("unchecked")
+    public static <K extends List<?>, V> NavigableMap<K, V> prefixMap(NavigableMap<K, V> map, Object... prefix) {
+        List<Object> to = new ArrayList<>(prefix.length+1);
+        to.addAll(Arrays.asList(prefix));
+        to.add(MAX);
+        return map.subMap((K)Arrays.asList(prefix), true, (K)to, true);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compare(Object o1, Object o2) {
+        if(o1==o2) {
+            return 0;
+        }
+        else if(o1==MAX || o2==MAX) {
+            return (o1==MAX)?1:-1;
+        }
+        else if(o1==null || o2==null) {
+            return (o1==null)?-1:1;
+        }
+        
+        boolean isList1 = o1 instanceof List;
+        boolean isList2 = o2 instanceof List;
+        if(isList1 && isList2) {
+            List<?> l1 = (List<?>)o1;
+            List<?> l2 = (List<?>)o2;
+            int n = Math.min(l1.size(), l2.size());
+            for(int i=0;i<n;++i) {
+                int c = compare(l1.get(i), l2.get(i));
+                if(c!=0) {
+                    return c;
+                }
+            }
+            return Integer.compare(l1.size(), l2.size());
+        }
+        else if(isList1 || isList2) {
+            return isList1?1:-1; //the scalars are placed before the tuples
+        }
+        
+        return compareElements(o1, o2);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private int compareElements(Object o1, Object o2) {
+        Class<?> c1 = o1.getClass();
+        Class<?> c2 = o2.getClass();
+        if(c1==c2 && o1 instanceof Comparable) {
+            return ((Comparable<Object>)o1).compareTo(o2);
+        }
+        else if(o1 instanceof Number && o2 instanceof Number) {
+            int c = Double.compare(((Number)o1).doubleValue(), ((Number)o2).doubleValue());
+            if(c!=0) {
+                return c;
+            }
+        }
+        else if(c1==c2) {
+            //objects without natural order are ordered by their string representation
+            if(o1.equals(o2)) {
+                return 0;
+            }
+            int c = o1.toString().compareTo(o2.toString());
+            if(c==0) {
+                throw new IllegalArgumentException("The objects of the class " + c1.getName() + " can't be ordered.");
+            }
+            return c;
+        }
+        return c1.getName().compareTo(c2.getName());
+    }
+    
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
+}
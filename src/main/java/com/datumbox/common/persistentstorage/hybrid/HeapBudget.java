@@ -0,0 +1,204 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.hybrid;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The heap budget which is shared by all the HybridConnectors that use the 
+ * same output folder. It keeps track of the BigMaps which are on the heap and
+ * selects the largest of them to be spilled when the number of their entries
+ * exceeds the maximum of the configuration. The maps of the connector which
+ * triggered the check are spilled immediately by its thread; the rest are 
+ * marked and they are spilled on their next read or write, so that a map is
+ * never modified by the thread of another connector.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+final class HeapBudget {
+    
+    private static final Map<String, HeapBudget> BUDGETS = new HashMap<>();
+    
+    /**
+     * The BigMaps which may still be on the heap.
+     */
+    private final List<WeakReference<SpillableMap<?, ?>>> heapMaps = new ArrayList<>();
+    
+    /**
+     * Estimation of the number of entries on the heap. It is corrected every 
+     * time the budget is exceeded.
+     */
+    private long heapEntries = 0L;
+    
+    /**
+     * Estimation of the entries of the maps which are marked to be spilled.
+     */
+    private long pendingEntries = 0L;
+    
+    /**
+     * Private constructor used by the getInstance() method.
+     */
+    private HeapBudget() {
+    }
+    
+    /**
+     * Returns the shared budget of the connectors of the output folder.
+     * 
+     * @param outputFolder
+     * @return 
+     */
+    static synchronized HeapBudget getInstance(String outputFolder) {
+        String key = String.valueOf(outputFolder);
+        HeapBudget budget = BUDGETS.get(key);
+        if(budget==null) {
+            budget = new HeapBudget();
+            BUDGETS.put(key, budget);
+        }
+        return budget;
+    }
+    
+    /**
+     * Returns the estimated number of BigMap entries on the heap.
+     * 
+     * @return 
+     */
+    synchronized long getHeapEntries() {
+        return heapEntries;
+    }
+    
+    /**
+     * Starts tracking a new BigMap.
+     * 
+     * @param map 
+     */
+    synchronized void register(SpillableMap<?, ?> map) {
+        heapMaps.add(new WeakReference<SpillableMap<?, ?>>(map));
+        heapEntries += map.heapSize();
+    }
+    
+    /**
+     * Stops tracking a BigMap which is dropped or spilled. The size is the 
+     * number of its entries which were on the heap.
+     * 
+     * @param map
+     * @param size 
+     */
+    synchronized void unregister(SpillableMap<?, ?> map, int size) {
+        Iterator<WeakReference<SpillableMap<?, ?>>> it = heapMaps.iterator();
+        while(it.hasNext()) {
+            if(it.next().get()==map) {
+                it.remove();
+                heapEntries = Math.max(heapEntries-size, 0L);
+                if(map.isSpillRequested()) {
+                    pendingEntries = Math.max(pendingEntries-size, 0L);
+                }
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Stops tracking all the BigMaps of a connector which is closed.
+     * 
+     * @param connector 
+     */
+    synchronized void unregisterAll(HybridConnector connector) {
+        Iterator<WeakReference<SpillableMap<?, ?>>> it = heapMaps.iterator();
+        while(it.hasNext()) {
+            SpillableMap<?, ?> map = it.next().get();
+            if(map==null || map.getConnector()==connector) {
+                it.remove();
+            }
+        }
+        recalculate();
+    }
+    
+    /**
+     * Updates the number of entries on the heap and, if the budget is exceeded,
+     * marks the largest BigMaps to be spilled. It returns the marked maps of 
+     * the provided connector, which must be spilled by the caller.
+     * 
+     * @param connector
+     * @param delta
+     * @param maxHeapEntries
+     * @return 
+     */
+    synchronized List<SpillableMap<?, ?>> update(HybridConnector connector, int delta, long maxHeapEntries) {
+        heapEntries += delta;
+        if(heapEntries-pendingEntries<=maxHeapEntries) {
+            return Collections.emptyList();
+        }
+        
+        List<SpillableMap<?, ?>> maps = recalculate();
+        Collections.sort(maps, new Comparator<SpillableMap<?, ?>>() {
+            @Override
+            public int compare(SpillableMap<?, ?> o1, SpillableMap<?, ?> o2) {
+                return Integer.compare(o2.heapSize(), o1.heapSize());
+            }
+        });
+        
+        List<SpillableMap<?, ?>> connectorMaps = new ArrayList<>();
+        for(SpillableMap<?, ?> map : maps) {
+            if(heapEntries-pendingEntries<=maxHeapEntries) {
+                break;
+            }
+            if(map.isSpillRequested()) {
+                continue;
+            }
+            map.requestSpill();
+            pendingEntries += map.heapSize();
+            if(map.getConnector()==connector) {
+                connectorMaps.add(map);
+            }
+        }
+        return connectorMaps;
+    }
+    
+    /**
+     * Recalculates the exact number of entries on the heap and drops the maps
+     * which are no longer used. It returns the maps which are still tracked.
+     * 
+     * @return 
+     */
+    private List<SpillableMap<?, ?>> recalculate() {
+        List<SpillableMap<?, ?>> maps = new ArrayList<>(heapMaps.size());
+        heapEntries = 0L;
+        pendingEntries = 0L;
+        Iterator<WeakReference<SpillableMap<?, ?>>> it = heapMaps.iterator();
+        while(it.hasNext()) {
+            SpillableMap<?, ?> map = it.next().get();
+            if(map==null || map.isSpilled()) {
+                it.remove();
+            }
+            else {
+                maps.add(map);
+                int size = map.heapSize();
+                heapEntries += size;
+                if(map.isSpillRequested()) {
+                    pendingEntries += size;
+                }
+            }
+        }
+        return maps;
+    }
+}
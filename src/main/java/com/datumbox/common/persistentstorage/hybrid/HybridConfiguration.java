@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.hybrid;
+
+import com.datumbox.common.persistentstorage.codecs.Codecs;
+import com.datumbox.common.persistentstorage.inmemory.InMemoryConfiguration;
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import com.datumbox.common.persistentstorage.mmap.MMapConfiguration;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Properties;
+
+/**
+ * The HybridConfiguration class is used to configure the Hybrid persistence
+ * storage and generate new storage connections. The Hybrid storage keeps the
+ * BigMaps on the heap, exactly as the InMemory storage, until the number of 
+ * entries of all the BigMaps exceeds the heap budget. The budget is global: it
+ * is shared by all the connectors which use the same output folder. At that
+ * point the largest BigMaps are moved to the temporary DB of the spill 
+ * storage. The data are persisted in serialized files, as in the InMemory 
+ * storage.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class HybridConfiguration extends InMemoryConfiguration {
+    
+    private long maxHeapEntries = 1000000L;
+    
+    private DatabaseConfiguration spillConfiguration = new MMapConfiguration();
+    
+    /**
+     * It initializes a new connector to the Database.
+     * 
+     * @param database
+     * @return 
+     */
+    @Override
+    public DatabaseConnector getConnector(String database) {
+        return new HybridConnector(database, this);
+    }
+    
+    /**
+     * Initializes the HybridConfiguration object by using a property file. The
+     * spill configuration is initialized from the same properties.
+     * 
+     * @param properties 
+     */
+    @Override
+    public void load(Properties properties) {
+        setOutputFolder(properties.getProperty("dbConfig.HybridConfiguration.outputFolder"));
+        setCompressed("true".equalsIgnoreCase(properties.getProperty("dbConfig.HybridConfiguration.compressed")));
+        setCodec(Codecs.newInstance(properties.getProperty("dbConfig.HybridConfiguration.codec")));
+        setLazyLoading("true".equalsIgnoreCase(properties.getProperty("dbConfig.HybridConfiguration.lazyLoading")));
+        setMaxHeapEntries(Long.valueOf(properties.getProperty("dbConfig.HybridConfiguration.maxHeapEntries")));
+        
+        String spillClass = properties.getProperty("dbConfig.HybridConfiguration.spillConfiguration");
+        try {
+            spillConfiguration = (DatabaseConfiguration)Class.forName(spillClass).getConstructor().newInstance();
+        }
+        catch (ClassNotFoundException | InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException | NoSuchMethodException | SecurityException ex) {
+            throw new RuntimeException(ex);
+        }
+        spillConfiguration.load(properties);
+    }
+    
+    /**
+     * The BigMaps of the Hybrid storage are not thread-safe, so the concurrent
+     * mode is not supported.
+     * 
+     * @return 
+     */
+    @Override
+    public boolean isConcurrent() {
+        return false;
+    }
+    
+    /**
+     * Getter for the maximum number of BigMap entries which are kept on the 
+     * heap by all the connectors of the output folder.
+     * 
+     * @return 
+     */
+    public long getMaxHeapEntries() {
+        return maxHeapEntries;
+    }
+    
+    /**
+     * Setter for the maximum number of BigMap entries which are kept on the 
+     * heap by all the connectors of the output folder. When the budget is 
+     * exceeded, the largest BigMaps are spilled to disk until the entries of 
+     * the heap fall below it.
+     * 
+     * @param maxHeapEntries 
+     */
+    public void setMaxHeapEntries(long maxHeapEntries) {
+        this.maxHeapEntries = maxHeapEntries;
+    }
+    
+    /**
+     * Getter for the configuration of the storage which receives the spilled
+     * BigMaps.
+     * 
+     * @return 
+     */
+    public DatabaseConfiguration getSpillConfiguration() {
+        return spillConfiguration;
+    }
+    
+    /**
+     * Setter for the configuration of the storage which receives the spilled
+     * BigMaps. Only the temporary DB of the storage is used. The MMap storage
+     * is used by default.
+     * 
+     * @param spillConfiguration 
+     */
+    public void setSpillConfiguration(DatabaseConfiguration spillConfiguration) {
+        this.spillConfiguration = spillConfiguration;
+    }
+}
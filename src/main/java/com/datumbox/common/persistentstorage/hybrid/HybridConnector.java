@@ -0,0 +1,233 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.hybrid;
+
+import com.datumbox.common.persistentstorage.hybrid.SpillableMap.SpillableInt2DoubleMap;
+import com.datumbox.common.persistentstorage.hybrid.SpillableMap.SpillableInt2IntMap;
+import com.datumbox.common.persistentstorage.hybrid.SpillableMap.SpillableNavigableMap;
+import com.datumbox.common.persistentstorage.hybrid.SpillableMap.SpillableObject2DoubleMap;
+import com.datumbox.common.persistentstorage.inmemory.InMemoryConnector;
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import com.datumbox.common.persistentstorage.interfaces.Int2DoubleMap;
+import com.datumbox.common.persistentstorage.interfaces.Int2IntMap;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The HybridConnector keeps the BigMaps on the heap and spills the largest of
+ * them to the temporary DB of the spill storage when the heap budget of the 
+ * configuration is exceeded. The budget is shared by all the connectors which
+ * use the same output folder (see HeapBudget), so it limits the heap used by 
+ * the whole job. The small jobs run at the speed of the InMemory storage while
+ * the large ones can still finish. The saving and loading of the objects is 
+ * handled as in the InMemoryConnector; the BigMaps of the loaded objects are 
+ * kept on the heap and they are not counted in the budget.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class HybridConnector extends InMemoryConnector {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HybridConnector.class);
+    
+    private final HybridConfiguration dbConf;
+    private final String database;
+    
+    private final HeapBudget heapBudget;
+    
+    private DatabaseConnector spillConnector = null;
+    
+    private int spilledMaps = 0;
+    
+    /**
+     * Non-public constructor used by HybridConfiguration class to generate
+     * new connections.
+     * 
+     * @param database
+     * @param dbConf 
+     */
+    protected HybridConnector(String database, HybridConfiguration dbConf) {
+        super(database, dbConf);
+        this.dbConf = dbConf;
+        this.database = database;
+        heapBudget = HeapBudget.getInstance(dbConf.getOutputFolder());
+    }
+    
+    /**
+     * Closes the connection, the spill storage and clean ups the resources.
+     */
+    @Override
+    public synchronized void close() {
+        if(isClosed()){
+            return; 
+        }
+        super.close();
+        
+        if(spillConnector!=null) {
+            spillConnector.close();
+            spillConnector = null;
+        }
+        heapBudget.unregisterAll(this);
+    }
+    
+    /**
+     * Creates a Big Map which is kept on the heap until it is spilled to disk.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized <K,V> Map<K,V> getBigMap(String name, boolean isTemporary) {
+        return register(new SpillableMap<>(super.<K, V>getBigMap(name, isTemporary), name, this));
+    }
+    
+    /**
+     * Creates a Big Map with int keys and double values which is kept on the 
+     * heap until it is spilled to disk.
+     * 
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized Int2DoubleMap getInt2DoubleBigMap(String name, boolean isTemporary) {
+        return register(new SpillableInt2DoubleMap(super.getInt2DoubleBigMap(name, isTemporary), name, this));
+    }
+    
+    /**
+     * Creates a Big Map with int keys and int values which is kept on the heap
+     * until it is spilled to disk.
+     * 
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized Int2IntMap getInt2IntBigMap(String name, boolean isTemporary) {
+        return register(new SpillableInt2IntMap(super.getInt2IntBigMap(name, isTemporary), name, this));
+    }
+    
+    /**
+     * Creates a Big Map with Object keys and double values which is kept on 
+     * the heap until it is spilled to disk.
+     * 
+     * @param <K>
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized <K> Object2DoubleMap<K> getObject2DoubleBigMap(String name, boolean isTemporary) {
+        return register(new SpillableObject2DoubleMap<>(super.<K>getObject2DoubleBigMap(name, isTemporary), name, this));
+    }
+    
+    /**
+     * Creates a sorted Big Map which is kept on the heap until it is spilled 
+     * to disk.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized <K,V> NavigableMap<K,V> getOrderedBigMap(String name, boolean isTemporary) {
+        return register(new SpillableNavigableMap<>(super.<K, V>getOrderedBigMap(name, isTemporary), name, this));
+    }
+    
+    /**
+     * Drops a particular Big Map. The spilled maps are dropped from the spill
+     * storage.
+     * 
+     * @param <T>
+     * @param name
+     * @param map 
+     */
+    @Override
+    public synchronized <T extends Map> void dropBigMap(String name, T map) {
+        ensureNotClosed();
+        if(map instanceof SpillableMap) {
+            SpillableMap<?, ?> spillableMap = (SpillableMap<?, ?>)map;
+            if(spillableMap.isSpilled()) {
+                spillConnector.dropBigMap(spillableMap.getSpillName(), spillableMap.getMap());
+                return;
+            }
+            heapBudget.unregister(spillableMap, spillableMap.heapSize());
+        }
+        super.dropBigMap(name, map);
+    }
+    
+    /**
+     * Returns the number of BigMaps which were spilled to disk.
+     * 
+     * @return 
+     */
+    public synchronized int getSpilledMaps() {
+        return spilledMaps;
+    }
+    
+    /**
+     * Reports the change of the number of entries on the heap to the shared 
+     * budget and spills the maps of the connector which the budget selected.
+     * It is called by the SpillableMaps after every write which changes their
+     * size.
+     * 
+     * @param delta 
+     */
+    void updateHeapEntries(int delta) {
+        //the budget is not locked while spilling, so the lock of the connector is always acquired first
+        List<SpillableMap<?, ?>> maps = heapBudget.update(this, delta, dbConf.getMaxHeapEntries());
+        for(SpillableMap<?, ?> map : maps) {
+            spill(map);
+        }
+    }
+    
+    /**
+     * Moves a map of the connector to the spill storage.
+     * 
+     * @param map 
+     */
+    synchronized void spill(SpillableMap<?, ?> map) {
+        if(isClosed() || map.isSpilled()) {
+            return;
+        }
+        int size = map.heapSize();
+        map.spill(getSpillConnector(), map.getName() + dbConf.getDBnameSeparator() + "spill" + spilledMaps);
+        ++spilledMaps;
+        heapBudget.unregister(map, size);
+        
+        logger.debug("Spilled BigMap {} with {} entries to disk", map.getName(), size);
+    }
+    
+    private <M extends SpillableMap<?, ?>> M register(M map) {
+        heapBudget.register(map);
+        return map;
+    }
+    
+    private DatabaseConnector getSpillConnector() {
+        if(spillConnector==null) {
+            spillConnector = dbConf.getSpillConfiguration().getConnector(database);
+        }
+        return spillConnector;
+    }
+}
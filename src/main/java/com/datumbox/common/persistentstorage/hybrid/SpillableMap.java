@@ -0,0 +1,1065 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.hybrid;
+
+import com.datumbox.common.persistentstorage.collections.Int2DoubleOpenHashMap;
+import com.datumbox.common.persistentstorage.collections.Int2IntOpenHashMap;
+import com.datumbox.common.persistentstorage.collections.Object2DoubleOpenHashMap;
+import com.datumbox.common.persistentstorage.collections.TupleComparator;
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import com.datumbox.common.persistentstorage.interfaces.Int2DoubleMap;
+import com.datumbox.common.persistentstorage.interfaces.Int2IntMap;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * BigMap of the HybridConnector which is kept on the heap until the connector
+ * decides to spill it to disk. Every write which changes the size of the heap
+ * map is reported to the connector; when the shared heap budget is exceeded,
+ * the contents of the largest maps are moved to the spill storage and the 
+ * maps continue working on top of the spilled BigMaps. The maps of other 
+ * connectors are only marked by the budget and they are spilled on their next
+ * read or write, by the thread which uses them.
+ * 
+ * The iterators of the views remain valid if the map is spilled during the
+ * iteration; the values set through them are written to the spilled map. The
+ * map is not thread-safe. During serialization it is replaced by a heap map 
+ * with the same contents.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ * @param <K>
+ * @param <V>
+ */
+public class SpillableMap<K, V> implements Map<K, V>, Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private final transient HybridConnector connector;
+    
+    private final transient String name;
+    
+    private transient Map<K, V> map;
+    
+    private transient volatile String spillName = null;
+    
+    private transient volatile boolean spillRequested = false;
+    
+    /**
+     * Package-private constructor used by the HybridConnector.
+     * 
+     * @param map
+     * @param name
+     * @param connector 
+     */
+    SpillableMap(Map<K, V> map, String name, HybridConnector connector) {
+        this.map = map;
+        this.name = name;
+        this.connector = connector;
+    }
+    
+    /**
+     * Returns the name of the BigMap.
+     * 
+     * @return 
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Checks if the map has been spilled to disk.
+     * 
+     * @return 
+     */
+    public boolean isSpilled() {
+        return spillName != null;
+    }
+    
+    /**
+     * Returns the connector which created the map.
+     * 
+     * @return 
+     */
+    HybridConnector getConnector() {
+        return connector;
+    }
+    
+    /**
+     * Marks the map to be spilled on its next read or write.
+     */
+    void requestSpill() {
+        spillRequested = true;
+    }
+    
+    /**
+     * Checks if the map is marked to be spilled.
+     * 
+     * @return 
+     */
+    boolean isSpillRequested() {
+        return spillRequested;
+    }
+    
+    /**
+     * Returns the map which currently stores the entries.
+     * 
+     * @return 
+     */
+    protected Map<K, V> getMap() {
+        beforeRead();
+        return map;
+    }
+    
+    /**
+     * Returns the name of the BigMap in the spill storage or null if the map
+     * is on the heap.
+     * 
+     * @return 
+     */
+    String getSpillName() {
+        return spillName;
+    }
+    
+    /**
+     * Returns the number of entries which are kept on the heap.
+     * 
+     * @return 
+     */
+    int heapSize() {
+        return isSpilled()?0:map.size();
+    }
+    
+    /**
+     * Spills the map if the heap budget marked it, so that the maps which are
+     * only read after they are marked leave the heap too.
+     */
+    protected void beforeRead() {
+        if(spillRequested && !isSpilled()) {
+            connector.spill(this);
+        }
+    }
+    
+    /**
+     * Reports to the connector the change of the heap size after a write.
+     * 
+     * @param heapSizeBefore 
+     */
+    protected void afterWrite(int heapSizeBefore) {
+        if(!isSpilled()) {
+            if(spillRequested) {
+                connector.spill(this); //the heap budget selected the map while another connector was written
+                return;
+            }
+            int delta = map.size()-heapSizeBefore;
+            if(delta!=0) {
+                connector.updateHeapEntries(delta);
+            }
+        }
+    }
+    
+    /**
+     * Moves all the entries to a BigMap of the spill storage.
+     * 
+     * @param spillConnector
+     * @param spillName 
+     */
+    void spill(DatabaseConnector spillConnector, String spillName) {
+        Map<K, V> spillMap = newSpillMap(spillConnector, spillName);
+        spillMap.putAll(map);
+        map = spillMap;
+        this.spillName = spillName;
+    }
+    
+    /**
+     * Creates the BigMap of the spill storage which will receive the entries.
+     * 
+     * @param spillConnector
+     * @param spillName
+     * @return 
+     */
+    protected Map<K, V> newSpillMap(DatabaseConnector spillConnector, String spillName) {
+        return spillConnector.getBigMap(spillName, true);
+    }
+    
+    /**
+     * Creates an empty heap map of the type that this map had before spilling.
+     * 
+     * @return 
+     */
+    protected Map<K, V> newHeapMap() {
+        return new HashMap<>();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return map.size();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        beforeRead();
+        return map.containsKey(key);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        beforeRead();
+        return map.containsValue(value);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        beforeRead();
+        return map.get(key);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V put(K key, V value) {
+        int heapSizeBefore = heapSize();
+        V previous = map.put(key, value);
+        afterWrite(heapSizeBefore);
+        return previous;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V remove(Object key) {
+        int heapSizeBefore = heapSize();
+        V previous = map.remove(key);
+        afterWrite(heapSizeBefore);
+        return previous;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        int heapSizeBefore = heapSize();
+        map.putAll(m);
+        afterWrite(heapSizeBefore);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        int heapSizeBefore = heapSize();
+        map.clear();
+        afterWrite(heapSizeBefore);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                final Iterator<Map.Entry<K, V>> it = new EntryIterator();
+                return new Iterator<K>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+                    
+                    @Override
+                    public K next() {
+                        return it.next().getKey();
+                    }
+                    
+                    @Override
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return SpillableMap.this.size();
+            }
+            
+            @Override
+            public boolean contains(Object o) {
+                return SpillableMap.this.containsKey(o);
+            }
+            
+            @Override
+            public boolean remove(Object o) {
+                if(SpillableMap.this.containsKey(o)) {
+                    SpillableMap.this.remove(o);
+                    return true;
+                }
+                return false;
+            }
+            
+            @Override
+            public void clear() {
+                SpillableMap.this.clear();
+            }
+        };
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                final Iterator<Map.Entry<K, V>> it = new EntryIterator();
+                return new Iterator<V>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+                    
+                    @Override
+                    public V next() {
+                        return it.next().getValue();
+                    }
+                    
+                    @Override
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return SpillableMap.this.size();
+            }
+            
+            @Override
+            public boolean contains(Object o) {
+                return SpillableMap.this.containsValue(o);
+            }
+            
+            @Override
+            public void clear() {
+                SpillableMap.this.clear();
+            }
+        };
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+            
+            @Override
+            public int size() {
+                return SpillableMap.this.size();
+            }
+            
+            @Override
+            public void clear() {
+                SpillableMap.this.clear();
+            }
+        };
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o==this || map.equals(o);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return map.hashCode();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+    
+    /**
+     * Replaces the map with a heap map during serialization.
+     * 
+     * @return 
+     * @throws ObjectStreamException 
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+        if(!isSpilled()) {
+            return map;
+        }
+        Map<K, V> heapMap = newHeapMap();
+        heapMap.putAll(map);
+        return heapMap;
+    }
+    
+    /**
+     * Iterator of the entries which is not affected by the spilling of the map.
+     * If the map is spilled during the iteration, the remaining entries are 
+     * read from the old heap map and the writes are forwarded to the current
+     * map.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        
+        private final Map<K, V> source;
+        
+        private final Iterator<Map.Entry<K, V>> it;
+        
+        private EntryIterator() {
+            beforeRead();
+            source = map;
+            it = source.entrySet().iterator();
+        }
+        
+        private K lastKey;
+        
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+        
+        @Override
+        public Map.Entry<K, V> next() {
+            final Map.Entry<K, V> entry = it.next();
+            lastKey = entry.getKey();
+            return new AbstractMap.SimpleEntry<K, V>(entry) {
+                private static final long serialVersionUID = 1L;
+                
+                @Override
+                public V setValue(V value) {
+                    super.setValue(value);
+                    V previous = entry.setValue(value);
+                    if(map!=source) {
+                        map.put(getKey(), value);
+                    }
+                    return previous;
+                }
+            };
+        }
+        
+        @Override
+        public void remove() {
+            if(map!=source) {
+                it.remove();
+                map.remove(lastKey);
+            }
+            else {
+                int heapSizeBefore = heapSize();
+                it.remove();
+                afterWrite(heapSizeBefore);
+            }
+        }
+    }
+    
+    /**
+     * Spillable Int2DoubleMap which keeps the primitive accessors of the 
+     * wrapped map.
+     */
+    static class SpillableInt2DoubleMap extends SpillableMap<Integer, Double> implements Int2DoubleMap {
+        private static final long serialVersionUID = 1L;
+        
+        SpillableInt2DoubleMap(Int2DoubleMap map, String name, HybridConnector connector) {
+            super(map, name, connector);
+        }
+        
+        @Override
+        public boolean containsKey(int key) {
+            return ((Int2DoubleMap)getMap()).containsKey(key);
+        }
+        
+        @Override
+        public double getDouble(int key) {
+            return ((Int2DoubleMap)getMap()).getDouble(key);
+        }
+        
+        @Override
+        public double putDouble(int key, double value) {
+            int heapSizeBefore = heapSize();
+            double previous = ((Int2DoubleMap)getMap()).putDouble(key, value);
+            afterWrite(heapSizeBefore);
+            return previous;
+        }
+        
+        @Override
+        public double addTo(int key, double increment) {
+            int heapSizeBefore = heapSize();
+            double previous = ((Int2DoubleMap)getMap()).addTo(key, increment);
+            afterWrite(heapSizeBefore);
+            return previous;
+        }
+        
+        @Override
+        protected Map<Integer, Double> newSpillMap(DatabaseConnector spillConnector, String spillName) {
+            return spillConnector.getInt2DoubleBigMap(spillName, true);
+        }
+        
+        @Override
+        protected Map<Integer, Double> newHeapMap() {
+            return new Int2DoubleOpenHashMap();
+        }
+    }
+    
+    /**
+     * Spillable Int2IntMap which keeps the primitive accessors of the wrapped
+     * map.
+     */
+    static class SpillableInt2IntMap extends SpillableMap<Integer, Integer> implements Int2IntMap {
+        private static final long serialVersionUID = 1L;
+        
+        SpillableInt2IntMap(Int2IntMap map, String name, HybridConnector connector) {
+            super(map, name, connector);
+        }
+        
+        @Override
+        public boolean containsKey(int key) {
+            return ((Int2IntMap)getMap()).containsKey(key);
+        }
+        
+        @Override
+        public int getInt(int key) {
+            return ((Int2IntMap)getMap()).getInt(key);
+        }
+        
+        @Override
+        public int putInt(int key, int value) {
+            int heapSizeBefore = heapSize();
+            int previous = ((Int2IntMap)getMap()).putInt(key, value);
+            afterWrite(heapSizeBefore);
+            return previous;
+        }
+        
+        @Override
+        public int addTo(int key, int increment) {
+            int heapSizeBefore = heapSize();
+            int previous = ((Int2IntMap)getMap()).addTo(key, increment);
+            afterWrite(heapSizeBefore);
+            return previous;
+        }
+        
+        @Override
+        protected Map<Integer, Integer> newSpillMap(DatabaseConnector spillConnector, String spillName) {
+            return spillConnector.getInt2IntBigMap(spillName, true);
+        }
+        
+        @Override
+        protected Map<Integer, Integer> newHeapMap() {
+            return new Int2IntOpenHashMap();
+        }
+    }
+    
+    /**
+     * Spillable Object2DoubleMap which keeps the primitive accessors of the 
+     * wrapped map.
+     * 
+     * @param <K> 
+     */
+    static class SpillableObject2DoubleMap<K> extends SpillableMap<K, Double> implements Object2DoubleMap<K> {
+        private static final long serialVersionUID = 1L;
+        
+        SpillableObject2DoubleMap(Object2DoubleMap<K> map, String name, HybridConnector connector) {
+            super(map, name, connector);
+        }
+        
+        @Override
+        public double getDouble(Object key) {
+            return ((Object2DoubleMap<K>)getMap()).getDouble(key);
+        }
+        
+        @Override
+        public double getDouble(Object key, double defaultValue) {
+            return ((Object2DoubleMap<K>)getMap()).getDouble(key, defaultValue);
+        }
+        
+        @Override
+        public double putDouble(K key, double value) {
+            int heapSizeBefore = heapSize();
+            double previous = ((Object2DoubleMap<K>)getMap()).putDouble(key, value);
+            afterWrite(heapSizeBefore);
+            return previous;
+        }
+        
+        @Override
+        public double addTo(K key, double increment) {
+            int heapSizeBefore = heapSize();
+            double previous = ((Object2DoubleMap<K>)getMap()).addTo(key, increment);
+            afterWrite(heapSizeBefore);
+            return previous;
+        }
+        
+        @Override
+        public boolean addToIfPresent(K key, double increment) {
+            int heapSizeBefore = heapSize();
+            boolean updated = ((Object2DoubleMap<K>)getMap()).addToIfPresent(key, increment);
+            afterWrite(heapSizeBefore);
+            return updated;
+        }
+        
+        @Override
+        protected Map<K, Double> newSpillMap(DatabaseConnector spillConnector, String spillName) {
+            return spillConnector.getObject2DoubleBigMap(spillName, true);
+        }
+        
+        @Override
+        protected Map<K, Double> newHeapMap() {
+            return new Object2DoubleOpenHashMap<>();
+        }
+    }
+    
+    /**
+     * Spillable NavigableMap which stores the sorted BigMaps. The range views
+     * (subMap, headMap, tailMap and descendingMap) look up the map which stores
+     * the entries on every call, so they remain valid after spilling. The key
+     * sets of navigableKeySet() and descendingKeySet() are bound to the map 
+     * which stores the entries when they are created. The writes through the 
+     * range views are not reported to the connector; they are counted the next
+     * time the heap budget is recalculated.
+     * 
+     * @param <K>
+     * @param <V> 
+     */
+    static class SpillableNavigableMap<K, V> extends SpillableMap<K, V> implements NavigableMap<K, V> {
+        private static final long serialVersionUID = 1L;
+        
+        SpillableNavigableMap(NavigableMap<K, V> map, String name, HybridConnector connector) {
+            super(map, name, connector);
+        }
+        
+        private NavigableMap<K, V> navigableMap() {
+            return (NavigableMap<K, V>)getMap();
+        }
+        
+        @Override
+        public Comparator<? super K> comparator() {
+            return navigableMap().comparator();
+        }
+        
+        @Override
+        public K firstKey() {
+            return navigableMap().firstKey();
+        }
+        
+        @Override
+        public K lastKey() {
+            return navigableMap().lastKey();
+        }
+        
+        @Override
+        public Map.Entry<K, V> lowerEntry(K key) {
+            return navigableMap().lowerEntry(key);
+        }
+        
+        @Override
+        public K lowerKey(K key) {
+            return navigableMap().lowerKey(key);
+        }
+        
+        @Override
+        public Map.Entry<K, V> floorEntry(K key) {
+            return navigableMap().floorEntry(key);
+        }
+        
+        @Override
+        public K floorKey(K key) {
+            return navigableMap().floorKey(key);
+        }
+        
+        @Override
+        public Map.Entry<K, V> ceilingEntry(K key) {
+            return navigableMap().ceilingEntry(key);
+        }
+        
+        @Override
+        public K ceilingKey(K key) {
+            return navigableMap().ceilingKey(key);
+        }
+        
+        @Override
+        public Map.Entry<K, V> higherEntry(K key) {
+            return navigableMap().higherEntry(key);
+        }
+        
+        @Override
+        public K higherKey(K key) {
+            return navigableMap().higherKey(key);
+        }
+        
+        @Override
+        public Map.Entry<K, V> firstEntry() {
+            return navigableMap().firstEntry();
+        }
+        
+        @Override
+        public Map.Entry<K, V> lastEntry() {
+            return navigableMap().lastEntry();
+        }
+        
+        @Override
+        public Map.Entry<K, V> pollFirstEntry() {
+            int heapSizeBefore = heapSize();
+            Map.Entry<K, V> entry = navigableMap().pollFirstEntry();
+            afterWrite(heapSizeBefore);
+            return entry;
+        }
+        
+        @Override
+        public Map.Entry<K, V> pollLastEntry() {
+            int heapSizeBefore = heapSize();
+            Map.Entry<K, V> entry = navigableMap().pollLastEntry();
+            afterWrite(heapSizeBefore);
+            return entry;
+        }
+        
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            return navigableMap().navigableKeySet();
+        }
+        
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return navigableMap().descendingKeySet();
+        }
+        
+        @Override
+        public NavigableMap<K, V> descendingMap() {
+            return new RangeView<K, V>() {
+                @Override
+                protected NavigableMap<K, V> view() {
+                    return navigableMap().descendingMap();
+                }
+            };
+        }
+        
+        @Override
+        public NavigableMap<K, V> subMap(final K fromKey, final boolean fromInclusive, final K toKey, final boolean toInclusive) {
+            return new RangeView<K, V>() {
+                @Override
+                protected NavigableMap<K, V> view() {
+                    return navigableMap().subMap(fromKey, fromInclusive, toKey, toInclusive);
+                }
+            };
+        }
+        
+        @Override
+        public NavigableMap<K, V> headMap(final K toKey, final boolean inclusive) {
+            return new RangeView<K, V>() {
+                @Override
+                protected NavigableMap<K, V> view() {
+                    return navigableMap().headMap(toKey, inclusive);
+                }
+            };
+        }
+        
+        @Override
+        public NavigableMap<K, V> tailMap(final K fromKey, final boolean inclusive) {
+            return new RangeView<K, V>() {
+                @Override
+                protected NavigableMap<K, V> view() {
+                    return navigableMap().tailMap(fromKey, inclusive);
+                }
+            };
+        }
+        
+        @Override
+        public NavigableMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+        
+        @Override
+        public NavigableMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+        
+        @Override
+        public NavigableMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+        
+        @Override
+        protected Map<K, V> newSpillMap(DatabaseConnector spillConnector, String spillName) {
+            return spillConnector.getOrderedBigMap(spillName, true);
+        }
+        
+        @Override
+        protected Map<K, V> newHeapMap() {
+            return new TreeMap<>(TupleComparator.INSTANCE);
+        }
+    }
+    
+    /**
+     * View of a range of a SpillableNavigableMap which forwards every call to
+     * the view of the map that currently stores the entries.
+     * 
+     * @param <K>
+     * @param <V> 
+     */
+    private abstract static class RangeView<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+        
+        /**
+         * Returns the view of the map which currently stores the entries.
+         * 
+         * @return 
+         */
+        protected abstract NavigableMap<K, V> view();
+        
+        @Override
+        public int size() {
+            return view().size();
+        }
+        
+        @Override
+        public boolean isEmpty() {
+            return view().isEmpty();
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return view().containsKey(key);
+        }
+        
+        @Override
+        public boolean containsValue(Object value) {
+            return view().containsValue(value);
+        }
+        
+        @Override
+        public V get(Object key) {
+            return view().get(key);
+        }
+        
+        @Override
+        public V put(K key, V value) {
+            return view().put(key, value);
+        }
+        
+        @Override
+        public V remove(Object key) {
+            return view().remove(key);
+        }
+        
+        @Override
+        public void clear() {
+            view().clear();
+        }
+        
+        @Override
+        public Set<K> keySet() {
+            return view().keySet();
+        }
+        
+        @Override
+        public Collection<V> values() {
+            return view().values();
+        }
+        
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return view().entrySet();
+        }
+        
+        @Override
+        public Comparator<? super K> comparator() {
+            return view().comparator();
+        }
+        
+        @Override
+        public K firstKey() {
+            return view().firstKey();
+        }
+        
+        @Override
+        public K lastKey() {
+            return view().lastKey();
+        }
+        
+        @Override
+        public Map.Entry<K, V> lowerEntry(K key) {
+            return view().lowerEntry(key);
+        }
+        
+        @Override
+        public K lowerKey(K key) {
+            return view().lowerKey(key);
+        }
+        
+        @Override
+        public Map.Entry<K, V> floorEntry(K key) {
+            return view().floorEntry(key);
+        }
+        
+        @Override
+        public K floorKey(K key) {
+            return view().floorKey(key);
+        }
+        
+        @Override
+        public Map.Entry<K, V> ceilingEntry(K key) {
+            return view().ceilingEntry(key);
+        }
+        
+        @Override
+        public K ceilingKey(K key) {
+            return view().ceilingKey(key);
+        }
+        
+        @Override
+        public Map.Entry<K, V> higherEntry(K key) {
+            return view().higherEntry(key);
+        }
+        
+        @Override
+        public K higherKey(K key) {
+            return view().higherKey(key);
+        }
+        
+        @Override
+        public Map.Entry<K, V> firstEntry() {
+            return view().firstEntry();
+        }
+        
+        @Override
+        public Map.Entry<K, V> lastEntry() {
+            return view().lastEntry();
+        }
+        
+        @Override
+        public Map.Entry<K, V> pollFirstEntry() {
+            return view().pollFirstEntry();
+        }
+        
+        @Override
+        public Map.Entry<K, V> pollLastEntry() {
+            return view().pollLastEntry();
+        }
+        
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            return view().navigableKeySet();
+        }
+        
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return view().descendingKeySet();
+        }
+        
+        @Override
+        public NavigableMap<K, V> descendingMap() {
+            return new RangeView<K, V>() {
+                @Override
+                protected NavigableMap<K, V> view() {
+                    return RangeView.this.view().descendingMap();
+                }
+            };
+        }
+        
+        @Override
+        public NavigableMap<K, V> subMap(final K fromKey, final boolean fromInclusive, final K toKey, final boolean toInclusive) {
+            return new RangeView<K, V>() {
+                @Override
+                protected NavigableMap<K, V> view() {
+                    return RangeView.this.view().subMap(fromKey, fromInclusive, toKey, toInclusive);
+                }
+            };
+        }
+        
+        @Override
+        public NavigableMap<K, V> headMap(final K toKey, final boolean inclusive) {
+            return new RangeView<K, V>() {
+                @Override
+                protected NavigableMap<K, V> view() {
+                    return RangeView.this.view().headMap(toKey, inclusive);
+                }
+            };
+        }
+        
+        @Override
+        public NavigableMap<K, V> tailMap(final K fromKey, final boolean inclusive) {
+            return new RangeView<K, V>() {
+                @Override
+                protected NavigableMap<K, V> view() {
+                    return RangeView.this.view().tailMap(fromKey, inclusive);
+                }
+            };
+        }
+        
+        @Override
+        public NavigableMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+        
+        @Override
+        public NavigableMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+        
+        @Override
+        public NavigableMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+    }
+}
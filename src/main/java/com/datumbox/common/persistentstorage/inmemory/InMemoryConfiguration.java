@@ -15,6 +15,9 @@
  */
 package com.datumbox.common.persistentstorage.inmemory;
 
+import com.datumbox.common.persistentstorage.codecs.BinaryCodec;
+import com.datumbox.common.persistentstorage.codecs.Codec;
+import com.datumbox.common.persistentstorage.codecs.Codecs;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
 import java.util.Properties;
@@ -41,6 +44,31 @@ public class InMemoryConfiguration implements DatabaseConfiguration {
      */
     private String outputFolder = "./";
     
+    /**
+     * 是否压缩序列化文件
+     */
+    private boolean compressed = false;
+    
+    /**
+     * 序列化文件的编码器
+     */
+    private Codec codec = new BinaryCodec();
+    
+    /**
+     * 是否延迟加载BigMap
+     */
+    private boolean lazyLoading = false;
+    
+    /**
+     * 是否使用并发的BigMap
+     */
+    private boolean concurrent = false;
+    
+    /**
+     * 是否以只读模式打开数据库
+     */
+    private boolean readOnly = false;
+    
     /**
      * 初始化到数据库的一个连接<br>
      * It initializes a new connector to the Database.
@@ -73,6 +101,11 @@ public class InMemoryConfiguration implements DatabaseConfiguration {
     @Override
     public void load(Properties properties) {
         outputFolder = properties.getProperty("dbConfig.InMemoryConfiguration.outputFolder");
+        compressed = "true".equalsIgnoreCase(properties.getProperty("dbConfig.InMemoryConfiguration.compressed"));
+        codec = Codecs.newInstance(properties.getProperty("dbConfig.InMemoryConfiguration.codec"));
+        lazyLoading = "true".equalsIgnoreCase(properties.getProperty("dbConfig.InMemoryConfiguration.lazyLoading"));
+        concurrent = "true".equalsIgnoreCase(properties.getProperty("dbConfig.InMemoryConfiguration.concurrent"));
+        readOnly = "true".equalsIgnoreCase(properties.getProperty("dbConfig.InMemoryConfiguration.readOnly"));
     }
     
     /**
@@ -94,4 +127,119 @@ public class InMemoryConfiguration implements DatabaseConfiguration {
     public void setOutputFolder(String outputFolder) {
         this.outputFolder = outputFolder;
     }
+    
+    /**
+     * 获取压缩选项<br>
+     * Getter for the compression option.
+     * 
+     * @return 
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+    
+    /**
+     * 设置压缩选项<br>
+     * Setter for the compression option. If turned on the serialized files are
+     * compressed with Deflate. It is turned off by default.
+     * 
+     * @param compressed 
+     */
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+    
+    /**
+     * 获取编码器<br>
+     * Getter for the Codec which is used to write the serialized files.
+     * 
+     * @return 
+     */
+    public Codec getCodec() {
+        return codec;
+    }
+    
+    /**
+     * 设置编码器<br>
+     * Setter for the Codec which is used to write the serialized files. The 
+     * files are always read with the Codec that wrote them. The BinaryCodec is
+     * used by default.
+     * 
+     * @param codec 
+     */
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+    
+    /**
+     * 获取延迟加载选项<br>
+     * Getter for the lazy loading option.
+     * 
+     * @return 
+     */
+    public boolean isLazyLoading() {
+        return lazyLoading;
+    }
+    
+    /**
+     * 设置延迟加载选项<br>
+     * Setter for the lazy loading option. If turned on the large BigMaps are not
+     * deserialized when the object is loaded; their pages are read from the 
+     * file the first time one of their keys is accessed. The rest of the fields
+     * are always loaded eagerly. It is turned off by default.
+     * 
+     * @param lazyLoading 
+     */
+    public void setLazyLoading(boolean lazyLoading) {
+        this.lazyLoading = lazyLoading;
+    }
+    
+    /**
+     * 获取并发模式选项<br>
+     * Getter for the concurrency option.
+     * 
+     * @return 
+     */
+    @Override
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+    
+    /**
+     * 设置并发模式选项<br>
+     * Setter for the concurrency option. If turned on the BigMaps are backed by
+     * ConcurrentHashMaps and ConcurrentSkipListMaps instead of the single 
+     * threaded open addressing maps, so they can be updated by multiple threads
+     * and the addTo() methods are atomic. The concurrent BigMaps are always 
+     * loaded eagerly. It is turned off by default.
+     * 
+     * @param concurrent 
+     */
+    public void setConcurrent(boolean concurrent) {
+        this.concurrent = concurrent;
+    }
+    
+    /**
+     * 获取只读模式选项<br>
+     * Getter for the read-only option.
+     * 
+     * @return 
+     */
+    @Override
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+    
+    /**
+     * 设置只读模式选项<br>
+     * Setter for the read-only option. If turned on the stored objects can be
+     * loaded but the connectors reject the saves and the drops of the database.
+     * The connectors of the same file share the loaded objects instead of 
+     * deserializing a copy each. It is turned off by default.
+     * 
+     * @param readOnly 
+     */
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
 }
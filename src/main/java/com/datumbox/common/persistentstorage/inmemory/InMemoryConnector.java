@@ -16,6 +16,16 @@
 package com.datumbox.common.persistentstorage.inmemory;
 
 import com.datumbox.common.persistentstorage.AutoCloseConnector;
+import com.datumbox.common.persistentstorage.collections.BoxedInt2DoubleMap;
+import com.datumbox.common.persistentstorage.collections.BoxedInt2IntMap;
+import com.datumbox.common.persistentstorage.collections.BoxedObject2DoubleMap;
+import com.datumbox.common.persistentstorage.collections.Int2DoubleOpenHashMap;
+import com.datumbox.common.persistentstorage.collections.Int2IntOpenHashMap;
+import com.datumbox.common.persistentstorage.collections.Object2DoubleOpenHashMap;
+import com.datumbox.common.persistentstorage.collections.TupleComparator;
+import com.datumbox.common.persistentstorage.interfaces.Int2DoubleMap;
+import com.datumbox.common.persistentstorage.interfaces.Int2IntMap;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileSystems;
@@ -23,9 +33,13 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
-import com.datumbox.common.utilities.DeepCopy;
 import java.io.Serializable;
 import java.util.HashMap;
 
@@ -34,7 +48,12 @@ import java.util.HashMap;
  * 用来在内存中保存和加载数据、创建BigMaps并且储存数据<br>
  * The InMemoryConnector is responsible for saving and loading data in memory,
  * creating BigMaps and persisting data. The InMemoryConnector loads all the
- * data in memory and persists all data in serialized files.
+ * data in memory and persists all data in serialized files. The methods of the
+ * connector are synchronized and in concurrent mode the BigMaps are concurrent
+ * maps, so the connector can be shared by multiple threads. In read-only mode
+ * the stored objects can be loaded but the saves and the drops of the database
+ * are rejected; the loaded objects are shared by all the read-only connectors
+ * of the same file (see ReadOnlyObjectPool), so they must not be modified.
  *
  * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
  */
@@ -43,6 +62,9 @@ public class InMemoryConnector extends AutoCloseConnector {
     private final InMemoryConfiguration dbConf;
     private final String database;
     
+    /* The object which is shared with the other read-only connectors; it is null until it is loaded */
+    private Object sharedObject;
+    
     /**
      * 创建连接<br>
      * Non-public constructor used by InMemoryConfiguration class to generate
@@ -67,10 +89,12 @@ public class InMemoryConnector extends AutoCloseConnector {
      * @param serializableObject 
      */
     @Override
-    public <T extends Serializable> void save(String name, T serializableObject) {
+    public synchronized <T extends Serializable> void save(String name, T serializableObject) {
         ensureNotClosed();
+        ensureNotReadOnly();
         try { 
-            Files.write(getDefaultPath(), DeepCopy.serialize(serializableObject));
+            //stream the object directly to the file to avoid keeping the serialized bytes in memory
+            SectionedObjectFile.write(getDefaultPath(), serializableObject, dbConf.getCodec(), dbConf.isCompressed());
         } 
         catch (IOException ex) {
             throw new RuntimeException(ex);
@@ -87,17 +111,25 @@ public class InMemoryConnector extends AutoCloseConnector {
      */
     @Override
     @SuppressWarnings("unchecked")
-    public <T extends Serializable> T load(String name, Class<T> klass) {
+    public synchronized <T extends Serializable> T load(String name, Class<T> klass) {
         ensureNotClosed();
         try { 
+            if(dbConf.isReadOnly()) {
+                //the read-only files are deserialized once and shared by all their connectors
+                if(sharedObject==null) {
+                    sharedObject = ReadOnlyObjectPool.acquire(getDefaultPath(), dbConf.isLazyLoading());
+                }
+                return (T)sharedObject;
+            }
+            
             //read the stored serialized object
-            T serializableObject = (T)DeepCopy.deserialize(Files.readAllBytes(getDefaultPath()));
+            T serializableObject = (T)SectionedObjectFile.read(getDefaultPath(), dbConf.isLazyLoading());
             return serializableObject;
         } 
         catch (NoSuchFileException ex) {
             return null;
         }
-        catch (IOException ex) {
+        catch (IOException | ClassNotFoundException ex) {
             throw new RuntimeException(ex);
         }
     }
@@ -106,10 +138,14 @@ public class InMemoryConnector extends AutoCloseConnector {
      * Closes the connection and clean ups the resources.
      */
     @Override
-    public void close() {
+    public synchronized void close() {
         if(isClosed()){
             return; 
         }
+        if(sharedObject!=null) {
+            ReadOnlyObjectPool.release(getDefaultPath(), dbConf.isLazyLoading(), sharedObject);
+            sharedObject = null;
+        }
         super.close();
     }
     
@@ -119,7 +155,7 @@ public class InMemoryConnector extends AutoCloseConnector {
      * @return 
      */
     @Override
-    public boolean existsDatabase() {
+    public synchronized boolean existsDatabase() {
         ensureNotClosed();
         return Files.exists(getDefaultPath());
     }
@@ -128,8 +164,9 @@ public class InMemoryConnector extends AutoCloseConnector {
      * Drops the particular database.
      */
     @Override
-    public void dropDatabase() {
+    public synchronized void dropDatabase() {
         ensureNotClosed();
+        ensureNotReadOnly();
         if(!existsDatabase()) {
             return;
         }
@@ -153,11 +190,93 @@ public class InMemoryConnector extends AutoCloseConnector {
      * @return 
      */
     @Override
-    public <K,V> Map<K,V> getBigMap(String name, boolean isTemporary) {
+    public synchronized <K,V> Map<K,V> getBigMap(String name, boolean isTemporary) {
         ensureNotClosed();
-        return new HashMap<>();
+        return dbConf.isConcurrent()?new ConcurrentHashMap<>():new HashMap<>();
     }  
     
+    /**
+     * Creates a Big Map with int keys and double values. The map stores the
+     * primitives in open addressing arrays.
+     * In concurrent mode it is backed by a ConcurrentHashMap.
+     * 
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized Int2DoubleMap getInt2DoubleBigMap(String name, boolean isTemporary) {
+        ensureNotClosed();
+        return dbConf.isConcurrent()?new BoxedInt2DoubleMap(new ConcurrentHashMap<>()):new Int2DoubleOpenHashMap();
+    }
+    
+    /**
+     * Creates a Big Map with int keys and int values. The map stores the
+     * primitives in open addressing arrays.
+     * In concurrent mode it is backed by a ConcurrentHashMap.
+     * 
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized Int2IntMap getInt2IntBigMap(String name, boolean isTemporary) {
+        ensureNotClosed();
+        return dbConf.isConcurrent()?new BoxedInt2IntMap(new ConcurrentHashMap<>()):new Int2IntOpenHashMap();
+    }
+    
+    /**
+     * Creates a Big Map with Object keys and double values. The map stores the
+     * values in open addressing arrays.
+     * In concurrent mode it is backed by a ConcurrentHashMap.
+     * 
+     * @param <K>
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized <K> Object2DoubleMap<K> getObject2DoubleBigMap(String name, boolean isTemporary) {
+        ensureNotClosed();
+        return dbConf.isConcurrent()?new BoxedObject2DoubleMap<>(new ConcurrentHashMap<>()):new Object2DoubleOpenHashMap<>();
+    }
+    
+    /**
+     * Creates a sorted Big Map which is stored in memory.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized <K,V> NavigableMap<K,V> getOrderedBigMap(String name, boolean isTemporary) {
+        ensureNotClosed();
+        return dbConf.isConcurrent()?new ConcurrentSkipListMap<>(TupleComparator.INSTANCE):new TreeMap<>(TupleComparator.INSTANCE);
+    }
+    
+    /**
+     * Creates a sorted Big Map which is stored in memory and copies the entries
+     * in it.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @param entries
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized <K,V> NavigableMap<K,V> bulkLoadOrderedBigMap(String name, Iterator<? extends Map.Entry<K,V>> entries, boolean isTemporary) {
+        NavigableMap<K,V> map = getOrderedBigMap(name, isTemporary);
+        while(entries.hasNext()) {
+            Map.Entry<K,V> entry = entries.next();
+            map.put(entry.getKey(), entry.getValue());
+        }
+        return map;
+    }
+    
     /**
      * Drops a particular Big Map.
      * 
@@ -166,10 +285,16 @@ public class InMemoryConnector extends AutoCloseConnector {
      * @param map 
      */
     @Override
-    public <T extends Map> void dropBigMap(String name, T map) {
+    public synchronized <T extends Map> void dropBigMap(String name, T map) {
         ensureNotClosed();
         map.clear();
     } 
+    
+    private void ensureNotReadOnly() {
+        if(dbConf.isReadOnly()) {
+            throw new UnsupportedOperationException("The database is opened in read-only mode.");
+        }
+    }
 
     private Path getDefaultPath() {
         //get the default filepath of the permanet db file
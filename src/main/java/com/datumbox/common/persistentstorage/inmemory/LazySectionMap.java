@@ -0,0 +1,347 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.inmemory;
+
+import com.datumbox.common.persistentstorage.collections.Int2DoubleOpenHashMap;
+import com.datumbox.common.persistentstorage.collections.Int2IntOpenHashMap;
+import com.datumbox.common.persistentstorage.collections.Object2DoubleOpenHashMap;
+import com.datumbox.common.persistentstorage.interfaces.Int2DoubleMap;
+import com.datumbox.common.persistentstorage.interfaces.Int2IntMap;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A BigMap which was stored in a section of a SectionedObjectFile and whose 
+ * pages are loaded on demand. Accessing a key loads only the page in which the
+ * key is stored, while the operations which need all the entries (iteration, 
+ * containsValue, equals etc) load the entire map. Once all the pages are loaded
+ * the map behaves exactly as the map that was stored and it is no longer 
+ * synchronized. When the map is serialized, it is replaced by the fully loaded
+ * map.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ * @param <K>
+ * @param <V>
+ */
+class LazySectionMap<K, V> implements Map<K, V>, Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private final transient SectionedObjectFile.PageReader reader;
+    
+    private final transient SectionedObjectFile.SectionInfo section;
+    
+    private final transient Map<K, V> data;
+    
+    private final transient boolean[] loadedPages;
+    
+    private transient int unloadedPages;
+    
+    private transient int unloadedSize;
+    
+    private transient volatile boolean fullyLoaded = false;
+    
+    /**
+     * Creates a lazy map which matches the interfaces of the stored map.
+     * 
+     * @param section
+     * @param reader
+     * @return 
+     */
+    static Map<?, ?> newInstance(SectionedObjectFile.SectionInfo section, SectionedObjectFile.PageReader reader) {
+        if(Int2DoubleOpenHashMap.class.getName().equals(section.className)) {
+            return new LazyInt2DoubleMap(section, reader);
+        }
+        else if(Int2IntOpenHashMap.class.getName().equals(section.className)) {
+            return new LazyInt2IntMap(section, reader);
+        }
+        else if(Object2DoubleOpenHashMap.class.getName().equals(section.className)) {
+            return new LazyObject2DoubleMap<>(section, reader);
+        }
+        return new LazySectionMap<>(section, reader);
+    }
+    
+    /**
+     * Protected constructor of the lazy map.
+     * 
+     * @param section
+     * @param reader 
+     */
+    @SuppressWarnings("unchecked")
+    protected LazySectionMap(SectionedObjectFile.SectionInfo section, SectionedObjectFile.PageReader reader) {
+        this.reader = reader;
+        this.section = section;
+        unloadedSize = section.size();
+        unloadedPages = section.offsets.length;
+        loadedPages = new boolean[unloadedPages];
+        data = (Map<K, V>)SectionedObjectFile.newSectionMap(section.className, unloadedSize);
+    }
+    
+    /**
+     * Checks whether all the pages of the map are loaded.
+     * 
+     * @return 
+     */
+    public boolean isFullyLoaded() {
+        return fullyLoaded;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        if(fullyLoaded) {
+            return data.size();
+        }
+        synchronized(this) {
+            return data.size() + unloadedSize;
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size()==0;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        if(fullyLoaded) {
+            return data.containsKey(key);
+        }
+        synchronized(this) {
+            loadPageOf(key);
+            return data.containsKey(key);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        if(fullyLoaded) {
+            return data.get(key);
+        }
+        synchronized(this) {
+            loadPageOf(key);
+            return data.get(key);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V put(K key, V value) {
+        if(fullyLoaded) {
+            return data.put(key, value);
+        }
+        synchronized(this) {
+            loadPageOf(key);
+            return data.put(key, value);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V remove(Object key) {
+        if(fullyLoaded) {
+            return data.remove(key);
+        }
+        synchronized(this) {
+            loadPageOf(key);
+            return data.remove(key);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        for(Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clear() {
+        //the stored entries are discarded, so there is no need to load them
+        data.clear();
+        markAllLoaded();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        return loadAll().containsValue(value);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<K> keySet() {
+        return loadAll().keySet();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<V> values() {
+        return loadAll().values();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return loadAll().entrySet();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o==this || loadAll().equals(o);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return loadAll().hashCode();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return loadAll().toString();
+    }
+    
+    /**
+     * Replaces the lazy map with the fully loaded map during serialization.
+     * 
+     * @return 
+     * @throws ObjectStreamException 
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+        return loadAll();
+    }
+    
+    private Map<K, V> loadAll() {
+        if(fullyLoaded==false) {
+            synchronized(this) {
+                for(int p=0;p<loadedPages.length;++p) {
+                    loadPage(p);
+                }
+            }
+        }
+        return data;
+    }
+    
+    private void loadPageOf(Object key) {
+        loadPage(SectionedObjectFile.pageOf(key, loadedPages.length));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void loadPage(int p) {
+        if(loadedPages[p]) {
+            return;
+        }
+        try {
+            //the keys of a page are never modified before the page is loaded
+            data.putAll((Map<K, V>)reader.readPage(section.offsets[p]));
+        }
+        catch (IOException | ClassNotFoundException ex) {
+            throw new RuntimeException(ex);
+        }
+        loadedPages[p] = true;
+        unloadedSize -= section.sizes[p];
+        if(--unloadedPages==0) {
+            fullyLoaded = true;
+        }
+    }
+    
+    private void markAllLoaded() {
+        for(int p=0;p<loadedPages.length;++p) {
+            loadedPages[p] = true;
+        }
+        unloadedPages = 0;
+        unloadedSize = 0;
+        fullyLoaded = true;
+    }
+    
+    /**
+     * Lazy version of the Int2DoubleOpenHashMap.
+     */
+    static class LazyInt2DoubleMap extends LazySectionMap<Integer, Double> implements Int2DoubleMap {
+        private static final long serialVersionUID = 1L;
+        
+        private LazyInt2DoubleMap(SectionedObjectFile.SectionInfo section, SectionedObjectFile.PageReader reader) {
+            super(section, reader);
+        }
+    }
+    
+    /**
+     * Lazy version of the Int2IntOpenHashMap.
+     */
+    static class LazyInt2IntMap extends LazySectionMap<Integer, Integer> implements Int2IntMap {
+        private static final long serialVersionUID = 1L;
+        
+        private LazyInt2IntMap(SectionedObjectFile.SectionInfo section, SectionedObjectFile.PageReader reader) {
+            super(section, reader);
+        }
+    }
+    
+    /**
+     * Lazy version of the Object2DoubleOpenHashMap.
+     * 
+     * @param <K> 
+     */
+    static class LazyObject2DoubleMap<K> extends LazySectionMap<K, Double> implements Object2DoubleMap<K> {
+        private static final long serialVersionUID = 1L;
+        
+        private LazyObject2DoubleMap(SectionedObjectFile.SectionInfo section, SectionedObjectFile.PageReader reader) {
+            super(section, reader);
+        }
+    }
+
+}
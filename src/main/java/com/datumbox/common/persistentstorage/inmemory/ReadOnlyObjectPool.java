@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.inmemory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the objects which are loaded from files in read-only mode. All
+ * the connectors which load the same file in read-only mode share the same
+ * deserialized object, so a model is kept in memory only once. The objects
+ * are reference counted and they are removed when the last connector releases
+ * them. If the file is modified, the connectors which load it afterwards get
+ * a new object. The key contains the path of the file and the loading mode.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+final class ReadOnlyObjectPool {
+    
+    /**
+     * A shared object and the number of connectors which use it.
+     */
+    private static class SharedObject {
+        private final Object obj;
+        private final FileTime lastModified;
+        private int references = 0;
+        
+        private SharedObject(Object obj, FileTime lastModified) {
+            this.obj = obj;
+            this.lastModified = lastModified;
+        }
+    }
+    
+    private static final Map<String, SharedObject> POOL = new HashMap<>();
+    
+    private ReadOnlyObjectPool() {
+    }
+    
+    /**
+     * Returns the shared object of the file. If it is not loaded or the file
+     * was modified, the file is deserialized.
+     * 
+     * @param path
+     * @param lazy
+     * @return 
+     * @throws IOException
+     * @throws ClassNotFoundException 
+     */
+    static synchronized Object acquire(Path path, boolean lazy) throws IOException, ClassNotFoundException {
+        String key = getKey(path, lazy);
+        FileTime lastModified = Files.getLastModifiedTime(path);
+        SharedObject shared = POOL.get(key);
+        if(shared==null || !shared.lastModified.equals(lastModified)) {
+            shared = new SharedObject(SectionedObjectFile.read(path, lazy), lastModified);
+            POOL.put(key, shared);
+        }
+        ++shared.references;
+        return shared.obj;
+    }
+    
+    /**
+     * Releases the shared object of the file. The object is removed when it
+     * is no longer used by any connector.
+     * 
+     * @param path
+     * @param lazy
+     * @param obj 
+     */
+    static synchronized void release(Path path, boolean lazy, Object obj) {
+        String key = getKey(path, lazy);
+        SharedObject shared = POOL.get(key);
+        if(shared==null || shared.obj!=obj) {
+            return; //the object was replaced after the file was modified
+        }
+        if(--shared.references<=0) {
+            POOL.remove(key);
+        }
+    }
+    
+    private static String getKey(Path path, boolean lazy) {
+        return path.toAbsolutePath().normalize().toString() + "|lazy=" + lazy;
+    }
+}
@@ -0,0 +1,637 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.inmemory;
+
+import com.datumbox.common.persistentstorage.collections.Int2DoubleOpenHashMap;
+import com.datumbox.common.persistentstorage.collections.Int2IntOpenHashMap;
+import com.datumbox.common.persistentstorage.collections.Object2DoubleOpenHashMap;
+import com.datumbox.common.persistentstorage.collections.PartitionedMap;
+import com.datumbox.common.persistentstorage.codecs.Codec;
+import com.datumbox.common.persistentstorage.codecs.Codecs;
+import com.datumbox.common.persistentstorage.codecs.ObjectReplacer;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads and writes serialized objects directly from/to files without keeping
+ * the serialized bytes in memory. The large BigMaps of the object graph are 
+ * written in separate sections of the file, which are split in pages by the 
+ * hash of their keys. The pages are deserialized in parallel during loading or,
+ * if lazy loading is requested, they are paged in on demand the first time one
+ * of their keys is accessed. Every page is an independent Codec stream and thus
+ * the objects which are shared between the BigMaps and the rest of the graph 
+ * are restored as copies.
+ * 
+ * The file starts with a header (magic number, version, compression flag, file
+ * id, class name of the Codec), continues with the main object graph and the 
+ * pages of the BigMap sections and ends with the index of the sections. Files
+ * which contain a plain Java serialization stream are also supported for 
+ * reading.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+class SectionedObjectFile {
+    
+    private static final int MAGIC = 0x44424B42;
+    private static final byte VERSION = 1;
+    private static final short JAVA_SERIALIZATION_MAGIC = (short)0xACED;
+    
+    private static final int BUFFER_SIZE = 64*1024;
+    
+    /**
+     * The minimum size of a BigMap in order to be written in a separate section.
+     */
+    private static final int MIN_SECTION_SIZE = 1000;
+    
+    /**
+     * The target number of entries of every page of a section.
+     */
+    private static final int PAGE_SIZE = 4096;
+    
+    /**
+     * The position of the file id in the header.
+     */
+    private static final long FILE_ID_OFFSET = 6L;
+    
+    private static final Set<Class<?>> SECTION_CLASSES = new HashSet<>(Arrays.asList(
+        HashMap.class, ConcurrentHashMap.class, Int2DoubleOpenHashMap.class, Int2IntOpenHashMap.class, Object2DoubleOpenHashMap.class
+    ));
+    
+    private static final Logger logger = LoggerFactory.getLogger(SectionedObjectFile.class);
+    
+    private SectionedObjectFile() {
+    }
+    
+    /**
+     * Serializes the object in the file. The data are first written in a 
+     * temporary file which then replaces the target file, so the maps which
+     * were lazily loaded from the target file can be materialized while the 
+     * object is written.
+     * 
+     * @param path
+     * @param obj
+     * @param codec
+     * @param compressed
+     * @throws IOException 
+     */
+    public static void write(Path path, Object obj, Codec codec, boolean compressed) throws IOException {
+        long startTime = System.nanoTime();
+        long bytes;
+        Path tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try(FileChannel channel = FileChannel.open(tmpPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteArrayOutputStream header = new ByteArrayOutputStream();
+                DataOutputStream dos = new DataOutputStream(header);
+                dos.writeInt(MAGIC);
+                dos.writeByte(VERSION);
+                dos.writeBoolean(compressed);
+                dos.writeLong(new SecureRandom().nextLong());
+                dos.writeUTF(codec.getClass().getName());
+                writeFully(channel, ByteBuffer.wrap(header.toByteArray()));
+
+                //write the main graph and replace the large BigMaps with references to the sections
+                long mainOffset = channel.position();
+                final List<Map<Object, Object>> sections = new ArrayList<>();
+                try(ObjectOutputStream oos = codec.newObjectOutputStream(openSegment(channel, compressed), new ObjectReplacer() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object replace(Object o) throws IOException {
+                        if(o!=null && isSection(o)) {
+                            sections.add((Map<Object, Object>)o);
+                            return new SectionReference(sections.size()-1);
+                        }
+                        return o;
+                    }
+                })) {
+                    oos.writeObject(obj);
+                }
+
+                //the sections are written only after the main graph, so new sections are not added at this point
+                List<SectionInfo> infos = new ArrayList<>(sections.size());
+                for(Map<Object, Object> section : sections) {
+                    infos.add(writeSection(channel, section, codec, compressed));
+                }
+
+                long indexOffset = channel.position();
+                ByteArrayOutputStream index = new ByteArrayOutputStream();
+                dos = new DataOutputStream(index);
+                dos.writeLong(mainOffset);
+                dos.writeInt(infos.size());
+                for(SectionInfo info : infos) {
+                    dos.writeUTF(info.className);
+                    dos.writeInt(info.offsets.length);
+                    for(int p=0;p<info.offsets.length;++p) {
+                        dos.writeLong(info.offsets[p]);
+                        dos.writeInt(info.sizes[p]);
+                    }
+                }
+                dos.writeLong(indexOffset);
+                writeFully(channel, ByteBuffer.wrap(index.toByteArray()));
+
+                bytes = channel.position();
+            }
+            try {
+                Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch(AtomicMoveNotSupportedException ex) {
+                Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally {
+            Files.deleteIfExists(tmpPath);
+        }
+        logThroughput("Saved", path, bytes, startTime);
+    }
+    
+    /**
+     * Deserializes the object which is stored in the file. If lazy loading is 
+     * requested, the BigMap sections are replaced by maps which load their 
+     * pages on demand; otherwise all the pages are loaded in parallel.
+     * 
+     * @param path
+     * @param lazy
+     * @return 
+     * @throws IOException
+     * @throws ClassNotFoundException 
+     */
+    public static Object read(Path path, boolean lazy) throws IOException, ClassNotFoundException {
+        long startTime = System.nanoTime();
+        long bytes;
+        Object obj;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            bytes = channel.size();
+            
+            ByteBuffer header = ByteBuffer.allocate(6);
+            readFully(channel, header, 0L);
+            header.flip();
+            if(header.limit()>=2 && header.getShort(0)==JAVA_SERIALIZATION_MAGIC) {
+                //plain serialization stream written by older versions
+                try(ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(nonClosing(Channels.newInputStream(channel.position(0L))), BUFFER_SIZE))) {
+                    obj = ois.readObject();
+                }
+            }
+            else {
+                if(header.limit()<6 || header.getInt()!=MAGIC) {
+                    throw new IOException("Unknown file format.");
+                }
+                byte version = header.get();
+                if(version!=VERSION) {
+                    throw new IOException("Unsupported file version " + version + ".");
+                }
+                boolean compressed = header.get()==1;
+                
+                DataInputStream dis = new DataInputStream(nonClosing(Channels.newInputStream(channel.position(FILE_ID_OFFSET))));
+                long fileId = dis.readLong();
+                Codec codec = Codecs.newInstance(dis.readUTF());
+                
+                PageReader reader = new PageReader(path, fileId, codec, compressed);
+                obj = readSections(channel, reader, readIndex(channel), lazy);
+            }
+        }
+        logThroughput("Loaded", path, bytes, startTime);
+        return obj;
+    }
+    
+    /**
+     * Returns the page of the section in which the key is stored. The hash
+     * codes of the keys must be stable across JVMs, which holds for strings, 
+     * numbers, enums and lists of them.
+     * 
+     * @param key
+     * @param pages
+     * @return 
+     */
+    static int pageOf(Object key, int pages) {
+        return PartitionedMap.partitionOf(key, pages);
+    }
+    
+    /**
+     * Creates an empty map of the provided class which can hold the expected
+     * number of entries without resizing.
+     * 
+     * @param className
+     * @param expectedSize
+     * @return 
+     */
+    @SuppressWarnings("unchecked")
+    static Map<Object, Object> newSectionMap(String className, int expectedSize) {
+        if(HashMap.class.getName().equals(className)) {
+            return new HashMap<>(Math.max((int)(expectedSize/0.75f)+1, 16));
+        }
+        else if(ConcurrentHashMap.class.getName().equals(className)) {
+            return new ConcurrentHashMap<>(Math.max(expectedSize, 16));
+        }
+        else if(Int2DoubleOpenHashMap.class.getName().equals(className)) {
+            return (Map<Object, Object>)(Map<?, ?>)new Int2DoubleOpenHashMap(expectedSize);
+        }
+        else if(Int2IntOpenHashMap.class.getName().equals(className)) {
+            return (Map<Object, Object>)(Map<?, ?>)new Int2IntOpenHashMap(expectedSize);
+        }
+        else if(Object2DoubleOpenHashMap.class.getName().equals(className)) {
+            return (Map<Object, Object>)(Map<?, ?>)new Object2DoubleOpenHashMap<>(expectedSize);
+        }
+        throw new IllegalArgumentException("Unsupported section class " + className + ".");
+    }
+    
+    private static SectionInfo writeSection(FileChannel channel, Map<Object, Object> section, Codec codec, boolean compressed) throws IOException {
+        String className = section.getClass().getName();
+        int n = section.size();
+        int pages = Math.max((n+PAGE_SIZE-1)/PAGE_SIZE, 1);
+        
+        //group the keys by page with a counting sort to avoid scanning the map once per page
+        int[] pageOfKey = new int[n];
+        int[] starts = new int[pages+1];
+        int i = 0;
+        for(Object key : section.keySet()) {
+            int p = pageOf(key, pages);
+            pageOfKey[i++] = p;
+            ++starts[p+1];
+        }
+        for(int p=0;p<pages;++p) {
+            starts[p+1] += starts[p];
+        }
+        Object[] keys = new Object[n];
+        int[] next = Arrays.copyOf(starts, pages);
+        i = 0;
+        for(Object key : section.keySet()) {
+            keys[next[pageOfKey[i++]]++] = key;
+        }
+        pageOfKey = null;
+        
+        SectionInfo info = new SectionInfo(className, pages);
+        for(int p=0;p<pages;++p) {
+            Map<Object, Object> page = newSectionMap(className, starts[p+1]-starts[p]);
+            for(int k=starts[p];k<starts[p+1];++k) {
+                page.put(keys[k], section.get(keys[k]));
+                keys[k] = null;
+            }
+            
+            info.offsets[p] = channel.position();
+            info.sizes[p] = page.size();
+            try(ObjectOutputStream oos = codec.newObjectOutputStream(openSegment(channel, compressed), null)) {
+                oos.writeObject(page);
+            }
+        }
+        return info;
+    }
+    
+    private static Object readSections(FileChannel channel, PageReader reader, SectionIndex index, boolean lazy) throws IOException, ClassNotFoundException {
+        final List<SectionInfo> sections = index.sections;
+        if(sections.isEmpty()) {
+            return reader.readSegment(channel, index.mainOffset, null);
+        }
+        
+        if(lazy) {
+            return reader.readSegment(channel, index.mainOffset, new ObjectReplacer() {
+                @Override
+                public Object replace(Object o) throws IOException {
+                    if(o instanceof SectionReference) {
+                        SectionInfo section = sections.get(((SectionReference)o).index);
+                        if(ConcurrentHashMap.class.getName().equals(section.className)) {
+                            //the concurrent maps are loaded eagerly to keep their atomic operations
+                            Map<Object, Object> map = newSectionMap(section.className, section.size());
+                            try {
+                                for(long offset : section.offsets) {
+                                    map.putAll(reader.readPage(offset));
+                                }
+                            }
+                            catch(ClassNotFoundException ex) {
+                                throw new IOException(ex);
+                            }
+                            return map;
+                        }
+                        return LazySectionMap.newInstance(section, reader);
+                    }
+                    return o;
+                }
+            });
+        }
+        
+        int totalPages = 0;
+        for(SectionInfo section : sections) {
+            totalPages += section.offsets.length;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(totalPages, Runtime.getRuntime().availableProcessors()), new DaemonThreadFactory());
+        try {
+            final List<List<Future<Map<Object, Object>>>> pages = new ArrayList<>(sections.size());
+            for(SectionInfo section : sections) {
+                List<Future<Map<Object, Object>>> sectionPages = new ArrayList<>(section.offsets.length);
+                for(final long offset : section.offsets) {
+                    sectionPages.add(executor.submit(new Callable<Map<Object, Object>>() {
+                        @Override
+                        public Map<Object, Object> call() throws Exception {
+                            return reader.readPage(offset);
+                        }
+                    }));
+                }
+                pages.add(sectionPages);
+            }
+            
+            return reader.readSegment(channel, index.mainOffset, new ObjectReplacer() {
+                @Override
+                public Object replace(Object o) throws IOException {
+                    if(o instanceof SectionReference) {
+                        int i = ((SectionReference)o).index;
+                        try {
+                            return mergePages(sections.get(i), pages.get(i));
+                        }
+                        catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            throw new IOException(ex);
+                        }
+                        catch (ExecutionException ex) {
+                            throw new IOException(ex.getCause());
+                        }
+                    }
+                    return o;
+                }
+            });
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static Map<Object, Object> mergePages(SectionInfo section, List<Future<Map<Object, Object>>> pages) throws InterruptedException, ExecutionException {
+        if(pages.size()==1) {
+            return pages.get(0).get();
+        }
+        Map<Object, Object> map = newSectionMap(section.className, section.size());
+        for(Future<Map<Object, Object>> page : pages) {
+            map.putAll(page.get());
+        }
+        return map;
+    }
+    
+    private static SectionIndex readIndex(FileChannel channel) throws IOException {
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(readIndexBytes(channel)));
+        SectionIndex index = new SectionIndex(dis.readLong());
+        int n = dis.readInt();
+        for(int i=0;i<n;++i) {
+            String className = dis.readUTF();
+            SectionInfo info = new SectionInfo(className, dis.readInt());
+            for(int p=0;p<info.offsets.length;++p) {
+                info.offsets[p] = dis.readLong();
+                info.sizes[p] = dis.readInt();
+            }
+            index.sections.add(info);
+        }
+        return index;
+    }
+    
+    private static byte[] readIndexBytes(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        readFully(channel, buffer, size-8);
+        long indexOffset = buffer.getLong(0);
+        
+        buffer = ByteBuffer.allocate((int)(size-8-indexOffset));
+        readFully(channel, buffer, indexOffset);
+        return buffer.array();
+    }
+    
+    private static OutputStream openSegment(FileChannel channel, boolean compressed) {
+        OutputStream out = nonClosing(Channels.newOutputStream(channel));
+        if(compressed) {
+            out = new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED), BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    }
+                    finally {
+                        def.end(); //release the native memory of the deflater
+                    }
+                }
+            };
+        }
+        return new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+    
+    private static InputStream openSegment(FileChannel channel, long offset, boolean compressed) throws IOException {
+        InputStream in = nonClosing(Channels.newInputStream(channel.position(offset)));
+        if(compressed) {
+            in = new InflaterInputStream(in, new Inflater(), BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    }
+                    finally {
+                        inf.end(); //release the native memory of the inflater
+                    }
+                }
+            };
+        }
+        return new BufferedInputStream(in, BUFFER_SIZE);
+    }
+    
+    private static OutputStream nonClosing(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+            
+            @Override
+            public void close() throws IOException {
+                flush(); //the channel is closed by the caller
+            }
+        };
+    }
+    
+    private static InputStream nonClosing(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public void close() throws IOException {
+                //the channel is closed by the caller
+            }
+        };
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            int read = channel.read(buffer, position+buffer.position());
+            if(read<0) {
+                break;
+            }
+        }
+    }
+    
+    private static void logThroughput(String action, Path path, long bytes, long startTime) {
+        double seconds = Math.max(System.nanoTime()-startTime, 1L)/1e9;
+        logger.debug("{} {} bytes from/to {} in {} sec ({} bytes/sec)", action, bytes, path, seconds, Math.round(bytes/seconds));
+    }
+    
+    private static boolean isSection(Object obj) {
+        return SECTION_CLASSES.contains(obj.getClass()) && ((Map<?, ?>)obj).size()>=MIN_SECTION_SIZE;
+    }
+    
+    /**
+     * Reads the pages of the sections from the file. Every read uses its own
+     * channel and verifies that the file was not replaced since it was opened.
+     */
+    static class PageReader {
+        
+        private final Path path;
+        
+        private final long fileId;
+        
+        private final Codec codec;
+        
+        private final boolean compressed;
+        
+        private PageReader(Path path, long fileId, Codec codec, boolean compressed) {
+            this.path = path;
+            this.fileId = fileId;
+            this.codec = codec;
+            this.compressed = compressed;
+        }
+        
+        /**
+         * Reads the page which is stored at the provided offset.
+         * 
+         * @param offset
+         * @return
+         * @throws IOException
+         * @throws ClassNotFoundException 
+         */
+        @SuppressWarnings("unchecked")
+        Map<Object, Object> readPage(long offset) throws IOException, ClassNotFoundException {
+            try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(8);
+                readFully(channel, buffer, FILE_ID_OFFSET);
+                if(buffer.position()<8 || buffer.getLong(0)!=fileId) {
+                    throw new IOException("The file " + path + " was modified after it was opened.");
+                }
+                return (Map<Object, Object>)readSegment(channel, offset, null);
+            }
+        }
+        
+        private Object readSegment(FileChannel channel, long offset, ObjectReplacer resolver) throws IOException, ClassNotFoundException {
+            try(ObjectInputStream ois = codec.newObjectInputStream(openSegment(channel, offset, compressed), resolver)) {
+                return ois.readObject();
+            }
+        }
+    }
+    
+    /**
+     * The offsets and sizes of the pages of a section.
+     */
+    static class SectionInfo {
+        
+        final String className;
+        
+        final long[] offsets;
+        
+        final int[] sizes;
+        
+        private SectionInfo(String className, int pages) {
+            this.className = className;
+            this.offsets = new long[pages];
+            this.sizes = new int[pages];
+        }
+        
+        int size() {
+            int size = 0;
+            for(int s : sizes) {
+                size += s;
+            }
+            return size;
+        }
+    }
+    
+    private static class SectionIndex {
+        
+        private final long mainOffset;
+        
+        private final List<SectionInfo> sections = new ArrayList<>();
+        
+        private SectionIndex(long mainOffset) {
+            this.mainOffset = mainOffset;
+        }
+    }
+    
+    /**
+     * Placeholder of a BigMap which is stored in a separate section.
+     */
+    private static class SectionReference implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        private final int index;
+        
+        private SectionReference(int index) {
+            this.index = index;
+        }
+    }
+    
+    private static class DaemonThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "SectionedObjectFile-loader");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.instrumented;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Stores the latency histograms of the operations of an InstrumentedConnector.
+ * The histograms are grouped by the name of the BigMap or of the object which 
+ * was saved/loaded and by the type of the operation.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class ConnectorStatistics implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * The operations which are instrumented.
+     */
+    public enum Operation {
+        /**
+         * Lookups of keys (get, containsKey).
+         */
+        GET,
+        
+        /**
+         * Writes of keys (put, putAll).
+         */
+        PUT,
+        
+        /**
+         * Removals of keys (remove, clear).
+         */
+        REMOVE,
+        
+        /**
+         * Retrieval of the next element of the iterators of the BigMap.
+         */
+        ITERATION,
+        
+        /**
+         * Drops of the BigMap.
+         */
+        DROP,
+        
+        /**
+         * Saves of objects.
+         */
+        SAVE,
+        
+        /**
+         * Loads of objects.
+         */
+        LOAD;
+    }
+    
+    private final ConcurrentMap<String, LatencyHistogram[]> histograms;
+    
+    private final long startNanos;
+    
+    private final long elapsedNanos;
+    
+    /**
+     * Package-private constructor which creates empty statistics.
+     */
+    ConnectorStatistics() {
+        histograms = new ConcurrentHashMap<>();
+        startNanos = System.nanoTime();
+        elapsedNanos = -1L;
+    }
+    
+    private ConnectorStatistics(ConnectorStatistics statistics) {
+        histograms = new ConcurrentHashMap<>();
+        for(Map.Entry<String, LatencyHistogram[]> entry : statistics.histograms.entrySet()) {
+            LatencyHistogram[] source = entry.getValue();
+            LatencyHistogram[] copy = new LatencyHistogram[source.length];
+            for(int i=0;i<source.length;++i) {
+                copy[i] = source[i].copy();
+            }
+            histograms.put(entry.getKey(), copy);
+        }
+        startNanos = statistics.startNanos;
+        elapsedNanos = System.nanoTime()-startNanos;
+    }
+    
+    /**
+     * Records the latency of an operation.
+     * 
+     * @param name
+     * @param operation
+     * @param nanos 
+     */
+    void record(String name, Operation operation, long nanos) {
+        LatencyHistogram[] h = histograms.get(name);
+        if(h==null) {
+            LatencyHistogram[] newHistograms = new LatencyHistogram[Operation.values().length];
+            for(int i=0;i<newHistograms.length;++i) {
+                newHistograms[i] = new LatencyHistogram();
+            }
+            h = histograms.putIfAbsent(name, newHistograms);
+            if(h==null) {
+                h = newHistograms;
+            }
+        }
+        h[operation.ordinal()].record(nanos);
+    }
+    
+    /**
+     * Returns a copy of the current statistics.
+     * 
+     * @return 
+     */
+    ConnectorStatistics snapshot() {
+        return new ConnectorStatistics(this);
+    }
+    
+    /**
+     * Returns the names of the BigMaps and objects which have statistics.
+     * 
+     * @return 
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(new TreeMap<>(histograms).keySet());
+    }
+    
+    /**
+     * Returns the histogram of the operation on the provided name. If the name
+     * is unknown an empty histogram is returned.
+     * 
+     * @param name
+     * @param operation
+     * @return 
+     */
+    public LatencyHistogram getHistogram(String name, Operation operation) {
+        LatencyHistogram[] h = histograms.get(name);
+        return (h!=null)?h[operation.ordinal()]:new LatencyHistogram();
+    }
+    
+    /**
+     * Returns the total time in nanoseconds spent in the operations of the 
+     * provided name.
+     * 
+     * @param name
+     * @return 
+     */
+    public long getTotalNanos(String name) {
+        long total = 0L;
+        LatencyHistogram[] h = histograms.get(name);
+        if(h!=null) {
+            for(LatencyHistogram histogram : h) {
+                total += histogram.getTotalNanos();
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Returns the total time in nanoseconds spent in the storage.
+     * 
+     * @return 
+     */
+    public long getTotalNanos() {
+        long total = 0L;
+        for(String name : histograms.keySet()) {
+            total += getTotalNanos(name);
+        }
+        return total;
+    }
+    
+    /**
+     * Returns the time in nanoseconds between the creation of the connector 
+     * and the snapshot.
+     * 
+     * @return 
+     */
+    public long getElapsedNanos() {
+        return (elapsedNanos>=0L)?elapsedNanos:System.nanoTime()-startNanos;
+    }
+    
+    /**
+     * Checks whether any operation was recorded.
+     * 
+     * @return 
+     */
+    public boolean isEmpty() {
+        return histograms.isEmpty();
+    }
+    
+    /**
+     * Returns a summary of the statistics; the names are sorted by the time 
+     * spent in their operations.
+     * 
+     * @return 
+     */
+    @Override
+    public String toString() {
+        long total = getTotalNanos();
+        long elapsed = Math.max(getElapsedNanos(), 1L);
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("storage time %.3fms of %.3fms elapsed (%.1f%%)", total/1e6, elapsed/1e6, 100.0*total/elapsed));
+        
+        List<String> names = new ArrayList<>(getNames());
+        Collections.sort(names, new Comparator<String>() {
+            @Override
+            public int compare(String o1, String o2) {
+                return Long.compare(getTotalNanos(o2), getTotalNanos(o1));
+            }
+        });
+        for(String name : names) {
+            sb.append(String.format("%n  %s: %.3fms", name, getTotalNanos(name)/1e6));
+            for(Operation operation : Operation.values()) {
+                LatencyHistogram histogram = getHistogram(name, operation);
+                if(histogram.getCount()>0) {
+                    sb.append(String.format("%n    %s %s", operation, histogram));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+}
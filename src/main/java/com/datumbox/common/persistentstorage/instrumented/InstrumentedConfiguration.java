@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.instrumented;
+
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import java.util.Properties;
+
+/**
+ * The InstrumentedConfiguration wraps the configuration of any storage engine
+ * and generates InstrumentedConnectors, which record the latencies of the 
+ * operations of the storage. It is used to find out whether the training of a
+ * model is bound by the storage or by the computations.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class InstrumentedConfiguration implements DatabaseConfiguration {
+    
+    private final DatabaseConfiguration delegate;
+    
+    /**
+     * Public constructor which receives the configuration of the storage 
+     * engine which is instrumented.
+     * 
+     * @param delegate 
+     */
+    public InstrumentedConfiguration(DatabaseConfiguration delegate) {
+        if(delegate==null) {
+            throw new IllegalArgumentException("The delegate configuration can't be null.");
+        }
+        this.delegate = delegate;
+    }
+    
+    /**
+     * Returns the configuration of the storage engine which is instrumented.
+     * 
+     * @return 
+     */
+    public DatabaseConfiguration getDelegate() {
+        return delegate;
+    }
+    
+    /**
+     * It initializes a new instrumented connector to the Database.
+     * 
+     * @param database
+     * @return 
+     */
+    @Override
+    public DatabaseConnector getConnector(String database) {
+        return new InstrumentedConnector(database, delegate.getConnector(database));
+    }
+    
+    /**
+     * Returns the separator that is used in the DB names.
+     * 
+     * @return 
+     */
+    @Override
+    public String getDBnameSeparator() {
+        return delegate.getDBnameSeparator();
+    }
+    
+    /**
+     * Returns whether the wrapped configuration uses concurrent BigMaps.
+     * 
+     * @return 
+     */
+    @Override
+    public boolean isConcurrent() {
+        return delegate.isConcurrent();
+    }
+    
+    /**
+     * Returns whether the wrapped configuration opens the databases in read-only
+     * mode.
+     * 
+     * @return 
+     */
+    @Override
+    public boolean isReadOnly() {
+        return delegate.isReadOnly();
+    }
+    
+    /**
+     * Initializes the wrapped configuration by using a property file.
+     * 
+     * @param properties 
+     */
+    @Override
+    public void load(Properties properties) {
+        delegate.load(properties);
+    }
+
+}
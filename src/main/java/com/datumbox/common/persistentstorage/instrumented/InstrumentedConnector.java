@@ -0,0 +1,258 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.instrumented;
+
+import com.datumbox.common.persistentstorage.AutoCloseConnector;
+import com.datumbox.common.persistentstorage.instrumented.ConnectorStatistics.Operation;
+import com.datumbox.common.persistentstorage.instrumented.InstrumentedMap.InstrumentedInt2DoubleMap;
+import com.datumbox.common.persistentstorage.instrumented.InstrumentedMap.InstrumentedInt2IntMap;
+import com.datumbox.common.persistentstorage.instrumented.InstrumentedMap.InstrumentedObject2DoubleMap;
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import com.datumbox.common.persistentstorage.interfaces.Int2DoubleMap;
+import com.datumbox.common.persistentstorage.interfaces.Int2IntMap;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The InstrumentedConnector wraps the connector of any storage engine and 
+ * records the counts and the latency histograms of the get, put, remove, 
+ * iteration and drop operations of every BigMap along with the time spent in 
+ * save() and load(). The statistics are available through the getStatistics()
+ * method and a summary is logged when the connector is closed.
+ * 
+ * Only the BigMaps which are created by the connector are instrumented; the 
+ * BigMaps of the objects returned by load() are not wrapped.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class InstrumentedConnector extends AutoCloseConnector {
+    
+    private final String database;
+    
+    private final DatabaseConnector delegate;
+    
+    private final ConnectorStatistics statistics = new ConnectorStatistics();
+    
+    private static final Logger logger = LoggerFactory.getLogger(InstrumentedConnector.class);
+    
+    /**
+     * Non-public constructor used by InstrumentedConfiguration class to generate
+     * new connections.
+     * 
+     * @param database
+     * @param delegate 
+     */
+    protected InstrumentedConnector(String database, DatabaseConnector delegate) {
+        super();
+        this.database = database;
+        this.delegate = delegate;
+    }
+    
+    /**
+     * Returns a snapshot of the statistics of the connector.
+     * 
+     * @return 
+     */
+    public ConnectorStatistics getStatistics() {
+        return statistics.snapshot();
+    }
+    
+    /**
+     * This method is responsible for storing serializable objects in the
+     * database.
+     * 
+     * @param <T>
+     * @param name
+     * @param serializableObject 
+     */
+    @Override
+    public <T extends Serializable> void save(String name, T serializableObject) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(name, serializableObject);
+        }
+        finally {
+            statistics.record(name, Operation.SAVE, System.nanoTime()-start);
+        }
+    }
+    
+    /**
+     * Loads serializable objects from the database.
+     * 
+     * @param <T>
+     * @param name
+     * @param klass
+     * @return 
+     */
+    @Override
+    public <T extends Serializable> T load(String name, Class<T> klass) {
+        long start = System.nanoTime();
+        try {
+            return delegate.load(name, klass);
+        }
+        finally {
+            statistics.record(name, Operation.LOAD, System.nanoTime()-start);
+        }
+    }
+    
+    /**
+     * Logs the summary of the statistics and closes the wrapped connector.
+     */
+    @Override
+    public void close() {
+        if(isClosed()){
+            return; 
+        }
+        super.close();
+        
+        if(!statistics.isEmpty()) {
+            logger.info("Storage statistics of database {}: {}", database, statistics.snapshot());
+        }
+        delegate.close();
+    }
+    
+    /**
+     * Checks if a particular database exists.
+     * 
+     * @return 
+     */
+    @Override
+    public boolean existsDatabase() {
+        return delegate.existsDatabase();
+    }
+    
+    /**
+     * Drops the particular database.
+     */
+    @Override
+    public void dropDatabase() {
+        delegate.dropDatabase();
+    }
+    
+    /**
+     * Creates or loads an instrumented Big Map.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public <K, V> Map<K, V> getBigMap(String name, boolean isTemporary) {
+        return new InstrumentedMap<>(delegate.<K, V>getBigMap(name, isTemporary), name, statistics);
+    }
+    
+    /**
+     * Creates or loads an instrumented Big Map with int keys and double values.
+     * 
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public Int2DoubleMap getInt2DoubleBigMap(String name, boolean isTemporary) {
+        return new InstrumentedInt2DoubleMap(delegate.getInt2DoubleBigMap(name, isTemporary), name, statistics);
+    }
+    
+    /**
+     * Creates or loads an instrumented Big Map with int keys and int values.
+     * 
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public Int2IntMap getInt2IntBigMap(String name, boolean isTemporary) {
+        return new InstrumentedInt2IntMap(delegate.getInt2IntBigMap(name, isTemporary), name, statistics);
+    }
+    
+    /**
+     * Creates or loads an instrumented Big Map with Object keys and double 
+     * values.
+     * 
+     * @param <K>
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public <K> Object2DoubleMap<K> getObject2DoubleBigMap(String name, boolean isTemporary) {
+        return new InstrumentedObject2DoubleMap<>(delegate.<K>getObject2DoubleBigMap(name, isTemporary), name, statistics);
+    }
+    
+    /**
+     * Creates or loads a sorted Big Map. The range scans of the ordered maps 
+     * are not instrumented, so the map is returned as is.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public <K, V> NavigableMap<K, V> getOrderedBigMap(String name, boolean isTemporary) {
+        return delegate.getOrderedBigMap(name, isTemporary);
+    }
+    
+    /**
+     * Creates a sorted Big Map and bulk loads the entries in it. The time of 
+     * the bulk load is recorded as a single PUT operation.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @param entries
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public <K, V> NavigableMap<K, V> bulkLoadOrderedBigMap(String name, Iterator<? extends Map.Entry<K, V>> entries, boolean isTemporary) {
+        long start = System.nanoTime();
+        try {
+            return delegate.bulkLoadOrderedBigMap(name, entries, isTemporary);
+        }
+        finally {
+            statistics.record(name, Operation.PUT, System.nanoTime()-start);
+        }
+    }
+    
+    /**
+     * Drops a particular Big Map.
+     * 
+     * @param <T>
+     * @param name
+     * @param map 
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Map> void dropBigMap(String name, T map) {
+        long start = System.nanoTime();
+        try {
+            delegate.dropBigMap(name, (map instanceof InstrumentedMap)?((InstrumentedMap)map).getDelegate():map);
+        }
+        finally {
+            statistics.record(name, Operation.DROP, System.nanoTime()-start);
+        }
+    }
+
+}
@@ -0,0 +1,469 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.instrumented;
+
+import com.datumbox.common.persistentstorage.collections.ForwardingMap;
+import com.datumbox.common.persistentstorage.instrumented.ConnectorStatistics.Operation;
+import com.datumbox.common.persistentstorage.interfaces.Int2DoubleMap;
+import com.datumbox.common.persistentstorage.interfaces.Int2IntMap;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
+import java.io.ObjectStreamException;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wrapper of the BigMaps which records the latencies of their operations in the
+ * ConnectorStatistics of an InstrumentedConnector. The wrapper is not stored; 
+ * during serialization it is replaced by the wrapped map.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ * @param <K>
+ * @param <V>
+ */
+public class InstrumentedMap<K, V> extends ForwardingMap<K, V> {
+    private static final long serialVersionUID = 1L;
+    
+    private final transient String name;
+    
+    private final transient ConnectorStatistics statistics;
+    
+    /**
+     * Package-private constructor which receives the wrapped map, its name and
+     * the statistics in which the latencies are recorded.
+     * 
+     * @param delegate
+     * @param name
+     * @param statistics 
+     */
+    InstrumentedMap(Map<K, V> delegate, String name, ConnectorStatistics statistics) {
+        super(delegate);
+        this.name = name;
+        this.statistics = statistics;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        long start = System.nanoTime();
+        try {
+            return getDelegate().containsKey(key);
+        }
+        finally {
+            record(Operation.GET, start);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        long start = System.nanoTime();
+        try {
+            return getDelegate().get(key);
+        }
+        finally {
+            record(Operation.GET, start);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V put(K key, V value) {
+        long start = System.nanoTime();
+        try {
+            return getDelegate().put(key, value);
+        }
+        finally {
+            record(Operation.PUT, start);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        long start = System.nanoTime();
+        try {
+            getDelegate().putAll(m);
+        }
+        finally {
+            record(Operation.PUT, start);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V remove(Object key) {
+        long start = System.nanoTime();
+        try {
+            return getDelegate().remove(key);
+        }
+        finally {
+            record(Operation.REMOVE, start);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        long start = System.nanoTime();
+        try {
+            getDelegate().clear();
+        }
+        finally {
+            record(Operation.REMOVE, start);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<K> keySet() {
+        return new InstrumentedSet<>(getDelegate().keySet());
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<V> values() {
+        final Collection<V> values = getDelegate().values();
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new InstrumentedIterator<>(values.iterator());
+            }
+            
+            @Override
+            public int size() {
+                return values.size();
+            }
+            
+            @Override
+            public void clear() {
+                values.clear();
+            }
+        };
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new InstrumentedSet<>(getDelegate().entrySet());
+    }
+    
+    /**
+     * Records the time passed since the start of the operation.
+     * 
+     * @param operation
+     * @param start 
+     */
+    protected void record(Operation operation, long start) {
+        statistics.record(name, operation, System.nanoTime()-start);
+    }
+    
+    /**
+     * Replaces the wrapper with the wrapped map during serialization.
+     * 
+     * @return 
+     * @throws ObjectStreamException 
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+        return getDelegate();
+    }
+    
+    /**
+     * Set view which times the iterations over the BigMap.
+     * 
+     * @param <E> 
+     */
+    private class InstrumentedSet<E> extends AbstractSet<E> {
+        
+        private final Set<E> set;
+        
+        private InstrumentedSet(Set<E> set) {
+            this.set = set;
+        }
+        
+        @Override
+        public Iterator<E> iterator() {
+            return new InstrumentedIterator<>(set.iterator());
+        }
+        
+        @Override
+        public int size() {
+            return set.size();
+        }
+        
+        @Override
+        public boolean contains(Object o) {
+            return set.contains(o);
+        }
+        
+        @Override
+        public boolean remove(Object o) {
+            return set.remove(o);
+        }
+        
+        @Override
+        public void clear() {
+            set.clear();
+        }
+    }
+    
+    /**
+     * Iterator which records the latency of every next() call.
+     * 
+     * @param <E> 
+     */
+    private class InstrumentedIterator<E> implements Iterator<E> {
+        
+        private final Iterator<E> it;
+        
+        private InstrumentedIterator(Iterator<E> it) {
+            this.it = it;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+        
+        @Override
+        public E next() {
+            long start = System.nanoTime();
+            try {
+                return it.next();
+            }
+            finally {
+                record(Operation.ITERATION, start);
+            }
+        }
+        
+        @Override
+        public void remove() {
+            it.remove();
+        }
+    }
+    
+    /**
+     * Instrumented Int2DoubleMap which keeps the primitive accessors of the 
+     * wrapped map.
+     */
+    static class InstrumentedInt2DoubleMap extends InstrumentedMap<Integer, Double> implements Int2DoubleMap {
+        private static final long serialVersionUID = 1L;
+        
+        private final transient Int2DoubleMap map;
+        
+        InstrumentedInt2DoubleMap(Int2DoubleMap delegate, String name, ConnectorStatistics statistics) {
+            super(delegate, name, statistics);
+            map = delegate;
+        }
+        
+        @Override
+        public boolean containsKey(int key) {
+            long start = System.nanoTime();
+            try {
+                return map.containsKey(key);
+            }
+            finally {
+                record(Operation.GET, start);
+            }
+        }
+        
+        @Override
+        public double getDouble(int key) {
+            long start = System.nanoTime();
+            try {
+                return map.getDouble(key);
+            }
+            finally {
+                record(Operation.GET, start);
+            }
+        }
+        
+        @Override
+        public double putDouble(int key, double value) {
+            long start = System.nanoTime();
+            try {
+                return map.putDouble(key, value);
+            }
+            finally {
+                record(Operation.PUT, start);
+            }
+        }
+        
+        @Override
+        public double addTo(int key, double increment) {
+            long start = System.nanoTime();
+            try {
+                return map.addTo(key, increment);
+            }
+            finally {
+                record(Operation.PUT, start);
+            }
+        }
+    }
+    
+    /**
+     * Instrumented Int2IntMap which keeps the primitive accessors of the 
+     * wrapped map.
+     */
+    static class InstrumentedInt2IntMap extends InstrumentedMap<Integer, Integer> implements Int2IntMap {
+        private static final long serialVersionUID = 1L;
+        
+        private final transient Int2IntMap map;
+        
+        InstrumentedInt2IntMap(Int2IntMap delegate, String name, ConnectorStatistics statistics) {
+            super(delegate, name, statistics);
+            map = delegate;
+        }
+        
+        @Override
+        public boolean containsKey(int key) {
+            long start = System.nanoTime();
+            try {
+                return map.containsKey(key);
+            }
+            finally {
+                record(Operation.GET, start);
+            }
+        }
+        
+        @Override
+        public int getInt(int key) {
+            long start = System.nanoTime();
+            try {
+                return map.getInt(key);
+            }
+            finally {
+                record(Operation.GET, start);
+            }
+        }
+        
+        @Override
+        public int putInt(int key, int value) {
+            long start = System.nanoTime();
+            try {
+                return map.putInt(key, value);
+            }
+            finally {
+                record(Operation.PUT, start);
+            }
+        }
+        
+        @Override
+        public int addTo(int key, int increment) {
+            long start = System.nanoTime();
+            try {
+                return map.addTo(key, increment);
+            }
+            finally {
+                record(Operation.PUT, start);
+            }
+        }
+    }
+    
+    /**
+     * Instrumented Object2DoubleMap which keeps the primitive accessors of the
+     * wrapped map.
+     * 
+     * @param <K> 
+     */
+    static class InstrumentedObject2DoubleMap<K> extends InstrumentedMap<K, Double> implements Object2DoubleMap<K> {
+        private static final long serialVersionUID = 1L;
+        
+        private final transient Object2DoubleMap<K> map;
+        
+        InstrumentedObject2DoubleMap(Object2DoubleMap<K> delegate, String name, ConnectorStatistics statistics) {
+            super(delegate, name, statistics);
+            map = delegate;
+        }
+        
+        @Override
+        public double getDouble(Object key) {
+            long start = System.nanoTime();
+            try {
+                return map.getDouble(key);
+            }
+            finally {
+                record(Operation.GET, start);
+            }
+        }
+        
+        @Override
+        public double getDouble(Object key, double defaultValue) {
+            long start = System.nanoTime();
+            try {
+                return map.getDouble(key, defaultValue);
+            }
+            finally {
+                record(Operation.GET, start);
+            }
+        }
+        
+        @Override
+        public double putDouble(K key, double value) {
+            long start = System.nanoTime();
+            try {
+                return map.putDouble(key, value);
+            }
+            finally {
+                record(Operation.PUT, start);
+            }
+        }
+        
+        @Override
+        public double addTo(K key, double increment) {
+            long start = System.nanoTime();
+            try {
+                return map.addTo(key, increment);
+            }
+            finally {
+                record(Operation.PUT, start);
+            }
+        }
+        
+        @Override
+        public boolean addToIfPresent(K key, double increment) {
+            long start = System.nanoTime();
+            try {
+                return map.addToIfPresent(key, increment);
+            }
+            finally {
+                record(Operation.PUT, start);
+            }
+        }
+    }
+
+}
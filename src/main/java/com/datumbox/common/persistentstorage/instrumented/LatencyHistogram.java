@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.instrumented;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe histogram of latencies. The latencies are recorded in nanoseconds
+ * in buckets with exponentially increasing widths; the bucket i holds the
+ * latencies in the range [2^i, 2^(i+1)) and thus the percentiles are estimated
+ * with a relative error of at most 2x.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class LatencyHistogram implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private static final int BUCKETS = 64;
+    
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    
+    private final AtomicLong count = new AtomicLong();
+    
+    private final AtomicLong totalNanos = new AtomicLong();
+    
+    private final AtomicLong maxNanos = new AtomicLong();
+    
+    /**
+     * Records a latency.
+     * 
+     * @param nanos 
+     */
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0L);
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        
+        long max = maxNanos.get();
+        while(nanos>max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+    
+    /**
+     * Returns the number of recorded latencies.
+     * 
+     * @return 
+     */
+    public long getCount() {
+        return count.get();
+    }
+    
+    /**
+     * Returns the sum of the recorded latencies in nanoseconds.
+     * 
+     * @return 
+     */
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+    
+    /**
+     * Returns the maximum recorded latency in nanoseconds.
+     * 
+     * @return 
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+    
+    /**
+     * Returns the mean latency in nanoseconds.
+     * 
+     * @return 
+     */
+    public double getMeanNanos() {
+        long n = count.get();
+        return (n>0)?totalNanos.get()/(double)n:0.0;
+    }
+    
+    /**
+     * Estimates the percentile of the latencies in nanoseconds. The returned
+     * value is the upper bound of the bucket which contains the percentile.
+     * 
+     * @param percentile A number in the range [0, 100].
+     * @return 
+     */
+    public long getPercentileNanos(double percentile) {
+        if(percentile<0.0 || percentile>100.0) {
+            throw new IllegalArgumentException("The percentile must be in the range [0, 100].");
+        }
+        long n = count.get();
+        if(n==0L) {
+            return 0L;
+        }
+        long rank = Math.max((long)Math.ceil(n*percentile/100.0), 1L);
+        long cumulative = 0L;
+        for(int i=0;i<BUCKETS;++i) {
+            cumulative += buckets.get(i);
+            if(cumulative>=rank) {
+                return Math.min(upperBound(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+    
+    /**
+     * Returns the number of latencies in every bucket.
+     * 
+     * @return 
+     */
+    public long[] getBuckets() {
+        long[] result = new long[BUCKETS];
+        for(int i=0;i<BUCKETS;++i) {
+            result[i] = buckets.get(i);
+        }
+        return result;
+    }
+    
+    /**
+     * Returns a copy of the histogram.
+     * 
+     * @return 
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        for(int i=0;i<BUCKETS;++i) {
+            copy.buckets.set(i, buckets.get(i));
+        }
+        copy.count.set(count.get());
+        copy.totalNanos.set(totalNanos.get());
+        copy.maxNanos.set(maxNanos.get());
+        return copy;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d, total=%.3fms, mean=%.3fus, p50=%.3fus, p99=%.3fus, max=%.3fus", 
+                getCount(), getTotalNanos()/1e6, getMeanNanos()/1e3, 
+                getPercentileNanos(50.0)/1e3, getPercentileNanos(99.0)/1e3, getMaxNanos()/1e3);
+    }
+    
+    private static int bucketOf(long nanos) {
+        return (nanos==0L)?0:63-Long.numberOfLeadingZeros(nanos);
+    }
+    
+    private static long upperBound(int bucket) {
+        return (bucket>=62)?Long.MAX_VALUE:(1L<<(bucket+1))-1L;
+    }
+
+}
@@ -32,5 +32,13 @@ import java.lang.annotation.Target;
 @Inherited
 @Retention(RetentionPolicy.RUNTIME)
 public @interface BigMap {
-        
-}
\ No newline at end of file
+    
+    /**
+     * The weight of the object cache of the BigMap. The connectors which place
+     * an LRU cache in front of the BigMaps multiply its size by this weight.
+     * 
+     * @return 
+     */
+    double cacheWeight() default 1.0;
+    
+}
\ No newline at end of file
@@ -45,6 +45,27 @@ public interface DatabaseConfiguration {
      */
     public DatabaseConnector getConnector(String database);
     
+    /**
+     * 是否使用并发模式<br>
+     * Returns whether the connectors hand out concurrent BigMaps which can be
+     * read and modified by multiple threads at the same time. The lifecycle 
+     * methods of the connectors are always thread-safe.
+     * 
+     * @return 
+     */
+    public boolean isConcurrent();
+    
+    /**
+     * 是否使用只读模式<br>
+     * Returns whether the databases are opened in read-only mode. In this mode
+     * the persisted objects and BigMaps can only be read, so a stored model can 
+     * be served by many connectors and threads, while all the write operations
+     * on the permanent data are rejected.
+     * 
+     * @return 
+     */
+    public boolean isReadOnly();
+    
     /**
      * 使用一个配置文件初始化数据库<br>
      * Initializes the DatabaseConfiguration object by using a property file.
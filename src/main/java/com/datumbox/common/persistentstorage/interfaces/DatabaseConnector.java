@@ -15,8 +15,11 @@
  */
 package com.datumbox.common.persistentstorage.interfaces;
 
+import com.datumbox.common.persistentstorage.ScratchMapArena;
 import java.io.Serializable;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NavigableMap;
 
 /**
  * DB connectors that permanently store the parameters of the models should 
@@ -84,6 +87,70 @@ public interface DatabaseConnector {
      */
     public <K,V> Map<K,V> getBigMap(String name, boolean isTemporary);
     
+    /**
+     * Creates or loads a Big Map with int keys and double values. The returned
+     * map provides primitive accessors which avoid the boxing of the keys and 
+     * values whenever the underlying storage supports it.
+     * 
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    public Int2DoubleMap getInt2DoubleBigMap(String name, boolean isTemporary);
+    
+    /**
+     * Creates or loads a Big Map with int keys and int values. The returned
+     * map provides primitive accessors which avoid the boxing of the keys and 
+     * values whenever the underlying storage supports it.
+     * 
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    public Int2IntMap getInt2IntBigMap(String name, boolean isTemporary);
+    
+    /**
+     * Creates or loads a Big Map with Object keys and double values. The 
+     * returned map provides primitive accessors which avoid the boxing of the 
+     * values whenever the underlying storage supports it.
+     * 
+     * @param <K>
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    public <K> Object2DoubleMap<K> getObject2DoubleBigMap(String name, boolean isTemporary);
+    
+    /**
+     * Creates or loads a Big Map whose keys are kept sorted by the 
+     * TupleComparator. The tuple keys which share the same prefix can be 
+     * retrieved with range scans (see TupleComparator.prefixMap()) instead of 
+     * iterating through the entire map.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    public <K,V> NavigableMap<K,V> getOrderedBigMap(String name, boolean isTemporary);
+    
+    /**
+     * Creates a new sorted Big Map and loads all the provided entries in it 
+     * with a single bulk operation. The entries can be provided in any order;
+     * if a key appears more than once only one of its values is kept. It should
+     * be used instead of individual put() calls when a large map is built 
+     * after training.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @param entries
+     * @param isTemporary
+     * @return 
+     */
+    public <K,V> NavigableMap<K,V> bulkLoadOrderedBigMap(String name, Iterator<? extends Map.Entry<K,V>> entries, boolean isTemporary);
+    
     /**
      * Drops a particular Big Map.
      * 
@@ -93,4 +160,14 @@ public interface DatabaseConnector {
      */
     public <T extends Map> void dropBigMap(String name, T map);
     
+    /**
+     * Returns the scratch-map arena of the connector. The arena keeps temporary
+     * Big Maps which are reused across the iterations of the algorithms instead 
+     * of being created and dropped on every iteration. All the scratch maps are
+     * dropped when the connector is closed.
+     * 
+     * @return 
+     */
+    public ScratchMapArena getScratchMaps();
+    
 }
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.interfaces;
+
+import java.util.Map;
+
+/**
+ * Map with Object keys and primitive double values. It is returned by the 
+ * getObject2DoubleBigMap() method of the DatabaseConnector. The primitive 
+ * methods avoid the boxing of the values when the implementation supports it;
+ * the default methods fall back to the boxed Map API.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ * @param <K>
+ */
+public interface Object2DoubleMap<K> extends Map<K, Double> {
+    
+    /**
+     * Returns the value of the key or 0.0 if the key does not exist.
+     * 
+     * @param key
+     * @return 
+     */
+    default double getDouble(Object key) {
+        Double value = get(key);
+        return (value==null)?0.0:value;
+    }
+    
+    /**
+     * Returns the value of the key or the provided default value if the key 
+     * does not exist. Unlike a containsKey() check followed by getDouble(), it
+     * looks up the key only once.
+     * 
+     * @param key
+     * @param defaultValue
+     * @return 
+     */
+    default double getDouble(Object key, double defaultValue) {
+        Double value = get(key);
+        return (value==null)?defaultValue:value;
+    }
+    
+    /**
+     * Associates the key with the value and returns the previous value or 0.0
+     * if the key did not exist.
+     * 
+     * @param key
+     * @param value
+     * @return 
+     */
+    default double putDouble(K key, double value) {
+        Double previousValue = put(key, value);
+        return (previousValue==null)?0.0:previousValue;
+    }
+    
+    /**
+     * Adds the increment to the value of the key and returns the previous value.
+     * Missing keys are treated as 0.0.
+     * 
+     * @param key
+     * @param increment
+     * @return 
+     */
+    default double addTo(K key, double increment) {
+        double previousValue = getDouble(key);
+        put(key, previousValue+increment);
+        return previousValue;
+    }
+    
+    /**
+     * Adds the increment to the value of the key only if the key exists. It 
+     * returns whether the value was updated. Unlike a containsKey() check 
+     * followed by addTo(), it looks up the key only once.
+     * 
+     * @param key
+     * @param increment
+     * @return 
+     */
+    default boolean addToIfPresent(K key, double increment) {
+        Double previousValue = get(key);
+        if(previousValue==null) {
+            return false;
+        }
+        put(key, previousValue+increment);
+        return true;
+    }
+
+}
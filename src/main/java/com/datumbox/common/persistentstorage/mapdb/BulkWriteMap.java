@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.mapdb;
+
+import com.datumbox.common.persistentstorage.collections.ForwardingMap;
+import java.util.Map;
+import org.mapdb.HTreeMap;
+
+/**
+ * Wrapper of the MapDB BigMaps which counts the bulk copies of putAll() towards
+ * the commit interval of the connector. The records are written directly to 
+ * the map without committing, so the copy costs the same as a plain putAll().
+ * When it is finished, every batch of records counts as a save() call, so the
+ * large copies make the next save() reach the commit interval sooner; the 
+ * commits themselves are left to save() and close(). The wrapper is stored by
+ * reference and it is recreated with the current connector when it is loaded.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ * @param <K>
+ * @param <V>
+ */
+public class BulkWriteMap<K, V> extends ForwardingMap<K, V> {
+    private static final long serialVersionUID = 1L;
+    
+    private final int batchSize;
+    
+    private final transient MapDBConnector connector;
+    
+    /**
+     * Public constructor which receives the wrapped MapDB map, the number of
+     * records of every batch and the connector which decides when to commit.
+     * 
+     * @param delegate
+     * @param batchSize 
+     * @param connector 
+     */
+    public BulkWriteMap(HTreeMap<K, V> delegate, int batchSize, MapDBConnector connector) {
+        super(delegate);
+        if(batchSize<1) {
+            throw new IllegalArgumentException("The batch size must be positive.");
+        }
+        this.batchSize = batchSize;
+        this.connector = connector;
+    }
+    
+    /**
+     * Copies all the records of the provided map and counts the batches of 
+     * the copy towards the commit interval.
+     * 
+     * @param m 
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        Map<K, V> delegate = getDelegate();
+        
+        int count = 0;
+        for(Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            delegate.put(entry.getKey(), entry.getValue());
+            ++count;
+        }
+        if(count>0) {
+            connector.bulkWrite((count+batchSize-1)/batchSize);
+        }
+    }
+    
+    /**
+     * Getter for the number of records of every batch.
+     * 
+     * @return 
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+}
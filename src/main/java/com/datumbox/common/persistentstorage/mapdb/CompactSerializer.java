@@ -0,0 +1,311 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.mapdb;
+
+import com.datumbox.common.dataobjects.AssociativeArray;
+import com.datumbox.common.dataobjects.Record;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.mapdb.Serializer;
+
+/**
+ * MapDB serializer for the keys and the values of the BigMaps. The Records, the
+ * AssociativeArrays, the tuple keys (Arrays.asList), the hash maps, the lists
+ * and the boxed primitives are written without reflection and class descriptors;
+ * the ints and longs use variable length encoding. The rest of the objects fall
+ * back to Java serialization.
+ * 
+ * The interned instance replaces the short Strings (typically the names of the
+ * features) with their id in the process-wide FeatureDictionary. It must be 
+ * used only for data which do not outlive the JVM.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class CompactSerializer implements Serializer<Object>, Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * The shared instance which stores the Strings inline.
+     */
+    public static final CompactSerializer INSTANCE = new CompactSerializer(false);
+    
+    /**
+     * The shared instance which interns the Strings in the FeatureDictionary.
+     */
+    public static final CompactSerializer INTERNED = new CompactSerializer(true);
+    
+    private static final byte T_NULL = 0;
+    private static final byte T_TRUE = 1;
+    private static final byte T_FALSE = 2;
+    private static final byte T_INT = 3;
+    private static final byte T_LONG = 4;
+    private static final byte T_DOUBLE = 5;
+    private static final byte T_STRING = 6;
+    private static final byte T_STRING_ID = 7;
+    private static final byte T_TUPLE = 8;
+    private static final byte T_ARRAYLIST = 9;
+    private static final byte T_HASHMAP = 10;
+    private static final byte T_LINKEDHASHMAP = 11;
+    private static final byte T_ASSOCIATIVE_ARRAY = 12;
+    private static final byte T_RECORD = 13;
+    private static final byte T_OBJECT = 14;
+    
+    private static final Class<?> TUPLE_CLASS = Arrays.asList().getClass();
+    
+    /**
+     * The maximum length of the Strings which are written with writeUTF.
+     */
+    private static final int MAX_UTF_STRING_LENGTH = 16*1024;
+    
+    /**
+     * The maximum length of the Strings which are interned.
+     */
+    private static final int MAX_INTERNED_STRING_LENGTH = 256;
+    
+    private final boolean interned;
+    
+    /**
+     * Private constructor; use the shared instances.
+     * 
+     * @param interned 
+     */
+    private CompactSerializer(boolean interned) {
+        this.interned = interned;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serialize(DataOutput out, Object value) throws IOException {
+        writeValue(out, value);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object deserialize(DataInput in, int available) throws IOException {
+        return readValue(in);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int fixedSize() {
+        return -1;
+    }
+    
+    private Object readResolve() {
+        return interned?INTERNED:INSTANCE;
+    }
+    
+    private void writeValue(DataOutput out, Object v) throws IOException {
+        if(v==null) {
+            out.writeByte(T_NULL);
+            return;
+        }
+        
+        Class<?> klass = v.getClass();
+        if(klass==Boolean.class) {
+            out.writeByte((Boolean)v?T_TRUE:T_FALSE);
+        }
+        else if(klass==Integer.class) {
+            int i = (Integer)v;
+            out.writeByte(T_INT);
+            writeVarLong(out, ((i << 1) ^ (i >> 31)) & 0xFFFFFFFFL); //zigzag
+        }
+        else if(klass==Long.class) {
+            long l = (Long)v;
+            out.writeByte(T_LONG);
+            writeVarLong(out, (l << 1) ^ (l >> 63)); //zigzag
+        }
+        else if(klass==Double.class) {
+            out.writeByte(T_DOUBLE);
+            out.writeDouble((Double)v);
+        }
+        else if(klass==String.class && interned && ((String)v).length()<=MAX_INTERNED_STRING_LENGTH) {
+            out.writeByte(T_STRING_ID);
+            writeVarLong(out, FeatureDictionary.INSTANCE.idOf((String)v));
+        }
+        else if(klass==String.class && ((String)v).length()<=MAX_UTF_STRING_LENGTH) {
+            out.writeByte(T_STRING);
+            out.writeUTF((String)v);
+        }
+        else if(klass==TUPLE_CLASS) {
+            out.writeByte(T_TUPLE);
+            writeList(out, (List<?>)v);
+        }
+        else if(klass==ArrayList.class) {
+            out.writeByte(T_ARRAYLIST);
+            writeList(out, (List<?>)v);
+        }
+        else if(klass==HashMap.class) {
+            out.writeByte(T_HASHMAP);
+            writeMap(out, (Map<?, ?>)v);
+        }
+        else if(klass==LinkedHashMap.class) {
+            out.writeByte(T_LINKEDHASHMAP);
+            writeMap(out, (Map<?, ?>)v);
+        }
+        else if(klass==AssociativeArray.class) {
+            out.writeByte(T_ASSOCIATIVE_ARRAY);
+            writeAssociativeArray(out, (AssociativeArray)v);
+        }
+        else if(klass==Record.class) {
+            Record r = (Record)v;
+            out.writeByte(T_RECORD);
+            writeAssociativeArray(out, r.getX());
+            writeValue(out, r.getY());
+            writeValue(out, r.getYPredicted());
+            writeValue(out, r.getYPredictedProbabilities());
+        }
+        else {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try(ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                oos.writeObject(v);
+            }
+            out.writeByte(T_OBJECT);
+            writeVarLong(out, bos.size());
+            out.write(bos.toByteArray());
+        }
+    }
+    
+    private void writeList(DataOutput out, List<?> list) throws IOException {
+        writeVarLong(out, list.size());
+        for(Object o : list) {
+            writeValue(out, o);
+        }
+    }
+    
+    private void writeMap(DataOutput out, Map<?, ?> map) throws IOException {
+        writeVarLong(out, map.size());
+        for(Map.Entry<?, ?> entry : map.entrySet()) {
+            writeValue(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+    
+    private void writeAssociativeArray(DataOutput out, AssociativeArray array) throws IOException {
+        writeVarLong(out, array.size());
+        for(Map.Entry<Object, Object> entry : array.entrySet()) {
+            writeValue(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+    
+    private static void writeVarLong(DataOutput out, long v) throws IOException {
+        while((v & ~0x7FL)!=0L) {
+            out.writeByte((int)((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int)v);
+    }
+    
+    private Object readValue(DataInput in) throws IOException {
+        byte type = in.readByte();
+        switch(type) {
+            case T_NULL:
+                return null;
+            case T_TRUE:
+                return Boolean.TRUE;
+            case T_FALSE:
+                return Boolean.FALSE;
+            case T_INT:
+                int i = (int)readVarLong(in);
+                return (i >>> 1) ^ -(i & 1);
+            case T_LONG:
+                long l = readVarLong(in);
+                return (l >>> 1) ^ -(l & 1L);
+            case T_DOUBLE:
+                return in.readDouble();
+            case T_STRING:
+                return in.readUTF();
+            case T_STRING_ID:
+                return FeatureDictionary.INSTANCE.stringOf((int)readVarLong(in));
+            case T_TUPLE:
+                return Arrays.asList(readArray(in));
+            case T_ARRAYLIST:
+                return new ArrayList<>(Arrays.asList(readArray(in)));
+            case T_HASHMAP:
+                return readMap(in, new HashMap<>());
+            case T_LINKEDHASHMAP:
+                return readMap(in, new LinkedHashMap<>());
+            case T_ASSOCIATIVE_ARRAY:
+                return new AssociativeArray(readMap(in, new LinkedHashMap<>()));
+            case T_RECORD:
+                AssociativeArray x = new AssociativeArray(readMap(in, new LinkedHashMap<>()));
+                Object y = readValue(in);
+                Object yPredicted = readValue(in);
+                AssociativeArray yPredictedProbabilities = (AssociativeArray)readValue(in);
+                return Record.wrap(x, y, yPredicted, yPredictedProbabilities); //the deserialized objects are not shared
+            case T_OBJECT:
+                byte[] bytes = new byte[(int)readVarLong(in)];
+                in.readFully(bytes);
+                try(ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return ois.readObject();
+                }
+                catch(ClassNotFoundException ex) {
+                    throw new IOException(ex);
+                }
+            default:
+                throw new StreamCorruptedException("Unknown value type " + type + ".");
+        }
+    }
+    
+    private Object[] readArray(DataInput in) throws IOException {
+        Object[] array = new Object[(int)readVarLong(in)];
+        for(int i=0;i<array.length;++i) {
+            array[i] = readValue(in);
+        }
+        return array;
+    }
+    
+    private <M extends Map<Object, Object>> M readMap(DataInput in, M map) throws IOException {
+        long n = readVarLong(in);
+        for(long i=0;i<n;++i) {
+            Object key = readValue(in);
+            map.put(key, readValue(in));
+        }
+        return map;
+    }
+    
+    private static long readVarLong(DataInput in) throws IOException {
+        long v = 0L;
+        for(int shift=0;shift<64;shift+=7) {
+            int b = in.readUnsignedByte();
+            v |= (long)(b & 0x7F) << shift;
+            if((b & 0x80)==0) {
+                return v;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable length long.");
+    }
+}
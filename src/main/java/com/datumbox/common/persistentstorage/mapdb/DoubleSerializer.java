@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.mapdb;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import org.mapdb.Serializer;
+
+/**
+ * MapDB serializer which stores Double values as 8 raw bytes. MapDB does not 
+ * provide a fixed size serializer for doubles and the default one writes a type
+ * header for every value.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class DoubleSerializer implements Serializer<Double>, Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * The shared instance of the serializer.
+     */
+    public static final DoubleSerializer INSTANCE = new DoubleSerializer();
+    
+    /**
+     * Private constructor; use the shared instance.
+     */
+    private DoubleSerializer() {
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serialize(DataOutput out, Double value) throws IOException {
+        out.writeDouble(value);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Double deserialize(DataInput in, int available) throws IOException {
+        return in.readDouble();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int fixedSize() {
+        return 8;
+    }
+    
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.mapdb;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary which assigns a stable int id to every String that
+ * is interned in it. The ids are valid only for the lifetime of the JVM, so the
+ * dictionary is used only by the temporary BigMaps, whose files are deleted
+ * when they are closed. The dictionary is append-only.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+final class FeatureDictionary {
+    
+    /**
+     * The shared instance of the dictionary.
+     */
+    static final FeatureDictionary INSTANCE = new FeatureDictionary();
+    
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    
+    private volatile String[] strings = new String[1024];
+    
+    private int size = 0;
+    
+    private FeatureDictionary() {
+    }
+    
+    /**
+     * Returns the id of the String, assigning a new one if it is not interned.
+     * 
+     * @param s
+     * @return 
+     */
+    int idOf(String s) {
+        Integer id = ids.get(s);
+        if(id!=null) {
+            return id;
+        }
+        synchronized(this) {
+            id = ids.get(s);
+            if(id==null) {
+                if(size==strings.length) {
+                    strings = Arrays.copyOf(strings, 2*size);
+                }
+                strings[size] = s;
+                id = size++;
+                ids.put(s, id);
+            }
+            return id;
+        }
+    }
+    
+    /**
+     * Returns the String of the provided id.
+     * 
+     * @param id
+     * @return 
+     */
+    String stringOf(int id) {
+        String[] array = strings;
+        String s = (id<array.length)?array[id]:null;
+        if(s==null) {
+            synchronized(this) { //the id was assigned by another thread
+                s = strings[id];
+            }
+        }
+        return s;
+    }
+}
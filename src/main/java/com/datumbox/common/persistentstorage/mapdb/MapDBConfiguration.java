@@ -15,6 +15,9 @@
  */
 package com.datumbox.common.persistentstorage.mapdb;
 
+import com.datumbox.common.persistentstorage.codecs.BinaryCodec;
+import com.datumbox.common.persistentstorage.codecs.Codec;
+import com.datumbox.common.persistentstorage.codecs.Codecs;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
 import java.util.Properties;
@@ -40,6 +43,28 @@ public class MapDBConfiguration implements DatabaseConfiguration {
     private boolean compressed = true;
     
     private boolean transacted = false;
+    
+    private int commitInterval = 1;
+    
+    private double compactionThreshold = 0.5;
+    
+    private int bulkWriteBatchSize = 0;
+    
+    private int bulkLoadBatchSize = 100000;
+    
+    private int tempDBPoolSize = 2;
+    
+    private int objectCacheSize = 0;
+    
+    private boolean concurrent = false;
+    
+    private boolean readOnly = false;
+    
+    private boolean featureDictionary = false;
+    
+    private int partitions = 1;
+    
+    private Codec codec = new BinaryCodec();
 
     /**
      * It initializes a new connector to the Database.
@@ -73,6 +98,17 @@ public class MapDBConfiguration implements DatabaseConfiguration {
         cacheSize = Integer.valueOf(properties.getProperty("dbConfig.MapDBConfiguration.cacheSize"));
         compressed = "true".equalsIgnoreCase(properties.getProperty("dbConfig.MapDBConfiguration.compressed"));
         transacted = "true".equalsIgnoreCase(properties.getProperty("dbConfig.MapDBConfiguration.transacted"));
+        commitInterval = Integer.valueOf(properties.getProperty("dbConfig.MapDBConfiguration.commitInterval"));
+        compactionThreshold = Double.valueOf(properties.getProperty("dbConfig.MapDBConfiguration.compactionThreshold"));
+        bulkWriteBatchSize = Integer.valueOf(properties.getProperty("dbConfig.MapDBConfiguration.bulkWriteBatchSize"));
+        bulkLoadBatchSize = Integer.valueOf(properties.getProperty("dbConfig.MapDBConfiguration.bulkLoadBatchSize"));
+        tempDBPoolSize = Integer.valueOf(properties.getProperty("dbConfig.MapDBConfiguration.tempDBPoolSize"));
+        objectCacheSize = Integer.valueOf(properties.getProperty("dbConfig.MapDBConfiguration.objectCacheSize"));
+        concurrent = "true".equalsIgnoreCase(properties.getProperty("dbConfig.MapDBConfiguration.concurrent"));
+        readOnly = "true".equalsIgnoreCase(properties.getProperty("dbConfig.MapDBConfiguration.readOnly"));
+        featureDictionary = "true".equalsIgnoreCase(properties.getProperty("dbConfig.MapDBConfiguration.featureDictionary"));
+        partitions = Integer.valueOf(properties.getProperty("dbConfig.MapDBConfiguration.partitions"));
+        codec = Codecs.newInstance(properties.getProperty("dbConfig.MapDBConfiguration.codec"));
     }
 
     /**
@@ -151,5 +187,257 @@ public class MapDBConfiguration implements DatabaseConfiguration {
         this.transacted = transacted;
     }
     
+    /**
+     * Getter for the number of save() calls and bulk write batches between two
+     * commits.
+     * 
+     * @return 
+     */
+    public int getCommitInterval() {
+        return commitInterval;
+    }
+    
+    /**
+     * Setter for the number of save() calls and bulk write batches (see 
+     * setBulkWriteBatchSize()) between two commits. The pending changes are 
+     * always committed when the connector is closed. It is set to 1 by default
+     * which commits on every save.
+     * 
+     * @param commitInterval 
+     */
+    public void setCommitInterval(int commitInterval) {
+        if(commitInterval<1) {
+            throw new IllegalArgumentException("The commit interval must be positive.");
+        }
+        this.commitInterval = commitInterval;
+    }
+    
+    /**
+     * Getter for the compaction threshold.
+     * 
+     * @return 
+     */
+    public double getCompactionThreshold() {
+        return compactionThreshold;
+    }
+    
+    /**
+     * Setter for the compaction threshold. The store is compacted after a commit
+     * only when its free space exceeds this ratio of its total size. Set it to 0
+     * to compact on every commit or to a negative value to compact only with an
+     * explicit call of MapDBConnector.compact().
+     * 
+     * @param compactionThreshold 
+     */
+    public void setCompactionThreshold(double compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+    
+    /**
+     * Getter for the batch size of the bulk writes.
+     * 
+     * @return 
+     */
+    public int getBulkWriteBatchSize() {
+        return bulkWriteBatchSize;
+    }
+    
+    /**
+     * Setter for the batch size of the bulk writes. After a putAll() call on
+     * the BigMaps, every batch of this size counts towards the commit interval
+     * as a save() call, so that large copies don't accumulate uncommitted for
+     * many saves. The copies never commit; the commits are left to the next 
+     * save() which reaches the interval and to close(). Set it to 0 to not 
+     * count the bulk writes.
+     * 
+     * @param bulkWriteBatchSize 
+     */
+    public void setBulkWriteBatchSize(int bulkWriteBatchSize) {
+        this.bulkWriteBatchSize = bulkWriteBatchSize;
+    }
+    
+    /**
+     * Getter for the batch size of the external sort of the bulk loads.
+     * 
+     * @return 
+     */
+    public int getBulkLoadBatchSize() {
+        return bulkLoadBatchSize;
+    }
+    
+    /**
+     * Setter for the batch size of the external sort of the bulk loads. The 
+     * entries of bulkLoadOrderedBigMap() are sorted in memory in batches of 
+     * this size, which are spilled to temporary files and merged while the 
+     * BTree is built bottom-up in a single pass.
+     * 
+     * @param bulkLoadBatchSize 
+     */
+    public void setBulkLoadBatchSize(int bulkLoadBatchSize) {
+        if(bulkLoadBatchSize<1) {
+            throw new IllegalArgumentException("The batch size must be positive.");
+        }
+        this.bulkLoadBatchSize = bulkLoadBatchSize;
+    }
+    
+    /**
+     * Getter for the maximum number of temporary DBs which are pooled per 
+     * database name.
+     * 
+     * @return 
+     */
+    public int getTempDBPoolSize() {
+        return tempDBPoolSize;
+    }
+    
+    /**
+     * Setter for the maximum number of temporary DBs which are pooled per
+     * database name. The temporary DB of a closed connector is emptied and 
+     * reused by the next connector of the same database, which avoids creating
+     * a new temporary file for every Dataset. Set it to 0 to turn off pooling.
+     * 
+     * @param tempDBPoolSize 
+     */
+    public void setTempDBPoolSize(int tempDBPoolSize) {
+        this.tempDBPoolSize = tempDBPoolSize;
+    }
+    
+    /**
+     * Getter for the number of deserialized values which are cached in front
+     * of every BigMap.
+     * 
+     * @return 
+     */
+    public int getObjectCacheSize() {
+        return objectCacheSize;
+    }
+    
+    /**
+     * Setter for the number of deserialized values which are cached in front
+     * of every BigMap. Unlike the cache of MapDB which stores serialized nodes,
+     * this LRU cache keeps the deserialized objects of the popular keys. The 
+     * size is multiplied by the cacheWeight of the BigMap annotation. In 
+     * read-only mode the cache of a permanent BigMap is shared by all the 
+     * connectors which share its DB. Set it to 0 to turn off the object cache.
+     * 
+     * @param objectCacheSize 
+     */
+    public void setObjectCacheSize(int objectCacheSize) {
+        this.objectCacheSize = objectCacheSize;
+    }
+    
+    /**
+     * Getter for the concurrency option.
+     * 
+     * @return 
+     */
+    @Override
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+    
+    /**
+     * Setter for the concurrency option. The HTreeMaps and BTreeMaps of MapDB
+     * are thread-safe, but the bulk write buffer and the object cache which
+     * wrap them are not. If turned on those wrappers are skipped and the BigMaps
+     * are handed out as concurrent MapDB maps. It is turned off by default.
+     * 
+     * @param concurrent 
+     */
+    public void setConcurrent(boolean concurrent) {
+        this.concurrent = concurrent;
+    }
+    
+    /**
+     * Getter for the read-only option.
+     * 
+     * @return 
+     */
+    @Override
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+    
+    /**
+     * Setter for the read-only option. If turned on the permanent MapDB files
+     * are opened read-only; the MMap storage also maps them in memory. All the
+     * connectors which open the same files share a single DB, so its cache and
+     * its mapped buffers are not duplicated per connector. The saves, the drops
+     * and the writes on the permanent BigMaps are rejected, while the temporary
+     * BigMaps remain writable. It is turned off by default.
+     * 
+     * @param readOnly 
+     */
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+    
+    /**
+     * Getter for the feature dictionary option.
+     * 
+     * @return 
+     */
+    public boolean isFeatureDictionary() {
+        return featureDictionary;
+    }
+    
+    /**
+     * Setter for the feature dictionary option. If turned on the short Strings
+     * of the temporary BigMaps, typically the names of the features, are stored
+     * as ids of a process-wide dictionary instead of inline. The dictionary is
+     * kept in memory until the JVM terminates, so it should be used when the 
+     * number of distinct feature names is bounded. It is turned off by default.
+     * 
+     * @param featureDictionary 
+     */
+    public void setFeatureDictionary(boolean featureDictionary) {
+        this.featureDictionary = featureDictionary;
+    }
+    
+    /**
+     * Getter for the number of partitions of the MapDB files.
+     * 
+     * @return 
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+    
+    /**
+     * Setter for the number of partitions of the MapDB files. Every partition 
+     * is stored in a separate file and the hash BigMaps are partitioned by key
+     * across them, which allows the concurrent accesses and the disk I/O to 
+     * proceed in parallel. The number of partitions of an existing database 
+     * must not be changed. It is set to 1 by default.
+     * 
+     * @param partitions 
+     */
+    public void setPartitions(int partitions) {
+        if(partitions<1) {
+            throw new IllegalArgumentException("The number of partitions must be positive.");
+        }
+        this.partitions = partitions;
+    }
+    
+    /**
+     * Getter for the Codec which encodes the objects stored with save().
+     * 
+     * @return 
+     */
+    public Codec getCodec() {
+        return codec;
+    }
+    
+    /**
+     * Setter for the Codec which encodes the objects stored with save(). The
+     * objects are always decoded with the Codec that encoded them. The 
+     * BinaryCodec is used by default.
+     * 
+     * @param codec 
+     */
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+    
     
 }
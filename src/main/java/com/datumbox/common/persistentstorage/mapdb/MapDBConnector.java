@@ -16,26 +16,57 @@
 package com.datumbox.common.persistentstorage.mapdb;
 
 import com.datumbox.common.persistentstorage.AutoCloseConnector;
+import com.datumbox.common.persistentstorage.collections.BoxedInt2DoubleMap;
+import com.datumbox.common.persistentstorage.collections.BoxedInt2IntMap;
+import com.datumbox.common.persistentstorage.collections.BoxedObject2DoubleMap;
+import com.datumbox.common.persistentstorage.collections.CachedMap;
+import com.datumbox.common.persistentstorage.collections.PartitionedMap;
+import com.datumbox.common.persistentstorage.collections.TupleComparator;
+import com.datumbox.common.persistentstorage.codecs.Codecs;
+import com.datumbox.common.persistentstorage.codecs.ObjectReplacer;
+import com.datumbox.common.persistentstorage.interfaces.Int2DoubleMap;
+import com.datumbox.common.persistentstorage.interfaces.Int2IntMap;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 
 import java.io.Serializable;
 import java.util.HashMap;
 import org.mapdb.Atomic;
+import org.mapdb.BTreeMap;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.mapdb.Fun;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+import org.mapdb.Store;
 
 
 /**
  * The MapDBConnector is responsible for saving and loading data from MapDB files,
  * creating BigMaps which are backed by files and persisting data. The MapDBConnector 
  * does not load all the contents of BigMaps in memory, maintains an LRU cache
- * to speed up data retrieval and persists all data in MapDB files.
+ * to speed up data retrieval and persists all data in MapDB files. The methods
+ * of the connector are synchronized, so it can be shared by multiple threads.
+ * 
+ * If more than one partitions are configured, the default and the temporary 
+ * dbs are split in multiple MapDB files and every hash BigMap is partitioned
+ * by key across them, so the accesses on different partitions do not contend
+ * on the locks and the I/O of the same store.
+ * 
+ * In read-only mode the permanent files are opened read-only. The connectors which open the same files share a 
+ * single DB, so a stored model can be served by many connectors without 
+ * duplicating its caches. The saves, the drops and the writes on the permanent
+ * BigMaps are rejected; the temporary BigMaps remain writable.
  *
  * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
  */
@@ -49,14 +80,69 @@ public class MapDBConnector extends AutoCloseConnector {
         TEMP_DB;
     }
     
+    /**
+     * Placeholder which is encoded in place of the BigMaps of the default db.
+     */
+    private static class BigMapReference implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        private final String name;
+        
+        private final int partition;
+        
+        private BigMapReference(String name, int partition) {
+            this.name = name;
+            this.partition = partition;
+        }
+    }
+    
+    /**
+     * Placeholder which is encoded in place of the object caches of the BigMaps.
+     * The cache is recreated with the current configuration during loading.
+     */
+    private static class CachedMapReference implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        private final Map<?, ?> delegate;
+        
+        private final double weight;
+        
+        private CachedMapReference(Map<?, ?> delegate, double weight) {
+            this.delegate = delegate;
+            this.weight = weight;
+        }
+    }
+    
+    /**
+     * Placeholder which is encoded in place of the bulk write wrappers of the
+     * BigMaps. The wrapper is recreated with the current connector during
+     * loading.
+     */
+    private static class BulkWriteMapReference implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        private final Map<?, ?> delegate;
+        
+        private BulkWriteMapReference(Map<?, ?> delegate) {
+            this.delegate = delegate;
+        }
+    }
+    
     private final MapDBConfiguration dbConf;
     private final String database;
     
     /**
-     * This list stores all the DB objects which are used to persist the data. This
-     * library uses one default and one temporary db.
+     * This map stores all the DB objects which are used to persist the data. This
+     * library uses one default and one temporary db, each of which is split in
+     * the configured number of partitions.
      */
-    private final Map<DatabaseType, DB> dbRegistry = new HashMap<>(); 
+    private final Map<DatabaseType, DB[]> dbRegistry = new HashMap<>(); 
+    
+    /**
+     * The number of save() calls and bulk write batches since the last commit
+     * of the default db.
+     */
+    private int uncommittedSaves = 0;
     
     /**
      * Non-public constructor used by MapDBConfiguration class to generate
@@ -80,14 +166,77 @@ public class MapDBConnector extends AutoCloseConnector {
      * @param serializableObject 
      */
     @Override
-    public <T extends Serializable> void save(String name, T serializableObject) {
+    public synchronized <T extends Serializable> void save(String name, T serializableObject) {
+        ensureNotClosed();
+        ensureNotReadOnly();
+        final DB[] dbs = openDBs(DatabaseType.DEFAULT_DB);
+        DB db = dbs[0];
+        Atomic.Var<byte[]> knowledgeBaseVar = db.getAtomicVar(name);
+        knowledgeBaseVar.set(Codecs.encode(dbConf.getCodec(), serializableObject, new ObjectReplacer() {
+            @Override
+            public Object replace(Object obj) throws IOException {
+                //the BigMaps of the db are stored by reference
+                if(obj instanceof CachedMap) {
+                    CachedMap<?, ?> cachedMap = (CachedMap<?, ?>)obj;
+                    return new CachedMapReference(cachedMap.getDelegate(), cachedMap.getWeight());
+                }
+                if(obj instanceof BulkWriteMap) {
+                    return new BulkWriteMapReference(((BulkWriteMap<?, ?>)obj).getDelegate());
+                }
+                if(obj instanceof HTreeMap || obj instanceof BTreeMap) {
+                    for(int p=0;p<dbs.length;++p) {
+                        String mapName = dbs[p].getNameForObject(obj);
+                        if(mapName!=null) {
+                            return new BigMapReference(mapName, p);
+                        }
+                    }
+                }
+                return obj;
+            }
+        }));
+        
+        if(++uncommittedSaves>=dbConf.getCommitInterval()) {
+            for(DB partitionDB : dbs) {
+                partitionDB.commit();
+            }
+            uncommittedSaves = 0;
+            
+            for(DB partitionDB : dbs) {
+                if(shouldCompact(partitionDB)) {
+                    partitionDB.compact();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Counts the batches of a bulk write of a BigMap towards the commit 
+     * interval, as the save() calls. It never commits; the pending writes are
+     * committed by the next save() which reaches the interval or by close().
+     * 
+     * @param batches 
+     */
+    synchronized void bulkWrite(int batches) {
+        uncommittedSaves += batches;
+    }
+    
+    /**
+     * Commits any pending changes and compacts the partitions of the default 
+     * db, independently of the compaction threshold of the configuration.
+     */
+    public synchronized void compact() {
         ensureNotClosed();
-        openDB(DatabaseType.DEFAULT_DB);
-        DB db = dbRegistry.get(DatabaseType.DEFAULT_DB);
-        Atomic.Var<T> knowledgeBaseVar = db.getAtomicVar(name);
-        knowledgeBaseVar.set(serializableObject);
-        db.commit();
-        db.compact();
+        ensureNotReadOnly();
+        DB[] dbs = dbRegistry.get(DatabaseType.DEFAULT_DB);
+        if(dbs!=null) {
+            for(DB db : dbs) {
+                if(isOpenDB(db)) {
+                    db.commit();
+                    db.compact();
+                }
+            }
+            uncommittedSaves = 0;
+        }
     }
 
     /**
@@ -100,23 +249,60 @@ public class MapDBConnector extends AutoCloseConnector {
      */
     @Override
     @SuppressWarnings("unchecked")
-    public <T extends Serializable> T load(String name, Class<T> klass) {
+    public synchronized <T extends Serializable> T load(String name, Class<T> klass) {
         ensureNotClosed();
-        openDB(DatabaseType.DEFAULT_DB);
-        DB db = dbRegistry.get(DatabaseType.DEFAULT_DB);
-        Atomic.Var<T> atomicVar = db.getAtomicVar(name);
-        return atomicVar.get();
+        if(dbConf.isReadOnly() && !Files.exists(getDefaultPath())) {
+            return null;
+        }
+        final DB[] dbs = openDBs(DatabaseType.DEFAULT_DB);
+        if(!dbs[0].exists(name)) {
+            return null; //nothing was stored with this name
+        }
+        Atomic.Var<Object> atomicVar = dbs[0].getAtomicVar(name);
+        Object value = atomicVar.get();
+        if(value instanceof byte[]) {
+            return (T)Codecs.decode((byte[])value, new ObjectReplacer() {
+                @Override
+                public Object replace(Object obj) throws IOException {
+                    if(obj instanceof CachedMapReference) {
+                        CachedMapReference reference = (CachedMapReference)obj;
+                        return cached(reference.delegate, reference.weight);
+                    }
+                    if(obj instanceof BulkWriteMapReference) {
+                        BulkWriteMapReference reference = (BulkWriteMapReference)obj;
+                        return dbConf.isReadOnly()?reference.delegate:bulkWrites((HTreeMap<?, ?>)reference.delegate);
+                    }
+                    if(obj instanceof BigMapReference) {
+                        BigMapReference reference = (BigMapReference)obj;
+                        return dbs[reference.partition].get(reference.name);
+                    }
+                    return obj;
+                }
+            });
+        }
+        return (T)value; //objects stored directly by the default serializer of MapDB
     }
     
     /**
      * Closes the connection and clean ups the resources.
      */
     @Override
-    public void close() {
+    public synchronized void close() {
         if(isClosed()){
             return; 
         }
         super.close();
+        
+        DB[] dbs = dbRegistry.get(DatabaseType.DEFAULT_DB);
+        if(uncommittedSaves>0 && dbs!=null) {
+            //persist the saves which were not committed due to the commit interval
+            for(DB db : dbs) {
+                if(isOpenDB(db)) {
+                    db.commit();
+                }
+            }
+            uncommittedSaves = 0;
+        }
         closeAllDBs();
     }
     
@@ -126,14 +312,14 @@ public class MapDBConnector extends AutoCloseConnector {
      * @return 
      */
     @Override
-    public boolean existsDatabase() {
+    public synchronized boolean existsDatabase() {
         ensureNotClosed();
         if(Files.exists(getDefaultPath())) {
             return true;
         }
         
-        for(DB db: dbRegistry.values()) {
-            if(db != null) {
+        for(DB[] dbs: dbRegistry.values()) {
+            if(dbs != null) {
                 return true;
             }
         }
@@ -145,8 +331,9 @@ public class MapDBConnector extends AutoCloseConnector {
      * Drops the particular database.
      */
     @Override
-    public void dropDatabase() {
+    public synchronized void dropDatabase() {
         ensureNotClosed();
+        ensureNotReadOnly();
         if(!existsDatabase()) {
             return;
         }
@@ -155,9 +342,13 @@ public class MapDBConnector extends AutoCloseConnector {
             
         try {
             dbRegistry.clear();
-            Files.deleteIfExists(getDefaultPath());
-            Files.deleteIfExists(Paths.get(getDefaultPath().toString()+".p"));
-            Files.deleteIfExists(Paths.get(getDefaultPath().toString()+".t"));
+            uncommittedSaves = 0;
+            for(int p=0;p<dbConf.getPartitions();++p) {
+                Path path = getPartitionPath(p);
+                Files.deleteIfExists(path);
+                Files.deleteIfExists(Paths.get(path.toString()+".p"));
+                Files.deleteIfExists(Paths.get(path.toString()+".t"));
+            }
         } 
         catch (IOException ex) {
             throw new RuntimeException(ex);
@@ -166,7 +357,68 @@ public class MapDBConnector extends AutoCloseConnector {
     
     /**
      * Creates or loads a Big Map which is capable of storing large number of 
-     * records. 
+     * records. The keys and the values are stored with the CompactSerializer.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized <K,V> Map<K,V> getBigMap(String name, boolean isTemporary) {
+        ensureNotClosed();
+        Serializer<Object> serializer = getSerializer(isTemporary);
+        return cached(this.<K, V>makeOrGetHashMap(name, isTemporary, serializer, serializer), 1.0);
+    }   
+    
+    /**
+     * Creates or loads a Big Map with int keys and double values. The keys and
+     * the values are stored with primitive serializers.
+     * 
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized Int2DoubleMap getInt2DoubleBigMap(String name, boolean isTemporary) {
+        ensureNotClosed();
+        return new BoxedInt2DoubleMap(this.<Integer, Double>makeOrGetHashMap(name, isTemporary, Serializer.INTEGER, DoubleSerializer.INSTANCE));
+    }
+    
+    /**
+     * Creates or loads a Big Map with int keys and int values. The keys and
+     * the values are stored with primitive serializers.
+     * 
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized Int2IntMap getInt2IntBigMap(String name, boolean isTemporary) {
+        ensureNotClosed();
+        return new BoxedInt2IntMap(this.<Integer, Integer>makeOrGetHashMap(name, isTemporary, Serializer.INTEGER, Serializer.INTEGER));
+    }
+    
+    /**
+     * Creates or loads a Big Map with Object keys and double values. The 
+     * values are stored with a primitive serializer.
+     * 
+     * @param <K>
+     * @param name
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized <K> Object2DoubleMap<K> getObject2DoubleBigMap(String name, boolean isTemporary) {
+        ensureNotClosed();
+        return new BoxedObject2DoubleMap<>(this.<K, Double>makeOrGetHashMap(name, isTemporary, getSerializer(isTemporary), DoubleSerializer.INSTANCE));
+    }
+    
+    /**
+     * Creates or loads a sorted Big Map which is backed by a BTreeMap. The 
+     * sorted Big Maps are not partitioned; they are stored in the first 
+     * partition of the db.
      * 
      * @param <K>
      * @param <V>
@@ -175,17 +427,77 @@ public class MapDBConnector extends AutoCloseConnector {
      * @return 
      */
     @Override
-    public <K,V> Map<K,V> getBigMap(String name, boolean isTemporary) {
+    public synchronized <K,V> NavigableMap<K,V> getOrderedBigMap(String name, boolean isTemporary) {
         ensureNotClosed();
         validateName(name, isTemporary);
         
         DatabaseType dbType = isTemporary?DatabaseType.TEMP_DB:DatabaseType.DEFAULT_DB;
-
-        openDB(dbType);
-        return dbRegistry.get(dbType).createHashMap(name)
+        
+        DB db = openDB(dbType);
+        ensureReadable(db, name, isTemporary);
+        Serializer<Object> serializer = getSerializer(isTemporary);
+        return db.createTreeMap(name)
+            .keySerializerWrap(serializer)
+            .valueSerializer(serializer)
+            .comparator(TupleComparator.INSTANCE)
             .counterEnable()
-            .makeOrGet();
-    }   
+            .<K, V>makeOrGet();
+    }
+    
+    /**
+     * Creates a sorted Big Map and loads the entries in it with the data pump
+     * of MapDB. The entries are sorted with an external merge sort and the 
+     * BTree is built bottom-up in a single sequential pass, which is much 
+     * faster than inserting the entries one by one and produces fully packed
+     * nodes. The map must not already exist.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param name
+     * @param entries
+     * @param isTemporary
+     * @return 
+     */
+    @Override
+    public synchronized <K,V> NavigableMap<K,V> bulkLoadOrderedBigMap(String name, final Iterator<? extends Map.Entry<K,V>> entries, boolean isTemporary) {
+        ensureNotClosed();
+        if(!isTemporary) {
+            ensureNotReadOnly();
+        }
+        validateName(name, isTemporary);
+        
+        DatabaseType dbType = isTemporary?DatabaseType.TEMP_DB:DatabaseType.DEFAULT_DB;
+        
+        Serializer<Object> serializer = getSerializer(isTemporary);
+        DB.BTreeMapMaker m = openDB(dbType).createTreeMap(name)
+            .keySerializerWrap(serializer)
+            .valueSerializer(serializer)
+            .comparator(TupleComparator.INSTANCE)
+            .counterEnable();
+        if(entries.hasNext()) {
+            //the pump expects the keys in descending order; the presort takes care of it
+            m = m.pumpSource(new Iterator<Fun.Tuple2<K, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Fun.Tuple2<K, V> next() {
+                        Map.Entry<K,V> entry = entries.next();
+                        return Fun.t2(entry.getKey(), entry.getValue());
+                    }
+                    
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                })
+                .pumpPresort(dbConf.getBulkLoadBatchSize())
+                .pumpIgnoreDuplicates();
+        }
+        return m.<K, V>make();
+    }
     
     /**
      * Drops a particular Big Map.
@@ -195,61 +507,228 @@ public class MapDBConnector extends AutoCloseConnector {
      * @param map 
      */
     @Override
-    public <T extends Map> void dropBigMap(String name, T map) {
+    public synchronized <T extends Map> void dropBigMap(String name, T map) {
         ensureNotClosed();
-        boolean isTemporary = existsInDB(dbRegistry.get(DatabaseType.TEMP_DB), name); 
+        boolean isTemporary = existsInDB(getDB(DatabaseType.TEMP_DB), name); 
         
         DatabaseType dbType = isTemporary?DatabaseType.TEMP_DB:DatabaseType.DEFAULT_DB;
+        if(!isTemporary) {
+            ensureNotReadOnly();
+        }
         
-        DB db = dbRegistry.get(dbType);
-        if(isOpenDB(db)) {
-            db.delete(name);
+        DB[] dbs = dbRegistry.get(dbType);
+        if(dbs!=null) {
+            for(DB db : dbs) {
+                if(existsInDB(db, name)) {
+                    db.delete(name);
+                }
+            }
         }
     }
     
     //private methods of connector class
     
     private void closeAllDBs() {
-        //close all dbs stored in dbRegistry
-        for(DB db : dbRegistry.values()) {
-            if(isOpenDB(db)) {
-                db.close();
+        //close all dbs stored in dbRegistry; the partitions of the temporary db are returned to the pool
+        //and the shared read-only partitions of the default db are released
+        for(Map.Entry<DatabaseType, DB[]> entry : dbRegistry.entrySet()) {
+            DB[] dbs = entry.getValue();
+            for(int p=0;p<dbs.length;++p) {
+                DB db = dbs[p];
+                if(!isOpenDB(db)) {
+                    continue;
+                }
+                if(entry.getKey()==DatabaseType.TEMP_DB) {
+                    TempDBPool.release(getTempDBPoolKey(p), db, dbConf.getTempDBPoolSize());
+                }
+                else if(dbConf.isReadOnly()) {
+                    ReadOnlyDBPool.release(getReadOnlyDBKey(p), db);
+                }
+                else {
+                    db.close();
+                }
             }
         }
+        dbRegistry.clear();
     }
     
     private boolean isOpenDB(DB db) {
         return !(db == null || db.isClosed());
     }
     
+    private DB getDB(DatabaseType dbType) {
+        //the first partition stores the stored objects, the sorted maps and a partition of every hash map
+        DB[] dbs = dbRegistry.get(dbType);
+        return (dbs!=null)?dbs[0]:null;
+    }
+    
     private DB openDB(DatabaseType dbType) {
-        DB db = dbRegistry.get(dbType);
-        if(!isOpenDB(db)) {
-            boolean isTemporary = dbType==DatabaseType.TEMP_DB;
-            DBMaker m = (isTemporary==true)?DBMaker.newTempFileDB().deleteFilesAfterClose():DBMaker.newFileDB(getDefaultPath().toFile());
-            
-            if(dbConf.isTransacted()==false) {
-                m = m.transactionDisable();
+        return openDBs(dbType)[0];
+    }
+    
+    private DB[] openDBs(DatabaseType dbType) {
+        DB[] dbs = dbRegistry.get(dbType);
+        if(dbs==null) {
+            dbs = new DB[dbConf.getPartitions()];
+            dbRegistry.put(dbType, dbs);
+        }
+        boolean isTemporary = dbType==DatabaseType.TEMP_DB;
+        for(int p=0;p<dbs.length;++p) {
+            if(!isOpenDB(dbs[p])) {
+                DB db;
+                if(isTemporary) {
+                    db = TempDBPool.borrow(getTempDBPoolKey(p));
+                    if(db==null) {
+                        db = TempDBPool.track(createDBMaker(true, p).make());
+                    }
+                }
+                else if(dbConf.isReadOnly()) {
+                    if(!Files.exists(getPartitionPath(p))) {
+                        throw new UnsupportedOperationException("The database does not exist and it can not be created in read-only mode.");
+                    }
+                    db = ReadOnlyDBPool.acquire(getReadOnlyDBKey(p), createDBMaker(false, p));
+                }
+                else {
+                    db = createDBMaker(false, p).make();
+                }
+                dbs[p] = db;
             }
-            
-            if(dbConf.isCompressed()) {
-                m = m.compressionEnable();
+        }
+        return dbs;
+    }
+    
+    /**
+     * Returns a configured DBMaker which is used to open a partition of the 
+     * default or the temporary DB of the connector. Connectors which use a 
+     * different storage layout of the MapDB files can override this method.
+     * In read-only mode the DBMakers of the default db must open the files
+     * read-only.
+     * 
+     * @param isTemporary
+     * @param partition
+     * @return 
+     */
+    protected DBMaker createDBMaker(boolean isTemporary, int partition) {
+        DBMaker m = (isTemporary==true)?DBMaker.newTempFileDB().deleteFilesAfterClose():DBMaker.newFileDB(getPartitionPath(partition).toFile());
+
+        if(dbConf.isTransacted()==false) {
+            m = m.transactionDisable();
+        }
+
+        if(dbConf.isCompressed()) {
+            m = m.compressionEnable();
+        }
+
+        if(dbConf.getCacheSize()>0) {
+            m = m.cacheLRUEnable().cacheSize(dbConf.getCacheSize()) ;
+        }
+        else {
+            m = m.cacheDisable();
+        }
+
+        if(isTemporary==false && dbConf.isReadOnly()) {
+            //the shared read-only DBs are closed by the ReadOnlyDBPool
+            return m.readOnly();
+        }
+        
+        m = m.asyncWriteEnable();
+        if(isTemporary==false) {
+            //the temporary DBs are closed by the connector or the TempDBPool
+            m = m.closeOnJvmShutdown();
+        }
+        
+        return m;
+    }
+    
+    private String getTempDBPoolKey(int partition) {
+        //the pooled DBs can be reused only by connectors which create identical DBs
+        return getClass().getName() + ":" + database + ":" + dbConf.isTransacted() + ":" + dbConf.isCompressed() + ":" + dbConf.getCacheSize() + ":" + partition;
+    }
+    
+    private String getReadOnlyDBKey(int partition) {
+        //the read-only DBs are shared by all the connectors which open the same file with the same settings
+        return getClass().getName() + ":" + getPartitionPath(partition).toAbsolutePath().normalize() + ":" + dbConf.isTransacted() + ":" + dbConf.isCompressed() + ":" + dbConf.getCacheSize();
+    }
+    
+    private <K, V> Map<K, V> makeOrGetHashMap(String name, boolean isTemporary, Serializer<?> keySerializer, Serializer<?> valueSerializer) {
+        validateName(name, isTemporary);
+        
+        DatabaseType dbType = isTemporary?DatabaseType.TEMP_DB:DatabaseType.DEFAULT_DB;
+        
+        DB[] dbs = openDBs(dbType);
+        ensureReadable(dbs[0], name, isTemporary);
+        List<Map<K, V>> partitions = new ArrayList<>(dbs.length);
+        for(DB db : dbs) {
+            if(!isTemporary && dbConf.isReadOnly()) {
+                //the writes are rejected, so the maps are not buffered
+                partitions.add(db.<K, V>getHashMap(name));
+                continue;
             }
-            
-            if(dbConf.getCacheSize()>0) {
-                m = m.cacheLRUEnable().cacheSize(dbConf.getCacheSize()) ;
+            DB.HTreeMapMaker m = db.createHashMap(name).counterEnable();
+            if(keySerializer!=null) {
+                m = m.keySerializer(keySerializer);
             }
-            else {
-                m = m.cacheDisable();
+            if(valueSerializer!=null) {
+                m = m.valueSerializer(valueSerializer);
             }
-            
-            m = m.asyncWriteEnable();
-            m = m.closeOnJvmShutdown();
-            
-            db = m.make();
-            dbRegistry.put(dbType, db);
+            partitions.add(bulkWrites(m.<K, V>makeOrGet()));
+        }
+        return (partitions.size()==1)?partitions.get(0):PartitionedMap.newInstance(partitions);
+    }
+    
+    private Serializer<Object> getSerializer(boolean isTemporary) {
+        //the ids of the dictionary are valid only in the current JVM, so they are not used in the permanent files
+        return (isTemporary && dbConf.isFeatureDictionary())?CompactSerializer.INTERNED:CompactSerializer.INSTANCE;
+    }
+    
+    private <K, V> Map<K, V> bulkWrites(HTreeMap<K, V> map) {
+        int batchSize = dbConf.getBulkWriteBatchSize();
+        return (batchSize>0 && !dbConf.isConcurrent())?new BulkWriteMap<>(map, batchSize, this):map;
+    }
+    
+    private <K, V> Map<K, V> cached(Map<K, V> map, double weight) {
+        int cacheSize = dbConf.getObjectCacheSize();
+        if(cacheSize<=0 || dbConf.isConcurrent()) {
+            return map;
+        }
+        if(dbConf.isReadOnly()) {
+            //the connectors which share a read-only DB share the caches of its BigMaps too
+            DB db = getDB(DatabaseType.DEFAULT_DB);
+            Object firstPartition = (map instanceof PartitionedMap)?((PartitionedMap<K, V>)map).getPartitions().get(0):map;
+            String name = (db!=null)?db.getNameForObject(firstPartition):null;
+            if(name!=null) {
+                return ReadOnlyDBPool.getCache(getReadOnlyDBKey(0), name, map, cacheSize, weight);
+            }
+        }
+        return new CachedMap<>(map, cacheSize, weight);
+    }
+    
+    private boolean shouldCompact(DB db) {
+        double threshold = dbConf.getCompactionThreshold();
+        if(threshold<0.0) {
+            return false;
+        }
+        else if(threshold==0.0) {
+            return true;
+        }
+        
+        Store store = Store.forDB(db);
+        if(store==null) {
+            return true; //the size of the store is unknown; keep the old behaviour
+        }
+        return store.getFreeSize()>=threshold*store.getCurrSize();
+    }
+    
+    private void ensureNotReadOnly() {
+        if(dbConf.isReadOnly()) {
+            throw new UnsupportedOperationException("The database is opened in read-only mode.");
+        }
+    }
+    
+    private void ensureReadable(DB db, String name, boolean isTemporary) {
+        if(!isTemporary && dbConf.isReadOnly() && !db.exists(name)) {
+            throw new UnsupportedOperationException("The BigMap does not exist and it can not be created in read-only mode.");
         }
-        return db;
     }
     
     private boolean existsInDB(DB db, String name) {
@@ -257,20 +736,37 @@ public class MapDBConnector extends AutoCloseConnector {
     }
     
     private void validateName(String name, boolean isTemporary) {
-        DB db = dbRegistry.get(DatabaseType.TEMP_DB);
+        DB db = getDB(DatabaseType.TEMP_DB);
         if (existsInDB(db, name)) {
             //try to find a map in temporary db with the same name
             throw new RuntimeException("A temporary map already exists with the same name.");
         }
         
-        db = dbRegistry.get(DatabaseType.DEFAULT_DB);
+        db = getDB(DatabaseType.DEFAULT_DB);
         if (isTemporary && existsInDB(db, name)) {
             //try to find if a permanent map exists and we want to declare a new temporary with the same name
             throw new RuntimeException("A BigMap already exists with the same name.");
         }
     }
     
-    private Path getDefaultPath() {
+    /**
+     * Returns the path of the MapDB file of a partition of the database. The 
+     * first partition is stored in the default path.
+     * 
+     * @param partition
+     * @return 
+     */
+    protected Path getPartitionPath(int partition) {
+        Path path = getDefaultPath();
+        return (partition==0)?path:Paths.get(path.toString()+".part"+partition);
+    }
+    
+    /**
+     * Returns the path of the permanent MapDB file of the database.
+     * 
+     * @return 
+     */
+    protected Path getDefaultPath() {
         //get the default filepath of the permanet db file
         String outputFolder = this.dbConf.getOutputFolder();
         
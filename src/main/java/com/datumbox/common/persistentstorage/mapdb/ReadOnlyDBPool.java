@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.mapdb;
+
+import com.datumbox.common.persistentstorage.ConnectorRegistry;
+import com.datumbox.common.persistentstorage.collections.CachedMap;
+import java.util.HashMap;
+import java.util.Map;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+
+/**
+ * Registry of the MapDB databases which are opened in read-only mode. All the
+ * connectors which open the same file in read-only mode share the same DB, so
+ * the file is mapped and cached only once. The DBs are reference counted and
+ * they are closed when the last connector releases them. The key contains the
+ * path of the file and the settings of the DB. The object caches of the 
+ * BigMaps of a shared DB are shared too and they are dropped with the DB.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+final class ReadOnlyDBPool {
+    
+    /**
+     * A shared DB, the number of connectors which use it and the object caches
+     * of its BigMaps.
+     */
+    private static class SharedDB {
+        private final DB db;
+        private int references = 0;
+        private final Map<String, CachedMap<?, ?>> caches = new HashMap<>();
+        
+        private SharedDB(DB db) {
+            this.db = db;
+        }
+    }
+    
+    private static final Map<String, SharedDB> POOL = new HashMap<>();
+    
+    /**
+     * Closes the shared DBs when the JVM is terminated. It is referenced by a
+     * static field because the registry keeps only weak references.
+     */
+    private static final AutoCloseable CLOSER = new AutoCloseable() {
+        @Override
+        public void close() {
+            closeAll();
+        }
+    };
+    
+    static {
+        ConnectorRegistry.register(CLOSER);
+    }
+    
+    private ReadOnlyDBPool() {
+    }
+    
+    /**
+     * Returns the shared DB of the key. If the DB is not open, it is created
+     * with the provided DBMaker.
+     * 
+     * @param key
+     * @param maker
+     * @return 
+     */
+    static synchronized DB acquire(String key, DBMaker maker) {
+        SharedDB shared = POOL.get(key);
+        if(shared==null || shared.db.isClosed()) {
+            shared = new SharedDB(maker.make());
+            POOL.put(key, shared);
+        }
+        ++shared.references;
+        return shared.db;
+    }
+    
+    /**
+     * Returns the shared object cache of a BigMap of the DB of the key. If the
+     * BigMap has no cache with the provided size, a new one is created around
+     * the map; it is not shared if the DB of the key is not open.
+     * 
+     * @param <K>
+     * @param <V>
+     * @param key
+     * @param name
+     * @param map
+     * @param cacheSize
+     * @param weight
+     * @return 
+     */
+    @SuppressWarnings("unchecked")
+    static synchronized <K, V> CachedMap<K, V> getCache(String key, String name, Map<K, V> map, int cacheSize, double weight) {
+        SharedDB shared = POOL.get(key);
+        if(shared==null || shared.db.isClosed()) {
+            return new CachedMap<>(map, cacheSize, weight);
+        }
+        String cacheKey = name + ":" + cacheSize;
+        CachedMap<K, V> cache = (CachedMap<K, V>)shared.caches.get(cacheKey);
+        if(cache==null) {
+            cache = new CachedMap<>(map, cacheSize, weight);
+            shared.caches.put(cacheKey, cache);
+        }
+        return cache;
+    }
+    
+    /**
+     * Releases the shared DB of the key. The DB is closed when it is no longer
+     * used by any connector.
+     * 
+     * @param key
+     * @param db 
+     */
+    static synchronized void release(String key, DB db) {
+        SharedDB shared = POOL.get(key);
+        if(shared==null || shared.db!=db) {
+            if(!db.isClosed()) {
+                db.close();
+            }
+            return;
+        }
+        if(--shared.references<=0) {
+            POOL.remove(key);
+            if(!db.isClosed()) {
+                db.close();
+            }
+        }
+    }
+    
+    /**
+     * Closes all the shared DBs.
+     */
+    static synchronized void closeAll() {
+        for(SharedDB shared : POOL.values()) {
+            if(!shared.db.isClosed()) {
+                shared.db.close();
+            }
+        }
+        POOL.clear();
+    }
+}
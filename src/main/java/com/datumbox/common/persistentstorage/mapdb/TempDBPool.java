@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.mapdb;
+
+import com.datumbox.common.persistentstorage.ConnectorRegistry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.mapdb.DB;
+
+/**
+ * Pool of temporary MapDB databases. When a connector is closed its temporary
+ * DB is emptied and kept in the pool, so that the next connector which uses the
+ * same key can reuse it instead of creating a new temporary file. The key 
+ * contains the name of the database and the settings of the DB. The DBs which
+ * are in use are tracked too, so that the DBs of the connectors which were 
+ * garbage collected without being closed are closed when the JVM terminates.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+final class TempDBPool {
+    
+    private static final Map<String, Deque<DB>> POOL = new HashMap<>();
+    
+    private static final Set<DB> IN_USE = Collections.newSetFromMap(new IdentityHashMap<DB, Boolean>());
+    
+    private static boolean closed = false;
+    
+    /**
+     * Closes the pooled DBs when the JVM is terminated. It is referenced by a
+     * static field because the registry keeps only weak references.
+     */
+    private static final AutoCloseable CLOSER = new AutoCloseable() {
+        @Override
+        public void close() {
+            closeAll();
+        }
+    };
+    
+    static {
+        ConnectorRegistry.register(CLOSER);
+    }
+    
+    private TempDBPool() {
+    }
+    
+    /**
+     * Returns an empty pooled DB for the key or null if none is available. The
+     * DB is tracked until it is released.
+     * 
+     * @param key
+     * @return 
+     */
+    static synchronized DB borrow(String key) {
+        Deque<DB> dbs = POOL.get(key);
+        while(dbs!=null && !dbs.isEmpty()) {
+            DB db = dbs.pollFirst();
+            if(!db.isClosed()) {
+                IN_USE.add(db);
+                return db;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Tracks a new temporary DB until it is released.
+     * 
+     * @param db
+     * @return 
+     */
+    static synchronized DB track(DB db) {
+        IN_USE.add(db);
+        return db;
+    }
+    
+    /**
+     * Checks whether the DB is borrowed or tracked and not released yet.
+     * 
+     * @param db
+     * @return 
+     */
+    static synchronized boolean isInUse(DB db) {
+        return IN_USE.contains(db);
+    }
+    
+    /**
+     * Empties the DB and returns it to the pool. If the pool of the key is full
+     * the DB is closed.
+     * 
+     * @param key
+     * @param db
+     * @param maxPooled 
+     */
+    static void release(String key, DB db, int maxPooled) {
+        synchronized(TempDBPool.class) {
+            IN_USE.remove(db);
+        }
+        if(db.isClosed()) {
+            return;
+        }
+        
+        synchronized(TempDBPool.class) {
+            Deque<DB> dbs = POOL.get(key);
+            if(closed==false && maxPooled>0 && (dbs==null || dbs.size()<maxPooled)) {
+                for(String name : new ArrayList<>(db.getAll().keySet())) {
+                    db.delete(name);
+                }
+                db.commit();
+                
+                if(dbs==null) {
+                    dbs = new ArrayDeque<>();
+                    POOL.put(key, dbs);
+                }
+                dbs.addFirst(db);
+                return;
+            }
+        }
+        db.close();
+    }
+    
+    /**
+     * Closes all the pooled DBs and the DBs which are in use. The DBs which are
+     * released afterwards are closed directly.
+     */
+    static synchronized void closeAll() {
+        closed = true;
+        for(DB db : IN_USE) {
+            if(!db.isClosed()) {
+                db.close();
+            }
+        }
+        IN_USE.clear();
+        for(Deque<DB> dbs : POOL.values()) {
+            for(DB db : dbs) {
+                if(!db.isClosed()) {
+                    db.close();
+                }
+            }
+        }
+        POOL.clear();
+    }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.mmap;
+
+import com.datumbox.common.persistentstorage.codecs.Codecs;
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import com.datumbox.common.persistentstorage.mapdb.MapDBConfiguration;
+import java.util.Properties;
+
+/**
+ * The MMapConfiguration class is used to configure the Memory-Mapped persistence
+ * storage and generate new storage connections. The MMap storage keeps the
+ * contents of the BigMaps in memory-mapped files which live outside of the Java
+ * heap. As a result the data are not scanned by the Garbage Collector and the
+ * hot entries are served directly by the page cache of the Operating System.
+ * 
+ * By default the MMap storage does not use an object cache and does not compress
+ * the records, because both would move the data back in the Java heap.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class MMapConfiguration extends MapDBConfiguration {
+    
+    /**
+     * Public constructor which sets the defaults of the MMap storage.
+     */
+    public MMapConfiguration() {
+        super();
+        setCacheSize(0);
+        setCompressed(false);
+        setTransacted(false);
+    }
+    
+    /**
+     * It initializes a new connector to the Database.
+     * 
+     * @param database
+     * @return 
+     */
+    @Override
+    public DatabaseConnector getConnector(String database) {
+        return new MMapConnector(database, this);
+    }
+    
+    /**
+     * Initializes the MMapConfiguration object by using a property file.
+     * 
+     * @param properties
+     */
+    @Override
+    public void load(Properties properties) {
+        setOutputFolder(properties.getProperty("dbConfig.MMapConfiguration.outputFolder"));
+        setCacheSize(Integer.valueOf(properties.getProperty("dbConfig.MMapConfiguration.cacheSize")));
+        setCompressed("true".equalsIgnoreCase(properties.getProperty("dbConfig.MMapConfiguration.compressed")));
+        setTransacted("true".equalsIgnoreCase(properties.getProperty("dbConfig.MMapConfiguration.transacted")));
+        setCommitInterval(Integer.valueOf(properties.getProperty("dbConfig.MMapConfiguration.commitInterval")));
+        setCompactionThreshold(Double.valueOf(properties.getProperty("dbConfig.MMapConfiguration.compactionThreshold")));
+        setBulkWriteBatchSize(Integer.valueOf(properties.getProperty("dbConfig.MMapConfiguration.bulkWriteBatchSize")));
+        setBulkLoadBatchSize(Integer.valueOf(properties.getProperty("dbConfig.MMapConfiguration.bulkLoadBatchSize")));
+        setTempDBPoolSize(Integer.valueOf(properties.getProperty("dbConfig.MMapConfiguration.tempDBPoolSize")));
+        setObjectCacheSize(Integer.valueOf(properties.getProperty("dbConfig.MMapConfiguration.objectCacheSize")));
+        setConcurrent("true".equalsIgnoreCase(properties.getProperty("dbConfig.MMapConfiguration.concurrent")));
+        setReadOnly("true".equalsIgnoreCase(properties.getProperty("dbConfig.MMapConfiguration.readOnly")));
+        setFeatureDictionary("true".equalsIgnoreCase(properties.getProperty("dbConfig.MMapConfiguration.featureDictionary")));
+        setPartitions(Integer.valueOf(properties.getProperty("dbConfig.MMapConfiguration.partitions")));
+        setCodec(Codecs.newInstance(properties.getProperty("dbConfig.MMapConfiguration.codec")));
+    }
+
+}
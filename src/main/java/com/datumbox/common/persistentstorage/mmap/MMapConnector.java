@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.mmap;
+
+import com.datumbox.common.persistentstorage.mapdb.MapDBConnector;
+import org.mapdb.DBMaker;
+
+/**
+ * The MMapConnector is responsible for saving and loading data from memory-mapped
+ * files, creating off-heap BigMaps and persisting data. Both the permanent and the
+ * temporary BigMaps are stored in memory-mapped files and thus their contents
+ * are never kept in the Java heap. The reads are served by the page cache of the
+ * OS and the writes are copied directly to the mapped buffers, so no asynchronous
+ * writer thread is used.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class MMapConnector extends MapDBConnector {
+    
+    private final MMapConfiguration dbConf;
+    
+    /**
+     * Non-public constructor used by MMapConfiguration class to generate
+     * new connections.
+     * 
+     * @param database
+     * @param dbConf
+     */
+    protected MMapConnector(String database, MMapConfiguration dbConf) {
+        super(database, dbConf);
+        this.dbConf = dbConf;
+    }
+    
+    /**
+     * Returns a DBMaker which stores the data in memory-mapped files. If the
+     * JVM does not support mmap files (32bit JVMs), it falls back to random
+     * access files.
+     * 
+     * @param isTemporary
+     * @param partition
+     * @return 
+     */
+    @Override
+    protected DBMaker createDBMaker(boolean isTemporary, int partition) {
+        DBMaker m = (isTemporary==true)?DBMaker.newTempFileDB().deleteFilesAfterClose():DBMaker.newFileDB(getPartitionPath(partition).toFile());
+        
+        m = m.mmapFileEnableIfSupported();
+        
+        if(isTemporary==false && dbConf.isReadOnly()) {
+            m = m.readOnly();
+        }
+        
+        if(dbConf.isTransacted()==false) {
+            m = m.transactionDisable();
+        }
+        
+        if(dbConf.isCompressed()) {
+            m = m.compressionEnable();
+        }
+        
+        if(dbConf.getCacheSize()>0) {
+            m = m.cacheLRUEnable().cacheSize(dbConf.getCacheSize());
+        }
+        else {
+            m = m.cacheDisable();
+        }
+        
+        if(isTemporary==false && dbConf.isReadOnly()==false) {
+            //the temporary DBs are closed by the connector or the TempDBPool and the read-only DBs by the ReadOnlyDBPool
+            m = m.closeOnJvmShutdown();
+        }
+        
+        return m;
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.utilities;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预读迭代器<br>
+ * Iterator which reads the elements of another iterator in batches on a
+ * background thread, so the reads of the next batches overlap with the 
+ * processing of the current one. At most a fixed number of batches is read 
+ * ahead. If the iterator is abandoned before it is exhausted, the background
+ * thread terminates once the iterator is garbage collected.
+ * 
+ * The source iterator is consumed only by the background thread, so it must
+ * tolerate being read by a different thread than the one which created it.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ * @param <E>
+ */
+public class ReadAheadIterator<E> implements Iterator<E> {
+    
+    /**
+     * Marks the end of the source iterator.
+     */
+    private static final Object END = new Object();
+    
+    /**
+     * Wraps the exceptions and the errors which are thrown by the source 
+     * iterator, so that they are rethrown on the consumer thread instead of
+     * leaving it blocked.
+     */
+    private static class Failure {
+        private final Throwable exception;
+        
+        private Failure(Throwable exception) {
+            this.exception = exception;
+        }
+    }
+    
+    /**
+     * Reads the source iterator on the background thread. It keeps only a weak
+     * reference to the ReadAheadIterator to detect when it is abandoned.
+     * 
+     * @param <E> 
+     */
+    private static class Producer<E> implements Runnable {
+        private final Iterator<E> source;
+        private final int batchSize;
+        private final BlockingQueue<Object> queue;
+        private final WeakReference<ReadAheadIterator<E>> owner;
+        
+        private Producer(Iterator<E> source, int batchSize, BlockingQueue<Object> queue, ReadAheadIterator<E> owner) {
+            this.source = source;
+            this.batchSize = batchSize;
+            this.queue = queue;
+            this.owner = new WeakReference<>(owner);
+        }
+        
+        @Override
+        public void run() {
+            try {
+                Object last;
+                try {
+                    while(source.hasNext()) {
+                        List<E> batch = new ArrayList<>(batchSize);
+                        while(batch.size()<batchSize && source.hasNext()) {
+                            batch.add(source.next());
+                        }
+                        if(!offer(batch)) {
+                            return;
+                        }
+                    }
+                    last = END;
+                }
+                catch(InterruptedException ex) {
+                    throw ex;
+                }
+                catch(Throwable ex) {
+                    last = new Failure(ex);
+                }
+                offer(last);
+            }
+            catch(InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        private boolean offer(Object item) throws InterruptedException {
+            while(!queue.offer(item, 1, TimeUnit.SECONDS)) {
+                if(owner.get()==null) {
+                    return false; //the iterator was abandoned
+                }
+            }
+            return true;
+        }
+    }
+    
+    private final BlockingQueue<Object> queue;
+    
+    private Iterator<E> current = Collections.emptyIterator();
+    
+    private boolean finished = false;
+    
+    /**
+     * Public constructor which starts reading the source iterator.
+     * 
+     * @param source
+     * @param batchSize
+     * @param maxBatches 
+     */
+    public ReadAheadIterator(Iterator<E> source, int batchSize, int maxBatches) {
+        if(batchSize<1 || maxBatches<1) {
+            throw new IllegalArgumentException("The batch size and the number of batches must be positive.");
+        }
+        queue = new ArrayBlockingQueue<>(maxBatches);
+        
+        Thread thread = new Thread(new Producer<>(source, batchSize, queue, this), "ReadAheadIterator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean hasNext() {
+        while(!current.hasNext()) {
+            if(finished) {
+                return false;
+            }
+            
+            Object item;
+            try {
+                item = queue.take();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ex);
+            }
+            
+            if(item==END) {
+                finished = true;
+            }
+            else if(item instanceof Failure) {
+                finished = true;
+                Throwable exception = ((Failure)item).exception;
+                if(exception instanceof RuntimeException) {
+                    throw (RuntimeException)exception;
+                }
+                else if(exception instanceof Error) {
+                    throw (Error)exception;
+                }
+                throw new RuntimeException(exception);
+            }
+            else {
+                current = ((List<E>)item).iterator();
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public E next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
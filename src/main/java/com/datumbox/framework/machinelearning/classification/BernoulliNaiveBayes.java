@@ -179,7 +179,7 @@ public class BernoulliNaiveBayes extends BaseNaiveBayes<BernoulliNaiveBayes.Mode
             
             Descriptives.normalizeExp(predictionScores);
             
-            newData.set(rId, new Record(r.getX(), r.getY(), theClass, predictionScores));
+            newData.set(rId, r.withPrediction(theClass, predictionScores));
         }
         
     }
@@ -18,6 +18,7 @@ package com.datumbox.framework.machinelearning.classification;
 import com.datumbox.common.dataobjects.AssociativeArray;
 import com.datumbox.common.dataobjects.Dataset;
 import com.datumbox.common.dataobjects.Record;
+import com.datumbox.common.persistentstorage.ScratchMapArena;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
 import com.datumbox.framework.machinelearning.common.bases.mlmodels.BaseMLclassifier;
 import com.datumbox.common.persistentstorage.interfaces.BigMap;
@@ -144,7 +145,7 @@ public class MaximumEntropy extends BaseMLclassifier<MaximumEntropy.ModelParamet
             
             Descriptives.normalizeExp(predictionScores);
             
-            newData.set(rId, new Record(r.getX(), r.getY(), theClass, predictionScores));
+            newData.set(rId, r.withPrediction(theClass, predictionScores));
         }
     }
     
@@ -239,11 +240,12 @@ public class MaximumEntropy extends BaseMLclassifier<MaximumEntropy.ModelParamet
         int n = modelParameters.getN();
         
         DatabaseConnector dbc = knowledgeBase.getDbc();
+        ScratchMapArena scratchMaps = dbc.getScratchMaps();
+        Map<List<Object>, Double> tmp_EpFj_model = scratchMaps.getMap("EpFj_model"); //all of its keys are reset on every iteration, so it does not need to be cleared
         for(int iteration=0;iteration<totalIterations;++iteration) {
             
             logger.debug("Iteration {}", iteration);
             
-            Map<List<Object>, Double> tmp_EpFj_model = dbc.getBigMap("tmp_EpFj_model", true);
             Collection<List<Object>> infiniteLambdaWeights = new ArrayList<>();
             
             //initialize the model probabilities with 0. We will start estimating them piece by piece
@@ -391,11 +393,12 @@ public class MaximumEntropy extends BaseMLclassifier<MaximumEntropy.ModelParamet
             
             
             
-            //Drop the temporary Collection
-            dbc.dropBigMap("tmp_EpFj_model", tmp_EpFj_model);
             infiniteLambdaWeights = null; //dbc.dropTable("infiniteLambdaWeights", infiniteLambdaWeights);
         }
         
+        //Drop the scratch Collection
+        scratchMaps.release("EpFj_model");
+        
     }
     
     private Double calculateClassScore(AssociativeArray x, Object theClass) {
@@ -18,6 +18,7 @@ package com.datumbox.framework.machinelearning.classification;
 import com.datumbox.common.dataobjects.AssociativeArray;
 import com.datumbox.common.dataobjects.Dataset;
 import com.datumbox.common.dataobjects.Record;
+import com.datumbox.common.persistentstorage.ScratchMapArena;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
 import com.datumbox.common.persistentstorage.interfaces.BigMap;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
@@ -233,7 +234,7 @@ public class OrdinalRegression extends BaseMLclassifier<OrdinalRegression.ModelP
             
             Object theClass=getSelectedClassFromClassScores(predictionProbabilities);
             
-            newData.set(rId, new Record(r.getX(), r.getY(), theClass, predictionProbabilities));
+            newData.set(rId, r.withPrediction(theClass, predictionProbabilities));
         }
     }
     
@@ -248,8 +249,8 @@ public class OrdinalRegression extends BaseMLclassifier<OrdinalRegression.ModelP
         
         //add classes in a sorted way (ordinal ascending order)
         Set<Object> sortedClasses = new TreeSet<>();
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
             Object theClass=r.getY();
             
             sortedClasses.add(theClass); 
@@ -261,8 +262,8 @@ public class OrdinalRegression extends BaseMLclassifier<OrdinalRegression.ModelP
         for(Object feature: trainingData.getXDataTypes().keySet()) {
             weights.put(feature, 0.0);
         }
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
             thitas.put(r.getY(), 0.0);
         }
         
@@ -281,16 +282,18 @@ public class OrdinalRegression extends BaseMLclassifier<OrdinalRegression.ModelP
         double learningRate = trainingParameters.getLearningRate();
         int totalIterations = trainingParameters.getTotalIterations();
         DatabaseConnector dbc = knowledgeBase.getDbc();
+        ScratchMapArena scratchMaps = dbc.getScratchMaps();
+        Map<Object, Double> tmp_newThitas = scratchMaps.getMap("newThitas");
+        Map<Object, Double> tmp_newWeights = scratchMaps.getMap("newWeights");
+        boolean copyParameters = true;
         for(int iteration=0;iteration<totalIterations;++iteration) {
             
             logger.debug("Iteration {}", iteration);
             
-            Map<Object, Double> tmp_newThitas = dbc.getBigMap("tmp_newThitas", true);
-            
-            Map<Object, Double> tmp_newWeights = dbc.getBigMap("tmp_newWeights", true);
-            
-            tmp_newThitas.putAll(thitas);
-            tmp_newWeights.putAll(weights);
+            if(copyParameters) {
+                scratchMaps.copyFrom("newThitas", thitas);
+                scratchMaps.copyFrom("newWeights", weights);
+            }
             batchGradientDescent(trainingData, previousThitaMapping, tmp_newWeights, tmp_newThitas, learningRate);
             
             double newError = calculateError(trainingData, previousThitaMapping, tmp_newWeights, tmp_newThitas);
@@ -298,6 +301,7 @@ public class OrdinalRegression extends BaseMLclassifier<OrdinalRegression.ModelP
             //bold driver
             if(newError>minError) {
                 learningRate/=2.0;
+                copyParameters = true;
             }
             else {
                 learningRate*=1.05;
@@ -310,12 +314,15 @@ public class OrdinalRegression extends BaseMLclassifier<OrdinalRegression.ModelP
                 //keep the new thitas
                 thitas.clear();
                 thitas.putAll(tmp_newThitas);
+                
+                //the scratch maps already hold the same values
+                copyParameters = false;
             }
-            
-            //Drop the temporary Collections
-            dbc.dropBigMap("tmp_newWeights", tmp_newWeights);
-            dbc.dropBigMap("tmp_newThitas", tmp_newThitas);
         }
+        
+        //Drop the scratch Collections
+        scratchMaps.release("newWeights");
+        scratchMaps.release("newThitas");
     }
    
     @Override
@@ -344,8 +351,8 @@ public class OrdinalRegression extends BaseMLclassifier<OrdinalRegression.ModelP
         Map<Object, Double> weights = modelParameters.getWeights();
         Map<Object, Double> thitas = modelParameters.getThitas();
         
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
             Object rClass = r.getY();
             Object rPreviousClass = previousThitaMapping.get(rClass);
             
@@ -407,8 +414,8 @@ public class OrdinalRegression extends BaseMLclassifier<OrdinalRegression.ModelP
     private double calculateError(Dataset trainingData, Map<Object, Object> previousThitaMapping, Map<Object, Double> weights, Map<Object, Double> thitas) {
         double error=0.0;
         
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
             double xTw = xTw(r.getX(), weights);
             
             Object theClass = r.getY();
@@ -18,11 +18,11 @@ package com.datumbox.framework.machinelearning.classification;
 import com.datumbox.common.dataobjects.AssociativeArray;
 import com.datumbox.common.dataobjects.Dataset;
 import com.datumbox.common.dataobjects.Record;
+import com.datumbox.common.persistentstorage.ScratchMapArena;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
 import com.datumbox.framework.machinelearning.common.bases.mlmodels.BaseMLclassifier;
 import com.datumbox.common.persistentstorage.interfaces.BigMap;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
-import com.datumbox.common.dataobjects.TypeInference;
 import com.datumbox.framework.machinelearning.common.validation.SoftMaxRegressionValidation;
 import com.datumbox.framework.statistics.descriptivestatistics.Descriptives;
 import java.util.Arrays;
@@ -191,18 +191,19 @@ public class SoftMaxRegression extends BaseMLclassifier<SoftMaxRegression.ModelP
         Set<Object> classesSet = modelParameters.getClasses();
         Map<List<Object>, Double> thitas = modelParameters.getThitas();
         
+        Record.FeatureCursor cursor = new Record.FeatureCursor();
         for(Integer rId : newData) {
             Record r = newData.get(rId);
             AssociativeArray predictionScores = new AssociativeArray();
             for(Object theClass : classesSet) {
-                predictionScores.put(theClass, calculateClassScore(r.getX(), theClass, thitas));
+                predictionScores.put(theClass, calculateClassScore(r, theClass, thitas, cursor));
             }
             
             Object theClass=getSelectedClassFromClassScores(predictionScores);
             
             Descriptives.normalizeExp(predictionScores);
             
-            newData.set(rId, new Record(r.getX(), r.getY(), theClass, predictionScores));
+            newData.set(rId, r.withPrediction(theClass, predictionScores));
         }
     }
     
@@ -217,8 +218,8 @@ public class SoftMaxRegression extends BaseMLclassifier<SoftMaxRegression.ModelP
         Set<Object> classesSet = modelParameters.getClasses();
         
         //first we need to find all the classes
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
             Object theClass=r.getY();
             
             classesSet.add(theClass); 
@@ -228,8 +229,8 @@ public class SoftMaxRegression extends BaseMLclassifier<SoftMaxRegression.ModelP
         for(Object theClass : classesSet) {
             thitas.put(Arrays.<Object>asList(Dataset.constantColumnName, theClass), 0.0);
             
-            for(Integer rId : trainingData) { 
-                Record r = trainingData.get(rId);
+            for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+                Record r = e.getValue();
                 for(Object feature : r.getX().keySet()) {
                     thitas.put(Arrays.<Object>asList(feature, theClass), 0.0);
                 }
@@ -241,13 +242,16 @@ public class SoftMaxRegression extends BaseMLclassifier<SoftMaxRegression.ModelP
         double learningRate = trainingParameters.getLearningRate();
         int totalIterations = trainingParameters.getTotalIterations();
         DatabaseConnector dbc = knowledgeBase.getDbc();
+        ScratchMapArena scratchMaps = dbc.getScratchMaps();
+        Map<List<Object>, Double> tmp_newThitas = scratchMaps.getMap("newThitas");
+        boolean copyThitas = true;
         for(int iteration=0;iteration<totalIterations;++iteration) {
             
             logger.debug("Iteration {}", iteration);
             
-            Map<List<Object>, Double> tmp_newThitas = dbc.getBigMap("tmp_newThitas", true);
-            
-            tmp_newThitas.putAll(thitas);
+            if(copyThitas) {
+                scratchMaps.copyFrom("newThitas", thitas);
+            }
             batchGradientDescent(trainingData, tmp_newThitas, learningRate);
             
             double newError = calculateError(trainingData,tmp_newThitas);
@@ -255,19 +259,21 @@ public class SoftMaxRegression extends BaseMLclassifier<SoftMaxRegression.ModelP
             //bold driver
             if(newError>minError) {
                 learningRate/=2.0;
+                copyThitas = true;
             }
             else {
                 learningRate*=1.05;
                 minError=newError;
                 
-                //keep the new thitas
+                //keep the new thitas; the scratch map already holds the same values
                 thitas.clear();
                 thitas.putAll(tmp_newThitas);
+                copyThitas = false;
             }
-            
-            //Drop the temporary Collection
-            dbc.dropBigMap("tmp_newThitas", tmp_newThitas);
         }
+        
+        //Drop the scratch Collection
+        scratchMaps.release("newThitas");
     }
     
     @Override
@@ -292,10 +298,11 @@ public class SoftMaxRegression extends BaseMLclassifier<SoftMaxRegression.ModelP
         Map<List<Object>, Double> thitas = modelParameters.getThitas();
         Set<Object> classesSet = modelParameters.getClasses();
         
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
+        Record.FeatureCursor cursor = new Record.FeatureCursor();
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
             //mind the fact that we use the previous thitas to estimate the new ones! this is because the thitas must be updated simultaniously
-            AssociativeArray classProbabilities = hypothesisFunction(r.getX(), thitas);
+            AssociativeArray classProbabilities = hypothesisFunction(r, thitas, cursor);
             for(Object theClass : classesSet) {
                 
                 double error;
@@ -315,16 +322,13 @@ public class SoftMaxRegression extends BaseMLclassifier<SoftMaxRegression.ModelP
                 newThitas.put(featureClassTuple, newThitas.get(featureClassTuple)+errorMultiplier);
                 
                 //update the rest of the weights
-                
-                for(Map.Entry<Object, Object> entry : r.getX().entrySet()) {
-                    Double value = TypeInference.toDouble(entry.getValue());
-
-                    Object feature = entry.getKey();
-                    featureClassTuple = Arrays.<Object>asList(feature, theClass);
+                cursor.reset(r);
+                while(cursor.next()) {
+                    featureClassTuple = Arrays.<Object>asList(cursor.getFeature(), theClass);
 
                     Double thitaWeight = newThitas.get(featureClassTuple);
                     if(thitaWeight!=null) {//ensure that the feature is in the dictionary
-                        newThitas.put(featureClassTuple, thitaWeight+errorMultiplier*value);
+                        newThitas.put(featureClassTuple, thitaWeight+errorMultiplier*cursor.getDouble());
                     }
                 }
             }
@@ -332,18 +336,17 @@ public class SoftMaxRegression extends BaseMLclassifier<SoftMaxRegression.ModelP
         
     }
     
-    private Double calculateClassScore(AssociativeArray x, Object theClass, Map<List<Object>, Double> thitas) {
+    private Double calculateClassScore(Record r, Object theClass, Map<List<Object>, Double> thitas, Record.FeatureCursor cursor) {
         double score = thitas.get(Arrays.<Object>asList(Dataset.constantColumnName, theClass));
         
-        for(Map.Entry<Object, Object> entry : x.entrySet()) {
-            Double value = TypeInference.toDouble(entry.getValue());
-            
-            Object feature = entry.getKey();
-            List<Object> featureClassTuple = Arrays.<Object>asList(feature, theClass);
+        //the cursor iterates through the x of the Record without copying it or boxing the sparse values
+        cursor.reset(r);
+        while(cursor.next()) {
+            List<Object> featureClassTuple = Arrays.<Object>asList(cursor.getFeature(), theClass);
             
             Double thitaWeight = thitas.get(featureClassTuple);
             if(thitaWeight!=null) {//ensure that the feature is in the dictionary
-                score+=thitaWeight*value;
+                score+=thitaWeight*cursor.getDouble();
             }
         }
         
@@ -355,9 +358,10 @@ public class SoftMaxRegression extends BaseMLclassifier<SoftMaxRegression.ModelP
         //It is optimized for speed to reduce the amount of loops
         double error=0.0;
         
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
-            AssociativeArray classProbabilities = hypothesisFunction(r.getX(), thitas);
+        Record.FeatureCursor cursor = new Record.FeatureCursor();
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
+            AssociativeArray classProbabilities = hypothesisFunction(r, thitas, cursor);
             Double score = classProbabilities.getDouble(r.getY());
             error+=Math.log(score); //no need to loop through the categories. Just grab the one that we are interested in
         }
@@ -365,12 +369,12 @@ public class SoftMaxRegression extends BaseMLclassifier<SoftMaxRegression.ModelP
         return -error/knowledgeBase.getModelParameters().getN();
     }
     
-    private AssociativeArray hypothesisFunction(AssociativeArray x, Map<List<Object>, Double> thitas) {
+    private AssociativeArray hypothesisFunction(Record r, Map<List<Object>, Double> thitas, Record.FeatureCursor cursor) {
         Set<Object> classesSet = knowledgeBase.getModelParameters().getClasses();
         AssociativeArray predictionProbabilities = new AssociativeArray(); 
         
         for(Object theClass : classesSet) {
-            double score=calculateClassScore(x, theClass, thitas);
+            double score=calculateClassScore(r, theClass, thitas, cursor);
             if(score<=0) {
                 score=1e-8;
             }
@@ -218,7 +218,7 @@ public class SupportVectorMachine extends BaseMLclassifier<SupportVectorMachine.
             
             Descriptives.normalize(predictionScores);
             
-            newData.set(rId, new Record(r.getX(), r.getY(), theClass, predictionScores));
+            newData.set(rId, r.withPrediction(theClass, predictionScores));
         }
     }
     
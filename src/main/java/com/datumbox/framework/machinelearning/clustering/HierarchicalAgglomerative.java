@@ -338,7 +338,7 @@ public class HierarchicalAgglomerative extends BaseMLclusterer<HierarchicalAgglo
             
             Descriptives.normalize(clusterDistances);
             
-            newData.set(rId, new Record(r.getX(), r.getY(), getSelectedClusterFromDistances(clusterDistances), clusterDistances));
+            newData.set(rId, r.withPrediction(getSelectedClusterFromDistances(clusterDistances), clusterDistances));
         }
         
     }
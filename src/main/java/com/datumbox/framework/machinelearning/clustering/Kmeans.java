@@ -433,7 +433,7 @@ public class Kmeans extends BaseMLclusterer<Kmeans.Cluster, Kmeans.ModelParamete
             
             Descriptives.normalize(clusterDistances);
             
-            newData.set(rId, new Record(r.getX(), r.getY(), getSelectedClusterFromDistances(clusterDistances), clusterDistances));
+            newData.set(rId, r.withPrediction(getSelectedClusterFromDistances(clusterDistances), clusterDistances));
         }
         
     }
@@ -576,13 +576,23 @@ public class Kmeans extends BaseMLclusterer<Kmeans.Cluster, Kmeans.ModelParamete
         TrainingParameters trainingParameters = knowledgeBase.getTrainingParameters();
         Map<Object, Double> featureWeights = modelParameters.getFeatureWeights();
         
+        //the weighted distances are estimated directly on the Records to avoid wrapping their x
         double distance = 0.0;
         TrainingParameters.Distance distanceMethod = trainingParameters.getDistanceMethod();
         if(distanceMethod==TrainingParameters.Distance.EUCLIDIAN) {
-            distance = Distance.euclideanWeighted(r1.getX(), r2.getX(), featureWeights);
+            for(Map.Entry<Object, Double> entry : featureWeights.entrySet()) {
+                Object feature = entry.getKey();
+                double columnDistance = Distance.columnDistance(r1.getXValue(feature), r2.getXValue(feature));
+                distance+=(columnDistance*columnDistance)*entry.getValue();
+            }
+            distance = Math.sqrt(distance);
         }
         else if(distanceMethod==TrainingParameters.Distance.MANHATTAN) {
-            distance = Distance.manhattanWeighted(r1.getX(), r2.getX(), featureWeights);
+            for(Map.Entry<Object, Double> entry : featureWeights.entrySet()) {
+                Object feature = entry.getKey();
+                double columnDistance = Distance.columnDistance(r1.getXValue(feature), r2.getXValue(feature));
+                distance+=Math.abs(columnDistance)*entry.getValue();
+            }
         }
         else {
             throw new RuntimeException("Unsupported Distance method");
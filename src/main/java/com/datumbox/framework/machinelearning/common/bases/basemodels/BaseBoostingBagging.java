@@ -209,6 +209,7 @@ public abstract class BaseBoostingBagging<MP extends BaseBoostingBagging.ModelPa
                 DataTable2D currentRecordDecisions = (DataTable2D) recordDecisionsArray.get(rId);
                 
                 currentRecordDecisions.put(t, classProbabilities);
+                recordDecisionsArray.put(rId, currentRecordDecisions); //write it back because the BigMap might not return the same instance
             }
         }
         
@@ -220,7 +221,7 @@ public abstract class BaseBoostingBagging<MP extends BaseBoostingBagging.ModelPa
             AssociativeArray combinedClassVotes = FixedCombinationRules.weightedAverage(currentRecordDecisions, classifierWeightsArray);
             Descriptives.normalize(combinedClassVotes);
             
-            newData.set(rId, new Record(r.getX(), r.getY(), MapFunctions.selectMaxKeyValue(combinedClassVotes).getKey(), combinedClassVotes));
+            newData.set(rId, r.withPrediction(MapFunctions.selectMaxKeyValue(combinedClassVotes).getKey(), combinedClassVotes));
         }
         
         //Drop the temporary Collection
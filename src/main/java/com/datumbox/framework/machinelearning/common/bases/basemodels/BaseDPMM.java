@@ -326,7 +326,7 @@ public abstract class BaseDPMM<CL extends BaseDPMM.Cluster, MP extends BaseDPMM.
                 CL cluster = createNewCluster(newClusterId);
 
                 //add the record in the new cluster
-                r = new Record(r.getX(), r.getY(), newClusterId, r.getYPredictedProbabilities());
+                r = r.withPrediction(newClusterId);
                 dataset.set(rId, r);
                 
                 cluster.add(rId, r);
@@ -360,7 +360,7 @@ public abstract class BaseDPMM<CL extends BaseDPMM.Cluster, MP extends BaseDPMM.
                 
                 int assignedClusterId = PHPfunctions.mt_rand(0, clusterMapSize-1);
                 
-                r = new Record(r.getX(), r.getY(), assignedClusterId, r.getYPredictedProbabilities());
+                r = r.withPrediction(assignedClusterId);
                 dataset.set(rId, r);
                 
                 tempClusterMap.get((Integer)assignedClusterId).add(rId, r);
@@ -416,7 +416,7 @@ public abstract class BaseDPMM<CL extends BaseDPMM.Cluster, MP extends BaseDPMM.
                 //Add Xi back to the sampled Cluster
                 if(Objects.equals(sampledClusterId, newClusterId)) { //if new cluster
                     //add the record in the new cluster
-                    r = new Record(r.getX(), r.getY(), newClusterId, r.getYPredictedProbabilities());
+                    r = r.withPrediction(newClusterId);
                     dataset.set(rId, r);
                     
                     cNew.add(rId, r);
@@ -429,7 +429,7 @@ public abstract class BaseDPMM<CL extends BaseDPMM.Cluster, MP extends BaseDPMM.
                     ++newClusterId;
                 }
                 else {
-                    r = new Record(r.getX(), r.getY(), sampledClusterId, r.getYPredictedProbabilities());
+                    r = r.withPrediction(sampledClusterId);
                     dataset.set(rId, r);
                     
                     tempClusterMap.get(sampledClusterId).add(rId, r);
@@ -498,7 +498,7 @@ public abstract class BaseDPMM<CL extends BaseDPMM.Cluster, MP extends BaseDPMM.
             
             Descriptives.normalizeExp(clusterScores);
             
-            r = new Record(r.getX(), r.getY(), getSelectedClusterFromScores(clusterScores), clusterScores);
+            r = r.withPrediction(getSelectedClusterFromScores(clusterScores), clusterScores);
             newData.set(rId, r);
         }
         
@@ -22,6 +22,7 @@ import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
 import com.datumbox.framework.machinelearning.common.bases.mlmodels.BaseMLregressor;
 import com.datumbox.common.persistentstorage.interfaces.BigMap;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
 import com.datumbox.common.dataobjects.TypeInference;
 import com.datumbox.framework.machinelearning.common.validation.LinearRegressionValidation;
 import com.datumbox.framework.statistics.distributions.ContinuousDistributions;
@@ -47,7 +48,7 @@ public abstract class BaseLinearRegression<MP extends BaseLinearRegression.Model
     public static abstract class ModelParameters extends BaseMLregressor.ModelParameters {
 
         @BigMap
-        private Map<Object, Double> thitas; //the thita parameters of the model
+        private Object2DoubleMap<Object> thitas; //the thita parameters of the model
 
         /**
          * Protected constructor which accepts as argument the DatabaseConnector.
@@ -63,7 +64,7 @@ public abstract class BaseLinearRegression<MP extends BaseLinearRegression.Model
          * 
          * @return 
          */
-        public Map<Object, Double> getThitas() {
+        public Object2DoubleMap<Object> getThitas() {
             return thitas;
         }
         
@@ -72,7 +73,7 @@ public abstract class BaseLinearRegression<MP extends BaseLinearRegression.Model
          * 
          * @param thitas 
          */
-        protected void setThitas(Map<Object, Double> thitas) {
+        protected void setThitas(Object2DoubleMap<Object> thitas) {
             this.thitas = thitas;
         }
     } 
@@ -25,8 +25,10 @@ import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
 import com.datumbox.common.dataobjects.TypeInference;
 import com.datumbox.framework.machinelearning.common.validation.ClassifierValidation;
 import com.datumbox.framework.statistics.descriptivestatistics.Descriptives;
+import java.util.AbstractMap;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -210,7 +212,7 @@ public abstract class BaseNaiveBayes<MP extends BaseNaiveBayes.ModelParameters,
             Object theClass=getSelectedClassFromClassScores(predictionScores);
             Descriptives.normalizeExp(predictionScores);
             
-            newData.set(rId, new Record(r.getX(), r.getY(), theClass, predictionScores));
+            newData.set(rId, r.withPrediction(theClass, predictionScores));
         }
     }
     
@@ -219,16 +221,18 @@ public abstract class BaseNaiveBayes<MP extends BaseNaiveBayes.ModelParameters,
     protected void _fit(Dataset trainingData) {
         ModelParameters modelParameters = knowledgeBase.getModelParameters();
         int n = modelParameters.getN();
-        int d = modelParameters.getD();
+        final int d = modelParameters.getD();
         
-        Map<List<Object>, Double> logLikelihoods = modelParameters.getLogLikelihoods();
+        DatabaseConnector dbc = knowledgeBase.getDbc();
+        
+        Map<List<Object>, Double> tmp_featureClassCounts = dbc.getBigMap("tmp_featureClassCounts", true); //it holds the occurrences of the features in the classes
         Map<Object, Double> logPriors = modelParameters.getLogPriors();
         Set<Object> classesSet = modelParameters.getClasses();
         
         //calculate first statistics about the classes
-        AssociativeArray totalFeatureOccurrencesForEachClass = new AssociativeArray();
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
+        final AssociativeArray totalFeatureOccurrencesForEachClass = new AssociativeArray();
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
             Object theClass=r.getY();
             
             Double classCount = logPriors.get(theClass);
@@ -244,8 +248,8 @@ public abstract class BaseNaiveBayes<MP extends BaseNaiveBayes.ModelParameters,
         
         
         //now calculate the statistics of features
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
             
             //store the occurrances of the features
             for(Map.Entry<Object, Object> entry : r.getX().entrySet()) {
@@ -262,16 +266,16 @@ public abstract class BaseNaiveBayes<MP extends BaseNaiveBayes.ModelParameters,
                 //The math REQUIRE us to have scores for all classes to make the probabilities comparable.
                 for(Object theClass : classesSet) {
                     List<Object> featureClassTuple = Arrays.<Object>asList(feature, theClass);
-                    Double previousValue = logLikelihoods.get(featureClassTuple);
+                    Double previousValue = tmp_featureClassCounts.get(featureClassTuple);
                     if(previousValue==null) {
                         previousValue=0.0;
-                        logLikelihoods.put(featureClassTuple, 0.0);
+                        tmp_featureClassCounts.put(featureClassTuple, 0.0);
                     }
                     
                     //find the class of this particular example
                     if(theClass.equals(r.getY())) {
                         //update the statistics of the feature
-                        logLikelihoods.put(featureClassTuple, previousValue+occurrences);
+                        tmp_featureClassCounts.put(featureClassTuple, previousValue+occurrences);
                         totalFeatureOccurrencesForEachClass.put(theClass,totalFeatureOccurrencesForEachClass.getDouble(theClass)+occurrences);
                     }
                 }                
@@ -289,23 +293,39 @@ public abstract class BaseNaiveBayes<MP extends BaseNaiveBayes.ModelParameters,
         }
         
         
-        //update log likelihood
-        for(Map.Entry<List<Object>, Double> featureClassCounts : logLikelihoods.entrySet()) {
-            List<Object> tp = featureClassCounts.getKey();
-            //Object feature = tp.get(0);
-            Object theClass = tp.get(1);
-            Double occurrences = featureClassCounts.getValue();
-            if(occurrences==null) {
-                occurrences=0.0;
+        //calculate the log likelihoods; they are written only once, so they are bulk loaded in a sorted BigMap
+        final Iterator<Map.Entry<List<Object>, Double>> it = tmp_featureClassCounts.entrySet().iterator();
+        dbc.dropBigMap("logLikelihoods", modelParameters.getLogLikelihoods());
+        modelParameters.setLogLikelihoods(dbc.bulkLoadOrderedBigMap("logLikelihoods", new Iterator<Map.Entry<List<Object>, Double>>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
             }
-
-            //We perform laplace smoothing (also known as add-1)
-            Double smoothedProbability = (occurrences+1.0)/(totalFeatureOccurrencesForEachClass.getDouble(theClass)+d); // the d is also known in NLP problems as the Vocabulary size. 
             
-            logLikelihoods.put(featureClassCounts.getKey(), Math.log( smoothedProbability )); //calculate the logScore
-        }
+            @Override
+            public Map.Entry<List<Object>, Double> next() {
+                Map.Entry<List<Object>, Double> featureClassCounts = it.next();
+                List<Object> tp = featureClassCounts.getKey();
+                //Object feature = tp.get(0);
+                Object theClass = tp.get(1);
+                Double occurrences = featureClassCounts.getValue();
+                if(occurrences==null) {
+                    occurrences=0.0;
+                }
+                
+                //We perform laplace smoothing (also known as add-1)
+                Double smoothedProbability = (occurrences+1.0)/(totalFeatureOccurrencesForEachClass.getDouble(theClass)+d); // the d is also known in NLP problems as the Vocabulary size. 
+                
+                return new AbstractMap.SimpleImmutableEntry<>(tp, Math.log( smoothedProbability )); //calculate the logScore
+            }
+            
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        }, false));
         
-        totalFeatureOccurrencesForEachClass=null;
+        dbc.dropBigMap("tmp_featureClassCounts", tmp_featureClassCounts);
     }
     
 }
\ No newline at end of file
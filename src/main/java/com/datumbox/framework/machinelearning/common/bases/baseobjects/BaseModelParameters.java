@@ -16,12 +16,17 @@
 package com.datumbox.framework.machinelearning.common.bases.baseobjects;
 
 import com.datumbox.common.objecttypes.Learnable;
+import com.datumbox.common.persistentstorage.collections.CachedMap;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
 import com.datumbox.common.persistentstorage.interfaces.BigMap;
+import com.datumbox.common.persistentstorage.interfaces.Int2DoubleMap;
+import com.datumbox.common.persistentstorage.interfaces.Int2IntMap;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
 import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NavigableMap;
 
 /**
  * ModelParameter类的基类，通过反射自动初始化所有的BigMap域<br>
@@ -113,8 +118,31 @@ public abstract class BaseModelParameters implements Learnable {
                 field.setAccessible(true);
                 
                 try {
-                    //call the getBigMap method to load it
-                    field.set(this, dbc.getBigMap(field.getName(), false));
+                    //call the getBigMap method which matches the type of the field to load it
+                    Class<?> type = field.getType();
+                    Object bigMap;
+                    if(Int2DoubleMap.class.isAssignableFrom(type)) {
+                        bigMap = dbc.getInt2DoubleBigMap(field.getName(), false);
+                    }
+                    else if(Int2IntMap.class.isAssignableFrom(type)) {
+                        bigMap = dbc.getInt2IntBigMap(field.getName(), false);
+                    }
+                    else if(Object2DoubleMap.class.isAssignableFrom(type)) {
+                        bigMap = dbc.getObject2DoubleBigMap(field.getName(), false);
+                    }
+                    else if(NavigableMap.class.isAssignableFrom(type)) {
+                        bigMap = dbc.getOrderedBigMap(field.getName(), false);
+                    }
+                    else {
+                        bigMap = dbc.getBigMap(field.getName(), false);
+                    }
+                    
+                    //apply the weight of the object cache if the connector uses one
+                    double cacheWeight = field.getAnnotation(BigMap.class).cacheWeight();
+                    if(bigMap instanceof CachedMap && cacheWeight!=1.0) {
+                        ((CachedMap<?, ?>)bigMap).setWeight(cacheWeight);
+                    }
+                    field.set(this, bigMap);
                 } 
                 catch (IllegalArgumentException | IllegalAccessException ex) {
                     throw new RuntimeException(ex);
@@ -17,7 +17,6 @@ package com.datumbox.framework.machinelearning.common.bases.datatransformation;
 
 import com.datumbox.common.dataobjects.AssociativeArray;
 import com.datumbox.common.dataobjects.Dataset;
-import com.datumbox.common.dataobjects.FlatDataList;
 import com.datumbox.common.dataobjects.Record;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
 import com.datumbox.common.persistentstorage.interfaces.BigMap;
@@ -154,9 +153,9 @@ public abstract class BaseDummyMinMaxTransformer extends DataTransformer<BaseDum
             TypeInference.DataType columnType = entry.getValue();
 
             if(columnType==TypeInference.DataType.NUMERICAL) {
-                FlatDataList columnValues = data.extractXColumnValues(column);
-                Double max = Descriptives.max(columnValues.toFlatDataCollection());
-                Double min = Descriptives.min(columnValues.toFlatDataCollection());
+                double[] columnValues = data.extractXColumnDoubleValues(column);
+                Double max = Descriptives.max(columnValues);
+                Double min = Descriptives.min(columnValues);
 
                 minColumnValues.put(column, min);
                 maxColumnValues.put(column, max);
@@ -261,9 +260,9 @@ public abstract class BaseDummyMinMaxTransformer extends DataTransformer<BaseDum
         if(data.getYDataType()==TypeInference.DataType.NUMERICAL) {
             //if this is numeric normalize it
 
-            FlatDataList columnValues = data.extractYValues();
-            Double max = Descriptives.max(columnValues.toFlatDataCollection());
-            Double min = Descriptives.min(columnValues.toFlatDataCollection());
+            double[] columnValues = data.extractYDoubleValues();
+            Double max = Descriptives.max(columnValues);
+            Double min = Descriptives.min(columnValues);
 
             minColumnValues.put(Dataset.yColumnName, min);
             maxColumnValues.put(Dataset.yColumnName, max);
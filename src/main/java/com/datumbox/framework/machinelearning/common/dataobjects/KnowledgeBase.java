@@ -116,6 +116,18 @@ public class KnowledgeBase<MP extends BaseModelParameters, TP extends BaseTraini
     public DatabaseConfiguration getDbConf() {
         return dbConf;
     }
+    
+    /**
+     * 是否以只读模式打开<br>
+     * Returns whether the KnowledgeBase is opened in read-only mode. A read-only
+     * KnowledgeBase can be loaded and used for predictions but it can not be 
+     * saved, erased or reinitialized.
+     * 
+     * @return 
+     */
+    public boolean isReadOnly() {
+        return dbConf.isReadOnly();
+    }
 
     /**
      * 将数据库保存到持久化库中<br>
@@ -125,6 +137,7 @@ public class KnowledgeBase<MP extends BaseModelParameters, TP extends BaseTraini
         if(modelParameters==null) {
             throw new IllegalArgumentException("Can not store an empty KnowledgeBase.");
         }
+        ensureNotReadOnly();
         
         dbc.save("KnowledgeBase", this);
     }
@@ -150,6 +163,7 @@ public class KnowledgeBase<MP extends BaseModelParameters, TP extends BaseTraini
      * Deletes the database of the algorithm. 
      */
     public void erase() {
+        ensureNotReadOnly();
     	dbc.dropDatabase();
         dbc.close();
         
@@ -187,6 +201,12 @@ public class KnowledgeBase<MP extends BaseModelParameters, TP extends BaseTraini
         
     }
 
+    private void ensureNotReadOnly() {
+        if(isReadOnly()) {
+            throw new UnsupportedOperationException("The KnowledgeBase is opened in read-only mode.");
+        }
+    }
+
     /**
      * 获取训练参数<br>
      * Getter for the Training Parameters.
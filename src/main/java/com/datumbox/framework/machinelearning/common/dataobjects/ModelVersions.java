@@ -0,0 +1,271 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.framework.machinelearning.common.dataobjects;
+
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import com.datumbox.framework.machinelearning.common.bases.baseobjects.BaseTrainable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 模型版本管理<br>
+ * The ModelVersions class keeps multiple versions of a model and swaps them 
+ * atomically. Every new version is trained in its own database, next to the
+ * version which is currently served, and it becomes current with a single 
+ * reference flip. The predictions which are in progress finish against the 
+ * version they acquired and the retired versions are erased as soon as they 
+ * are released by their last reader. The number of the current version is 
+ * persisted, so the same version is served after a restart.
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ * @param <T>
+ */
+public class ModelVersions<T extends BaseTrainable> implements AutoCloseable {
+    
+    /**
+     * The name of the object which stores the number of the current version.
+     */
+    private static final String CURRENT_VERSION = "currentVersion";
+    
+    /**
+     * 训练模型的回调接口<br>
+     * Callback which trains a new version of the model.
+     * 
+     * @param <T> 
+     */
+    public interface Trainer<T> {
+        
+        /**
+         * Trains the provided empty model.
+         * 
+         * @param model 
+         */
+        public void train(T model);
+    }
+    
+    /**
+     * 模型的一个版本<br>
+     * A version of the model. The readers acquire the version, use its model 
+     * and release it by calling close(), typically in a try-with-resources 
+     * statement block.
+     * 
+     * @param <T> 
+     */
+    public static class Version<T extends BaseTrainable> implements AutoCloseable {
+        
+        private final int number;
+        
+        private final T model;
+        
+        /**
+         * The number of the readers plus one while the version is current.
+         */
+        private final AtomicInteger references = new AtomicInteger(1);
+        
+        private volatile boolean retired = false;
+        
+        private Version(int number, T model) {
+            this.number = number;
+            this.model = model;
+        }
+        
+        /**
+         * Getter for the number of the version.
+         * 
+         * @return 
+         */
+        public int getNumber() {
+            return number;
+        }
+        
+        /**
+         * Getter for the model of the version.
+         * 
+         * @return 
+         */
+        public T getModel() {
+            return model;
+        }
+        
+        /**
+         * Releases the version.
+         */
+        @Override
+        public void close() {
+            release();
+        }
+        
+        private boolean retain() {
+            while(true) {
+                int count = references.get();
+                if(count<=0) {
+                    return false; //already released by everyone
+                }
+                if(references.compareAndSet(count, count+1)) {
+                    return true;
+                }
+            }
+        }
+        
+        private void release() {
+            if(references.decrementAndGet()==0) {
+                if(retired) {
+                    model.erase();
+                }
+                else {
+                    model.close();
+                }
+            }
+        }
+    }
+    
+    private final Class<T> aClass;
+    
+    private final String dbName;
+    
+    private final DatabaseConfiguration dbConf;
+    
+    private final AtomicReference<Version<T>> current = new AtomicReference<>();
+    
+    private int latestNumber;
+    
+    /**
+     * 构造函数<br>
+     * Public constructor which opens the current version of the model, if one 
+     * was published before.
+     * 
+     * @param aClass
+     * @param dbName
+     * @param dbConf 
+     */
+    public ModelVersions(Class<T> aClass, String dbName, DatabaseConfiguration dbConf) {
+        this.aClass = aClass;
+        this.dbName = dbName;
+        this.dbConf = dbConf;
+        
+        DatabaseConnector dbc = dbConf.getConnector(getVersionsDbName());
+        Integer number;
+        try {
+            number = dbc.load(CURRENT_VERSION, Integer.class);
+        }
+        finally {
+            dbc.close();
+        }
+        
+        if(number!=null) {
+            latestNumber = number;
+            current.set(new Version<>(number, newModel(number)));
+        }
+    }
+    
+    /**
+     * 获取当前版本<br>
+     * Acquires the current version of the model. The version must be released 
+     * by calling its close() method once the predictions are completed. Returns
+     * null if no version is published.
+     * 
+     * @return 
+     */
+    public Version<T> acquire() {
+        while(true) {
+            Version<T> version = current.get();
+            if(version==null) {
+                return null;
+            }
+            if(version.retain()) {
+                return version;
+            }
+            //the version was retired and released meanwhile; read the new one
+        }
+    }
+    
+    /**
+     * 训练并发布新版本<br>
+     * Trains a new version of the model in its own database and makes it the 
+     * current version. The previous version is retired and its database is 
+     * erased once all of its readers release it. The new versions are trained
+     * one at a time.
+     * 
+     * @param trainer
+     * @return 
+     */
+    public synchronized int publish(Trainer<T> trainer) {
+        int number = latestNumber+1;
+        T model = newModel(number);
+        try {
+            trainer.train(model);
+        }
+        catch(RuntimeException ex) {
+            model.erase();
+            throw ex;
+        }
+        
+        DatabaseConnector dbc = dbConf.getConnector(getVersionsDbName());
+        try {
+            dbc.save(CURRENT_VERSION, number);
+        }
+        finally {
+            dbc.close();
+        }
+        latestNumber = number;
+        
+        Version<T> previous = current.getAndSet(new Version<>(number, model));
+        if(previous!=null) {
+            previous.retired = true;
+            previous.release();
+        }
+        return number;
+    }
+    
+    /**
+     * Deletes all the versions of the model.
+     */
+    public synchronized void erase() {
+        Version<T> previous = current.getAndSet(null);
+        if(previous!=null) {
+            previous.retired = true;
+            previous.release();
+        }
+        
+        DatabaseConnector dbc = dbConf.getConnector(getVersionsDbName());
+        try {
+            dbc.dropDatabase();
+        }
+        finally {
+            dbc.close();
+        }
+    }
+    
+    /**
+     * Closes the current version once all of its readers release it.
+     */
+    @Override
+    public synchronized void close() {
+        Version<T> previous = current.getAndSet(null);
+        if(previous!=null) {
+            previous.release();
+        }
+    }
+    
+    private T newModel(int number) {
+        return BaseTrainable.<T>newInstance(aClass, dbName + dbConf.getDBnameSeparator() + "v" + number, dbConf);
+    }
+    
+    private String getVersionsDbName() {
+        return dbName + dbConf.getDBnameSeparator() + "versions";
+    }
+}
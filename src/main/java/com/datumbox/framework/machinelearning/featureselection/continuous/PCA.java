@@ -284,7 +284,7 @@ public class PCA extends ContinuousFeatureSelection<PCA.ModelParameters, PCA.Tra
             Object feature = entry.getKey();
             Integer columnId = entry.getValue();
             
-            meanValues[columnId] = Descriptives.mean(originalData.extractXColumnValues(feature).toFlatDataCollection());
+            meanValues[columnId] = Descriptives.mean(originalData.extractXColumnDoubleValues(feature));
             
             for(int row=0;row<n;++row) {
                 X.addToEntry(row, columnId, -meanValues[columnId]); //inplace subtraction!!!
@@ -20,6 +20,7 @@ import com.datumbox.common.dataobjects.Record;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
 import com.datumbox.common.persistentstorage.interfaces.BigMap;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
 import com.datumbox.common.dataobjects.TypeInference;
 
 import com.datumbox.framework.machinelearning.common.bases.featureselection.ScoreBasedFeatureSelection;
@@ -45,7 +46,7 @@ public class TFIDF extends ScoreBasedFeatureSelection<TFIDF.ModelParameters, TFI
     public static class ModelParameters extends ScoreBasedFeatureSelection.ModelParameters {
         
         @BigMap
-        private Map<Object, Double> maxTFIDFfeatureScores; //map which stores the max tfidf of the features
+        private Object2DoubleMap<Object> maxTFIDFfeatureScores; //map which stores the max tfidf of the features
 
         /**
          * Protected constructor which accepts as argument the DatabaseConnector.
@@ -61,7 +62,7 @@ public class TFIDF extends ScoreBasedFeatureSelection<TFIDF.ModelParameters, TFI
          * 
          * @return 
          */
-        public Map<Object, Double> getMaxTFIDFfeatureScores() {
+        public Object2DoubleMap<Object> getMaxTFIDFfeatureScores() {
             return maxTFIDFfeatureScores;
         }
         
@@ -70,7 +71,7 @@ public class TFIDF extends ScoreBasedFeatureSelection<TFIDF.ModelParameters, TFI
          * 
          * @param maxTFIDFfeatureScores 
          */
-        protected void setMaxTFIDFfeatureScores(Map<Object, Double> maxTFIDFfeatureScores) {
+        protected void setMaxTFIDFfeatureScores(Object2DoubleMap<Object> maxTFIDFfeatureScores) {
             this.maxTFIDFfeatureScores = maxTFIDFfeatureScores;
         }
 
@@ -145,13 +146,13 @@ public class TFIDF extends ScoreBasedFeatureSelection<TFIDF.ModelParameters, TFI
         int n = modelParameters.getN();
         
         DatabaseConnector dbc = knowledgeBase.getDbc();
-        Map<Object, Double> tmp_idfMap = dbc.getBigMap("tmp_idf", true);
+        Object2DoubleMap<Object> tmp_idfMap = dbc.getObject2DoubleBigMap("tmp_idf", true);
 
         //initially estimate the counts of the terms in the dataset and store this temporarily
         //in idf map. this help us avoid using twice much memory comparing to
         //using two different maps
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
             for(Map.Entry<Object, Object> entry : r.getX().entrySet()) {
                 Object keyword = entry.getKey();
                 Double counts = TypeInference.toDouble(entry.getValue());
@@ -160,28 +161,23 @@ public class TFIDF extends ScoreBasedFeatureSelection<TFIDF.ModelParameters, TFI
                     continue;
                 }
                 
-                Double previousIDFvalue = tmp_idfMap.get(keyword);
-                if(previousIDFvalue==null) {
-                    previousIDFvalue = 0.0;
-                }
-                
-                tmp_idfMap.put(keyword, ++previousIDFvalue);
+                tmp_idfMap.addTo(keyword, 1.0);
             }
         }
         
         //convert counts to idf scores
         for(Map.Entry<Object, Double> entry : tmp_idfMap.entrySet()) {
             Object keyword = entry.getKey();
-            Double countsInDocument = entry.getValue();
+            double countsInDocument = entry.getValue();
             
-            tmp_idfMap.put(keyword, Math.log10(n/countsInDocument));
+            tmp_idfMap.putDouble(keyword, Math.log10(n/countsInDocument));
         }
         
         
-        Map<Object, Double> maxTFIDFfeatureScores = modelParameters.getMaxTFIDFfeatureScores();
+        Object2DoubleMap<Object> maxTFIDFfeatureScores = modelParameters.getMaxTFIDFfeatureScores();
         //calculate the maximum tfidf scores
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
             
             //calculate the tfidf scores
             for(Map.Entry<Object, Object> entry : r.getX().entrySet()) {
@@ -198,7 +194,7 @@ public class TFIDF extends ScoreBasedFeatureSelection<TFIDF.ModelParameters, TFI
                 
                 //double tf = counts/documentLength;
                 double tf = counts;
-                double idf = tmp_idfMap.get(keyword);
+                double idf = tmp_idfMap.getDouble(keyword);
                 
                 double tfidf = tf*idf;
                 
@@ -207,9 +203,8 @@ public class TFIDF extends ScoreBasedFeatureSelection<TFIDF.ModelParameters, TFI
                 }
                 
                 //store the maximum value of the tfidf
-                Double maxTfidf = maxTFIDFfeatureScores.get(keyword);
-                if(maxTfidf==null || maxTfidf<tfidf) {
-                    maxTFIDFfeatureScores.put(keyword, tfidf);
+                if(!maxTFIDFfeatureScores.containsKey(keyword) || maxTFIDFfeatureScores.getDouble(keyword)<tfidf) {
+                    maxTFIDFfeatureScores.putDouble(keyword, tfidf);
                 }
             }
         }
@@ -226,7 +221,7 @@ public class TFIDF extends ScoreBasedFeatureSelection<TFIDF.ModelParameters, TFI
     @Override
     protected void filterFeatures(Dataset newData) {
         DatabaseConnector dbc = knowledgeBase.getDbc();
-        Map<Object, Double> maxTFIDFfeatureScores = knowledgeBase.getModelParameters().getMaxTFIDFfeatureScores();
+        Object2DoubleMap<Object> maxTFIDFfeatureScores = knowledgeBase.getModelParameters().getMaxTFIDFfeatureScores();
         
         Map<Object, Boolean> tmp_removedColumns = dbc.getBigMap("tmp_removedColumns", true);
         
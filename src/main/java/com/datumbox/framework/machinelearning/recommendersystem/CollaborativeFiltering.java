@@ -20,6 +20,7 @@ import com.datumbox.common.dataobjects.Dataset;
 import com.datumbox.common.dataobjects.FlatDataList;
 import com.datumbox.common.dataobjects.Record;
 import com.datumbox.common.dataobjects.TransposeDataList;
+import com.datumbox.common.persistentstorage.collections.TupleComparator;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
 import com.datumbox.common.persistentstorage.interfaces.BigMap;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
@@ -33,6 +34,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Set;
 
@@ -51,7 +53,7 @@ public class CollaborativeFiltering extends BaseMLrecommender<CollaborativeFilte
     public static class ModelParameters extends BaseMLrecommender.ModelParameters {
         
         @BigMap
-        private Map<List<Object>, Double> similarities; //the similarity map among observations
+        private NavigableMap<List<Object>, Double> similarities; //the similarity map among observations, sorted to allow scans by row
 
         /**
          * Protected constructor which accepts as argument the DatabaseConnector.
@@ -69,7 +71,7 @@ public class CollaborativeFiltering extends BaseMLrecommender<CollaborativeFilte
          * 
          * @return 
          */
-        public Map<List<Object>, Double> getSimilarities() {
+        public NavigableMap<List<Object>, Double> getSimilarities() {
             return similarities;
         }
         
@@ -78,7 +80,7 @@ public class CollaborativeFiltering extends BaseMLrecommender<CollaborativeFilte
          * 
          * @param similarities 
          */
-        protected void setSimilarities(Map<List<Object>, Double> similarities) {
+        protected void setSimilarities(NavigableMap<List<Object>, Double> similarities) {
             this.similarities = similarities;
         }
    
@@ -174,7 +176,7 @@ public class CollaborativeFiltering extends BaseMLrecommender<CollaborativeFilte
 
     @Override
     protected void predictDataset(Dataset newData) {
-        Map<List<Object>, Double> similarities = knowledgeBase.getModelParameters().getSimilarities();
+        NavigableMap<List<Object>, Double> similarities = knowledgeBase.getModelParameters().getSimilarities();
         
         //generate recommendation for each record in the list
         for(Integer rId : newData) {
@@ -186,15 +188,9 @@ public class CollaborativeFiltering extends BaseMLrecommender<CollaborativeFilte
                 Object row = entry.getKey();
                 Double score = TypeInference.toDouble(entry.getValue());
                 
-                //Since we can't use 2D Maps due to mongo, we are forced to loop
-                //the whole similarities map which is very inefficient.
-                for(Map.Entry<List<Object>, Double> entry2 : similarities.entrySet()) {
-                    List<Object> tpk = entry2.getKey();
-                    if(!tpk.get(0).equals(row)) {
-                        continue; //filter the irrelevant two pair key combinations that do not include the row
-                    }
-                    
-                    Object column = tpk.get(1);
+                //scan only the two pair key combinations which start with the row
+                for(Map.Entry<List<Object>, Double> entry2 : TupleComparator.prefixMap(similarities, row).entrySet()) {
+                    Object column = entry2.getKey().get(1);
                     if(r.getX().containsKey(column)) {
                         continue; // they already rated this
                     }
@@ -224,7 +220,7 @@ public class CollaborativeFiltering extends BaseMLrecommender<CollaborativeFilte
             if(!recommendations.isEmpty()) {
                 //sort recommendation by popularity
                 recommendations = MapFunctions.sortNumberMapByValueDescending(recommendations);
-                newData.set(rId, new Record(r.getX(), r.getY(), recommendations.keySet().iterator().next(), new AssociativeArray(recommendations)));
+                newData.set(rId, r.withPrediction(recommendations.keySet().iterator().next(), new AssociativeArray(recommendations)));
             }
         }
     }
@@ -242,7 +242,7 @@ public class MatrixLinearRegression extends BaseLinearRegression<MatrixLinearReg
         RealVector Y = X.operate(coefficients);
         for(Integer rId : newData) {
             Record r = newData.get(rId);
-            newData.set(rId, new Record(r.getX(), r.getY(), Y.getEntry(rId), r.getYPredictedProbabilities()));
+            newData.set(rId, r.withPrediction(Y.getEntry(rId)));
         }
         
         matrixDataset = null;
@@ -19,8 +19,10 @@ import com.datumbox.framework.machinelearning.common.bases.basemodels.BaseLinear
 import com.datumbox.common.dataobjects.AssociativeArray;
 import com.datumbox.common.dataobjects.Dataset;
 import com.datumbox.common.dataobjects.Record;
+import com.datumbox.common.persistentstorage.ScratchMapArena;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
 import com.datumbox.common.dataobjects.TypeInference;
 
 
@@ -125,12 +127,12 @@ public class NLMS extends BaseLinearRegression<NLMS.ModelParameters, NLMS.Traini
     protected void _fit(Dataset trainingData) {
         ModelParameters modelParameters = knowledgeBase.getModelParameters();
         
-        Map<Object, Double> thitas = modelParameters.getThitas();
+        Object2DoubleMap<Object> thitas = modelParameters.getThitas();
         
         //we initialize the thitas to zero for all features
-        thitas.put(Dataset.constantColumnName, 0.0);
+        thitas.putDouble(Dataset.constantColumnName, 0.0);
         for(Object feature : trainingData.getXDataTypes().keySet()) {
-            thitas.put(feature, 0.0);
+            thitas.putDouble(feature, 0.0);
         }
         
         TrainingParameters trainingParameters = knowledgeBase.getTrainingParameters();
@@ -140,13 +142,16 @@ public class NLMS extends BaseLinearRegression<NLMS.ModelParameters, NLMS.Traini
         double learningRate = trainingParameters.getLearningRate();
         int totalIterations = trainingParameters.getTotalIterations();
         DatabaseConnector dbc = knowledgeBase.getDbc();
+        ScratchMapArena scratchMaps = dbc.getScratchMaps();
+        Object2DoubleMap<Object> tmp_newThitas = scratchMaps.getObject2DoubleMap("newThitas");
+        boolean copyThitas = true;
         for(int iteration=0;iteration<totalIterations;++iteration) {
             
             logger.debug("Iteration {}", iteration);
             
-            Map<Object, Double> tmp_newThitas = dbc.getBigMap("tmp_newThitas", true);
-            
-            tmp_newThitas.putAll(thitas);
+            if(copyThitas) {
+                scratchMaps.copyFrom("newThitas", thitas);
+            }
             
             batchGradientDescent(trainingData, tmp_newThitas, learningRate);
             //stochasticGradientDescent(trainingData, newThitas, learningRate);
@@ -156,117 +161,119 @@ public class NLMS extends BaseLinearRegression<NLMS.ModelParameters, NLMS.Traini
             //bold driver
             if(newError>minError) {
                 learningRate/=2.0;
+                copyThitas = true;
             }
             else {
                 learningRate*=1.05;
                 minError=newError;
                 
-                //keep the new thitas
+                //keep the new thitas; the scratch map already holds the same values
                 thitas.clear();
                 thitas.putAll(tmp_newThitas);
+                copyThitas = false;
             }
-            
-            //Drop the temporary Collection
-            dbc.dropBigMap("tmp_newThitas", tmp_newThitas);
         }
+        
+        //Drop the scratch Collection
+        scratchMaps.release("newThitas");
     }
 
     @Override
     protected void predictDataset(Dataset newData) {
-        Map<Object, Double> thitas = knowledgeBase.getModelParameters().getThitas();
+        Object2DoubleMap<Object> thitas = knowledgeBase.getModelParameters().getThitas();
         
+        Record.FeatureCursor cursor = new Record.FeatureCursor();
         for(Integer rId : newData) {
             Record r = newData.get(rId);
-            double yPredicted = hypothesisFunction(r.getX(), thitas);
-            newData.set(rId, new Record(r.getX(), r.getY(), yPredicted, r.getYPredictedProbabilities()));
+            double yPredicted = hypothesisFunction(r, thitas, cursor);
+            newData.set(rId, r.withPrediction(yPredicted));
         }
     }
     
-    private void batchGradientDescent(Dataset trainingData, Map<Object, Double> newThitas, double learningRate) {
+    private void batchGradientDescent(Dataset trainingData, Object2DoubleMap<Object> newThitas, double learningRate) {
         //NOTE! This is not the stochastic gradient descent. It is the batch gradient descent optimized for speed (despite it looks more than the stochastic). 
         //Despite the fact that the loops are inverse, the function still changes the values of Thitas at the end of the function. We use the previous thitas 
         //to estimate the costs and only at the end we update the new thitas.
         ModelParameters modelParameters = knowledgeBase.getModelParameters();
         
         double multiplier = learningRate/modelParameters.getN();
-        Map<Object, Double> thitas = modelParameters.getThitas();
+        Object2DoubleMap<Object> thitas = modelParameters.getThitas();
         
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
+        Record.FeatureCursor cursor = new Record.FeatureCursor();
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
             //mind the fact that we use the previous thitas to estimate the new ones! this is because the thitas must be updated simultaniously
-            double error = TypeInference.toDouble(r.getY()) - hypothesisFunction(r.getX(), thitas);
+            double error = TypeInference.toDouble(r.getY()) - hypothesisFunction(r, thitas, cursor);
             
             double errorMultiplier = multiplier*error;
             
             
             //update the weight of constant
-            newThitas.put(Dataset.constantColumnName, newThitas.get(Dataset.constantColumnName)+errorMultiplier);
+            newThitas.addTo(Dataset.constantColumnName, errorMultiplier);
 
             //update the rest of the weights
-            for(Map.Entry<Object, Object> entry : r.getX().entrySet()) {
-                Object feature = entry.getKey();
+            cursor.reset(r);
+            while(cursor.next()) {
+                Object feature = cursor.getFeature();
                 
-                Double thitaWeight = newThitas.get(feature);
-                if(thitaWeight!=null) {//ensure that the feature is in the supported features
-                    Double value = TypeInference.toDouble(entry.getValue());
-                    newThitas.put(feature, thitaWeight+errorMultiplier*value);
-                }
+                newThitas.addToIfPresent(feature, errorMultiplier*cursor.getDouble()); //update only the supported features
             }
         }
     }
     
-    private void stochasticGradientDescent(Dataset trainingData, Map<Object, Double> newThitas, double learningRate) {
+    private void stochasticGradientDescent(Dataset trainingData, Object2DoubleMap<Object> newThitas, double learningRate) {
         double multiplier = learningRate/knowledgeBase.getModelParameters().getN();
         
-        for(Integer rId : trainingData) { 
-            Record r = trainingData.get(rId);
+        Record.FeatureCursor cursor = new Record.FeatureCursor();
+        for(Map.Entry<Integer, Record> e : trainingData.entries()) {
+            Record r = e.getValue();
             //mind the fact that we use the new thitas to estimate the cost! 
-            double error = TypeInference.toDouble(r.getY()) - hypothesisFunction(r.getX(), newThitas);
+            double error = TypeInference.toDouble(r.getY()) - hypothesisFunction(r, newThitas, cursor);
             
             double errorMultiplier = multiplier*error;
             
             
             //update the weight of constant
-            newThitas.put(Dataset.constantColumnName, newThitas.get(Dataset.constantColumnName)+errorMultiplier);
+            newThitas.addTo(Dataset.constantColumnName, errorMultiplier);
 
             //update the rest of the weights
-            for(Map.Entry<Object, Object> entry : r.getX().entrySet()) {
-                Object feature = entry.getKey();
+            cursor.reset(r);
+            while(cursor.next()) {
+                Object feature = cursor.getFeature();
                 
-                Double thitaWeight = newThitas.get(feature);
-                if(thitaWeight!=null) {//ensure that the feature is in the supported features
-                    Double value = TypeInference.toDouble(entry.getValue());
-                    newThitas.put(feature, thitaWeight+errorMultiplier*value);
-                }
+                newThitas.addToIfPresent(feature, errorMultiplier*cursor.getDouble()); //update only the supported features
             }
         }
     }
     
-    private double calculateError(Dataset trainingData, Map<Object, Double> thitas) {
+    private double calculateError(Dataset trainingData, Object2DoubleMap<Object> thitas) {
         //The cost function as described on http://ufldl.stanford.edu/wiki/index.php/Softmax_Regression
         //It is optimized for speed to reduce the amount of loops
         double error=0.0;
         
-        for(Integer rId : trainingData) { 
+        Record.FeatureCursor cursor = new Record.FeatureCursor();
+        for(Integer rId : trainingData) { //iterate by id because the Records are replaced
             Record r = trainingData.get(rId);
-            double yPredicted = hypothesisFunction(r.getX(), thitas);
-            trainingData.set(rId, new Record(r.getX(), r.getY(), yPredicted, r.getYPredictedProbabilities()));
+            double yPredicted = hypothesisFunction(r, thitas, cursor);
+            if(!trainingData.isStreaming()) { //the streaming Datasets would store every replaced Record
+                trainingData.set(rId, r.withPrediction(yPredicted));
+            }
             error+=Math.pow(TypeInference.toDouble(r.getY()) -yPredicted, 2);
         }
         
         return error;
     }
     
-    private double hypothesisFunction(AssociativeArray x, Map<Object, Double> thitas) {
-        double sum = thitas.get(Dataset.constantColumnName);
+    private double hypothesisFunction(Record r, Object2DoubleMap<Object> thitas, Record.FeatureCursor cursor) {
+        double sum = thitas.getDouble(Dataset.constantColumnName);
         
-        for(Map.Entry<Object, Object> entry : x.entrySet()) {
-            Object feature = entry.getKey();
+        //the cursor iterates through the x of the Record without copying it or boxing the sparse values
+        cursor.reset(r);
+        while(cursor.next()) {
+            Object feature = cursor.getFeature();
             
-            Double thitaWeight = thitas.get(feature);
-            if(thitaWeight!=null) {//ensure that the feature is in the supported features
-                Double xj = TypeInference.toDouble(entry.getValue());
-                sum+=thitaWeight*xj;
+            if(thitas.containsKey(feature)) {//ensure that the feature is in the supported features
+                sum+=thitas.getDouble(feature)*cursor.getDouble();
             }
         }
         
@@ -22,6 +22,7 @@ import com.datumbox.common.dataobjects.Record;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
 import com.datumbox.common.persistentstorage.interfaces.BigMap;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
+import com.datumbox.common.persistentstorage.interfaces.Int2IntMap;
 import com.datumbox.common.utilities.MapFunctions;
 import com.datumbox.common.utilities.PHPfunctions;
 import com.datumbox.common.dataobjects.TypeInference;
@@ -74,10 +75,10 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
         private Map<List<Object>, Integer> topicWordCounts; //the nj(w) in the papers
         
         @BigMap
-        private Map<Integer, Integer> documentWordCounts; //the n.(d) in the papers
+        private Int2IntMap documentWordCounts; //the n.(d) in the papers
         
         @BigMap
-        private Map<Integer, Integer> topicCounts; //the nj(.) in the papers
+        private Int2IntMap topicCounts; //the nj(.) in the papers
 
         /**
          * Protected constructor which accepts as argument the DatabaseConnector.
@@ -189,7 +190,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
          * 
          * @return 
          */
-        public Map<Integer, Integer> getDocumentWordCounts() {
+        public Int2IntMap getDocumentWordCounts() {
             return documentWordCounts;
         }
         
@@ -198,7 +199,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
          * 
          * @param documentWordCounts 
          */
-        protected void setDocumentWordCounts(Map<Integer, Integer> documentWordCounts) {
+        protected void setDocumentWordCounts(Int2IntMap documentWordCounts) {
             this.documentWordCounts = documentWordCounts;
         }
 
@@ -209,7 +210,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
          * 
          * @return 
          */
-        public Map<Integer, Integer> getTopicCounts() {
+        public Int2IntMap getTopicCounts() {
             return topicCounts;
         }
         
@@ -218,7 +219,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
          * 
          * @param topicCounts 
          */
-        protected void setTopicCounts(Map<Integer, Integer> topicCounts) {
+        protected void setTopicCounts(Int2IntMap topicCounts) {
             this.topicCounts = topicCounts;
         }
         
@@ -368,14 +369,14 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
         double beta = trainingParameters.getBeta();
         
         Map<List<Object>, Integer> topicWordCounts = modelParameters.getTopicWordCounts();
-        Map<Integer, Integer> topicCounts = modelParameters.getTopicCounts();
+        Int2IntMap topicCounts = modelParameters.getTopicCounts();
         for(Map.Entry<List<Object>, Integer> entry : topicWordCounts.entrySet()) {
             List<Object> tpk = entry.getKey();
             Integer topicId = (Integer)tpk.get(0);
             Object word = tpk.get(1);
             Integer njw = entry.getValue();
             
-            Integer nj = topicCounts.get(topicId);
+            int nj = topicCounts.getInt(topicId);
             
             double probability = (njw+beta)/(nj+beta*d);
             
@@ -402,15 +403,15 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
         Map<List<Object>, Integer> topicAssignmentOfDocumentWord = modelParameters.getTopicAssignmentOfDocumentWord();
         Map<List<Integer>, Integer> documentTopicCounts = modelParameters.getDocumentTopicCounts();
         Map<List<Object>, Integer> topicWordCounts = modelParameters.getTopicWordCounts();
-        Map<Integer, Integer> documentWordCounts = modelParameters.getDocumentWordCounts();
-        Map<Integer, Integer> topicCounts = modelParameters.getTopicCounts();
+        Int2IntMap documentWordCounts = modelParameters.getDocumentWordCounts();
+        Int2IntMap topicCounts = modelParameters.getTopicCounts();
         
         //initialize topic assignments of each word randomly and update the counters
         for(Integer rId : trainingData) { 
             Record r = trainingData.get(rId);
             Integer documentId = rId;
             
-            documentWordCounts.put(documentId, r.getX().size());
+            documentWordCounts.putInt(documentId, r.getX().size());
             
             for(Map.Entry<Object, Object> entry : r.getX().entrySet()) {
                 Object wordPosition = entry.getKey();
@@ -419,7 +420,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
                 //sample a topic
                 Integer topic = PHPfunctions.mt_rand(0,k-1);
                 
-                increase(topicCounts, topic);
+                topicCounts.addTo(topic, 1);
                 topicAssignmentOfDocumentWord.put(Arrays.asList(documentId, wordPosition), topic);
                 increase(documentTopicCounts, Arrays.asList(documentId, topic));
                 increase(topicWordCounts, Arrays.asList(topic, word));
@@ -457,8 +458,8 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
                     
                     //remove the word from the dataset
                     Integer topic = topicAssignmentOfDocumentWord.get(Arrays.asList(documentId, wordPosition));
-                    //decrease(documentWordCounts, documentId); //slow
-                    decrease(topicCounts, topic);
+                    //documentWordCounts.addTo(documentId, -1); //slow
+                    topicCounts.addTo(topic, -1);
                     decrease(documentTopicCounts, Arrays.asList(documentId, topic));
                     decrease(topicWordCounts, Arrays.asList(topic, word));
                     
@@ -484,7 +485,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
                             enumerator *= alpha;
                         }
                         
-                        double denominator = topicCounts.get((Integer)j)+beta*d;
+                        double denominator = topicCounts.getInt(j)+beta*d;
                         //denominator *= numberOfDocumentWords+alpha*k; //this is not necessary because it is the same for all categories, so it can be omited
                         
                         topicProbabilities.put(j, enumerator/denominator);
@@ -499,8 +500,8 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
                     
                     //add back the word in the dataset
                     topicAssignmentOfDocumentWord.put(Arrays.asList(documentId, wordPosition), topic);
-                    //increase(documentWordCounts, documentId); //slow
-                    increase(topicCounts, topic);
+                    //documentWordCounts.addTo(documentId, 1); //slow
+                    topicCounts.addTo(topic, 1);
                     increase(documentTopicCounts, Arrays.asList(documentId, topic));
                     increase(topicWordCounts, Arrays.asList(topic, word));
                     
@@ -512,7 +513,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
                 if(!mainTopic.equals(r.getYPredicted())) {
                     ++changedCounter;
                 }
-                trainingData.set(rId, new Record(r.getX(), r.getY(), mainTopic, topicAssignments));
+                trainingData.set(rId, r.withPrediction(mainTopic, topicAssignments));
             }
             ++iteration;
             
@@ -586,7 +587,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
         
         
         Map<List<Object>, Integer> topicWordCounts = modelParameters.getTopicWordCounts();
-        Map<Integer, Integer> topicCounts = modelParameters.getTopicCounts();
+        Int2IntMap topicCounts = modelParameters.getTopicCounts();
         
         
         DatabaseConnector dbc = knowledgeBase.getDbc();
@@ -595,7 +596,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
         Map<List<Object>, Integer> tmp_topicAssignmentOfDocumentWord = dbc.getBigMap("tmp_topicAssignmentOfDocumentWord", true);
         Map<List<Integer>, Integer> tmp_documentTopicCounts = dbc.getBigMap("tmp_documentTopicCounts", true);
         Map<List<Object>, Integer> tmp_topicWordCounts = dbc.getBigMap("tmp_topicWordCounts", true);
-        Map<Integer, Integer> tmp_topicCounts = dbc.getBigMap("tmp_topicCounts", true);
+        Int2IntMap tmp_topicCounts = dbc.getInt2IntBigMap("tmp_topicCounts", true);
         
         //initialize topic assignments of each word randomly and update the counters
         for(Integer rId : newData) {
@@ -609,7 +610,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
                 //sample a topic
                 Integer topic = PHPfunctions.mt_rand(0,k-1);
                 
-                increase(tmp_topicCounts, topic);
+                tmp_topicCounts.addTo(topic, 1);
                 tmp_topicAssignmentOfDocumentWord.put(Arrays.asList(documentId, wordPosition), topic);
                 increase(tmp_documentTopicCounts, Arrays.asList(documentId, topic));
                 increase(tmp_topicWordCounts, Arrays.asList(topic, word));
@@ -651,7 +652,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
                     
                     //remove the word from the dataset
                     Integer topic = tmp_topicAssignmentOfDocumentWord.get(Arrays.asList(documentId, wordPosition));
-                    decrease(tmp_topicCounts, topic);
+                    tmp_topicCounts.addTo(topic, -1);
                     decrease(tmp_documentTopicCounts, Arrays.asList(documentId, topic));
                     decrease(tmp_topicWordCounts, Arrays.asList(topic, word));
                         
@@ -687,9 +688,9 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
                         }
                         
                         //add the counts from testing data
-                        double denominator = tmp_topicCounts.get((Integer)j)+beta*d -1;
+                        double denominator = tmp_topicCounts.getInt(j)+beta*d -1;
                         //and the ones from training data
-                        denominator+=topicCounts.get((Integer)j);
+                        denominator+=topicCounts.getInt(j);
                         denominator *= numberOfDocumentWords+alpha*k;
                         
                         topicProbabilities.put(j, enumerator/denominator);
@@ -707,7 +708,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
                     
                     //add back the word in the dataset
                     tmp_topicAssignmentOfDocumentWord.put(Arrays.asList(documentId, wordPosition), topic);
-                    increase(tmp_topicCounts, topic);
+                    tmp_topicCounts.addTo(topic, 1);
                     increase(tmp_documentTopicCounts, Arrays.asList(documentId, topic));
                     increase(tmp_topicWordCounts, Arrays.asList(topic, word));
                     
@@ -719,7 +720,7 @@ public class LatentDirichletAllocation extends BaseMLtopicmodeler<LatentDirichle
                 if(!mainTopic.equals(r.getYPredicted())) {
                     ++changedCounter;
                 }                
-                newData.set(rId, new Record(r.getX(), r.getY(), mainTopic, topicAssignments));
+                newData.set(rId, r.withPrediction(mainTopic, topicAssignments));
             }
 
             perplexity=Math.exp(-perplexity/totalDatasetWords);
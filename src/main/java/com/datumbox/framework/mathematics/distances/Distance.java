@@ -136,46 +136,56 @@ public class Distance {
         Map<Object, Double> columnDistances = new HashMap<>(); 
         
         for(Object column : comparingColumns) {
-            Object v1 = a1.get(column);
-            Object v2 = a2.get(column);
-            
-            if(Objects.equals(v1,v2)) { //equal or both null
-                columnDistances.put(column, 0.0);
+            columnDistances.put(column, columnDistance(a1.get(column), a2.get(column)));
+        }
+        
+        return columnDistances;
+    }
+    
+    /**
+     * Estimates the signed distance between two values of the same column. The
+     * numerical and boolean values are subtracted, while the rest of the values
+     * have a distance of 1.0 when they are not equal.
+     * 
+     * @param v1
+     * @param v2
+     * @return 
+     */
+    public static double columnDistance(Object v1, Object v2) {
+        if(Objects.equals(v1,v2)) { //equal or both null
+            return 0.0;
+        }
+        else if(v1==null || v2==null) { //one of them is null
+            Object nonNullObject = (v1!=null)?v1:v2;
+
+            TypeInference.DataType type = TypeInference.getDataType(nonNullObject);
+            if(type==TypeInference.DataType.NUMERICAL || type==TypeInference.DataType.BOOLEAN) {
+                //if numeric then set its value. if boolean then set equal to
+                //1.0 only if the boolean feature is true.
+                return TypeInference.toDouble(nonNullObject);
+            }
+            else {
+                //max distance is set to 1.0
+                return 1.0;
             }
-            else if(v1==null || v2==null) { //one of them is null
-                Object nonNullObject = (v1!=null)?v1:v2;
+        }
+        else { //none of them is null and they are not equal
+            TypeInference.DataType type = TypeInference.getDataType(v1);
 
-                TypeInference.DataType type = TypeInference.getDataType(nonNullObject);
-                if(type==TypeInference.DataType.NUMERICAL || type==TypeInference.DataType.BOOLEAN) {
-                    //if numeric then set its value. if boolean then set equal to
-                    //1.0 only if the boolean feature is true.
-                    columnDistances.put(column, TypeInference.toDouble(nonNullObject));
-                }
-                else {
-                    //max distance is set to 1.0
-                    columnDistances.put(column, 1.0);
-                }
+            if(type==TypeInference.DataType.NUMERICAL || type==TypeInference.DataType.BOOLEAN) {
+                //if numerics then subtract their values. if booleans do the same. Sometimes we
+                //deal with mixed data (in clustering: centroids vs points) and thus in this case 
+                //numeric estimation is required to estimate the distance between a probability and 
+                //a boolean value.
+                return TypeInference.toDouble(v1)-TypeInference.toDouble(v2);
             }
-            else { //none of them is null and they are not equal
-                TypeInference.DataType type = TypeInference.getDataType(v1);
-                
-                if(type==TypeInference.DataType.NUMERICAL || type==TypeInference.DataType.BOOLEAN) {
-                    //if numerics then subtract their values. if booleans do the same. Sometimes we
-                    //deal with mixed data (in clustering: centroids vs points) and thus in this case 
-                    //numeric estimation is required to estimate the distance between a probability and 
-                    //a boolean value.
-                    columnDistances.put(column, TypeInference.toDouble(v1)-TypeInference.toDouble(v2));
-                }
-                else {
-                    //if the type is not numerical we set as maximum distance the 1
-                    //we are certain that those two are not equal due to the first if.
-                    //it does not matter if it is boolean, ordinal or categorical
-                    //since they don't match their distance is 1.0
-                    columnDistances.put(column, 1.0);
-                }
+            else {
+                //if the type is not numerical we set as maximum distance the 1
+                //we are certain that those two are not equal due to the first if.
+                //it does not matter if it is boolean, ordinal or categorical
+                //since they don't match their distance is 1.0
+                return 1.0;
             }
         }
-        
-        return columnDistances;
     }
 }
@@ -58,6 +58,30 @@ public class Descriptives {
         return sum;
     }
     
+    /**
+     * Returns the sum of an array of values - NaNs are ignored.
+     * 
+     * @param values
+     * @return
+     * @throws IllegalArgumentException 
+     */
+    public static double sum(double[] values) throws IllegalArgumentException {
+        int n = values.length;
+        if(n==0) {
+            throw new IllegalArgumentException();
+        }
+        
+        double sum = 0.0;
+        for(int i=0;i<n;++i) {
+            double v = values[i];
+            if(!Double.isNaN(v)) {
+                sum+= v;
+            }
+        }
+        
+        return sum;
+    }
+    
     /**
      * Calculates the simple mean
      * 
@@ -78,6 +102,17 @@ public class Descriptives {
         return mean;
     }
     
+    /**
+     * Calculates the simple mean of an array of values - NaNs are handled as zeros.
+     * 
+     * @param values
+     * @return
+     * @throws IllegalArgumentException 
+     */
+    public static double mean(double[] values) throws IllegalArgumentException {
+        return sum(values)/values.length;
+    }
+    
     /**
      * Calculates Standard Error of Mean under SRS
      * 
@@ -149,6 +184,33 @@ public class Descriptives {
         return min;
     }
     
+    /**
+     * Calculates Minimum of an array of values - NaNs are handled as zeros.
+     * 
+     * @param values
+     * @return
+     * @throws IllegalArgumentException 
+     */
+    public static double min(double[] values) throws IllegalArgumentException {
+        int n = values.length;
+        if(n==0) {
+            throw new IllegalArgumentException();
+        }
+        
+        double min=Double.MAX_VALUE;
+        for(int i=0;i<n;++i) {
+            double v = values[i];
+            if(Double.isNaN(v)) {
+                v=0.0;
+            }
+            if(min>v) {
+                min=v;
+            }
+        }
+        
+        return min;
+    }
+    
     /**
      * Calculates Maximum - Nulls are handled as zeros.
      * 
@@ -178,6 +240,33 @@ public class Descriptives {
         return max;
     }
     
+    /**
+     * Calculates Maximum of an array of values - NaNs are handled as zeros.
+     * 
+     * @param values
+     * @return
+     * @throws IllegalArgumentException 
+     */
+    public static double max(double[] values) throws IllegalArgumentException {
+        int n = values.length;
+        if(n==0) {
+            throw new IllegalArgumentException();
+        }
+        
+        double max=Double.NEGATIVE_INFINITY;
+        for(int i=0;i<n;++i) {
+            double v = values[i];
+            if(Double.isNaN(v)) {
+                v=0.0;
+            }
+            if(max<v) {
+                max=v;
+            }
+        }
+        
+        return max;
+    }
+    
     /**
      * Calculates Range
      * 
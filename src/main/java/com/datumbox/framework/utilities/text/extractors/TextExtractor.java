@@ -19,6 +19,7 @@ import com.datumbox.common.objecttypes.Parameterizable;
 import com.datumbox.framework.utilities.text.tokenizers.Tokenizer;
 import com.datumbox.framework.utilities.text.tokenizers.WhitespaceTokenizer;
 import java.lang.reflect.InvocationTargetException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -40,6 +41,10 @@ public abstract class TextExtractor<TP extends TextExtractor.Parameters, K, V> {
     public static abstract class Parameters implements Parameterizable {         
         
         private Class<? extends Tokenizer> tokenizer = WhitespaceTokenizer.class;
+        
+        private int hashingBits = 0; //0 disables the feature hashing
+        
+        private boolean signedHashing = false;
 
         /**
          * 通过一个分词器类来初始化一个分词器
@@ -79,6 +84,57 @@ public abstract class TextExtractor<TP extends TextExtractor.Parameters, K, V> {
         public void setTokenizer(Class<? extends Tokenizer> tokenizer) {
             this.tokenizer = tokenizer;
         }
+        
+        /**
+         * 获取特征哈希的位数<br>
+         * Getter of the number of bits of the feature hashing. The features are
+         * mapped to 2^hashingBits integer ids; 0 disables the hashing.
+         * 
+         * @return 
+         */
+        public int getHashingBits() {
+            return hashingBits;
+        }
+        
+        /**
+         * 设置特征哈希的位数<br>
+         * Setter of the number of bits of the feature hashing. The features are
+         * mapped to 2^hashingBits integer ids; 0 disables the hashing which is
+         * the default.
+         * 
+         * @param hashingBits 
+         */
+        public void setHashingBits(int hashingBits) {
+            if(hashingBits<0 || hashingBits>30) {
+                throw new IllegalArgumentException("The hashing bits must be between 0 and 30.");
+            }
+            this.hashingBits = hashingBits;
+        }
+        
+        /**
+         * 是否使用带符号的特征哈希<br>
+         * Getter of the signedHashing flag. When set, the scores of the hashed
+         * features are multiplied by a +1/-1 sign which is derived from the 
+         * feature, so that the collisions cancel out on expectation.
+         * 
+         * @return 
+         */
+        public boolean isSignedHashing() {
+            return signedHashing;
+        }
+        
+        /**
+         * 设置是否使用带符号的特征哈希<br>
+         * Setter of the signedHashing flag. It is disabled by default, because
+         * the default text pipeline (Naive Bayes, Chisquare and TF-IDF) requires
+         * non-negative counts; enable it only for the models which accept 
+         * negative feature values, such as the linear models.
+         * 
+         * @param signedHashing 
+         */
+        public void setSignedHashing(boolean signedHashing) {
+            this.signedHashing = signedHashing;
+        }
 
     }
     
@@ -112,6 +168,67 @@ public abstract class TextExtractor<TP extends TextExtractor.Parameters, K, V> {
      */
     public abstract Map<K, V> extract(final String text);
     
+    /**
+     * 提取文本特征，若启用了特征哈希则将其映射到整数ID<br>
+     * Extracts the features of the text which are stored in the Records. If
+     * the feature hashing is enabled, the features are mapped to a fixed space
+     * of integer ids: the keywords with numeric scores are replaced by their 
+     * ids (the scores of the collisions are summed) while the tokens of the 
+     * sequences are replaced by their ids in the same positions. Otherwise the
+     * result of extract() is returned.
+     * 
+     * @param text
+     * @return 
+     */
+    @SuppressWarnings("unchecked")
+    public final Map<Object, Object> extractFeatures(final String text) {
+        Map<K, V> features = extract(text);
+        
+        int hashingBits = parameters.getHashingBits();
+        if(hashingBits==0) {
+            return (Map<Object, Object>)features;
+        }
+        
+        Map<Object, Object> hashedFeatures = new LinkedHashMap<>();
+        for(Map.Entry<K, V> entry : features.entrySet()) {
+            V value = entry.getValue();
+            if(value instanceof Number) {
+                int hash = hash(entry.getKey());
+                Integer id = hash>>>(32-hashingBits);
+                double score = ((Number)value).doubleValue();
+                if(parameters.isSignedHashing() && (hash&1)==1) {
+                    score = -score;
+                }
+                
+                Double previousScore = (Double)hashedFeatures.get(id);
+                hashedFeatures.put(id, (previousScore==null)?score:previousScore+score);
+            }
+            else {
+                hashedFeatures.put(entry.getKey(), hash(value)>>>(32-hashingBits));
+            }
+        }
+        
+        return hashedFeatures;
+    }
+    
+    /**
+     * Spreads the bits of the hashCode of the feature with the finalizer of the
+     * MurmurHash3, so that both the top bits (id) and the last bit (sign) are
+     * well distributed.
+     * 
+     * @param feature
+     * @return 
+     */
+    private static int hash(Object feature) {
+        int h = feature.hashCode();
+        h ^= h>>>16;
+        h *= 0x85ebca6b;
+        h ^= h>>>13;
+        h *= 0xc2b2ae35;
+        h ^= h>>>16;
+        return h;
+    }
+    
     /**
      * 通过提供文本提取器的类名生成一个新的实例<br>
      * Generates a new instance of a TextExtractor by providing the Class of the
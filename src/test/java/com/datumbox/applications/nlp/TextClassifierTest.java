@@ -25,10 +25,14 @@ import com.datumbox.framework.machinelearning.featureselection.categorical.Chisq
 import com.datumbox.framework.utilities.text.extractors.NgramsExtractor;
 import com.datumbox.tests.bases.BaseTest;
 import com.datumbox.tests.utilities.TestUtils;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -126,5 +130,79 @@ public class TextClassifierTest extends BaseTest {
         instance.erase();
         validationDataset.erase();
     }
+    
+    /**
+     * Test of train method with feature hashing, of class TextClassifier.
+     * 
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testTrainWithHashing() throws IOException {
+        logger.info("TrainWithHashing");
+        
+        DatabaseConfiguration dbConf = TestUtils.getDBConfig();
+        
+        String dbName = this.getClass().getSimpleName()+"Hashing";
+        
+        Path negativeFile = Files.createTempFile("TextClassifierTest", ".neg");
+        Path positiveFile = Files.createTempFile("TextClassifierTest", ".pos");
+        try {
+            StringBuilder negative = new StringBuilder();
+            StringBuilder positive = new StringBuilder();
+            String[] subjects = {"the movie", "this book", "the service", "our trip", "the food"};
+            for(int i=0;i<30;++i) {
+                String subject = subjects[i%subjects.length];
+                negative.append(subject).append(" was bad and awful, a terrible waste\n");
+                positive.append(subject).append(" was good and great, an excellent joy\n");
+            }
+            Files.write(negativeFile, negative.toString().getBytes(StandardCharsets.UTF_8));
+            Files.write(positiveFile, positive.toString().getBytes(StandardCharsets.UTF_8));
+            
+            Map<Object, URI> dataset = new HashMap<>();
+            dataset.put("negative", negativeFile.toUri());
+            dataset.put("positive", positiveFile.toUri());
+            
+            TextClassifier instance = new TextClassifier(dbName, dbConf);
+            TextClassifier.TrainingParameters trainingParameters = new TextClassifier.TrainingParameters();
+            
+            trainingParameters.setMLmodelClass(MultinomialNaiveBayes.class);
+            trainingParameters.setMLmodelTrainingParameters(new MultinomialNaiveBayes.TrainingParameters());
+            
+            trainingParameters.setDataTransformerClass(null);
+            trainingParameters.setDataTransformerTrainingParameters(null);
+            
+            trainingParameters.setFeatureSelectionClass(ChisquareSelect.class);
+            ChisquareSelect.TrainingParameters fsParams = new ChisquareSelect.TrainingParameters();
+            fsParams.setALevel(0.05);
+            fsParams.setIgnoringNumericalFeatures(false);
+            fsParams.setMaxFeatures(10000);
+            fsParams.setRareFeatureThreshold(3);
+            trainingParameters.setFeatureSelectionTrainingParameters(fsParams);
+            
+            //only the number of bits is set; the default unsigned hashing keeps the counts non-negative
+            NgramsExtractor.Parameters extractorParameters = new NgramsExtractor.Parameters();
+            extractorParameters.setHashingBits(12);
+            trainingParameters.setTextExtractorClass(NgramsExtractor.class);
+            trainingParameters.setTextExtractorParameters(extractorParameters);
+            
+            instance.fit(dataset, trainingParameters);
+            
+            MultinomialNaiveBayes.ValidationMetrics vm = (MultinomialNaiveBayes.ValidationMetrics) instance.validate(dataset);
+            assertEquals(1.0, vm.getMacroF1(), TestConfiguration.DOUBLE_ACCURACY_HIGH);
+            
+            Record r = instance.predict("the food was awful");
+            assertEquals("negative", r.getYPredicted());
+            for(Object value : r.getX().values()) {
+                assertTrue(((Number)value).doubleValue()>=0.0);
+            }
+            assertEquals("positive", instance.predict("the trip was excellent").getYPredicted());
+            
+            instance.erase();
+        }
+        finally {
+            Files.delete(negativeFile);
+            Files.delete(positiveFile);
+        }
+    }
 
 }
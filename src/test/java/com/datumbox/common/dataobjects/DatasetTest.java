@@ -15,16 +15,28 @@
  */
 package com.datumbox.common.dataobjects;
 
+import com.datumbox.common.persistentstorage.inmemory.InMemoryConfiguration;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
+import com.datumbox.framework.utilities.text.extractors.NgramsExtractor;
+import com.datumbox.framework.utilities.text.extractors.TextExtractor;
 import com.datumbox.tests.bases.BaseTest;
 import com.datumbox.tests.utilities.TestUtils;
+import java.io.Closeable;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -242,5 +254,279 @@ public class DatasetTest extends BaseTest {
         
         dataset.erase();
     }
+    
+    /**
+     * Test of entries method, of class Dataset.
+     */
+    @Test
+    public void testEntries() {
+        logger.info("entries");
+        
+        InMemoryConfiguration concurrentConf = new InMemoryConfiguration();
+        concurrentConf.setConcurrent(true); //the large concurrent datasets are read ahead
+        
+        for(DatabaseConfiguration dbConf : new DatabaseConfiguration[]{TestUtils.getDBConfig(), concurrentConf}) {
+            Dataset dataset = new Dataset(dbConf);
+            for(int i=0;i<3000;++i) {
+                AssociativeArray xData = new AssociativeArray();
+                xData.put("x", (double)i);
+                dataset.add(new Record(xData, i%2==0));
+            }
+            
+            Map<Integer, Record> result = new HashMap<>();
+            for(Map.Entry<Integer, Record> e : dataset.entries()) {
+                assertNull(result.put(e.getKey(), e.getValue()));
+            }
+            assertEquals(dataset.getRecordNumber(), result.size());
+            for(Integer rId : dataset) {
+                assertEquals(dataset.get(rId), result.get(rId));
+            }
+            
+            dataset.erase();
+        }
+    }
+    
+    /**
+     * Test of the columnar storage, of class Dataset.
+     */
+    @Test
+    public void testColumnar() {
+        logger.info("columnar");
+        
+        DatabaseConfiguration dbConf = TestUtils.getDBConfig();
+        
+        Dataset rows = new Dataset(dbConf);
+        Dataset columns = new Dataset(dbConf, true);
+        assertFalse(rows.isColumnar());
+        assertTrue(columns.isColumnar());
+        
+        for(int i=0;i<200;++i) {
+            AssociativeArray xData = new AssociativeArray();
+            xData.put("numeric", (double)i);
+            xData.put("integer", i);
+            xData.put("bool", i%3==0);
+            xData.put("category", "c"+(i%4));
+            xData.put("ordinal", (short)(i%5));
+            if(i%10==0) {
+                xData.put("sparse", i*0.5); //missing from most of the records
+            }
+            if(i==150) {
+                xData.put("integer", "mixed"); //changes the type of the column
+            }
+            xData.put("nullable", (i%7==3)?null:1.0);
+            Record r = new Record(xData, "y"+(i%2));
+            
+            rows.add(r);
+            columns.add(r);
+        }
+        
+        AssociativeArray probabilities = new AssociativeArray();
+        probabilities.put("y0", 0.9);
+        Record predicted = new Record(columns.get(5).getX(), columns.get(5).getY(), "y0", probabilities);
+        rows.set(5, predicted);
+        columns.set(5, predicted);
+        
+        assertEquals(rows.getRecordNumber(), columns.getRecordNumber());
+        assertEquals(rows.getXDataTypes(), columns.getXDataTypes());
+        for(Integer rId : rows) {
+            Record expected = rows.get(rId);
+            Record result = columns.get(rId);
+            assertEquals(expected, result);
+            assertEquals(new ArrayList<>(expected.getX().keySet()), new ArrayList<>(result.getX().keySet()));
+            assertEquals(expected.getYPredicted(), result.getYPredicted());
+            assertEquals(expected.getYPredictedProbabilities(), result.getYPredictedProbabilities());
+        }
+        assertEquals(Integer.class, columns.get(3).getX().get("integer").getClass());
+        
+        for(Object column : Arrays.asList("numeric", "bool", "sparse", "nullable", "unknown")) {
+            assertEquals(rows.extractXColumnValues(column), columns.extractXColumnValues(column));
+            assertArrayEquals(rows.extractXColumnDoubleValues(column), columns.extractXColumnDoubleValues(column), 0.0);
+        }
+        assertEquals(rows.extractYValues(), columns.extractYValues());
+        assertEquals(rows.extractXColumnValuesByY("category"), columns.extractXColumnValuesByY("category"));
+        assertTrue(Double.isNaN(columns.extractXColumnDoubleValues("sparse")[1]));
+        
+        Dataset copy = columns.copy();
+        assertTrue(copy.isColumnar());
+        assertEquals(columns.get(42), copy.get(42));
+        copy.erase();
+        
+        rows.removeColumns(new HashSet<Object>(Arrays.asList("category", "sparse")));
+        columns.removeColumns(new HashSet<Object>(Arrays.asList("category", "sparse")));
+        assertEquals(rows.getXDataTypes(), columns.getXDataTypes());
+        assertEquals(rows.get(10), columns.get(10));
+        
+        rows.erase();
+        columns.erase();
+    }
+    
+    /**
+     * Test of streamCSVFile and streamTextFiles methods, of class Dataset.Builder.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testStreaming() throws IOException {
+        logger.info("streaming");
+        
+        DatabaseConfiguration dbConf = TestUtils.getDBConfig();
+        
+        Path csvFile = Files.createTempFile("DatasetTest", ".csv");
+        Path textFile1 = Files.createTempFile("DatasetTest", ".txt");
+        Path textFile2 = Files.createTempFile("DatasetTest", ".txt");
+        try {
+            StringBuilder sb = new StringBuilder("x1,x2,y\r\n");
+            for(int i=0;i<2500;++i) { //spans over more than one chunk
+                sb.append(i).append(",c").append(i%3).append(",").append(i%2==0).append("\r\n");
+            }
+            Files.write(csvFile, sb.toString().getBytes(StandardCharsets.UTF_8));
+            
+            Map<String, TypeInference.DataType> headerDataTypes = new LinkedHashMap<>(); 
+            headerDataTypes.put("x1", TypeInference.DataType.NUMERICAL);
+            headerDataTypes.put("x2", TypeInference.DataType.CATEGORICAL);
+            headerDataTypes.put("y", TypeInference.DataType.BOOLEAN);
+            
+            Dataset expResult;
+            try (Reader fileReader = new FileReader(csvFile.toFile())) {
+                expResult = Dataset.Builder.parseCSVFile(fileReader, "y", headerDataTypes, ',', '"', "\r\n", dbConf);
+            }
+            Dataset dataset = Dataset.Builder.streamCSVFile(csvFile.toUri(), "y", headerDataTypes, ',', '"', "\r\n", dbConf);
+            assertTrue(dataset.isStreaming());
+            assertFalse(expResult.isStreaming());
+            
+            assertEquals(expResult.getYDataType(), dataset.getYDataType());
+            assertEquals(expResult.getXDataTypes(), dataset.getXDataTypes());
+            assertEquals(expResult.getRecordNumber(), dataset.getRecordNumber());
+            
+            for(int pass=0;pass<2;++pass) {
+                int n = 0;
+                for(Map.Entry<Integer, Record> e : dataset.entries()) {
+                    assertEquals(expResult.get(e.getKey()), e.getValue());
+                    ++n;
+                }
+                assertEquals(expResult.getRecordNumber(), n);
+            }
+            assertEquals(expResult.get(2000), dataset.get(2000));
+            assertEquals(expResult.get(7), dataset.get(7));
+            assertNull(dataset.get(2500));
+            
+            Record replacement = dataset.get(3).withPrediction(false);
+            dataset.set(3, replacement);
+            assertEquals(replacement, dataset.get(3));
+            assertEquals(expResult.get(4), dataset.get(4));
+            try {
+                dataset.add(replacement);
+                fail("The streaming Datasets should not be extended.");
+            }
+            catch(UnsupportedOperationException ex) {
+                //expected
+            }
+            
+            //a scan which stops early is closed explicitly
+            Iterator<Map.Entry<Integer, Record>> it = dataset.entries().iterator();
+            for(int i=0;i<3;++i) {
+                it.next();
+            }
+            assertEquals(replacement, it.next().getValue());
+            ((Closeable)it).close();
+            assertFalse(it.hasNext());
+            
+            Dataset copy = dataset.copy();
+            assertFalse(copy.isStreaming());
+            assertEquals(expResult.get(1500), copy.get(1500));
+            copy.erase();
+            
+            expResult.erase();
+            dataset.erase();
+            
+            
+            Files.write(textFile1, "hello world\nhello there\n".getBytes(StandardCharsets.UTF_8));
+            Files.write(textFile2, "goodbye world\n".getBytes(StandardCharsets.UTF_8));
+            Map<Object, URI> textFilesMap = new LinkedHashMap<>();
+            textFilesMap.put("greeting", textFile1.toUri());
+            textFilesMap.put("farewell", textFile2.toUri());
+            
+            NgramsExtractor.Parameters parameters = new NgramsExtractor.Parameters();
+            parameters.setMaxDistanceBetweenKwds(0);
+            expResult = Dataset.Builder.parseTextFiles(textFilesMap, TextExtractor.newInstance(NgramsExtractor.class, parameters), dbConf);
+            dataset = Dataset.Builder.streamTextFiles(textFilesMap, NgramsExtractor.class, parameters, dbConf);
+            
+            assertEquals(expResult.getYDataType(), dataset.getYDataType());
+            assertEquals(expResult.getXDataTypes(), dataset.getXDataTypes());
+            assertEquals(3, dataset.getRecordNumber());
+            for(Integer rId : expResult) {
+                assertEquals(expResult.get(rId), dataset.get(rId));
+            }
+            
+            expResult.erase();
+            dataset.erase();
+        }
+        finally {
+            Files.deleteIfExists(csvFile);
+            Files.deleteIfExists(textFile1);
+            Files.deleteIfExists(textFile2);
+        }
+    }
+    
+    /**
+     * Test of parseCSVFile method with many threads, of class Dataset.Builder.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testParseCSVFileParallel() throws IOException {
+        logger.info("parseCSVFileParallel");
+        
+        DatabaseConfiguration dbConf = TestUtils.getDBConfig();
+        
+        String[] numbers = {"0", "-0", "12", "-3.25", "0.1", ".5", "7.", "+4.75", "123456789012345", "1234567890.123456789", "0.0000000000000000000000012", "1e-3", "2.5E10", " 8 ", "NaN", "-Infinity", ""};
+        String[] booleans = {"1", "0", "true", "FALSE", "Yes", "no", "maybe", "null"};
+        for(String s : numbers) {
+            if(!s.isEmpty()) {
+                assertEquals(Double.valueOf(s), TypeInference.DataType.parse(s, TypeInference.DataType.NUMERICAL));
+            }
+        }
+        
+        StringBuilder sb = new StringBuilder("number,flag,rank,label,y\r\n");
+        for(int i=0;i<5000;++i) {
+            if(i==2345) {
+                sb.append("1,2\r\n"); //inconsistent row
+            }
+            sb.append(numbers[i%numbers.length]).append(",")
+              .append(booleans[i%booleans.length]).append(",")
+              .append(i%7).append(",")
+              .append("\"l").append(i%11).append("\",")
+              .append((i%2==0)?(i*0.37):(-i/3.0)).append("\r\n");
+        }
+        String csv = sb.toString();
+        
+        Map<String, TypeInference.DataType> headerDataTypes = new LinkedHashMap<>(); 
+        headerDataTypes.put("number", TypeInference.DataType.NUMERICAL);
+        headerDataTypes.put("flag", TypeInference.DataType.BOOLEAN);
+        headerDataTypes.put("rank", TypeInference.DataType.ORDINAL);
+        headerDataTypes.put("label", TypeInference.DataType.CATEGORICAL);
+        headerDataTypes.put("y", TypeInference.DataType.NUMERICAL);
+        
+        for(boolean columnar : new boolean[]{false, true}) {
+            Dataset expResult = Dataset.Builder.parseCSVFile(new StringReader(csv), "y", headerDataTypes, ',', '"', "\r\n", dbConf, columnar);
+            Dataset dataset = Dataset.Builder.parseCSVFile(new StringReader(csv), "y", headerDataTypes, ',', '"', "\r\n", dbConf, columnar, 4);
+            
+            assertEquals(5000, expResult.getRecordNumber());
+            assertEquals(expResult.getRecordNumber(), dataset.getRecordNumber());
+            assertEquals(expResult.getYDataType(), dataset.getYDataType());
+            assertEquals(expResult.getXDataTypes(), dataset.getXDataTypes());
+            for(Integer rId : expResult) {
+                Record r1 = expResult.get(rId);
+                Record r2 = dataset.get(rId);
+                assertEquals(r1, r2);
+                assertEquals(new ArrayList<>(r1.getX().keySet()), new ArrayList<>(r2.getX().keySet()));
+            }
+            assertEquals(Boolean.TRUE, dataset.get(4).getX().get("flag"));
+            assertNull(dataset.get(6).getX().get("flag"));
+            
+            expResult.erase();
+            dataset.erase();
+        }
+    }
 
 }
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.dataobjects;
+
+import com.datumbox.configuration.TestConfiguration;
+import com.datumbox.tests.bases.BaseTest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class RecordTest extends BaseTest {
+    
+    private AssociativeArray generateX() {
+        AssociativeArray x = new AssociativeArray();
+        x.put("a", 1.5);
+        x.put("b", true);
+        x.put("c", null);
+        x.put("d", 4);
+        return x;
+    }
+    
+    private AssociativeArray generateSparseX() {
+        AssociativeArray x = new AssociativeArray();
+        x.put("a", 1.5);
+        x.put("b", 1.0);
+        x.put("d", 4.0);
+        return x;
+    }
+    
+    /**
+     * Test of the FeatureCursor, of class Record.
+     */
+    @Test
+    public void testFeatureCursor() {
+        logger.info("testFeatureCursor");
+        
+        Record dense = new Record(generateX(), "y");
+        Record sparse = new Record(new SparseVector(generateSparseX(), new FeatureIndex()), "y");
+        
+        Map<Object, Double> expResult = new LinkedHashMap<>();
+        expResult.put("a", 1.5);
+        expResult.put("b", 1.0);
+        expResult.put("c", Double.NaN);
+        expResult.put("d", 4.0);
+        
+        Record.FeatureCursor cursor = new Record.FeatureCursor();
+        for(Record r : new Record[]{dense, sparse}) {
+            Map<Object, Double> result = new LinkedHashMap<>();
+            cursor.reset(r);
+            while(cursor.next()) {
+                result.put(cursor.getFeature(), cursor.getDouble());
+                assertEquals(r.getXValue(cursor.getFeature()), cursor.getValue());
+            }
+            assertFalse(cursor.next());
+            
+            if(r==sparse) {
+                expResult.remove("c"); //the sparse vectors store only Doubles
+            }
+            assertEquals(expResult, result);
+        }
+        
+        assertEquals(4, dense.getXValue("d"));
+        assertEquals(4.0, (Double)sparse.getXValue("d"), TestConfiguration.DOUBLE_ACCURACY_HIGH);
+        assertNull(dense.getXValue("missing"));
+    }
+    
+    /**
+     * Test of wrap and withPrediction methods, of class Record.
+     */
+    @Test
+    public void testWithPrediction() {
+        logger.info("testWithPrediction");
+        
+        AssociativeArray x = generateX();
+        Record r = Record.wrap(x, "y", null, null);
+        assertEquals(new Record(generateX(), "y"), r);
+        
+        AssociativeArray probabilities = new AssociativeArray();
+        probabilities.put("y", 0.8);
+        probabilities.put("z", 0.2);
+        
+        Record predicted = r.withPrediction("y", probabilities);
+        assertEquals(r, predicted);
+        assertEquals("y", predicted.getYPredicted());
+        assertEquals(probabilities, predicted.getYPredictedProbabilities());
+        assertNull(r.getYPredicted());
+        
+        Record repredicted = predicted.withPrediction("z");
+        assertEquals("z", repredicted.getYPredicted());
+        assertEquals(probabilities, repredicted.getYPredictedProbabilities());
+        
+        Record sparse = new Record(new SparseVector(generateSparseX(), new FeatureIndex()), "y");
+        assertEquals(new Record(generateSparseX(), "y"), sparse);
+        Record wrapped = Record.wrap(sparse.getX(), "y", null, null);
+        assertSame(sparse.getSparseX(), wrapped.getSparseX());
+        assertSame(sparse.getSparseX(), wrapped.withPrediction("y").getSparseX());
+    }
+
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.dataobjects;
+
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
+import com.datumbox.configuration.TestConfiguration;
+import com.datumbox.common.utilities.DeepCopy;
+import com.datumbox.tests.bases.BaseTest;
+import com.datumbox.tests.utilities.TestUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class SparseVectorTest extends BaseTest {
+    
+    private AssociativeArray generateX() {
+        AssociativeArray x = new AssociativeArray();
+        x.put("c", 3.0);
+        x.put("a", 1.0);
+        x.put("b", 1.0);
+        return x;
+    }
+    
+    /**
+     * Test of the constructor and the accessors, of class SparseVector.
+     */
+    @Test
+    public void testAccessors() {
+        logger.info("testAccessors");
+        
+        FeatureIndex featureIndex = new FeatureIndex();
+        featureIndex.add("b");
+        SparseVector v = new SparseVector(generateX(), featureIndex);
+        
+        assertSame(featureIndex, v.getFeatureIndex());
+        assertEquals(3, v.size());
+        assertEquals(3, featureIndex.size());
+        
+        //the non-zeros are sorted by id
+        assertEquals("b", v.getFeature(0));
+        assertEquals("c", v.getFeature(1));
+        assertEquals("a", v.getFeature(2));
+        assertEquals(1.0, v.getValue(0), TestConfiguration.DOUBLE_ACCURACY_HIGH);
+        
+        assertEquals(3.0, v.get("c"), TestConfiguration.DOUBLE_ACCURACY_HIGH);
+        assertNull(v.get("missing"));
+        assertNull(v.get("unknown"));
+        
+        double[] weights = {2.0, 1.0};
+        assertEquals(5.0, v.dot(weights), TestConfiguration.DOUBLE_ACCURACY_HIGH);
+    }
+    
+    /**
+     * Test of the validation of the values, of class SparseVector.
+     */
+    @Test
+    public void testInvalidValues() {
+        logger.info("testInvalidValues");
+        
+        FeatureIndex featureIndex = new FeatureIndex();
+        for(Object value : new Object[]{null, 1, true}) {
+            AssociativeArray x = generateX();
+            x.put("d", value);
+            try {
+                new SparseVector(x, featureIndex);
+                fail("The value " + value + " should be rejected.");
+            }
+            catch(IllegalArgumentException ex) {
+                //expected
+            }
+        }
+        assertEquals(0, featureIndex.size());
+    }
+    
+    /**
+     * Test of the sparse Records, of class SparseVector.
+     */
+    @Test
+    public void testRecord() {
+        logger.info("testRecord");
+        
+        FeatureIndex featureIndex = new FeatureIndex();
+        SparseVector v = new SparseVector(generateX(), featureIndex);
+        Record r = new Record(v, "y");
+        
+        assertSame(v, r.getSparseX());
+        AssociativeArray x = r.getX();
+        assertEquals(3, x.size());
+        assertEquals(1.0, x.get("a"));
+        assertNull(x.get("missing"));
+        assertEquals(new ArrayList<>(Arrays.asList("c", "a", "b")), new ArrayList<>(x.keySet()));
+        
+        //copying the record keeps the sparse vector
+        Record copy = new Record(x, r.getY(), "y", new AssociativeArray());
+        assertSame(v, copy.getSparseX());
+        assertEquals(r, copy);
+        
+        //serializing the data stores a plain map
+        AssociativeArray deserialized = DeepCopy.clone(x);
+        assertEquals(x, deserialized);
+        assertNull(new Record(deserialized, "y").getSparseX());
+        
+        Record dense = new Record(x.copy(), "y");
+        assertEquals(dense, r);
+    }
+    
+    /**
+     * Test of the sparse Records, of class Dataset.
+     */
+    @Test
+    public void testDataset() {
+        logger.info("testDataset");
+        
+        DatabaseConfiguration dbConf = TestUtils.getDBConfig();
+        Dataset dataset = new Dataset(dbConf);
+        FeatureIndex featureIndex = dataset.getFeatureIndex();
+        dataset.add(new Record(new SparseVector(generateX(), featureIndex), "y"));
+        
+        Dataset copy = dataset.copy();
+        assertSame(featureIndex, copy.getFeatureIndex());
+        assertEquals(dataset.get(0), copy.get(0));
+        
+        copy.erase();
+        dataset.erase();
+    }
+
+}
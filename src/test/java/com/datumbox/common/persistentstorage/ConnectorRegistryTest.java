@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage;
+
+import com.datumbox.common.persistentstorage.inmemory.InMemoryConfiguration;
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import com.datumbox.tests.bases.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class ConnectorRegistryTest extends BaseTest {
+    
+    /**
+     * Test of register and unregister methods, of class ConnectorRegistry.
+     */
+    @Test
+    public void testRegisterUnregister() {
+        logger.info("testRegisterUnregister");
+        
+        DatabaseConnector dbc = new InMemoryConfiguration().getConnector("ConnectorRegistryTest");
+        assertTrue(ConnectorRegistry.isRegistered((AutoCloseable)dbc));
+        
+        dbc.close();
+        assertFalse(ConnectorRegistry.isRegistered((AutoCloseable)dbc));
+    }
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage;
+
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import com.datumbox.common.persistentstorage.interfaces.Object2DoubleMap;
+import com.datumbox.tests.bases.BaseTest;
+import com.datumbox.tests.utilities.TestUtils;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class ScratchMapArenaTest extends BaseTest {
+    
+    /**
+     * Test of getMap, clear, copyFrom and swap methods, of class ScratchMapArena.
+     */
+    @Test
+    public void testReuse() {
+        logger.info("testReuse");
+        
+        DatabaseConnector dbc = TestUtils.getDBConfig().getConnector("ScratchMapArenaTest");
+        ScratchMapArena instance = dbc.getScratchMaps();
+        assertSame(instance, dbc.getScratchMaps());
+        
+        Map<String, Double> source = new HashMap<>();
+        for(int i=0;i<100;++i) {
+            source.put("key"+i, (double)i);
+        }
+        
+        Map<String, Double> front = instance.getMap("front");
+        Map<String, Double> back = instance.getMap("back");
+        assertSame(front, instance.getMap("front"));
+        
+        front.put("stale", -1.0);
+        instance.copyFrom("front", source);
+        assertEquals(source, front);
+        
+        back.put("key0", 10.0);
+        instance.swap("front", "back");
+        assertSame(back, instance.getMap("front"));
+        assertSame(front, instance.getMap("back"));
+        assertEquals(10.0, instance.<String, Double>getMap("front").get("key0"), 0.0);
+        
+        instance.clear("back");
+        assertTrue(front.isEmpty());
+        
+        Object2DoubleMap<String> counts = instance.getObject2DoubleMap("counts");
+        counts.addTo("a", 2.0);
+        assertEquals(2.0, instance.<String>getObject2DoubleMap("counts").getDouble("a"), 0.0);
+        
+        instance.release("counts");
+        assertTrue(instance.<String>getObject2DoubleMap("counts").isEmpty());
+        
+        dbc.close();
+        assertTrue(instance.isClosed());
+    }
+    
+    /**
+     * Test of getObject2DoubleMap method with a name of a different map type, of class ScratchMapArena.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTypeMismatch() {
+        logger.info("testTypeMismatch");
+        
+        DatabaseConnector dbc = TestUtils.getDBConfig().getConnector("ScratchMapArenaTest");
+        try {
+            ScratchMapArena instance = dbc.getScratchMaps();
+            instance.getMap("map");
+            instance.getObject2DoubleMap("map");
+        }
+        finally {
+            dbc.close();
+        }
+    }
+
+}
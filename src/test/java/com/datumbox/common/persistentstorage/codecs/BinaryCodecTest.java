@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.codecs;
+
+import com.datumbox.common.dataobjects.AssociativeArray;
+import com.datumbox.common.dataobjects.Record;
+import com.datumbox.common.dataobjects.TypeInference;
+import com.datumbox.tests.bases.BaseTest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class BinaryCodecTest extends BaseTest {
+    
+    private Map<Object, Object> generateModel() {
+        Map<List<Object>, Double> likelihoods = new HashMap<>();
+        Map<Object, Double> priors = new LinkedHashMap<>();
+        for(int c=0;c<3;++c) {
+            priors.put("class"+c, Math.log(1.0/3.0));
+            for(int f=0;f<200;++f) {
+                likelihoods.put(Arrays.<Object>asList("class"+c, "feature"+f), -1.0*f*c);
+            }
+        }
+        
+        AssociativeArray x = new AssociativeArray();
+        x.put("feature1", 1.5);
+        x.put("feature2", 3);
+        x.put(7L, true);
+        AssociativeArray probabilities = new AssociativeArray();
+        probabilities.put("class1", 0.7);
+        probabilities.put("class2", 0.3);
+        
+        List<Object> list = new ArrayList<>();
+        list.add(new Record(x, "class1", "class1", probabilities));
+        list.add(new Record(x, null));
+        list.add(TypeInference.DataType.NUMERICAL);
+        list.add(Integer.MIN_VALUE);
+        list.add(Long.MAX_VALUE);
+        
+        Map<Object, Object> model = new HashMap<>();
+        model.put("logLikelihoods", likelihoods);
+        model.put("logPriors", priors);
+        model.put("list", list);
+        model.put("sameList", list);
+        return model;
+    }
+    
+    /**
+     * Test of encoding and decoding, of class BinaryCodec.
+     */
+    @Test
+    public void testEncodeDecode() {
+        logger.info("testEncodeDecode");
+        Map<Object, Object> expResult = generateModel();
+        
+        @SuppressWarnings("unchecked")
+        Map<Object, Object> result = (Map<Object, Object>)Codecs.decode(Codecs.encode(new BinaryCodec(), expResult, null), null);
+        
+        assertEquals(expResult, result);
+        assertSame(result.get("list"), result.get("sameList"));
+        assertTrue(result.get("logPriors") instanceof LinkedHashMap);
+    }
+    
+    /**
+     * Test of the size of the encoded data, of class BinaryCodec.
+     */
+    @Test
+    public void testEncodedSize() {
+        logger.info("testEncodedSize");
+        Map<Object, Object> model = generateModel();
+        
+        int binarySize = Codecs.encode(new BinaryCodec(), model, null).length;
+        int javaSize = Codecs.encode(new JavaSerializationCodec(), model, null).length;
+        assertTrue(binarySize*2 < javaSize);
+    }
+
+}
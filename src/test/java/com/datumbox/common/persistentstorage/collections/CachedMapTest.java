@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import com.datumbox.common.utilities.DeepCopy;
+import com.datumbox.tests.bases.BaseTest;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class CachedMapTest extends BaseTest {
+    
+    /**
+     * Test of the cache counters, of class CachedMap.
+     */
+    @Test
+    public void testCounters() {
+        logger.info("testCounters");
+        Map<String, Integer> delegate = new HashMap<>();
+        delegate.put("a", 1);
+        delegate.put("b", 2);
+        delegate.put("c", 3);
+        CachedMap<String, Integer> instance = new CachedMap<>(delegate, 1, 2.0);
+        assertEquals(2, instance.getMaxSize());
+        
+        assertEquals(Integer.valueOf(1), instance.get("a"));
+        assertEquals(Integer.valueOf(1), instance.get("a"));
+        assertNull(instance.get("missing"));
+        assertFalse(instance.containsKey("missing"));
+        assertEquals(Integer.valueOf(2), instance.get("b"));
+        
+        assertEquals(2L, instance.getHits());
+        assertEquals(3L, instance.getMisses());
+        assertEquals(1L, instance.getEvictions());
+        assertEquals(0.4, instance.getHitRate(), 0.0000001);
+        
+        instance.resetStatistics();
+        assertEquals(0L, instance.getHits());
+    }
+    
+    /**
+     * Test of the write-through methods, of class CachedMap.
+     */
+    @Test
+    public void testWrites() {
+        logger.info("testWrites");
+        Map<String, Integer> delegate = new HashMap<>();
+        CachedMap<String, Integer> instance = new CachedMap<>(delegate, 10, 1.0);
+        
+        assertNull(instance.get("a"));
+        instance.put("a", 1);
+        assertEquals(Integer.valueOf(1), delegate.get("a"));
+        assertEquals(Integer.valueOf(1), instance.get("a"));
+        
+        for(Map.Entry<String, Integer> entry : instance.entrySet()) {
+            entry.setValue(5);
+        }
+        assertEquals(Integer.valueOf(5), delegate.get("a"));
+        assertEquals(Integer.valueOf(5), instance.get("a"));
+        
+        Iterator<String> it = instance.keySet().iterator();
+        it.next();
+        it.remove();
+        assertTrue(delegate.isEmpty());
+        assertNull(instance.get("a"));
+        
+        Map<String, Integer> m = new HashMap<>();
+        m.put("a", 7);
+        instance.putAll(m);
+        assertEquals(Integer.valueOf(7), instance.get("a"));
+        
+        CachedMap<String, Integer> copy = DeepCopy.clone(instance);
+        assertEquals(instance, copy);
+        assertEquals(10, copy.getMaxSize());
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import com.datumbox.common.utilities.DeepCopy;
+import com.datumbox.common.utilities.RandomGenerator;
+import com.datumbox.tests.bases.BaseTest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class Int2IntOpenHashMapTest extends BaseTest {
+    
+    /**
+     * Test of the primitive methods, of class Int2IntOpenHashMap.
+     */
+    @Test
+    public void testPrimitiveMethods() {
+        logger.info("testPrimitiveMethods");
+        Int2IntOpenHashMap instance = new Int2IntOpenHashMap();
+        
+        assertEquals(0, instance.getInt(-3));
+        assertFalse(instance.containsKey(-3));
+        assertEquals(0, instance.addTo(-3, 1));
+        assertEquals(1, instance.addTo(-3, -2));
+        assertEquals(-1, instance.getInt(-3));
+        assertEquals(Integer.valueOf(-1), instance.get(-3));
+        assertNull(instance.get("-3"));
+        assertEquals(-1, instance.putInt(-3, 7));
+        assertEquals(Integer.valueOf(7), instance.remove(-3));
+        assertTrue(instance.isEmpty());
+    }
+    
+    /**
+     * Test of the Map contract against a HashMap, of class Int2IntOpenHashMap.
+     */
+    @Test
+    public void testAgainstHashMap() {
+        logger.info("testAgainstHashMap");
+        Random rnd = RandomGenerator.getThreadLocalRandom();
+        Int2IntOpenHashMap instance = new Int2IntOpenHashMap();
+        Map<Integer, Integer> expResult = new HashMap<>();
+        
+        for(int i=0;i<20000;++i) {
+            int key = rnd.nextInt(1000);
+            int op = rnd.nextInt(3);
+            if(op==0) {
+                assertEquals(expResult.put(key, i), instance.put(key, i));
+            }
+            else if(op==1) {
+                assertEquals(expResult.remove(key), instance.remove(key));
+            }
+            else {
+                assertEquals(expResult.get(key), instance.get(key));
+            }
+        }
+        assertEquals(expResult, instance);
+        assertEquals(instance, DeepCopy.clone(instance));
+    }
+
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import com.datumbox.common.utilities.DeepCopy;
+import com.datumbox.common.utilities.RandomGenerator;
+import com.datumbox.tests.bases.BaseTest;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class Object2DoubleOpenHashMapTest extends BaseTest {
+    
+    /**
+     * Test of the primitive methods, of class Object2DoubleOpenHashMap.
+     */
+    @Test
+    public void testPrimitiveMethods() {
+        logger.info("testPrimitiveMethods");
+        Object2DoubleOpenHashMap<Object> instance = new Object2DoubleOpenHashMap<>();
+        
+        assertEquals(0.0, instance.getDouble("a"), 0.0);
+        assertNull(instance.get("a"));
+        assertEquals(0.0, instance.addTo("a", 1.5), 0.0);
+        assertEquals(1.5, instance.addTo("a", 1.0), 0.0);
+        assertEquals(2.5, instance.putDouble("a", 4.0), 0.0);
+        assertEquals(4.0, instance.getDouble("a"), 0.0);
+        assertEquals(4.0, instance.getDouble("a", Double.NaN), 0.0);
+        assertTrue(Double.isNaN(instance.getDouble("b", Double.NaN)));
+        assertTrue(instance.addToIfPresent("a", 1.0));
+        assertFalse(instance.addToIfPresent("b", 1.0));
+        assertFalse(instance.containsKey("b"));
+        assertEquals(5.0, instance.getDouble("a"), 0.0);
+        
+        BoxedObject2DoubleMap<Object> boxed = new BoxedObject2DoubleMap<>(new HashMap<Object, Double>(instance));
+        assertEquals(5.0, boxed.getDouble("a", Double.NaN), 0.0);
+        assertTrue(Double.isNaN(boxed.getDouble("b", Double.NaN)));
+        assertTrue(boxed.addToIfPresent("a", 1.0));
+        assertFalse(boxed.addToIfPresent("b", 1.0));
+        assertEquals(Double.valueOf(6.0), boxed.get("a"));
+        assertFalse(boxed.containsKey("b"));
+        
+        try {
+            instance.put("b", null);
+            fail("The null values should be rejected.");
+        }
+        catch(IllegalArgumentException ex) {
+        }
+        assertFalse(instance.containsKey("b"));
+        
+        assertEquals(Double.valueOf(5.0), instance.remove("a"));
+        assertFalse(instance.containsKey("a"));
+        assertTrue(instance.isEmpty());
+    }
+    
+    /**
+     * Test of the Map contract against a HashMap, of class Object2DoubleOpenHashMap.
+     */
+    @Test
+    public void testAgainstHashMap() {
+        logger.info("testAgainstHashMap");
+        Random rnd = RandomGenerator.getThreadLocalRandom();
+        Object2DoubleOpenHashMap<Object> instance = new Object2DoubleOpenHashMap<>();
+        Map<Object, Double> expResult = new HashMap<>();
+        
+        for(int i=0;i<20000;++i) {
+            Object key = "k" + rnd.nextInt(1000);
+            int op = rnd.nextInt(3);
+            if(op==0) {
+                assertEquals(expResult.put(key, (double)i), instance.put(key, (double)i));
+            }
+            else if(op==1) {
+                assertEquals(expResult.remove(key), instance.remove(key));
+            }
+            else {
+                assertEquals(expResult.get(key), instance.get(key));
+            }
+        }
+        assertEquals(expResult, instance);
+        
+        Iterator<Map.Entry<Object, Double>> it = instance.entrySet().iterator();
+        while(it.hasNext()) {
+            Map.Entry<Object, Double> entry = it.next();
+            if(entry.getValue()>10000.0) {
+                it.remove();
+                expResult.remove(entry.getKey());
+            }
+            else {
+                double value = entry.getValue();
+                entry.setValue(-value);
+                expResult.put(entry.getKey(), -value);
+            }
+        }
+        assertEquals(expResult, instance);
+    }
+    
+    /**
+     * Test of the serialization, of class Object2DoubleOpenHashMap.
+     */
+    @Test
+    public void testSerialization() {
+        logger.info("testSerialization");
+        Object2DoubleOpenHashMap<Object> instance = new Object2DoubleOpenHashMap<>();
+        for(int i=0;i<100;++i) {
+            instance.putDouble(i, i/2.0);
+        }
+        
+        Object2DoubleOpenHashMap<Object> result = DeepCopy.clone(instance);
+        assertEquals(instance, result);
+        assertEquals(49.5, result.getDouble(99), 0.0);
+    }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import com.datumbox.common.utilities.DeepCopy;
+import com.datumbox.tests.bases.BaseTest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class PartitionedMapTest extends BaseTest {
+    
+    private PartitionedMap<Object, Integer> generateMap(int partitions) {
+        List<Map<Object, Integer>> maps = new ArrayList<>();
+        for(int i=0;i<partitions;++i) {
+            maps.add(new ConcurrentHashMap<Object, Integer>());
+        }
+        return PartitionedMap.newInstance(maps);
+    }
+    
+    /**
+     * Test of the Map operations, of class PartitionedMap.
+     */
+    @Test
+    public void testOperations() {
+        logger.info("testOperations");
+        PartitionedMap<Object, Integer> instance = generateMap(4);
+        Map<Object, Integer> expected = new HashMap<>();
+        for(int i=0;i<10000;++i) {
+            expected.put("key"+i, i);
+        }
+        instance.putAll(expected); //larger than the buffers of putAll
+        
+        assertEquals(expected, instance);
+        assertEquals(expected.hashCode(), instance.hashCode());
+        for(Map<Object, Integer> partition : instance.getPartitions()) {
+            assertFalse(partition.isEmpty());
+            for(Object key : partition.keySet()) {
+                assertSame(partition, instance.getPartitions().get(PartitionedMap.partitionOf(key, 4)));
+            }
+        }
+        
+        assertNull(instance.putIfAbsent("new", 1));
+        assertEquals(Integer.valueOf(1), instance.putIfAbsent("new", 2));
+        assertTrue(instance.replace("new", 1, 3));
+        assertTrue(instance.remove("new", 3));
+        assertFalse(instance.containsKey("new"));
+        
+        Iterator<Object> it = instance.keySet().iterator();
+        while(it.hasNext()) {
+            Object key = it.next();
+            if(((Integer)instance.get(key))%2==0) {
+                it.remove();
+            }
+        }
+        assertEquals(5000, instance.size());
+        assertTrue(instance.containsValue(9999));
+        assertFalse(instance.containsValue(9998));
+        
+        instance.clear();
+        assertTrue(instance.isEmpty());
+    }
+    
+    /**
+     * Test of newInstance method, of class PartitionedMap.
+     */
+    @Test
+    public void testNewInstance() {
+        logger.info("testNewInstance");
+        assertTrue(generateMap(2) instanceof ConcurrentMap);
+        
+        List<Map<Object, Integer>> maps = new ArrayList<>();
+        maps.add(new ConcurrentHashMap<Object, Integer>());
+        maps.add(new HashMap<Object, Integer>());
+        PartitionedMap<Object, Integer> instance = PartitionedMap.newInstance(maps);
+        assertFalse(instance instanceof ConcurrentMap);
+        
+        instance.put("a", 1);
+        assertEquals(Integer.valueOf(1), instance.putIfAbsent("a", 2));
+        assertEquals(Integer.valueOf(1), instance.get("a"));
+    }
+    
+    /**
+     * Test of partitionOf method, of class PartitionedMap.
+     */
+    @Test
+    public void testPartitionOf() {
+        logger.info("testPartitionOf");
+        assertEquals(0, PartitionedMap.partitionOf("a", 1));
+        assertEquals(PartitionedMap.partitionOf("NEW", 8), PartitionedMap.partitionOf(Thread.State.NEW, 8));
+        assertEquals(PartitionedMap.partitionOf(Arrays.asList(1, "a"), 8), PartitionedMap.partitionOf(new ArrayList<>(Arrays.asList(1, "a")), 8));
+        
+        PartitionedMap<Object, Integer> instance = generateMap(3);
+        instance.put(Thread.State.RUNNABLE, 1);
+        instance.put(Arrays.asList("x", 2), 2);
+        assertEquals(instance, DeepCopy.clone(instance));
+    }
+
+}
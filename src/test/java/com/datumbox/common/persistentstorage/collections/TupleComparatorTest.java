@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.collections;
+
+import com.datumbox.common.utilities.DeepCopy;
+import com.datumbox.tests.bases.BaseTest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class TupleComparatorTest extends BaseTest {
+    
+    /**
+     * Test of compare method, of class TupleComparator.
+     */
+    @Test
+    public void testCompare() {
+        logger.info("testCompare");
+        TupleComparator instance = TupleComparator.INSTANCE;
+        
+        assertEquals(0, instance.compare(Arrays.asList("a", 1), Arrays.asList("a", 1)));
+        assertTrue(instance.compare(Arrays.asList("a", 1), Arrays.asList("a", 2))<0);
+        assertTrue(instance.compare(Arrays.asList("a"), Arrays.asList("a", 1))<0);
+        assertTrue(instance.compare(Arrays.asList("b"), Arrays.asList("a", 1))>0);
+        assertTrue(instance.compare(1, 2.5)<0);
+        assertTrue(instance.compare(null, "a")<0);
+        assertTrue(instance.compare("a", Arrays.asList("a"))<0);
+        assertNotEquals(0, instance.compare(1, 1.0));
+        assertSame(instance, DeepCopy.clone(instance));
+    }
+    
+    /**
+     * Test of prefixMap method, of class TupleComparator.
+     */
+    @Test
+    public void testPrefixMap() {
+        logger.info("testPrefixMap");
+        NavigableMap<List<Object>, Double> map = new TreeMap<>(TupleComparator.INSTANCE);
+        for(Object row : new Object[]{"a", "b", 1, 2L}) {
+            for(Object column : new Object[]{"a", "b", 1, 2L}) {
+                map.put(Arrays.<Object>asList(row, column), 1.0);
+            }
+        }
+        map.put(Arrays.<Object>asList("b"), 2.0);
+        
+        NavigableMap<List<Object>, Double> result = TupleComparator.prefixMap(map, "b");
+        assertEquals(5, result.size());
+        for(List<Object> key : result.keySet()) {
+            assertEquals("b", key.get(0));
+        }
+        assertEquals(1, TupleComparator.prefixMap(map, 1, "a").size());
+        assertTrue(TupleComparator.prefixMap(map, "c").isEmpty());
+    }
+
+}
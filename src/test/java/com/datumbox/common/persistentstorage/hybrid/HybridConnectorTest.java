@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.hybrid;
+
+import com.datumbox.common.persistentstorage.collections.TupleComparator;
+import com.datumbox.common.persistentstorage.interfaces.Int2DoubleMap;
+import com.datumbox.common.persistentstorage.mapdb.MapDBConfiguration;
+import com.datumbox.tests.bases.BaseTest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class HybridConnectorTest extends BaseTest {
+    
+    /**
+     * Test of the spilling of the BigMaps, of class HybridConnector.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testSpill() throws IOException {
+        logger.info("testSpill");
+        
+        //the budget is shared by the output folder, so the connectors of the other tests must not use it
+        Path outputFolder = Files.createTempDirectory("HybridConnectorTest");
+        HybridConfiguration dbConf = new HybridConfiguration();
+        dbConf.setOutputFolder(outputFolder.toString());
+        dbConf.setMaxHeapEntries(1000);
+        dbConf.setSpillConfiguration(new MapDBConfiguration());
+        HybridConnector instance = (HybridConnector)dbConf.getConnector("HybridConnectorTest");
+        
+        Map<String, Double> small = instance.getBigMap("small", false);
+        Int2DoubleMap large = instance.getInt2DoubleBigMap("tmp_large", true);
+        for(int i=0;i<100;++i) {
+            small.put("key"+i, (double)i);
+        }
+        for(int i=0;i<900;++i) {
+            large.putDouble(i, i);
+        }
+        assertEquals(0, instance.getSpilledMaps());
+        
+        int visited = 0;
+        for(Map.Entry<Integer, Double> entry : large.entrySet()) {
+            if(visited++==0) {
+                small.put("key100", 100.0); //spills the large map during the iteration
+                assertTrue(((SpillableMap<?, ?>)large).isSpilled());
+            }
+            entry.setValue(entry.getValue()+1.0);
+        }
+        assertEquals(1, instance.getSpilledMaps());
+        assertFalse(((SpillableMap<?, ?>)small).isSpilled());
+        assertEquals(900, large.size());
+        assertEquals(11.0, large.getDouble(10), 0.0);
+        assertEquals(1.0, large.addTo(0, 1.0), 0.0);
+        
+        HashMap<String, Map<?, ?>> obj = new HashMap<>();
+        obj.put("small", small);
+        obj.put("large", large);
+        instance.save("KnowledgeBase", obj);
+        
+        @SuppressWarnings("unchecked")
+        Map<String, Map<?, ?>> result = instance.load("KnowledgeBase", HashMap.class);
+        assertEquals(small, result.get("small"));
+        assertEquals(large, result.get("large"));
+        assertTrue(result.get("large") instanceof Int2DoubleMap);
+        
+        instance.dropBigMap("tmp_large", large);
+        instance.dropDatabase();
+        instance.close();
+        Files.deleteIfExists(outputFolder);
+    }
+    
+    /**
+     * Test of the heap budget which is shared by the connectors of the same
+     * output folder, of class HybridConnector.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testSharedBudget() throws IOException {
+        logger.info("testSharedBudget");
+        
+        Path outputFolder = Files.createTempDirectory("HybridConnectorTest");
+        HybridConfiguration dbConf = new HybridConfiguration();
+        dbConf.setOutputFolder(outputFolder.toString());
+        dbConf.setMaxHeapEntries(1000);
+        dbConf.setSpillConfiguration(new MapDBConfiguration());
+        HybridConnector instance1 = (HybridConnector)dbConf.getConnector("HybridConnectorTest1");
+        HybridConnector instance2 = (HybridConnector)dbConf.getConnector("HybridConnectorTest2");
+        
+        Map<Integer, Double> large = instance1.getBigMap("tmp_large", true);
+        Map<Integer, Double> small = instance2.getBigMap("tmp_small", true);
+        for(int i=0;i<700;++i) {
+            large.put(i, (double)i);
+        }
+        for(int i=0;i<400;++i) {
+            small.put(i, (double)i); //exceeds the shared budget
+        }
+        assertFalse(((SpillableMap<?, ?>)small).isSpilled());
+        assertTrue(((SpillableMap<?, ?>)large).isSpillRequested());
+        assertFalse(((SpillableMap<?, ?>)large).isSpilled()); //the maps of other connectors are spilled on their next write
+        
+        large.put(700, 700.0);
+        assertTrue(((SpillableMap<?, ?>)large).isSpilled());
+        assertEquals(1, instance1.getSpilledMaps());
+        assertEquals(0, instance2.getSpilledMaps());
+        assertEquals(701, large.size());
+        assertEquals(10.0, large.get(10), 0.0);
+        
+        instance2.dropBigMap("tmp_small", small);
+        instance1.dropBigMap("tmp_large", large);
+        instance2.close();
+        instance1.close();
+        Files.deleteIfExists(outputFolder);
+    }
+    
+    /**
+     * Test of the spilling of the marked BigMaps which are only read, of class 
+     * HybridConnector.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testSpillOnRead() throws IOException {
+        logger.info("testSpillOnRead");
+        
+        Path outputFolder = Files.createTempDirectory("HybridConnectorTest");
+        HybridConfiguration dbConf = new HybridConfiguration();
+        dbConf.setOutputFolder(outputFolder.toString());
+        dbConf.setMaxHeapEntries(1000);
+        dbConf.setSpillConfiguration(new MapDBConfiguration());
+        HybridConnector instance1 = (HybridConnector)dbConf.getConnector("HybridConnectorTest1");
+        HybridConnector instance2 = (HybridConnector)dbConf.getConnector("HybridConnectorTest2");
+        
+        Map<Integer, Double> large = instance1.getBigMap("tmp_large", true);
+        Map<Integer, Double> small = instance2.getBigMap("tmp_small", true);
+        for(int i=0;i<700;++i) {
+            large.put(i, (double)i);
+        }
+        for(int i=0;i<400;++i) {
+            small.put(i, (double)i); //exceeds the shared budget
+        }
+        assertTrue(((SpillableMap<?, ?>)large).isSpillRequested());
+        assertFalse(((SpillableMap<?, ?>)large).isSpilled());
+        
+        assertEquals(10.0, large.get(10), 0.0); //the marked map is never written again
+        assertTrue(((SpillableMap<?, ?>)large).isSpilled());
+        assertEquals(1, instance1.getSpilledMaps());
+        assertEquals(0, ((SpillableMap<?, ?>)large).heapSize());
+        
+        double sum = 0.0;
+        for(Double value : large.values()) {
+            sum += value;
+        }
+        assertEquals(699*700/2.0, sum, 0.0);
+        
+        instance2.dropBigMap("tmp_small", small);
+        instance1.dropBigMap("tmp_large", large);
+        instance2.close();
+        instance1.close();
+        Files.deleteIfExists(outputFolder);
+    }
+    
+    /**
+     * Test of the spilling of the sorted BigMaps, of class HybridConnector.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testSpillOrdered() throws IOException {
+        logger.info("testSpillOrdered");
+        
+        Path outputFolder = Files.createTempDirectory("HybridConnectorTest");
+        HybridConfiguration dbConf = new HybridConfiguration();
+        dbConf.setOutputFolder(outputFolder.toString());
+        dbConf.setMaxHeapEntries(1000);
+        dbConf.setSpillConfiguration(new MapDBConfiguration());
+        HybridConnector instance = (HybridConnector)dbConf.getConnector("HybridConnectorTest");
+        
+        NavigableMap<List<Object>, Double> ordered = instance.getOrderedBigMap("tmp_ordered", true);
+        NavigableMap<List<Object>, Double> prefix = TupleComparator.prefixMap(ordered, "b");
+        for(int i=0;i<1200;++i) {
+            ordered.put(Arrays.<Object>asList((i%2==0)?"a":"b", i), (double)i);
+        }
+        assertTrue(((SpillableMap<?, ?>)ordered).isSpilled());
+        assertEquals(1, instance.getSpilledMaps());
+        
+        assertEquals(1200, ordered.size());
+        assertEquals(Arrays.<Object>asList("a", 0), ordered.firstKey());
+        assertEquals(600, prefix.size()); //the range views follow the spilled map
+        assertEquals(Arrays.<Object>asList("b", 1), prefix.firstKey());
+        assertEquals(Double.valueOf(1199.0), prefix.lastEntry().getValue());
+        
+        instance.dropBigMap("tmp_ordered", ordered);
+        instance.close();
+        Files.deleteIfExists(outputFolder);
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.inmemory;
+
+import com.datumbox.common.persistentstorage.collections.BoxedInt2DoubleMap;
+import com.datumbox.common.persistentstorage.interfaces.Int2DoubleMap;
+import com.datumbox.tests.bases.BaseTest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class InMemoryConnectorTest extends BaseTest {
+    
+    /**
+     * Test of the concurrent mode, of class InMemoryConnector.
+     * 
+     * @throws InterruptedException 
+     */
+    @Test
+    public void testConcurrentMode() throws InterruptedException {
+        logger.info("testConcurrentMode");
+        
+        InMemoryConfiguration dbConf = new InMemoryConfiguration();
+        dbConf.setOutputFolder(System.getProperty("java.io.tmpdir"));
+        dbConf.setConcurrent(true);
+        dbConf.setLazyLoading(true);
+        InMemoryConnector instance = (InMemoryConnector)dbConf.getConnector("InMemoryConnectorTest");
+        
+        final Int2DoubleMap counts = instance.getInt2DoubleBigMap("counts", false);
+        final int threads = 4;
+        final int increments = 10000;
+        final int keys = 2000;
+        Thread[] workers = new Thread[threads];
+        for(int t=0;t<threads;++t) {
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for(int i=0;i<increments;++i) {
+                        counts.addTo(i%keys, 1.0);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for(Thread worker : workers) {
+            worker.join();
+        }
+        
+        assertEquals(keys, counts.size());
+        for(int k=0;k<keys;++k) {
+            assertEquals(threads*increments/keys, counts.getDouble(k), 0.0);
+        }
+        
+        Map<String, Object> weights = instance.getBigMap("weights", false);
+        assertTrue(weights instanceof ConcurrentMap);
+        
+        HashMap<String, Object> obj = new HashMap<>();
+        obj.put("counts", counts);
+        instance.save("KnowledgeBase", obj);
+        
+        @SuppressWarnings("unchecked")
+        Map<String, Object> result = instance.load("KnowledgeBase", HashMap.class);
+        Int2DoubleMap loadedCounts = (Int2DoubleMap)result.get("counts");
+        assertEquals(counts, loadedCounts);
+        assertTrue(((BoxedInt2DoubleMap)loadedCounts).getDelegate() instanceof ConcurrentHashMap);
+        loadedCounts.addTo(0, 1.0);
+        assertEquals(threads*increments/keys+1, loadedCounts.getDouble(0), 0.0);
+        
+        instance.dropDatabase();
+        instance.close();
+    }
+    
+    /**
+     * Test of the read-only mode, of class InMemoryConnector.
+     */
+    @Test
+    public void testReadOnly() {
+        logger.info("testReadOnly");
+        
+        InMemoryConfiguration dbConf = new InMemoryConfiguration();
+        dbConf.setOutputFolder(System.getProperty("java.io.tmpdir"));
+        InMemoryConnector writer = (InMemoryConnector)dbConf.getConnector("InMemoryConnectorTestReadOnly");
+        HashMap<String, Object> model = new HashMap<>();
+        model.put("bias", 0.5);
+        writer.save("model", model);
+        writer.close();
+        
+        dbConf.setReadOnly(true);
+        InMemoryConnector instance1 = (InMemoryConnector)dbConf.getConnector("InMemoryConnectorTestReadOnly");
+        InMemoryConnector instance2 = (InMemoryConnector)dbConf.getConnector("InMemoryConnectorTestReadOnly");
+        
+        HashMap<?, ?> model1 = instance1.load("model", HashMap.class);
+        HashMap<?, ?> model2 = instance2.load("model", HashMap.class);
+        assertEquals(0.5, model1.get("bias"));
+        assertSame(model1, model2); //the object is shared
+        
+        try {
+            instance1.save("model", model);
+            fail("The saves should be rejected.");
+        }
+        catch(UnsupportedOperationException ex) {
+        }
+        
+        instance1.close();
+        instance2.close();
+        
+        InMemoryConnector instance3 = (InMemoryConnector)dbConf.getConnector("InMemoryConnectorTestReadOnly");
+        HashMap<?, ?> model3 = instance3.load("model", HashMap.class);
+        assertEquals(model1, model3);
+        assertNotSame(model1, model3); //the object was released by all the connectors
+        instance3.close();
+        
+        dbConf.setReadOnly(false);
+        writer = (InMemoryConnector)dbConf.getConnector("InMemoryConnectorTestReadOnly");
+        writer.dropDatabase();
+        writer.close();
+        
+        dbConf.setReadOnly(true);
+        InMemoryConnector instance4 = (InMemoryConnector)dbConf.getConnector("InMemoryConnectorTestReadOnly");
+        assertNull(instance4.load("model", HashMap.class));
+        instance4.close();
+    }
+
+}
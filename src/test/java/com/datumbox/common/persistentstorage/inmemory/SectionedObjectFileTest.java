@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.inmemory;
+
+import com.datumbox.common.persistentstorage.codecs.BinaryCodec;
+import com.datumbox.common.persistentstorage.codecs.Codec;
+import com.datumbox.common.persistentstorage.codecs.JavaSerializationCodec;
+import com.datumbox.common.persistentstorage.collections.Int2IntOpenHashMap;
+import com.datumbox.common.persistentstorage.interfaces.Int2IntMap;
+import com.datumbox.common.utilities.DeepCopy;
+import com.datumbox.tests.bases.BaseTest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class SectionedObjectFileTest extends BaseTest {
+    
+    private List<Object> generateGraph() {
+        Map<Object, Object> bigMap = new HashMap<>();
+        Int2IntOpenHashMap counts = new Int2IntOpenHashMap();
+        for(int i=0;i<5000;++i) {
+            bigMap.put("key"+i, (double)i);
+            counts.putInt(i, i%7);
+        }
+        Map<Object, Object> smallMap = new HashMap<>();
+        smallMap.put("a", 1);
+        
+        List<Object> graph = new ArrayList<>();
+        graph.add(bigMap);
+        graph.add(counts);
+        graph.add(smallMap);
+        graph.add(bigMap); //shared reference
+        return graph;
+    }
+    
+    /**
+     * Test of write and read methods, of class SectionedObjectFile.
+     * 
+     * @throws IOException
+     * @throws ClassNotFoundException 
+     */
+    @Test
+    public void testWriteRead() throws IOException, ClassNotFoundException {
+        logger.info("testWriteRead");
+        
+        for(Codec codec : new Codec[]{new JavaSerializationCodec(), new BinaryCodec()}) {
+            for(boolean compressed : new boolean[]{false, true}) {
+                Path path = Files.createTempFile("SectionedObjectFileTest", null);
+                try {
+                    List<Object> expResult = generateGraph();
+                    SectionedObjectFile.write(path, expResult, codec, compressed);
+                    
+                    @SuppressWarnings("unchecked")
+                    List<Object> result = (List<Object>)SectionedObjectFile.read(path, false);
+                    assertEquals(expResult, result);
+                    assertSame(result.get(0), result.get(3));
+                }
+                finally {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Test of read method with lazy loading, of class SectionedObjectFile.
+     * 
+     * @throws IOException
+     * @throws ClassNotFoundException 
+     */
+    @Test
+    public void testReadLazy() throws IOException, ClassNotFoundException {
+        logger.info("testReadLazy");
+        
+        Path path = Files.createTempFile("SectionedObjectFileTest", null);
+        try {
+            List<Object> expResult = generateGraph();
+            SectionedObjectFile.write(path, expResult, new BinaryCodec(), false);
+            
+            @SuppressWarnings("unchecked")
+            List<Object> result = (List<Object>)SectionedObjectFile.read(path, true);
+            
+            LazySectionMap<?, ?> bigMap = (LazySectionMap<?, ?>)result.get(0);
+            assertSame(bigMap, result.get(3));
+            assertEquals(5000, bigMap.size());
+            assertEquals(10.0, bigMap.get("key10"));
+            assertFalse(bigMap.isFullyLoaded());
+            assertNull(bigMap.get("missing"));
+            
+            Int2IntMap counts = (Int2IntMap)result.get(1);
+            assertEquals(3, counts.getInt(10));
+            assertEquals(expResult.get(2), result.get(2));
+            
+            //saving in the same file materializes the lazy maps before the file is replaced
+            SectionedObjectFile.write(path, result, new BinaryCodec(), true);
+            assertTrue(bigMap.isFullyLoaded());
+            assertEquals(expResult, result);
+            assertEquals(expResult, SectionedObjectFile.read(path, true));
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+    
+    /**
+     * Test of read method for plain serialized files, of class SectionedObjectFile.
+     * 
+     * @throws IOException
+     * @throws ClassNotFoundException 
+     */
+    @Test
+    public void testReadPlainSerialization() throws IOException, ClassNotFoundException {
+        logger.info("testReadPlainSerialization");
+        
+        Path path = Files.createTempFile("SectionedObjectFileTest", null);
+        try {
+            List<Object> expResult = generateGraph();
+            Files.write(path, DeepCopy.serialize(expResult));
+            
+            Object result = SectionedObjectFile.read(path, false);
+            assertEquals(expResult, result);
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+}
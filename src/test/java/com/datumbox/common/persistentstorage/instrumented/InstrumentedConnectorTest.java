@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.instrumented;
+
+import com.datumbox.common.persistentstorage.instrumented.ConnectorStatistics.Operation;
+import com.datumbox.common.persistentstorage.interfaces.Int2IntMap;
+import com.datumbox.tests.bases.BaseTest;
+import com.datumbox.tests.utilities.TestUtils;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class InstrumentedConnectorTest extends BaseTest {
+    
+    /**
+     * Test of getStatistics method, of class InstrumentedConnector.
+     */
+    @Test
+    public void testGetStatistics() {
+        logger.info("testGetStatistics");
+        
+        InstrumentedConfiguration dbConf = new InstrumentedConfiguration(TestUtils.getDBConfig());
+        InstrumentedConnector instance = (InstrumentedConnector)dbConf.getConnector("InstrumentedConnectorTest");
+        
+        Map<String, Double> weights = instance.getBigMap("weights", false);
+        weights.put("a", 1.0);
+        weights.put("b", 2.0);
+        assertEquals(1.0, weights.get("a"), 0.0);
+        int elements = 0;
+        for(Map.Entry<String, Double> entry : weights.entrySet()) {
+            ++elements;
+        }
+        
+        Int2IntMap counts = instance.getInt2IntBigMap("tmp_counts", true);
+        counts.addTo(1, 3);
+        assertEquals(3, counts.getInt(1));
+        
+        HashMap<String, Map<String, Double>> obj = new HashMap<>();
+        obj.put("weights", weights);
+        instance.save("KnowledgeBase", obj);
+        assertEquals(weights, instance.load("KnowledgeBase", HashMap.class).get("weights"));
+        
+        instance.dropBigMap("tmp_counts", counts);
+        
+        ConnectorStatistics statistics = instance.getStatistics();
+        assertEquals(2L, statistics.getHistogram("weights", Operation.PUT).getCount());
+        assertEquals(1L, statistics.getHistogram("weights", Operation.GET).getCount());
+        assertEquals(elements, statistics.getHistogram("weights", Operation.ITERATION).getCount());
+        assertEquals(1L, statistics.getHistogram("tmp_counts", Operation.PUT).getCount());
+        assertEquals(1L, statistics.getHistogram("tmp_counts", Operation.GET).getCount());
+        assertEquals(1L, statistics.getHistogram("tmp_counts", Operation.DROP).getCount());
+        assertEquals(1L, statistics.getHistogram("KnowledgeBase", Operation.SAVE).getCount());
+        assertEquals(1L, statistics.getHistogram("KnowledgeBase", Operation.LOAD).getCount());
+        assertTrue(statistics.getTotalNanos()<=statistics.getElapsedNanos());
+        
+        instance.dropDatabase();
+        instance.close();
+    }
+    
+    /**
+     * Test of getPercentileNanos method, of class LatencyHistogram.
+     */
+    @Test
+    public void testGetPercentileNanos() {
+        logger.info("testGetPercentileNanos");
+        
+        LatencyHistogram instance = new LatencyHistogram();
+        for(int i=1;i<=100;++i) {
+            instance.record(i*1000L);
+        }
+        assertEquals(100L, instance.getCount());
+        assertEquals(100000L, instance.getMaxNanos());
+        assertEquals(50500.0, instance.getMeanNanos(), 0.0);
+        
+        long p50 = instance.getPercentileNanos(50.0);
+        assertTrue(p50>=50000L && p50<=2*50000L);
+        assertEquals(100000L, instance.getPercentileNanos(100.0));
+    }
+
+}
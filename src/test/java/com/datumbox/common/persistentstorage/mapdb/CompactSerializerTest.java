@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.mapdb;
+
+import com.datumbox.common.dataobjects.AssociativeArray;
+import com.datumbox.common.dataobjects.Record;
+import com.datumbox.common.utilities.DeepCopy;
+import com.datumbox.tests.bases.BaseTest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class CompactSerializerTest extends BaseTest {
+    
+    private Object roundTrip(CompactSerializer serializer, Object value) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        serializer.serialize(new DataOutputStream(bos), value);
+        return serializer.deserialize(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())), bos.size());
+    }
+    
+    /**
+     * Test of serialize and deserialize methods, of class CompactSerializer.
+     * 
+     * @throws IOException 
+     */
+    @Test
+    public void testSerialize() throws IOException {
+        logger.info("testSerialize");
+        
+        AssociativeArray x = new AssociativeArray();
+        x.put("height", 1.8);
+        x.put(Arrays.<Object>asList("color", "red"), true);
+        x.put(3, -7);
+        AssociativeArray probabilities = new AssociativeArray();
+        probabilities.put("yes", 0.7);
+        probabilities.put("no", 0.3);
+        Record record = new Record(x, "yes", "no", probabilities);
+        
+        Map<Object, Object> map = new HashMap<>();
+        map.put("a", Long.MIN_VALUE);
+        map.put(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        List<Object> list = new ArrayList<>();
+        list.add(null);
+        list.add(new BigDecimal("1.5"));
+        
+        Object[] values = new Object[]{null, false, 0, -1, 12345678L, 0.5, "feature", Arrays.<Object>asList("row", 3), list, map, x, record};
+        for(CompactSerializer serializer : new CompactSerializer[]{CompactSerializer.INSTANCE, CompactSerializer.INTERNED}) {
+            for(Object value : values) {
+                Object result = roundTrip(serializer, value);
+                assertEquals(value, result);
+                if(value!=null) {
+                    assertEquals(value.getClass(), result.getClass());
+                }
+            }
+            
+            Record result = (Record)roundTrip(serializer, record);
+            assertEquals(record.getYPredicted(), result.getYPredicted());
+            assertEquals(record.getYPredictedProbabilities(), result.getYPredictedProbabilities());
+            assertEquals(Arrays.asList(x.keySet().toArray()), Arrays.asList(result.getX().keySet().toArray())); //the order is maintained
+        }
+        
+        //the shared instances are maintained when the serializers are stored in the catalog of MapDB
+        assertSame(CompactSerializer.INTERNED, DeepCopy.clone(CompactSerializer.INTERNED));
+    }
+
+}
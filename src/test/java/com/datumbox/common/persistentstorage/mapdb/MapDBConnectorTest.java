@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.mapdb;
+
+import com.datumbox.common.persistentstorage.collections.CachedMap;
+import com.datumbox.common.persistentstorage.collections.TupleComparator;
+import com.datumbox.common.persistentstorage.mmap.MMapConfiguration;
+import com.datumbox.tests.bases.BaseTest;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class MapDBConnectorTest extends BaseTest {
+    
+    /**
+     * Test of bulkLoadOrderedBigMap method, of class MapDBConnector.
+     */
+    @Test
+    public void testBulkLoadOrderedBigMap() {
+        logger.info("testBulkLoadOrderedBigMap");
+        
+        MapDBConfiguration dbConf = new MapDBConfiguration();
+        dbConf.setOutputFolder(System.getProperty("java.io.tmpdir"));
+        dbConf.setBulkLoadBatchSize(1000);
+        MapDBConnector instance = (MapDBConnector)dbConf.getConnector("MapDBConnectorTest");
+        
+        List<Map.Entry<List<Object>, Double>> entries = new ArrayList<>();
+        for(int i=0;i<100;++i) {
+            for(int j=0;j<50;++j) {
+                entries.add(new AbstractMap.SimpleEntry<List<Object>, Double>(Arrays.<Object>asList("row"+i, j), (double)i*j));
+            }
+        }
+        entries.add(new AbstractMap.SimpleEntry<List<Object>, Double>(Arrays.<Object>asList("row0", 0), 0.0)); //duplicate
+        Collections.shuffle(entries, new Random(42));
+        
+        NavigableMap<List<Object>, Double> result = instance.bulkLoadOrderedBigMap("products", entries.iterator(), false);
+        assertEquals(5000, result.size());
+        assertEquals(12.0, result.get(Arrays.<Object>asList("row3", 4)), 0.0);
+        assertEquals(Arrays.<Object>asList("row0", 0), result.firstKey());
+        assertEquals(50, TupleComparator.prefixMap(result, "row7").size());
+        
+        List<Object> previous = null;
+        for(List<Object> key : result.keySet()) {
+            if(previous!=null) {
+                assertTrue(TupleComparator.INSTANCE.compare(previous, key)<0);
+            }
+            previous = key;
+        }
+        
+        NavigableMap<String, Double> empty = instance.bulkLoadOrderedBigMap("tmp_empty", Collections.<Map.Entry<String, Double>>emptyIterator(), true);
+        assertTrue(empty.isEmpty());
+        
+        instance.dropDatabase();
+        instance.close();
+    }
+    
+    /**
+     * Test of the bulk writes of the BigMaps, of class MapDBConnector.
+     */
+    @Test
+    public void testBulkWrites() {
+        logger.info("testBulkWrites");
+        
+        MapDBConfiguration dbConf = new MapDBConfiguration();
+        dbConf.setOutputFolder(System.getProperty("java.io.tmpdir"));
+        dbConf.setBulkWriteBatchSize(100);
+        dbConf.setCommitInterval(1000); //the batches are committed when the connector is closed
+        MapDBConnector instance = (MapDBConnector)dbConf.getConnector("MapDBConnectorTestBulkWrites");
+        
+        Map<Integer, Double> values = new HashMap<>();
+        for(int i=0;i<1050;++i) {
+            values.put(i, i/2.0);
+        }
+        Map<Integer, Double> weights = instance.getBigMap("weights", false);
+        assertTrue(weights instanceof BulkWriteMap);
+        weights.putAll(values);
+        assertEquals(values, weights);
+        HashMap<String, Object> model = new HashMap<>();
+        model.put("weights", weights);
+        instance.save("model", model);
+        instance.close();
+        
+        instance = (MapDBConnector)dbConf.getConnector("MapDBConnectorTestBulkWrites");
+        HashMap<?, ?> result = instance.load("model", HashMap.class);
+        assertEquals(values, result.get("weights"));
+        
+        //the wrapper is recreated with the new connector, so it can be written after the reload
+        @SuppressWarnings("unchecked")
+        Map<Integer, Double> loadedWeights = (Map<Integer, Double>)result.get("weights");
+        assertTrue(loadedWeights instanceof BulkWriteMap);
+        Map<Integer, Double> moreValues = new HashMap<>();
+        for(int i=1050;i<1200;++i) {
+            moreValues.put(i, i/2.0);
+        }
+        loadedWeights.putAll(moreValues);
+        values.putAll(moreValues);
+        assertEquals(values, loadedWeights);
+        instance.save("model", (HashMap<?, ?>)result);
+        instance.close();
+        
+        instance = (MapDBConnector)dbConf.getConnector("MapDBConnectorTestBulkWrites");
+        result = instance.load("model", HashMap.class);
+        assertEquals(values, result.get("weights"));
+        
+        instance.dropDatabase();
+        instance.close();
+    }
+    
+    /**
+     * Test of the read-only mode, of class MapDBConnector.
+     */
+    @Test
+    public void testReadOnly() {
+        logger.info("testReadOnly");
+        
+        for(MapDBConfiguration dbConf : new MapDBConfiguration[]{new MapDBConfiguration(), new MMapConfiguration()}) {
+            testReadOnly(dbConf);
+            dbConf.setObjectCacheSize(100);
+            testReadOnly(dbConf);
+        }
+    }
+    
+    private void testReadOnly(MapDBConfiguration dbConf) {
+        dbConf.setOutputFolder(System.getProperty("java.io.tmpdir"));
+        MapDBConnector writer = (MapDBConnector)dbConf.getConnector("MapDBConnectorTestReadOnly");
+        Map<String, Double> weights = writer.getBigMap("weights", false);
+        weights.put("a", 1.0);
+        weights.put("b", 2.0);
+        HashMap<String, Object> model = new HashMap<>();
+        model.put("bias", 0.5);
+        model.put("weights", weights);
+        writer.save("model", model);
+        writer.close();
+        
+        dbConf.setReadOnly(true);
+        MapDBConnector instance1 = (MapDBConnector)dbConf.getConnector("MapDBConnectorTestReadOnly");
+        MapDBConnector instance2 = (MapDBConnector)dbConf.getConnector("MapDBConnectorTestReadOnly");
+        
+        HashMap<?, ?> model1 = instance1.load("model", HashMap.class);
+        HashMap<?, ?> model2 = instance2.load("model", HashMap.class);
+        assertEquals(0.5, model1.get("bias"));
+        assertSame(model1.get("weights"), model2.get("weights")); //the DB is shared
+        assertNull(instance1.load("missing", HashMap.class));
+        
+        Map<String, Double> weights1 = instance1.getBigMap("weights", false);
+        Map<String, Double> weights2 = instance2.getBigMap("weights", false);
+        assertEquals(2, weights1.size());
+        assertEquals(2.0, weights1.get("b"), 0.0);
+        if(dbConf.getObjectCacheSize()>0) {
+            //the object caches are shared with the DB
+            assertTrue(weights1 instanceof CachedMap);
+            assertSame(weights1, weights2);
+            assertSame(model1.get("weights"), weights1);
+            assertEquals(2.0, weights2.get("b"), 0.0);
+            assertTrue(((CachedMap<?, ?>)weights2).getHits()>=1);
+        }
+        
+        try {
+            weights1.put("c", 3.0);
+            fail("The writes on the permanent BigMaps should be rejected.");
+        }
+        catch(UnsupportedOperationException ex) {
+        }
+        try {
+            instance1.save("model", model);
+            fail("The saves should be rejected.");
+        }
+        catch(UnsupportedOperationException ex) {
+        }
+        try {
+            instance1.getBigMap("missing", false);
+            fail("The BigMaps can not be created.");
+        }
+        catch(UnsupportedOperationException ex) {
+        }
+        
+        Map<String, Double> tmp = instance1.getBigMap("tmp_scores", true);
+        tmp.put("a", 1.0);
+        assertEquals(1.0, tmp.get("a"), 0.0);
+        
+        instance1.close();
+        assertEquals(1.0, weights2.get("a"), 0.0); //still open by the second connector
+        instance2.close();
+        
+        dbConf.setReadOnly(false);
+        writer = (MapDBConnector)dbConf.getConnector("MapDBConnectorTestReadOnly");
+        writer.dropDatabase();
+        writer.close();
+    }
+
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.persistentstorage.mapdb;
+
+import com.datumbox.tests.bases.BaseTest;
+import org.junit.Test;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class TempDBPoolTest extends BaseTest {
+    
+    /**
+     * Test of the tracking of the DBs in use, of class TempDBPool.
+     */
+    @Test
+    public void testTracking() {
+        logger.info("testTracking");
+        
+        String key = "TempDBPoolTest:" + System.nanoTime();
+        DB db = TempDBPool.track(DBMaker.newTempFileDB().deleteFilesAfterClose().make());
+        assertTrue(TempDBPool.isInUse(db)); //the shutdown hook closes it even if its connector is not closed
+        db.getHashMap("tmp_map").put("a", 1);
+        
+        TempDBPool.release(key, db, 1);
+        assertFalse(TempDBPool.isInUse(db));
+        assertFalse(db.isClosed());
+        
+        assertSame(db, TempDBPool.borrow(key));
+        assertTrue(TempDBPool.isInUse(db));
+        assertTrue(db.getAll().isEmpty());
+        
+        TempDBPool.release(key, db, 0);
+        assertFalse(TempDBPool.isInUse(db));
+        assertTrue(db.isClosed());
+    }
+
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.common.utilities;
+
+import com.datumbox.tests.bases.BaseTest;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class ReadAheadIteratorTest extends BaseTest {
+    
+    /**
+     * Test of hasNext and next methods, of class ReadAheadIterator.
+     */
+    @Test
+    public void testNext() {
+        logger.info("testNext");
+        
+        List<Integer> expResult = new ArrayList<>();
+        for(int i=0;i<1000;++i) {
+            expResult.add(i);
+        }
+        
+        Iterator<Integer> instance = new ReadAheadIterator<>(expResult.iterator(), 7, 3);
+        List<Integer> result = new ArrayList<>();
+        while(instance.hasNext()) {
+            result.add(instance.next());
+        }
+        assertEquals(expResult, result);
+        assertFalse(instance.hasNext());
+        
+        try {
+            instance.next();
+            fail("The iterator should be exhausted.");
+        }
+        catch(NoSuchElementException ex) {
+        }
+    }
+    
+    /**
+     * Test of the propagation of the exceptions of the source, of class ReadAheadIterator.
+     */
+    @Test
+    public void testFailure() {
+        logger.info("testFailure");
+        
+        Iterator<Integer> source = new Iterator<Integer>() {
+            private int i = 0;
+            
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+            
+            @Override
+            public Integer next() {
+                if(i==10) {
+                    throw new IllegalStateException("broken source");
+                }
+                return i++;
+            }
+            
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        
+        Iterator<Integer> instance = new ReadAheadIterator<>(source, 4, 2);
+        int count = 0;
+        try {
+            while(instance.hasNext()) {
+                instance.next();
+                ++count;
+            }
+            fail("The exception of the source should be rethrown.");
+        }
+        catch(IllegalStateException ex) {
+            assertEquals("broken source", ex.getMessage());
+        }
+        assertEquals(8, count); //the last partial batch is lost with the failure
+    }
+    
+    /**
+     * Test of the propagation of the errors of the source, of class ReadAheadIterator.
+     */
+    @Test(timeout=10000)
+    public void testError() {
+        logger.info("testError");
+        
+        Iterator<Integer> source = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+            
+            @Override
+            public Integer next() {
+                throw new StackOverflowError("broken source");
+            }
+            
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        
+        Iterator<Integer> instance = new ReadAheadIterator<>(source, 4, 2);
+        try {
+            instance.hasNext();
+            fail("The error of the source should be rethrown.");
+        }
+        catch(StackOverflowError ex) {
+            assertEquals("broken source", ex.getMessage());
+        }
+        assertFalse(instance.hasNext());
+    }
+
+}
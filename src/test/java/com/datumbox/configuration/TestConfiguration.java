@@ -19,6 +19,7 @@ import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
 
 import com.datumbox.common.persistentstorage.inmemory.InMemoryConfiguration;
 //import com.datumbox.common.persistentstorage.mapdb.MapDBConfiguration;
+//import com.datumbox.common.persistentstorage.mmap.MMapConfiguration;
 
 /**
  * Configuration constants for the Tests.
@@ -51,5 +52,6 @@ public class TestConfiguration {
      */
     public static final Class<? extends DatabaseConfiguration> PERMANENT_STORAGE = InMemoryConfiguration.class; 
     //public static final Class<? extends DatabaseConfiguration> PERMANENT_STORAGE = MapDBConfiguration.class; 
+    //public static final Class<? extends DatabaseConfiguration> PERMANENT_STORAGE = MMapConfiguration.class; 
     
 }
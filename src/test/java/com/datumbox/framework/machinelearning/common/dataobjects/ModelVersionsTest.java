@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2013-2016 Vasilis Vryniotis <bbriniotis@datumbox.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datumbox.framework.machinelearning.common.dataobjects;
+
+import com.datumbox.common.dataobjects.Dataset;
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
+import com.datumbox.common.persistentstorage.interfaces.DatabaseConnector;
+import com.datumbox.framework.machinelearning.classification.BernoulliNaiveBayes;
+import com.datumbox.tests.bases.BaseTest;
+import com.datumbox.tests.utilities.Datasets;
+import com.datumbox.tests.utilities.TestUtils;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * 
+ * @author Vasilis Vryniotis <bbriniotis@datumbox.com>
+ */
+public class ModelVersionsTest extends BaseTest {
+    
+    private boolean existsVersion(DatabaseConfiguration dbConf, String dbName, int number) {
+        String separator = dbConf.getDBnameSeparator();
+        DatabaseConnector dbc = dbConf.getConnector(dbName + separator + "v" + number + separator + BernoulliNaiveBayes.class.getSimpleName());
+        try {
+            return dbc.existsDatabase();
+        }
+        finally {
+            dbc.close();
+        }
+    }
+    
+    /**
+     * Test of publish and acquire methods, of class ModelVersions.
+     */
+    @Test
+    public void testPublish() {
+        logger.info("testPublish");
+        
+        DatabaseConfiguration dbConf = TestUtils.getDBConfig();
+        
+        Dataset[] data = Datasets.carsNumeric(dbConf);
+        final Dataset trainingData = data[0];
+        Dataset validationData = data[1];
+        
+        String dbName = this.getClass().getSimpleName();
+        ModelVersions<BernoulliNaiveBayes> instance = new ModelVersions<>(BernoulliNaiveBayes.class, dbName, dbConf);
+        assertNull(instance.acquire());
+        
+        ModelVersions.Trainer<BernoulliNaiveBayes> trainer = new ModelVersions.Trainer<BernoulliNaiveBayes>() {
+            @Override
+            public void train(BernoulliNaiveBayes model) {
+                model.fit(trainingData, new BernoulliNaiveBayes.TrainingParameters());
+            }
+        };
+        assertEquals(1, instance.publish(trainer));
+        
+        ModelVersions.Version<BernoulliNaiveBayes> version = instance.acquire();
+        assertEquals(1, version.getNumber());
+        
+        assertEquals(2, instance.publish(trainer));
+        
+        //the old version remains usable until it is released
+        version.getModel().predict(validationData);
+        assertTrue(existsVersion(dbConf, dbName, 1));
+        version.close();
+        assertFalse(existsVersion(dbConf, dbName, 1));
+        
+        try (ModelVersions.Version<BernoulliNaiveBayes> current = instance.acquire()) {
+            assertEquals(2, current.getNumber());
+        }
+        instance.close();
+        
+        //the current version is restored after a restart
+        instance = new ModelVersions<>(BernoulliNaiveBayes.class, dbName, dbConf);
+        try (ModelVersions.Version<BernoulliNaiveBayes> current = instance.acquire()) {
+            assertEquals(2, current.getNumber());
+            current.getModel().predict(validationData);
+        }
+        
+        instance.erase();
+        assertFalse(existsVersion(dbConf, dbName, 2));
+        
+        trainingData.erase();
+        validationData.erase();
+    }
+
+}
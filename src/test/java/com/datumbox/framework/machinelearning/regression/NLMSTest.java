@@ -25,6 +25,14 @@ import com.datumbox.configuration.TestConfiguration;
 import com.datumbox.tests.bases.BaseTest;
 import com.datumbox.tests.utilities.Datasets;
 import com.datumbox.tests.utilities.TestUtils;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -90,6 +98,70 @@ public class NLMSTest extends BaseTest {
         validationData.erase();
     }
 
+    
+    /**
+     * Test of fit and validate methods on a streaming Dataset, of class NLMS.
+     * 
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testValidateStreaming() throws IOException {
+        logger.info("validateStreaming");
+        
+        DatabaseConfiguration dbConf = TestUtils.getDBConfig();
+        
+        Path csvFile = Files.createTempFile("NLMSTest", ".csv");
+        try {
+            StringBuilder sb = new StringBuilder("x1,x2,y\r\n");
+            for(int i=0;i<1500;++i) { //spans over more than one chunk
+                double x1 = (i%10)/10.0;
+                double x2 = (i%7)/7.0;
+                sb.append(x1).append(",").append(x2).append(",").append(0.1+0.5*x1+0.3*x2).append("\r\n");
+            }
+            Files.write(csvFile, sb.toString().getBytes(StandardCharsets.UTF_8));
+            
+            Map<String, TypeInference.DataType> headerDataTypes = new LinkedHashMap<>(); 
+            headerDataTypes.put("x1", TypeInference.DataType.NUMERICAL);
+            headerDataTypes.put("x2", TypeInference.DataType.NUMERICAL);
+            headerDataTypes.put("y", TypeInference.DataType.NUMERICAL);
+            
+            Dataset storedData;
+            try (Reader fileReader = new FileReader(csvFile.toFile())) {
+                storedData = Dataset.Builder.parseCSVFile(fileReader, "y", headerDataTypes, ',', '"', "\r\n", dbConf);
+            }
+            Dataset streamingData = Dataset.Builder.streamCSVFile(csvFile.toUri(), "y", headerDataTypes, ',', '"', "\r\n", dbConf);
+            
+            NLMS.TrainingParameters param = new NLMS.TrainingParameters();
+            param.setTotalIterations(100);
+            
+            String dbName = this.getClass().getSimpleName();
+            NLMS expInstance = new NLMS(dbName+"Stored", dbConf);
+            expInstance.fit(storedData, param);
+            NLMS.ValidationMetrics expResult = expInstance.validate(storedData);
+            
+            //the streaming Dataset is trained and validated the same way; the predictions are stored as replacements of its Records
+            NLMS instance = new NLMS(dbName, dbConf);
+            instance.fit(streamingData, param);
+            NLMS.ValidationMetrics result = instance.validate(streamingData);
+            
+            //the stored Records are scanned in the order of the storage, so the sums of the gradients differ slightly
+            assertEquals(expResult.getRSquare(), result.getRSquare(), TestConfiguration.DOUBLE_ACCURACY_MEDIUM);
+            assertEquals(expResult.getSSE(), result.getSSE(), TestConfiguration.DOUBLE_ACCURACY_MEDIUM);
+            assertEquals(storedData.getRecordNumber(), streamingData.getRecordNumber());
+            for(Integer rId : streamingData) {
+                assertEquals(TypeInference.toDouble(storedData.get(rId).getYPredicted()), TypeInference.toDouble(streamingData.get(rId).getYPredicted()), TestConfiguration.DOUBLE_ACCURACY_MEDIUM);
+            }
+            
+            expInstance.erase();
+            instance.erase();
+            
+            storedData.erase();
+            streamingData.erase();
+        }
+        finally {
+            Files.delete(csvFile);
+        }
+    }
 
     /**
      * Test of kFoldCrossValidation method, of class NLMS.
@@ -134,7 +206,7 @@ public class NLMSTest extends BaseTest {
         
         double expResult = 0.9995921505698557;
         double result = vm.getRSquare();
-        assertEquals(expResult, result, TestConfiguration.DOUBLE_ACCURACY_HIGH);
+        assertEquals(expResult, result, TestConfiguration.DOUBLE_ACCURACY_MEDIUM); //the gradients are summed in the order of the storage
         
         df.erase();
         instance.erase();
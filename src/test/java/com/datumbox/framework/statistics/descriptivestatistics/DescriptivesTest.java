@@ -102,6 +102,27 @@ public class DescriptivesTest extends BaseTest {
         assertEquals(expResult, result, TestConfiguration.DOUBLE_ACCURACY_HIGH);
     }
 
+    /**
+     * Test of sum, mean, min and max methods with arrays of values, of class Descriptives.
+     */
+    @Test
+    public void testArrays() {
+        logger.info("arrays");
+        FlatDataCollection flatDataCollection = generateFlatDataCollection();
+        flatDataCollection.add(null);
+        
+        double[] values = new double[flatDataCollection.size()];
+        int i = 0;
+        for(Object value : flatDataCollection) {
+            values[i++] = (value!=null)?(Double)value:Double.NaN;
+        }
+        
+        assertEquals(Descriptives.sum(flatDataCollection), Descriptives.sum(values), TestConfiguration.DOUBLE_ACCURACY_HIGH);
+        assertEquals(Descriptives.mean(flatDataCollection), Descriptives.mean(values), TestConfiguration.DOUBLE_ACCURACY_HIGH);
+        assertEquals(Descriptives.min(flatDataCollection), Descriptives.min(values), TestConfiguration.DOUBLE_ACCURACY_HIGH);
+        assertEquals(Descriptives.max(flatDataCollection), Descriptives.max(values), TestConfiguration.DOUBLE_ACCURACY_HIGH);
+    }
+
     /**
      * Test of max method, of class Descriptives.
      */
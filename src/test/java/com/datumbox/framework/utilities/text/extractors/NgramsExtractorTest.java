@@ -248,4 +248,46 @@ public class NgramsExtractorTest extends BaseTest {
         assertEquals(expResult, result, TestConfiguration.DOUBLE_ACCURACY_HIGH);
     }
     
+    /**
+     * Test of extractFeatures method with feature hashing, of class NgramsExtractor.
+     */
+    @Test
+    public void testExtractFeatures() {
+        logger.info("extractFeatures");
+        String text = "In publishing and graphic design, lorem ipsum is a placeholder text and used to demonstrate. In publishing and graphic design, lorem ipsum is a placeholder text and used to demonstrate.";
+        NgramsExtractor.Parameters parameters = new NgramsExtractor.Parameters();
+        NgramsExtractor instance = new NgramsExtractor(parameters);
+        
+        Map<String, Double> keywords = instance.extract(text);
+        assertEquals(keywords, instance.extractFeatures(text));
+        
+        double expResult = 0.0;
+        for(Double score : keywords.values()) {
+            expResult += score;
+        }
+        
+        parameters.setHashingBits(4);
+        for(boolean signedHashing : new boolean[]{false, true}) {
+            parameters.setSignedHashing(signedHashing);
+            
+            Map<Object, Object> features = instance.extractFeatures(text);
+            assertTrue(features.size()<=16);
+            
+            double result = 0.0;
+            for(Map.Entry<Object, Object> entry : features.entrySet()) {
+                int id = (Integer)entry.getKey();
+                assertTrue(id>=0 && id<16);
+                result += Math.abs((Double)entry.getValue());
+            }
+            
+            if(signedHashing) {
+                assertTrue(result<=expResult);
+            }
+            else {
+                assertEquals(expResult, result, TestConfiguration.DOUBLE_ACCURACY_HIGH);
+            }
+            assertEquals(features, instance.extractFeatures(text));
+        }
+    }
+    
 }
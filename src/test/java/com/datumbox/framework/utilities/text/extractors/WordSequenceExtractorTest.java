@@ -51,4 +51,24 @@ public class WordSequenceExtractorTest extends BaseTest {
         assertEquals(expResult, result);
     }
     
+    /**
+     * Test of extractFeatures method with feature hashing, of class WordSequenceExtractor.
+     */
+    @Test
+    public void testExtractFeatures() {
+        logger.info("extractFeatures");
+        String text = "this is a text sequence that is amazing text sequence";
+        WordSequenceExtractor.Parameters parameters = new WordSequenceExtractor.Parameters();
+        parameters.setHashingBits(10);
+        WordSequenceExtractor instance = new WordSequenceExtractor(parameters);
+        
+        Map<Object, Object> result = instance.extractFeatures(text);
+        assertEquals(10, result.size());
+        for(Object id : result.values()) {
+            assertTrue((Integer)id>=0 && (Integer)id<1024);
+        }
+        assertEquals(result.get(1), result.get(6));
+        assertEquals(result.get(3), result.get(8));
+    }
+    
 }
@@ -19,9 +19,11 @@ import com.datumbox.common.dataobjects.AssociativeArray;
 import com.datumbox.common.dataobjects.DataTable2D;
 import com.datumbox.common.dataobjects.Record;
 import com.datumbox.common.persistentstorage.ConfigurationFactory;
+import com.datumbox.common.persistentstorage.hybrid.HybridConfiguration;
 import com.datumbox.common.persistentstorage.inmemory.InMemoryConfiguration;
 import com.datumbox.common.persistentstorage.interfaces.DatabaseConfiguration;
 import com.datumbox.common.persistentstorage.mapdb.MapDBConfiguration;
+import com.datumbox.common.persistentstorage.mmap.MMapConfiguration;
 import com.datumbox.common.dataobjects.TypeInference;
 import com.datumbox.configuration.TestConfiguration;
 import java.io.BufferedInputStream;
@@ -154,6 +156,16 @@ public class TestUtils {
             dbConf.setOutputFolder(tmpFolder);
             return dbConf;
         }
+        else if (TestConfiguration.PERMANENT_STORAGE.equals(MMapConfiguration.class)) {
+            MMapConfiguration dbConf = (MMapConfiguration) ConfigurationFactory.MMAP.getConfiguration();
+            dbConf.setOutputFolder(tmpFolder);
+            return dbConf;
+        }
+        else if (TestConfiguration.PERMANENT_STORAGE.equals(HybridConfiguration.class)) {
+            HybridConfiguration dbConf = (HybridConfiguration) ConfigurationFactory.HYBRID.getConfiguration();
+            dbConf.setOutputFolder(tmpFolder);
+            return dbConf;
+        }
         return null;
     }
     